@@ -0,0 +1,75 @@
+package com.skayani.brickbreaker.benchmarks;
+
+import com.skayani.brickbreaker.BrickBreaker;
+import com.skayani.brickbreaker.simulation.GameSimulation;
+import com.skayani.brickbreaker.sprites.Ball;
+import com.skayani.brickbreaker.sprites.BrickManager;
+import com.skayani.brickbreaker.sprites.BrickStore;
+import com.skayani.brickbreaker.sprites.PhysicsEngine;
+import com.skayani.brickbreaker.sprites.PlayerBrick;
+
+import java.util.Random;
+
+/** BenchmarkFields class that builds deterministic play fields with a given number of bricks,
+ * so every benchmark run measures exactly the same layout.
+ */
+class BenchmarkFields {
+    // Seed for the brick colors so layouts are identical across runs
+    static final long SEED = 42;
+    // Empty space below the bricks that the ball and player brick move in
+    static final float OPEN_HEIGHT = 400;
+
+    private BenchmarkFields() {
+    }
+
+    /** Builds a game simulation whose play field is tiled with the given number of bricks,
+     * laid out in a roughly square block above an open area holding the ball and player brick.
+     *
+     * @param brickCount Integer representing the number of bricks
+     * @return GameSimulation class instance for the play field
+     */
+    static GameSimulation create(int brickCount) {
+        return create(brickCount, PhysicsEngine.Type.AABB);
+    }
+
+    /** Builds a game simulation like create(brickCount) whose ball is moved by the given
+     * physics backend.
+     *
+     * @param brickCount Integer representing the number of bricks
+     * @param physics PhysicsEngine.Type of the backend
+     * @return GameSimulation class instance for the play field
+     */
+    static GameSimulation create(int brickCount, PhysicsEngine.Type physics) {
+        int columns = Math.max(1, (int)Math.ceil(Math.sqrt(brickCount / 2.0)));
+        int rows = (brickCount + columns - 1) / columns;
+        float fieldWidth = Math.max(BrickBreaker.WIDTH, columns * BrickStore.BRICK_WIDTH);
+        float fieldHeight = OPEN_HEIGHT + rows * BrickStore.BRICK_HEIGHT;
+
+        Ball ball = new Ball((int)(fieldWidth / 2), 60);
+        PlayerBrick playerBrick = new PlayerBrick((int)(fieldWidth / 2), 0, fieldWidth);
+        BrickManager brickManager = new BrickManager(ball, fieldWidth, fieldHeight);
+        brickManager.setPhysics(physics);
+        int colors = brickManager.getBrickColors().size;
+        Random random = new Random(SEED);
+        for (int i = 0; i < brickCount; i++) {
+            brickManager.addBrick((i % columns) * BrickStore.BRICK_WIDTH,
+                    OPEN_HEIGHT + (i / columns) * BrickStore.BRICK_HEIGHT,
+                    random.nextInt(colors));
+        }
+        return new GameSimulation(ball, playerBrick, brickManager, 0);
+    }
+
+    /** Returns the input that moves the player brick under the ball, so benchmark games keep
+     * running instead of ending when the ball is missed.
+     *
+     * @param simulation GameSimulation class instance
+     * @return Float representing the player brick input
+     */
+    static float autopilot(GameSimulation simulation) {
+        Ball ball = simulation.getBall();
+        PlayerBrick playerBrick = simulation.getPlayerBrick();
+        float ballCenter = ball.getPosition().x + Ball.SIZE / 2;
+        float playerBrickCenter = playerBrick.getPosition().x + PlayerBrick.WIDTH / 2;
+        return ballCenter < playerBrickCenter ? 1 : -1;
+    }
+}
@@ -0,0 +1,54 @@
+package com.skayani.brickbreaker.benchmarks;
+
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.simulation.GameSimulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures generating each LevelGenerator pattern and one 60 Hz simulation frame on the
+ * generated level, at different brick counts.  Levels use a fixed seed, so every run measures
+ * the same layouts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeneratedLevelBenchmark {
+    @Param({"GRID", "PYRAMID", "NOISE", "MAZE"})
+    public LevelGenerator.Pattern pattern;
+
+    @Param({"64", "4096", "100000"})
+    public int brickCount;
+
+    private LevelGenerator generator;
+    private GameSimulation simulation;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        generator = new LevelGenerator(BenchmarkFields.SEED, pattern, brickCount);
+        simulation = new GameSimulation(generator);
+    }
+
+    @Benchmark
+    public GameSimulation generate() {
+        return new GameSimulation(generator);
+    }
+
+    @Benchmark
+    public int tick() {
+        if (simulation.isOver()) {
+            simulation = new GameSimulation(generator);
+        }
+        simulation.update(1 / 60f, BenchmarkFields.autopilot(simulation));
+        return simulation.getPlayerScore();
+    }
+}
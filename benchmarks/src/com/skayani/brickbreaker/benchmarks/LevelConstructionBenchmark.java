@@ -0,0 +1,29 @@
+package com.skayani.brickbreaker.benchmarks;
+
+import com.skayani.brickbreaker.simulation.GameSimulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures building a level: creating the bricks and inserting them into the broadphase grid,
+ * at different brick counts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LevelConstructionBenchmark {
+    @Param({"16", "256", "4096", "100000"})
+    public int brickCount;
+
+    @Benchmark
+    public GameSimulation buildField() {
+        return BenchmarkFields.create(brickCount);
+    }
+}
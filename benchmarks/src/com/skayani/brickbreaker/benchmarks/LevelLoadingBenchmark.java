@@ -0,0 +1,87 @@
+package com.skayani.brickbreaker.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.skayani.brickbreaker.levels.LevelLoader;
+import com.skayani.brickbreaker.levels.LevelWriter;
+import com.skayani.brickbreaker.sprites.Ball;
+import com.skayani.brickbreaker.sprites.BrickManager;
+import com.skayani.brickbreaker.sprites.BrickStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/** Measures loading a level file into a new BrickManager from the JSON and the binary level
+ * formats, at different brick counts.  The files are written to a temporary directory once per
+ * trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LevelLoadingBenchmark {
+    @Param({"16", "256", "4096", "100000"})
+    public int brickCount;
+
+    private FileHandle jsonLevel;
+    private FileHandle binaryLevel;
+    private Ball ball;
+
+    @Setup(Level.Trial)
+    public void writeLevels() throws IOException {
+        File directory = File.createTempFile("levels", "");
+        directory.delete();
+        directory.mkdirs();
+        jsonLevel = new FileHandle(new File(directory, "level" + LevelLoader.JSON_EXTENSION));
+        binaryLevel = new FileHandle(new File(directory, "level"
+                + LevelLoader.BINARY_EXTENSION));
+        ball = new Ball(240, 60);
+
+        int columns = Math.max(1, (int)Math.ceil(Math.sqrt(brickCount / 2.0)));
+        int rows = (brickCount + columns - 1) / columns;
+        float width = columns * BrickStore.BRICK_WIDTH;
+        float height = BenchmarkFields.OPEN_HEIGHT + rows * BrickStore.BRICK_HEIGHT;
+        Writer json = jsonLevel.writer(false, "UTF-8");
+        json.write("{\"version\": 1, \"width\": " + width + ", \"height\": " + height
+                + ", \"bricks\": [");
+        for (int i = 0; i < brickCount; i++) {
+            json.write(i == 0 ? "\n" : ",\n");
+            json.write("[" + (i % columns) * BrickStore.BRICK_WIDTH + ", "
+                    + (BenchmarkFields.OPEN_HEIGHT + (i / columns) * BrickStore.BRICK_HEIGHT)
+                    + ", " + i % 7 + "]");
+        }
+        json.write("\n]}\n");
+        json.close();
+
+        OutputStream binary = binaryLevel.write(false);
+        LevelLoader.read(jsonLevel, new LevelWriter(binary));
+        binary.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteLevels() {
+        jsonLevel.parent().deleteDirectory();
+    }
+
+    @Benchmark
+    public BrickManager loadJson() {
+        return LevelLoader.load(jsonLevel, ball);
+    }
+
+    @Benchmark
+    public BrickManager loadBinary() {
+        return LevelLoader.load(binaryLevel, ball);
+    }
+}
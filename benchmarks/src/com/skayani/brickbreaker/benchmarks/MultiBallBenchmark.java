@@ -0,0 +1,49 @@
+package com.skayani.brickbreaker.benchmarks;
+
+import com.skayani.brickbreaker.simulation.GameSimulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures one 60 Hz simulation frame with many extra balls in play, on one thread and on the
+ * fork/join pool.  Balls that fall out are replaced before each frame so the ball count stays
+ * constant; a cleared field is rebuilt.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MultiBallBenchmark {
+    @Param({"100", "1000", "5000"})
+    public int ballCount;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private GameSimulation simulation;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        simulation = BenchmarkFields.create(4096);
+        simulation.getBrickManager().setParallelBalls(parallel);
+        simulation.spawnBalls(ballCount);
+    }
+
+    @Benchmark
+    public int frame() {
+        if (simulation.isOver()) {
+            setUp();
+        }
+        simulation.spawnBalls(ballCount - simulation.getBalls().getCount());
+        simulation.update(1 / 60f, BenchmarkFields.autopilot(simulation));
+        return simulation.getPlayerScore();
+    }
+}
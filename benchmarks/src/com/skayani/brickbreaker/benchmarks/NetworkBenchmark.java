@@ -0,0 +1,93 @@
+package com.skayani.brickbreaker.benchmarks;
+
+import com.skayani.brickbreaker.network.GameClient;
+import com.skayani.brickbreaker.network.GameServer;
+import com.skayani.brickbreaker.network.LocalConnection;
+import com.skayani.brickbreaker.simulation.GameSimulation;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures one GameServer tick (a simulation step plus a snapshot for every client every
+ * other tick) together with the polls of a player and three spectators on local connections,
+ * and counts the snapshot bytes sent to them, on play fields of growing brick counts.  Both
+ * should stay flat.  A finished game is rebuilt.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NetworkBenchmark {
+    private static final int CLIENTS = 4;
+
+    @Param({"256", "4096", "65536"})
+    public int brickCount;
+
+    private GameSimulation simulation;
+    private GameServer server;
+    private GameClient[] clients;
+
+    /** Snapshot bytes and snapshots sent per iteration, over all clients.
+     *
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Traffic {
+        public long bytes;
+        public long snapshots;
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        simulation = BenchmarkFields.create(brickCount);
+        server = new GameServer(simulation);
+        clients = new GameClient[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            LocalConnection[] connection = LocalConnection.pair();
+            server.addClient(connection[0], i == 0);
+            clients[i] = new GameClient(connection[1]);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        server.dispose();
+        simulation.dispose();
+    }
+
+    @Benchmark
+    public int tick(Traffic traffic) {
+        if (simulation.isOver()) {
+            tearDown();
+            setUp();
+        }
+        clients[0].setInput(BenchmarkFields.autopilot(simulation));
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i].poll();
+        }
+        long bytes = 0;
+        long snapshots = 0;
+        for (int i = 0; i < server.getClients().size; i++) {
+            bytes -= server.getClients().get(i).getBytesSent();
+            snapshots -= server.getClients().get(i).getSnapshotsSent();
+        }
+        server.tick(0);
+        for (int i = 0; i < server.getClients().size; i++) {
+            bytes += server.getClients().get(i).getBytesSent();
+            snapshots += server.getClients().get(i).getSnapshotsSent();
+        }
+        traffic.bytes += bytes;
+        traffic.snapshots += snapshots;
+        return server.getSequence();
+    }
+}
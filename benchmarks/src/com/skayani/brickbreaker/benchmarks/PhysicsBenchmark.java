@@ -0,0 +1,61 @@
+package com.skayani.brickbreaker.benchmarks;
+
+import com.skayani.brickbreaker.simulation.GameSimulation;
+import com.skayani.brickbreaker.sprites.PhysicsEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/** Compares the AABB and Box2D physics backends on the same play fields: one 60 Hz simulation
+ * frame, and building the play field including the backend's brick bodies.  A finished game is
+ * rebuilt.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PhysicsBenchmark {
+    @Param({"AABB", "BOX2D"})
+    public PhysicsEngine.Type physics;
+
+    @Param({"16", "256", "4096"})
+    public int brickCount;
+
+    private GameSimulation simulation;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        simulation = BenchmarkFields.create(brickCount, physics);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        simulation.dispose();
+    }
+
+    @Benchmark
+    public int frame() {
+        if (simulation.isOver()) {
+            tearDown();
+            setUp();
+        }
+        simulation.update(1 / 60f, BenchmarkFields.autopilot(simulation));
+        return simulation.getPlayerScore();
+    }
+
+    @Benchmark
+    public int build() {
+        GameSimulation built = BenchmarkFields.create(brickCount, physics);
+        built.dispose();
+        return built.getBrickManager().getRemainingBricks();
+    }
+}
@@ -0,0 +1,43 @@
+package com.skayani.brickbreaker.benchmarks;
+
+import com.skayani.brickbreaker.simulation.GameSimulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures the simulation work of one PlayState.update call on a 60 Hz frame (two fixed steps
+ * of player brick movement and ball collision) at different brick counts.  The player brick is
+ * steered under the ball so the game keeps going; a finished game is rebuilt.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SimulationTickBenchmark {
+    @Param({"16", "256", "4096", "100000"})
+    public int brickCount;
+
+    private GameSimulation simulation;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        simulation = BenchmarkFields.create(brickCount);
+    }
+
+    @Benchmark
+    public int tick() {
+        if (simulation.isOver()) {
+            setUp();
+        }
+        simulation.update(1 / 60f, BenchmarkFields.autopilot(simulation));
+        return simulation.getPlayerScore();
+    }
+}
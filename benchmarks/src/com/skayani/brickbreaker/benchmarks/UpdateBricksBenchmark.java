@@ -0,0 +1,47 @@
+package com.skayani.brickbreaker.benchmarks;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.skayani.brickbreaker.simulation.GameSimulation;
+import com.skayani.brickbreaker.sprites.BrickManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures one BrickManager.updateBricks call (ball sweep, broadphase query and brick removal)
+ * at different brick counts.  The ball bounces off a floor as wide as the play field so the
+ * measured game never ends; a cleared field is rebuilt.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UpdateBricksBenchmark {
+    @Param({"16", "256", "4096", "100000"})
+    public int brickCount;
+
+    private BrickManager brickManager;
+    private Rectangle floor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        brickManager = BenchmarkFields.create(brickCount).getBrickManager();
+        floor = new Rectangle(0, 0, brickManager.getFieldWidth(), 19);
+    }
+
+    @Benchmark
+    public int updateBricks() {
+        if (brickManager.getRemainingBricks() == 0) {
+            setUp();
+        }
+        brickManager.updateBricks(GameSimulation.STEP_TIME, floor);
+        return brickManager.getRemainingBricks();
+    }
+}
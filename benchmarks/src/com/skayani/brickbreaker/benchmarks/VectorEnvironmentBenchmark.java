@@ -0,0 +1,72 @@
+package com.skayani.brickbreaker.benchmarks;
+
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.simulation.VectorEnvironment;
+import com.skayani.brickbreaker.sprites.Ball;
+import com.skayani.brickbreaker.sprites.PlayerBrick;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures environment steps per second of a VectorEnvironment of 1024 games on a generated
+ * level: every operation observes all games, steers each player brick under its ball and steps
+ * all games once, on one thread and on every core.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VectorEnvironmentBenchmark {
+    private static final int GAMES = 1024;
+
+    @Param({"1", "0"})
+    public int threads;
+
+    private VectorEnvironment environment;
+    private float[] states;
+    private byte[] brickMasks;
+    private float[] actions;
+    private float[] rewards;
+    private boolean[] dones;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int threadCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        environment = new VectorEnvironment(GAMES, new LevelGenerator(BenchmarkFields.SEED,
+                LevelGenerator.Pattern.GRID, 64), threadCount);
+        states = new float[GAMES * VectorEnvironment.STATE_SIZE];
+        brickMasks = new byte[GAMES * environment.getBrickCount()];
+        actions = new float[GAMES];
+        rewards = new float[GAMES];
+        dones = new boolean[GAMES];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.dispose();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public float step() {
+        environment.observe(states, brickMasks);
+        for (int i = 0; i < GAMES; i++) {
+            int offset = i * VectorEnvironment.STATE_SIZE;
+            float ball = states[offset + VectorEnvironment.BALL_X];
+            float playerBrick = states[offset + VectorEnvironment.PLAYER_BRICK_X];
+            actions[i] = ball + Ball.SIZE / 2 < playerBrick + PlayerBrick.WIDTH / 2 ? 1 : -1;
+        }
+        environment.step(actions, rewards, dones);
+        return rewards[0];
+    }
+}
@@ -1,11 +1,20 @@
 package com.skayani.brickbreaker;
 
+import com.badlogic.gdx.Application;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.skayani.brickbreaker.simulation.SaveGame;
 import com.skayani.brickbreaker.states.GameStateManager;
-import com.skayani.brickbreaker.states.MenuState;
+import com.skayani.brickbreaker.states.LoadingState;
+import com.skayani.brickbreaker.states.PlayState;
+import com.skayani.brickbreaker.stats.StatsOverlay;
 
 /** BrickBreaker class that initializes the GameStateManager and SpriteBatch class instances
  *
@@ -13,9 +22,45 @@ import com.skayani.brickbreaker.states.MenuState;
 public class BrickBreaker extends ApplicationAdapter {
     public static final int WIDTH = 480;
     public static final int HEIGHT = 800;
+	// Local file the startup time of every launch is appended to
+	public static final String STARTUP_LOG = "stats/startup.csv";
+
+	// Time the game classes were loaded, close to the process launch, in milliseconds
+	private static long launchTime = TimeUtils.millis();
 
     SpriteBatch batch;
 	private GameStateManager gsm;
+	// SpriteBatch flushes (draw calls) issued while rendering the last frame
+	private int frameRenderCalls;
+	private int lastTotalRenderCalls;
+	// Frame statistics drawn over the game states, toggled with F3 or a three finger tap
+	private StatsOverlay statsOverlay;
+	// Absolute path of an input recording to replay on start, or null to show the menu
+	private String replayPath;
+
+	/** BrickBreaker constructor that starts the game at the main menu.
+	 *
+	 */
+	public BrickBreaker() {
+	}
+
+	/** BrickBreaker constructor that starts the game by replaying an input recording, for
+	 * example to watch a game written to PlayState.LAST_REPLAY.
+	 *
+	 * @param replayPath Absolute path of the recording file
+	 */
+	public BrickBreaker(String replayPath) {
+		this.replayPath = replayPath;
+	}
+
+	/** Returns the number of draw calls the SpriteBatch issued while rendering the last frame.
+	 * Scene2d stages use their own batch and are not included.
+	 *
+	 * @return Integer representing the SpriteBatch render calls of the last frame
+	 */
+	public int getFrameRenderCalls() {
+		return frameRenderCalls;
+	}
 
     /** Method initializes the SpriteBatch (batch) and GameStateManager (gsm) member variables.
      *
@@ -24,27 +69,179 @@ public class BrickBreaker extends ApplicationAdapter {
 	public void create () {
 		batch = new SpriteBatch();
 		gsm = new GameStateManager();
+		statsOverlay = new StatsOverlay(gsm.stats, gsm.assets);
 		Gdx.gl.glClearColor(0, 0, 0, 0);
         gsm.incSize();
-        gsm.push(new MenuState(gsm));
+		SaveGame.deletePartial(Gdx.files.local(PlayState.RESUME_SAVE));
+		if (replayPath != null) {
+			gsm.push(LoadingState.replay(gsm, Gdx.files.absolute(replayPath)));
+		}
+		else if (Gdx.files.local(PlayState.RESUME_SAVE).exists()) {
+			gsm.push(LoadingState.resume(gsm, Gdx.files.local(PlayState.RESUME_SAVE)));
+		}
+		else {
+			gsm.push(LoadingState.startup(gsm));
+		}
 	}
 
     /** Method that clears the screen and passes the delta time to the MenuState game state
-     * within the gsm stack data structure.
+     * within the gsm stack data structure.  The update and render times of the state are
+     * recorded in the frame statistics, which are drawn on top when the overlay is shown.
      */
 	@Override
 	public void render () {
+		handleStatsInput();
+		float delta = Gdx.graphics.getDeltaTime();
+		Class<?> state = gsm.getCurrentState().getClass();
+		gsm.stats.beginFrame();
 
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
-		gsm.update(Gdx.graphics.getDeltaTime());
+		long start = TimeUtils.nanoTime();
+		gsm.update(delta);
+		long updated = TimeUtils.nanoTime();
 		gsm.render(batch);
+		long rendered = TimeUtils.nanoTime();
+		frameRenderCalls = batch.totalRenderCalls - lastTotalRenderCalls;
+		gsm.stats.endFrame(state, delta, updated - start, rendered - updated, frameRenderCalls);
+
+		if (gsm.stats.getStartupTime() < 0 && !(gsm.getCurrentState() instanceof LoadingState)) {
+			recordStartupTime(TimeUtils.millis() - launchTime);
+		}
+
+		statsOverlay.render(batch, delta);
+		if (statsOverlay.isVisible()) {
+			// Keep the overlay live while a menu has continuous rendering off
+			Gdx.graphics.requestRendering();
+		}
+		lastTotalRenderCalls = batch.totalRenderCalls;
+	}
+
+	/** Records the time from launch to the first frame rendered after loading, in the frame
+	 * statistics and in STARTUP_LOG, one "launch time,startup ms" row per launch.  The row is
+	 * appended on the GameStateManager's file writer thread, so the measured frame does not
+	 * wait on storage.
+	 *
+	 */
+	private void recordStartupTime(long millis) {
+		gsm.stats.setStartupTime(millis);
+		Gdx.app.log("BrickBreaker", "Interactive " + millis + " ms after launch");
+		final String row = launchTime + "," + millis + "\n";
+		gsm.fileWriter.submit(new AsyncTask<Void>() {
+			@Override
+			public Void call() {
+				try {
+					Gdx.files.local(STARTUP_LOG).writeString(row, true);
+				}
+				catch (GdxRuntimeException e) {
+					// Local storage is not available on every backend
+					Gdx.app.error("BrickBreaker", "Could not write " + STARTUP_LOG, e);
+				}
+				return null;
+			}
+		});
+	}
+
+	/** Returns the overlay showing the frame statistics.
+	 *
+	 * @return StatsOverlay class instance
+	 */
+	public StatsOverlay getStatsOverlay() {
+		return statsOverlay;
+	}
+
+	/** Writes the frame statistics to a CSV file in local storage, to attach to performance
+	 * bug reports.
+	 *
+	 * @return FileHandle of the written file
+	 */
+	public FileHandle dumpFrameStats() {
+		FileHandle file = Gdx.files.local("stats/frames-" + TimeUtils.millis() + ".csv");
+		gsm.stats.writeCsv(file);
+		Gdx.app.log("BrickBreaker", "Frame statistics written to " + file.path());
+		return file;
+	}
+
+	/** Toggles the statistics overlay with F3 or a tap with three fingers, and dumps the
+	 * statistics with F4.
+	 *
+	 */
+	private void handleStatsInput() {
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F3)
+				|| (Gdx.input.justTouched() && Gdx.input.isTouched(2))) {
+			statsOverlay.setVisible(!statsOverlay.isVisible());
+		}
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F4)) {
+			dumpFrameStats();
+		}
+	}
+
+    /** Method called when the game loses focus or is sent to the background, and before it is
+     * closed.  On phones the game is in the background and may be killed to free memory, so
+     * the cached menu states, which are rebuilt on demand, are evicted; on the desktop this is
+     * called whenever the window loses focus, so they are kept.  The game in progress is saved
+     * so it can be resumed on the next launch.
+     */
+	@Override
+	public void pause () {
+		Application.ApplicationType type = Gdx.app.getType();
+		if (type == Application.ApplicationType.Android
+				|| type == Application.ApplicationType.iOS) {
+			gsm.evictCache();
+		}
+		saveGame();
+	}
+
+	/** Saves the game in progress to PlayState.RESUME_SAVE, or deletes the save if no game is
+	 * in progress.  The snapshot is taken on the render thread, which only copies the game
+	 * state; the file is written on the GameStateManager's file writer thread.  Saves are left
+	 * alone while a state is loading, since that may be resuming the save.
+	 *
+	 */
+	private void saveGame() {
+		if (gsm.getCurrentState() instanceof LoadingState) {
+			return;
+		}
+		PlayState playState = gsm.find(PlayState.class);
+		final SaveGame save = playState != null ? playState.save() : null;
+		final FileHandle file = Gdx.files.local(PlayState.RESUME_SAVE);
+		gsm.fileWriter.submit(new AsyncTask<Void>() {
+			@Override
+			public Void call() {
+				try {
+					if (save != null) {
+						save.write(file);
+					}
+					else if (file.exists()) {
+						file.delete();
+					}
+				}
+				catch (GdxRuntimeException e) {
+					// Local storage is not available on every backend
+					Gdx.app.error("BrickBreaker", "Could not write " + PlayState.RESUME_SAVE,
+							e);
+				}
+				return null;
+			}
+		});
+	}
+
+    /** Method called when the game returns from the background, so the current state can
+     * redraw GL resources that lost their contents.
+     */
+	@Override
+	public void resume () {
+		gsm.resume();
 	}
 
-    /** Method that deallocates the SpriteBatch member variable sb.
+    /** Method that deallocates the game states, their shared assets and the SpriteBatch member
+     * variable sb.
      *
      */
 	@Override
 	public void dispose () {
+		statsOverlay.dispose();
+		// Also waits for a save started by the last pause to be written
+		gsm.dispose();
 		batch.dispose();
 	}
 }
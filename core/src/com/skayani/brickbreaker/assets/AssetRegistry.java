@@ -0,0 +1,317 @@
+package com.skayani.brickbreaker.assets;
+
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.SkinLoader;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/** AssetRegistry class that shares textures, skins and fonts between sprites and game states.
+ * Every get call adds a reference to the asset and every release call removes one; an asset is
+ * only read from disk when its first reference is taken and only disposed when its last
+ * reference is released.  The references are counted here, so they are taken at once; the
+ * AssetManager holds one reference per asset while the registry holds any.  Because a new state
+ * is created before the old one is disposed, assets used by both (such as the menu background)
+ * stay loaded across state changes.
+ *
+ * Assets can also be preloaded: preload queues an asset and update loads the queue a few
+ * milliseconds at a time, decoding images and sounds on the AssetManager's background thread,
+ * so a loading screen can keep drawing.  Getting a preloaded asset then returns at once.
+ */
+public class AssetRegistry {
+    // Asset paths used by the game states
+    public static final String MENU_BACKGROUND = "backgrounds/main_menu_background.jpg";
+    public static final String PLAY_BACKGROUND = "backgrounds/play_state_background.jpg";
+    public static final String SKIN = "skin/glassy-ui.json";
+    // Atlas packed at build time by the desktop packTextures task, and its region names
+    public static final String SPRITES_ATLAS = "sprites.atlas";
+    public static final String BALL_REGION = "redball";
+    public static final String PLAYER_BRICK_REGION = "playerbrick";
+    public static final String PAUSE_BUTTON_REGION = "pause_button";
+    public static final String BRICKS_DIRECTORY = "bricks/";
+    public static final String PLAY_MUSIC = "sounds/play_state_music.ogg";
+    public static final String BRICK_HIT_SOUND = "sounds/score_sound.mp3";
+
+    private AssetManager manager;
+    // References taken by get and preload calls and not released yet, by asset path
+    private ObjectIntMap<String> references;
+
+    // The default libGDX font is not loaded from a file, so it is reference counted here
+    private BitmapFont font;
+    private int fontReferences;
+
+    // Number of textures uploaded to the GPU since the registry was created
+    private int textureUploads;
+    private Array<Texture> loadedTextures;
+
+    /** AssetRegistry constructor that creates the underlying AssetManager.
+     *
+     */
+    public AssetRegistry() {
+        manager = new AssetManager();
+        references = new ObjectIntMap<String>();
+        loadedTextures = new Array<Texture>();
+    }
+
+    /** Returns the texture at the given path, loading it if it is not already loaded.
+     *
+     * @param path String representing the internal path of the image
+     * @return Texture class instance shared by every holder of the path
+     */
+    public Texture getTexture(String path) {
+        acquire(path, Texture.class, null);
+        return manager.get(path, Texture.class);
+    }
+
+    /** Returns the texture atlas at the given path.
+     *
+     * @param path String representing the internal path of the atlas file
+     * @return TextureAtlas class instance shared by every holder of the path
+     */
+    public TextureAtlas getAtlas(String path) {
+        acquire(path, TextureAtlas.class, null);
+        return manager.get(path, TextureAtlas.class);
+    }
+
+    /** Returns the name of the sprites atlas region holding the brick image with the given
+     * color name.
+     *
+     * @param brickColor String representing the brick color image (for example "BlueBrick.png")
+     * @return String representing the region name (for example "bricks/BlueBrick")
+     */
+    public static String brickRegion(String brickColor) {
+        int extension = brickColor.lastIndexOf('.');
+        return BRICKS_DIRECTORY + (extension < 0 ? brickColor : brickColor.substring(0, extension));
+    }
+
+    /** Returns the UI skin at the given path along with its texture atlas.
+     *
+     * @param path String representing the internal path of the skin json file
+     * @return Skin class instance shared by every holder of the path
+     */
+    public Skin getSkin(String path) {
+        acquire(path, Skin.class, parameters(path, Skin.class));
+        return manager.get(path, Skin.class);
+    }
+
+    /** Returns the music at the given path.  Music is streamed while it plays, so loading it
+     * only opens the file.
+     *
+     * @param path String representing the internal path of the music file
+     * @return Music class instance shared by every holder of the path
+     */
+    public Music getMusic(String path) {
+        acquire(path, Music.class, null);
+        return manager.get(path, Music.class);
+    }
+
+    /** Returns the sound sample at the given path, decoded into memory.
+     *
+     * @param path String representing the internal path of the sound file
+     * @return Sound class instance shared by every holder of the path
+     */
+    public Sound getSound(String path) {
+        acquire(path, Sound.class, null);
+        return manager.get(path, Sound.class);
+    }
+
+    /** Queues an asset to be loaded by update, adding a reference to it that the caller
+     * releases once it no longer needs the asset preloaded.
+     *
+     * @param path String representing the internal path of the asset
+     * @param type Class of the asset, for example Texture.class or Skin.class
+     */
+    public <T> void preload(String path, Class<T> type) {
+        if (references.getAndIncrement(path, 0, 1) == 0) {
+            manager.load(path, type, parameters(path, type));
+        }
+    }
+
+    /** Loads queued assets for about the given time.
+     *
+     * @param millis Integer representing the time to spend loading in milliseconds
+     * @return Boolean that is true once every queued asset is loaded
+     */
+    public boolean update(int millis) {
+        int texturesBefore = countTextures();
+        boolean done = manager.update(millis);
+        textureUploads += Math.max(0, countTextures() - texturesBefore);
+        return done;
+    }
+
+    /** Returns how much of the queued assets is loaded.
+     *
+     * @return Float between 0 and 1
+     */
+    public float getProgress() {
+        return manager.getProgress();
+    }
+
+    /** Returns the default libGDX font.
+     *
+     * @return BitmapFont class instance shared by every state
+     */
+    public BitmapFont getFont() {
+        if (fontReferences == 0) {
+            font = new BitmapFont();
+            textureUploads += font.getRegions().size;
+        }
+        fontReferences += 1;
+        return font;
+    }
+
+    /** Releases a reference to the asset at the given path, disposing the asset once no
+     * references are left.
+     *
+     * @param path String representing the internal path of the asset
+     */
+    public void release(String path) {
+        int count = references.get(path, 0);
+        if (count == 0) {
+            return;
+        }
+        if (count > 1) {
+            references.put(path, count - 1);
+        }
+        else {
+            references.remove(path, 0);
+            manager.unload(path);
+        }
+    }
+
+    /** Releases a reference to the default font, disposing it once no references are left.
+     *
+     */
+    public void releaseFont() {
+        if (fontReferences == 0) {
+            return;
+        }
+        fontReferences -= 1;
+        if (fontReferences == 0) {
+            font.dispose();
+            font = null;
+        }
+    }
+
+    /** Returns the number of textures uploaded to the GPU since the registry was created.  This
+     * only grows when an image is read from disk, so it shows whether state changes and level
+     * loads are reusing loaded images.
+     *
+     * @return Integer representing the number of texture uploads
+     */
+    public int getTextureUploads() {
+        return textureUploads;
+    }
+
+    /** Returns the number of assets currently loaded, including skin atlases and their pages.
+     *
+     * @return Integer representing the number of loaded assets
+     */
+    public int getLoadedAssets() {
+        return manager.getLoadedAssets() + (font != null ? 1 : 0);
+    }
+
+    /** Returns an estimate of the GPU memory used by the currently loaded textures.
+     *
+     * @return Long representing the texture memory in bytes
+     */
+    public long getTextureMemory() {
+        long bytes = 0;
+        manager.getAll(Texture.class, loadedTextures);
+        for (Texture texture : loadedTextures) {
+            bytes += textureBytes(texture);
+        }
+        loadedTextures.clear();
+        if (font != null) {
+            for (int i = 0; i < font.getRegions().size; i++) {
+                bytes += textureBytes(font.getRegions().get(i).getTexture());
+            }
+        }
+        return bytes;
+    }
+
+    /** Disposes every loaded asset.  Called when the game is closed.
+     *
+     */
+    public void dispose() {
+        manager.dispose();
+        references.clear();
+        if (font != null) {
+            font.dispose();
+            font = null;
+            fontReferences = 0;
+        }
+    }
+
+    /** Adds a reference to the asset, loading it first if it is not loaded yet, and counts the
+     * textures that loading it uploaded (an atlas or skin can upload several).  An asset that
+     * is only queued by a preload is finished at once.
+     *
+     */
+    private <T> void acquire(String path, Class<T> type, AssetLoaderParameters<T> parameters) {
+        if (references.getAndIncrement(path, 0, 1) == 0) {
+            manager.load(path, type, parameters);
+        }
+        if (!manager.isLoaded(path)) {
+            int texturesBefore = countTextures();
+            manager.finishLoadingAsset(path);
+            textureUploads += Math.max(0, countTextures() - texturesBefore);
+        }
+    }
+
+    /** Returns the loader parameters of an asset: skins are loaded with the atlas next to
+     * their json file.
+     *
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> AssetLoaderParameters<T> parameters(String path, Class<T> type) {
+        if (type == Skin.class) {
+            return (AssetLoaderParameters<T>)new SkinLoader.SkinParameter(
+                    path.replace(".json", ".atlas"));
+        }
+        return null;
+    }
+
+    /** Returns the number of textures currently loaded by the AssetManager.
+     *
+     */
+    private int countTextures() {
+        manager.getAll(Texture.class, loadedTextures);
+        int count = loadedTextures.size;
+        loadedTextures.clear();
+        return count;
+    }
+
+    /** Returns the approximate number of bytes used by a texture on the GPU.
+     *
+     */
+    private static long textureBytes(Texture texture) {
+        int bytesPerPixel;
+        Pixmap.Format format = texture.getTextureData().getFormat();
+        switch (format) {
+            case Alpha:
+            case Intensity:
+                bytesPerPixel = 1;
+                break;
+            case LuminanceAlpha:
+            case RGB565:
+            case RGBA4444:
+                bytesPerPixel = 2;
+                break;
+            case RGB888:
+                bytesPerPixel = 3;
+                break;
+            default:
+                bytesPerPixel = 4;
+                break;
+        }
+        return (long)texture.getWidth() * texture.getHeight() * bytesPerPixel;
+    }
+}
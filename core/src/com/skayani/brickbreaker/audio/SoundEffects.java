@@ -0,0 +1,201 @@
+package com.skayani.brickbreaker.audio;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.skayani.brickbreaker.assets.AssetRegistry;
+
+import java.util.Arrays;
+
+/** SoundEffects class that plays the game's short sound effects from samples decoded into
+ * memory when the game starts, so an effect starts playing as soon as it is triggered instead
+ * of waiting for a stream to be opened and decoded.
+ *
+ * Effects play on a fixed pool of MAX_VOICES voices, reused oldest first: when every voice is
+ * busy the oldest one is stopped to make room (voice stealing).  Plays of the same effect that
+ * come closer together than MIN_INTERVAL are merged into one, so dozens of bricks breaking in
+ * one frame play a single hit instead of flooding the mixer.  The volume and mute settings are
+ * kept here and applied to the playing voices only when they change.
+ */
+public class SoundEffects {
+    // Effect ids, indexes into PATHS
+    public static final int BRICK_HIT = 0;
+    private static final String[] PATHS = {
+            AssetRegistry.BRICK_HIT_SOUND
+    };
+
+    // Most effects playing at once; lower than the 16 voices of the desktop and Android mixers
+    public static final int MAX_VOICES = 8;
+    // Plays of the same effect closer together than this (in nanoseconds) are merged
+    public static final long MIN_INTERVAL = 30 * 1000000L;
+
+    private AssetRegistry assets;
+    private Sound[] sounds;
+    // Time each effect was last played, in nanoseconds
+    private long[] lastPlayed;
+
+    // Voice pool: the sound and id of each voice, or -1 for a voice that was never used
+    private Sound[] voiceSounds;
+    private long[] voiceIds;
+    // Voice used by the next play, which is always the oldest voice
+    private int nextVoice;
+
+    private float volume;
+    private boolean muted;
+
+    // Plays requested, plays merged into an earlier play and voices stopped to make room
+    private int playCount;
+    private int mergedCount;
+    private int stolenCount;
+
+    /** SoundEffects constructor that takes every effect sample from the asset registry,
+     * loading the samples that were not preloaded.
+     *
+     * @param assets AssetRegistry class instance holding the samples
+     */
+    public SoundEffects(AssetRegistry assets) {
+        this.assets = assets;
+        sounds = new Sound[PATHS.length];
+        for (int i = 0; i < PATHS.length; i++) {
+            sounds[i] = assets.getSound(PATHS[i]);
+        }
+        lastPlayed = new long[PATHS.length];
+        Arrays.fill(lastPlayed, Long.MIN_VALUE / 2);
+        voiceSounds = new Sound[MAX_VOICES];
+        voiceIds = new long[MAX_VOICES];
+        Arrays.fill(voiceIds, -1);
+        volume = 1;
+    }
+
+    /** Plays an effect unless the effects are muted or the same effect was played less than
+     * MIN_INTERVAL ago.
+     *
+     * @param effect Integer representing the effect id, for example BRICK_HIT
+     * @return Boolean that is true if the effect started playing
+     */
+    public boolean play(int effect) {
+        playCount += 1;
+        if (muted || volume == 0) {
+            return false;
+        }
+        long now = TimeUtils.nanoTime();
+        if (now - lastPlayed[effect] < MIN_INTERVAL) {
+            mergedCount += 1;
+            return false;
+        }
+        lastPlayed[effect] = now;
+
+        int voice = nextVoice;
+        nextVoice = (nextVoice + 1) % MAX_VOICES;
+        if (voiceIds[voice] != -1) {
+            // Stopping a voice that has already finished does nothing
+            voiceSounds[voice].stop(voiceIds[voice]);
+            stolenCount += 1;
+        }
+        voiceSounds[voice] = sounds[effect];
+        voiceIds[voice] = sounds[effect].play(volume);
+        return voiceIds[voice] != -1;
+    }
+
+    /** Sets the volume of the effects, changing the playing voices as well.
+     *
+     * @param volume Float between 0 and 1
+     */
+    public void setVolume(float volume) {
+        volume = MathUtils.clamp(volume, 0, 1);
+        if (volume == this.volume) {
+            return;
+        }
+        this.volume = volume;
+        for (int i = 0; i < MAX_VOICES; i++) {
+            if (voiceIds[i] != -1) {
+                voiceSounds[i].setVolume(voiceIds[i], volume);
+            }
+        }
+    }
+
+    /** Returns the volume of the effects.
+     *
+     * @return Float between 0 and 1
+     */
+    public float getVolume() {
+        return volume;
+    }
+
+    /** Mutes or unmutes the effects.  Muting stops the playing voices.
+     *
+     * @param muted Boolean that is true to mute the effects
+     */
+    public void setMuted(boolean muted) {
+        if (muted == this.muted) {
+            return;
+        }
+        this.muted = muted;
+        if (muted) {
+            stopAll();
+        }
+    }
+
+    /** Returns whether the effects are muted.
+     *
+     * @return Boolean that is true if the effects are muted
+     */
+    public boolean isMuted() {
+        return muted;
+    }
+
+    /** Stops every playing effect.
+     *
+     */
+    public void stopAll() {
+        for (int i = 0; i < MAX_VOICES; i++) {
+            if (voiceIds[i] != -1) {
+                voiceSounds[i].stop(voiceIds[i]);
+                voiceIds[i] = -1;
+                voiceSounds[i] = null;
+            }
+        }
+    }
+
+    /** Returns the number of plays requested so far.
+     *
+     * @return Integer representing the play count
+     */
+    public int getPlayCount() {
+        return playCount;
+    }
+
+    /** Returns the number of plays merged into an earlier play of the same effect.
+     *
+     * @return Integer representing the merged play count
+     */
+    public int getMergedCount() {
+        return mergedCount;
+    }
+
+    /** Returns the number of times a voice was reused while it may still have been playing.
+     *
+     * @return Integer representing the stolen voice count
+     */
+    public int getStolenCount() {
+        return stolenCount;
+    }
+
+    /** Stops the effects and releases the samples.
+     *
+     */
+    public void dispose() {
+        stopAll();
+        for (int i = 0; i < PATHS.length; i++) {
+            assets.release(PATHS[i]);
+        }
+    }
+
+    /** Returns the paths of the effect samples, for example to preload them.
+     *
+     * @return Array of internal sound file paths
+     */
+    public static String[] getPaths() {
+        return PATHS.clone();
+    }
+}
@@ -0,0 +1,45 @@
+package com.skayani.brickbreaker.levels;
+
+import com.skayani.brickbreaker.sprites.Ball;
+import com.skayani.brickbreaker.sprites.BrickManager;
+import com.skayani.brickbreaker.sprites.BrickStore;
+
+/** LevelBuilder that creates a BrickManager for the level's play field and adds each brick to
+ * it.  Used by LevelLoader and LevelGenerator.
+ */
+class BrickManagerBuilder implements LevelBuilder {
+    private Ball ball;
+    private long colorSeed;
+    private BrickManager brickManager;
+
+    BrickManagerBuilder(Ball ball, long colorSeed) {
+        this.ball = ball;
+        this.colorSeed = colorSeed;
+    }
+
+    /** Returns the BrickManager built for the last level.
+     *
+     * @return BrickManager class instance, or null before begin is called
+     */
+    BrickManager getBrickManager() {
+        return brickManager;
+    }
+
+    @Override
+    public void begin(float width, float height, int brickCount) {
+        brickManager = new BrickManager(ball, width, height, colorSeed);
+        if (brickCount > 0) {
+            brickManager.ensureCapacity(brickCount);
+        }
+    }
+
+    @Override
+    public void brick(float x, float y, int color, int hitPoints) {
+        brickManager.addBrick(x, y, BrickStore.BRICK_WIDTH, BrickStore.BRICK_HEIGHT, color,
+                hitPoints);
+    }
+
+    @Override
+    public void end() {
+    }
+}
@@ -0,0 +1,30 @@
+package com.skayani.brickbreaker.levels;
+
+/** LevelBuilder interface for objects that receive the contents of a level file one brick at a
+ * time as LevelLoader reads it, such as the BrickManager of a new game or the LevelWriter that
+ * compiles JSON levels to the binary format.
+ */
+public interface LevelBuilder {
+    /** Called once before any brick with the size of the play field.
+     *
+     * @param width Float representing the play field width
+     * @param height Float representing the play field height
+     * @param brickCount Integer representing the number of bricks that follow, or -1 if the
+     *                   format does not record it up front
+     */
+    void begin(float width, float height, int brickCount);
+
+    /** Called once for every brick of the level.
+     *
+     * @param x X-coordinate of the brick position
+     * @param y Y-coordinate of the brick position
+     * @param color Integer representing the brick color index, or LevelLoader.RANDOM_COLOR
+     * @param hitPoints Integer representing the hits needed to destroy the brick
+     */
+    void brick(float x, float y, int color, int hitPoints);
+
+    /** Called once after the last brick.
+     *
+     */
+    void end();
+}
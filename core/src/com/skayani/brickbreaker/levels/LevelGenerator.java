@@ -0,0 +1,410 @@
+package com.skayani.brickbreaker.levels;
+
+import com.skayani.brickbreaker.BrickBreaker;
+import com.skayani.brickbreaker.sprites.Ball;
+import com.skayani.brickbreaker.sprites.BrickManager;
+import com.skayani.brickbreaker.sprites.BrickStore;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/** LevelGenerator class that builds levels procedurally from a seed, a pattern and a brick
+ * count, so stress and soak tests can run reproducible levels of any size (from a few dozen to
+ * hundreds of thousands of bricks) without hand-authoring them.  The same seed, pattern and
+ * brick count always produce the same level, including the brick colors.
+ *
+ * Bricks are placed on a grid of brick sized cells above an open area for the ball and player
+ * brick.  Levels that fit use the standard 480x800 play field; larger levels grow the field,
+ * keeping the brick area roughly square.
+ */
+public class LevelGenerator {
+    /** Brick layouts the generator can build.
+     *
+     */
+    public enum Pattern {
+        // Bricks fill the rows from the top, left to right
+        GRID,
+        // Rows of bricks each half a brick narrower on both sides than the row below
+        PYRAMID,
+        // Bricks on the cells where smoothed random noise is highest
+        NOISE,
+        // The walls of a randomly carved maze
+        MAZE
+    }
+
+    // Empty space below the bricks that the ball and player brick move in
+    public static final float OPEN_HEIGHT = 400;
+    // Space between the top of the play field and the first row of bricks
+    private static final float TOP_MARGIN = 16;
+    // Columns and rows that fit in the standard play field
+    private static final int STANDARD_COLUMNS = (int)(BrickBreaker.WIDTH / BrickStore.BRICK_WIDTH);
+    private static final int STANDARD_ROWS =
+            (int)((BrickBreaker.HEIGHT - OPEN_HEIGHT - TOP_MARGIN) / BrickStore.BRICK_HEIGHT);
+    // Distance in cells between the random values the noise pattern interpolates
+    private static final int NOISE_SCALE = 6;
+
+    private long seed;
+    private Pattern pattern;
+    private int brickCount;
+    private int columns;
+    private int rows;
+    private float fieldWidth;
+    private float fieldHeight;
+    // X-coordinate of the first column, centering the bricks in the play field
+    private float originX;
+
+    /** LevelGenerator constructor that takes in the seed, pattern and number of bricks of the
+     * level to generate.
+     *
+     * @param seed Long representing the seed of the level's random choices
+     * @param pattern Pattern of the brick layout
+     * @param brickCount Integer representing the number of bricks (at least 1)
+     */
+    public LevelGenerator(long seed, Pattern pattern, int brickCount) {
+        this.seed = seed;
+        this.pattern = pattern;
+        this.brickCount = Math.max(1, brickCount);
+        layout();
+        fieldWidth = Math.max(BrickBreaker.WIDTH, columns * BrickStore.BRICK_WIDTH);
+        fieldHeight = Math.max(BrickBreaker.HEIGHT,
+                OPEN_HEIGHT + TOP_MARGIN + rows * BrickStore.BRICK_HEIGHT);
+        originX = (fieldWidth - columns * BrickStore.BRICK_WIDTH) / 2;
+    }
+
+    /** Returns a generator for a random pattern with a brick count that fits the standard play
+     * field, as used by the "Random" option of the LevelSelectState.
+     *
+     * @param seed Long representing the seed of the pattern, brick count and level
+     * @return LevelGenerator class instance
+     */
+    public static LevelGenerator random(long seed) {
+        Random random = new Random(seed);
+        Pattern[] patterns = Pattern.values();
+        Pattern pattern = patterns[random.nextInt(patterns.length)];
+        int brickCount = Math.min(24 + random.nextInt(17), standardCapacity(pattern));
+        return new LevelGenerator(seed, pattern, brickCount);
+    }
+
+    /** Returns the most bricks the pattern can place within the standard play field.
+     *
+     * @param pattern Pattern of the brick layout
+     * @return Integer representing the brick count
+     */
+    public static int standardCapacity(Pattern pattern) {
+        switch (pattern) {
+            case PYRAMID:
+                return STANDARD_COLUMNS * (STANDARD_COLUMNS + 1) / 2;
+
+            case NOISE:
+                return STANDARD_COLUMNS * STANDARD_ROWS / 2;
+
+            case MAZE:
+                return mazeWalls(oddAtMost(STANDARD_COLUMNS), oddAtMost(STANDARD_ROWS));
+
+            default:
+                return STANDARD_COLUMNS * STANDARD_ROWS;
+        }
+    }
+
+    /** Generates the level into a new BrickManager.  Random brick colors also come from the
+     * level's seed.
+     *
+     * @param ball Ball class instance the BrickManager sweeps against the bricks
+     * @return BrickManager class instance holding the level's bricks
+     */
+    public BrickManager generate(Ball ball) {
+        BrickManagerBuilder builder = new BrickManagerBuilder(ball, seed);
+        generate(builder);
+        return builder.getBrickManager();
+    }
+
+    /** Generates the level into a builder, for example a LevelWriter to save it as a level
+     * file.
+     *
+     * @param builder LevelBuilder class instance receiving the level
+     */
+    public void generate(LevelBuilder builder) {
+        Random random = new Random(seed);
+        builder.begin(fieldWidth, fieldHeight, brickCount);
+        switch (pattern) {
+            case GRID:
+                generateGrid(builder);
+                break;
+
+            case PYRAMID:
+                generatePyramid(builder);
+                break;
+
+            case NOISE:
+                generateNoise(builder, random);
+                break;
+
+            case MAZE:
+                generateMaze(builder, random);
+                break;
+        }
+        builder.end();
+    }
+
+    /** Returns the seed of the level.
+     *
+     * @return Long representing the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Returns the pattern of the level.
+     *
+     * @return Pattern of the brick layout
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /** Returns the number of bricks in the level.
+     *
+     * @return Integer representing the brick count
+     */
+    public int getBrickCount() {
+        return brickCount;
+    }
+
+    /** Returns the width of the generated play field.
+     *
+     * @return Float representing the play field width
+     */
+    public float getFieldWidth() {
+        return fieldWidth;
+    }
+
+    /** Returns the height of the generated play field.
+     *
+     * @return Float representing the play field height
+     */
+    public float getFieldHeight() {
+        return fieldHeight;
+    }
+
+    /** Chooses the number of columns and rows of cells the pattern needs for the brick count.
+     *
+     */
+    private void layout() {
+        switch (pattern) {
+            case PYRAMID:
+                columns = STANDARD_COLUMNS;
+                while (columns * (columns + 1) / 2 < brickCount) {
+                    columns += 1;
+                }
+                // Only the rows that hold bricks are used, counting up from the widest row
+                rows = 0;
+                for (int placed = 0; placed < brickCount; rows++) {
+                    placed += columns - rows;
+                }
+                break;
+
+            case NOISE:
+                squareLayout(brickCount * 2);
+                break;
+
+            case MAZE:
+                squareLayout(brickCount * 2);
+                columns = oddAtMost(columns + 1);
+                rows = 3;
+                while (mazeWalls(columns, rows) < brickCount) {
+                    rows += 2;
+                }
+                break;
+
+            default:
+                squareLayout(brickCount);
+                break;
+        }
+    }
+
+    /** Chooses columns and rows holding at least the given number of cells, in a roughly square
+     * area that is at least as wide as the standard play field.
+     *
+     */
+    private void squareLayout(int cells) {
+        // Cells are twice as wide as they are tall, so a square area has twice as many rows
+        columns = Math.max(STANDARD_COLUMNS, (int)Math.ceil(Math.sqrt(cells / 2.0)));
+        rows = (cells + columns - 1) / columns;
+    }
+
+    /** Places the bricks row by row from the top, with one color per row.
+     *
+     */
+    private void generateGrid(LevelBuilder builder) {
+        for (int i = 0; i < brickCount; i++) {
+            int row = i / columns;
+            addBrick(builder, i % columns, row, row % BrickManager.BRICK_COLOR_COUNT);
+        }
+    }
+
+    /** Places the bricks from the widest row at the bottom upwards, each row shifted by half a
+     * brick, so the last and possibly partial row is the top of the pyramid.
+     *
+     */
+    private void generatePyramid(LevelBuilder builder) {
+        int placed = 0;
+        for (int level = 0; placed < brickCount; level++) {
+            int rowBricks = Math.min(columns - level, brickCount - placed);
+            int row = rows - 1 - level;
+            float offset = (columns - rowBricks) * BrickStore.BRICK_WIDTH / 2;
+            for (int i = 0; i < rowBricks; i++) {
+                builder.brick(originX + offset + i * BrickStore.BRICK_WIDTH, rowY(row),
+                        level % BrickManager.BRICK_COLOR_COUNT, 1);
+            }
+            placed += rowBricks;
+        }
+    }
+
+    /** Places the bricks on the brickCount cells with the highest value of a smooth random
+     * field (random values every NOISE_SCALE cells, interpolated in between).  Cells are
+     * colored by their noise value.
+     *
+     */
+    private void generateNoise(LevelBuilder builder, Random random) {
+        int latticeColumns = columns / NOISE_SCALE + 2;
+        int latticeRows = rows / NOISE_SCALE + 2;
+        float[] lattice = new float[latticeColumns * latticeRows];
+        for (int i = 0; i < lattice.length; i++) {
+            lattice[i] = random.nextFloat();
+        }
+        float[] noise = new float[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int lx = column / NOISE_SCALE;
+                int ly = row / NOISE_SCALE;
+                float fx = smooth((column % NOISE_SCALE) / (float)NOISE_SCALE);
+                float fy = smooth((row % NOISE_SCALE) / (float)NOISE_SCALE);
+                float top = lerp(lattice[ly * latticeColumns + lx],
+                        lattice[ly * latticeColumns + lx + 1], fx);
+                float bottom = lerp(lattice[(ly + 1) * latticeColumns + lx],
+                        lattice[(ly + 1) * latticeColumns + lx + 1], fx);
+                // A little per-cell randomness roughens the edges of the smooth shapes
+                noise[row * columns + column] = lerp(top, bottom, fy) * 0.85f
+                        + random.nextFloat() * 0.15f;
+            }
+        }
+
+        // The brickCount-th highest value is the threshold; ties at it fill up to the count
+        float[] sorted = Arrays.copyOf(noise, noise.length);
+        Arrays.sort(sorted);
+        float threshold = sorted[sorted.length - brickCount];
+        int above = 0;
+        for (int i = sorted.length - 1; i >= 0 && sorted[i] > threshold; i--) {
+            above += 1;
+        }
+        int ties = brickCount - above;
+        for (int i = 0; i < noise.length; i++) {
+            float value = noise[i];
+            if (value > threshold || (value == threshold && ties-- > 0)) {
+                int color = Math.min(BrickManager.BRICK_COLOR_COUNT - 1,
+                        (int)(value * BrickManager.BRICK_COLOR_COUNT));
+                addBrick(builder, i % columns, i / columns, color);
+            }
+        }
+    }
+
+    /** Carves a maze with a depth-first search from the top-left cell and places bricks on
+     * its walls, from the top row down, until brickCount bricks are placed.  Columns and rows
+     * are odd, with passages on the odd cells.
+     *
+     */
+    private void generateMaze(LevelBuilder builder, Random random) {
+        boolean[] open = new boolean[columns * rows];
+        int passageColumns = (columns - 1) / 2;
+        int passageRows = (rows - 1) / 2;
+        // Stack of passage cells (column, row) still having unvisited neighbours
+        int[] stack = new int[passageColumns * passageRows];
+        int stackSize = 0;
+        int[] directions = new int[4];
+        open[columns + 1] = true;
+        stack[stackSize++] = 0;
+        while (stackSize > 0) {
+            int current = stack[stackSize - 1];
+            int px = current % passageColumns;
+            int py = current / passageColumns;
+            int count = 0;
+            if (px > 0 && !open[cellOf(px - 1, py)]) {
+                directions[count++] = current - 1;
+            }
+            if (px < passageColumns - 1 && !open[cellOf(px + 1, py)]) {
+                directions[count++] = current + 1;
+            }
+            if (py > 0 && !open[cellOf(px, py - 1)]) {
+                directions[count++] = current - passageColumns;
+            }
+            if (py < passageRows - 1 && !open[cellOf(px, py + 1)]) {
+                directions[count++] = current + passageColumns;
+            }
+            if (count == 0) {
+                stackSize -= 1;
+                continue;
+            }
+            int next = directions[random.nextInt(count)];
+            int nx = next % passageColumns;
+            int ny = next / passageColumns;
+            // Open the wall between the two passage cells and the new cell itself
+            open[(py + ny + 1) * columns + (px + nx + 1)] = true;
+            open[cellOf(nx, ny)] = true;
+            stack[stackSize++] = next;
+        }
+
+        int placed = 0;
+        for (int i = 0; i < open.length && placed < brickCount; i++) {
+            if (!open[i]) {
+                addBrick(builder, i % columns, i / columns,
+                        random.nextInt(BrickManager.BRICK_COLOR_COUNT));
+                placed += 1;
+            }
+        }
+    }
+
+    /** Returns the index in the cell grid of the maze passage cell (px, py).
+     *
+     */
+    private int cellOf(int px, int py) {
+        return (py * 2 + 1) * columns + px * 2 + 1;
+    }
+
+    /** Adds a single hit brick in the cell at the given column and row (row 0 is the top).
+     *
+     */
+    private void addBrick(LevelBuilder builder, int column, int row, int color) {
+        builder.brick(originX + column * BrickStore.BRICK_WIDTH, rowY(row), color, 1);
+    }
+
+    /** Returns the Y-coordinate of the bricks in the given row (row 0 is the top).
+     *
+     */
+    private float rowY(int row) {
+        return fieldHeight - TOP_MARGIN - (row + 1) * BrickStore.BRICK_HEIGHT;
+    }
+
+    /** Returns the number of wall cells of a maze with the given odd size: every cell except
+     * the passage cells and the openings of the spanning tree connecting them.
+     *
+     */
+    private static int mazeWalls(int mazeColumns, int mazeRows) {
+        int passages = ((mazeColumns - 1) / 2) * ((mazeRows - 1) / 2);
+        return mazeColumns * mazeRows - (2 * passages - 1);
+    }
+
+    /** Returns the largest odd number not above the given one.
+     *
+     */
+    private static int oddAtMost(int value) {
+        return (value & 1) == 1 ? value : value - 1;
+    }
+
+    private static float smooth(float t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private static float lerp(float from, float to, float t) {
+        return from + (to - from) * t;
+    }
+}
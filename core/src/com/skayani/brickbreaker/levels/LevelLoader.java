@@ -0,0 +1,288 @@
+package com.skayani.brickbreaker.levels;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.skayani.brickbreaker.BrickBreaker;
+import com.skayani.brickbreaker.sprites.Ball;
+import com.skayani.brickbreaker.sprites.BrickManager;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/** LevelLoader class that finds the level files in the assets directory and streams them into a
+ * LevelBuilder, usually the BrickManager of a new game.
+ *
+ * Levels are numbered from 1 and stored as levels/level&lt;N&gt;.bin (compiled, shipped) or
+ * levels/level&lt;N&gt;.json (authored); the binary file is used when both exist.  The number of
+ * levels is the length of the run of level files starting at level 1.
+ *
+ * JSON levels hold a version, the play field width and height, and a "bricks" array that must
+ * come after them.  Each brick is an array [x, y], [x, y, color] or [x, y, color, hitPoints];
+ * a missing or negative color picks a random color and missing hit points default to 1.
+ *
+ * Binary levels are big-endian: the int MAGIC, a short version, the width and height as floats,
+ * the brick count as an int, then every brick as x and y floats followed by a color byte and a
+ * hit points byte (10 bytes per brick).
+ *
+ * Both readers pass each brick straight to the builder, so no objects are created per brick.
+ */
+public class LevelLoader {
+    public static final String LEVELS_DIRECTORY = "levels/";
+    public static final String BINARY_EXTENSION = ".bin";
+    public static final String JSON_EXTENSION = ".json";
+    // "BRKL" marks the start of a binary level file
+    public static final int MAGIC = 0x42524B4C;
+    public static final int VERSION = 1;
+    // Color value asking the builder to pick a random brick color
+    public static final int RANDOM_COLOR = -1;
+
+    private static int levelCount = -1;
+
+    private LevelLoader() {
+    }
+
+    /** Returns the number of levels found in the assets directory.  The directory is only probed
+     * the first time this is called.
+     *
+     * @return Integer representing the number of levels
+     */
+    public static int getLevelCount() {
+        if (levelCount < 0) {
+            int count = 0;
+            while (levelFile(count + 1) != null) {
+                count += 1;
+            }
+            levelCount = count;
+        }
+        return levelCount;
+    }
+
+    /** Returns the file of the given level, preferring the compiled binary file.
+     *
+     * @param level Integer representing the game level
+     * @return FileHandle of the level file, or null if the level does not exist
+     */
+    public static FileHandle levelFile(int level) {
+        String path = LEVELS_DIRECTORY + "level" + level;
+        FileHandle file = Gdx.files.internal(path + BINARY_EXTENSION);
+        if (file.exists()) {
+            return file;
+        }
+        file = Gdx.files.internal(path + JSON_EXTENSION);
+        return file.exists() ? file : null;
+    }
+
+    /** Loads a level from the assets directory into a new BrickManager.
+     *
+     * @param level Integer representing the game level
+     * @param ball Ball class instance the BrickManager sweeps against the bricks
+     * @return BrickManager class instance holding the level's bricks
+     */
+    public static BrickManager load(int level, Ball ball) {
+        return load(level, ball, BrickManager.DEFAULT_SEED);
+    }
+
+    /** Loads a level from the assets directory into a new BrickManager, picking the colors
+     * of bricks without one from the given seed.
+     *
+     * @param level Integer representing the game level
+     * @param ball Ball class instance the BrickManager sweeps against the bricks
+     * @param colorSeed Long representing the seed of the random brick colors
+     * @return BrickManager class instance holding the level's bricks
+     */
+    public static BrickManager load(int level, Ball ball, long colorSeed) {
+        FileHandle file = levelFile(level);
+        if (file == null) {
+            throw new GdxRuntimeException("Level not found: " + level);
+        }
+        return load(file, ball, colorSeed);
+    }
+
+    /** Loads a level file into a new BrickManager.
+     *
+     * @param file FileHandle of a binary or JSON level file
+     * @param ball Ball class instance the BrickManager sweeps against the bricks
+     * @return BrickManager class instance holding the level's bricks
+     */
+    public static BrickManager load(FileHandle file, Ball ball) {
+        return load(file, ball, BrickManager.DEFAULT_SEED);
+    }
+
+    /** Loads a level file into a new BrickManager, picking the colors of bricks without one
+     * from the given seed.
+     *
+     * @param file FileHandle of a binary or JSON level file
+     * @param ball Ball class instance the BrickManager sweeps against the bricks
+     * @param colorSeed Long representing the seed of the random brick colors
+     * @return BrickManager class instance holding the level's bricks
+     */
+    public static BrickManager load(FileHandle file, Ball ball, long colorSeed) {
+        BrickManagerBuilder builder = new BrickManagerBuilder(ball, colorSeed);
+        read(file, builder);
+        return builder.getBrickManager();
+    }
+
+    /** Streams a binary or JSON level file (chosen by its extension) into a builder.
+     *
+     * @param file FileHandle of the level file
+     * @param builder LevelBuilder class instance receiving the level
+     */
+    public static void read(FileHandle file, LevelBuilder builder) {
+        InputStream input = file.read();
+        try {
+            if (JSON_EXTENSION.equals("." + file.extension())) {
+                readJson(input, builder);
+            }
+            else {
+                readBinary(input, builder);
+            }
+        }
+        finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+
+    /** Streams a binary level into a builder.
+     *
+     * @param input InputStream positioned at the start of the level
+     * @param builder LevelBuilder class instance receiving the level
+     */
+    public static void readBinary(InputStream input, LevelBuilder builder) {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(input, 64 * 1024));
+        try {
+            if (data.readInt() != MAGIC) {
+                throw new GdxRuntimeException("Not a binary level file");
+            }
+            checkVersion(data.readShort());
+            float width = data.readFloat();
+            float height = data.readFloat();
+            int brickCount = data.readInt();
+            builder.begin(width, height, brickCount);
+            for (int i = 0; i < brickCount; i++) {
+                float x = data.readFloat();
+                float y = data.readFloat();
+                int color = data.readByte();
+                int hitPoints = data.readByte();
+                builder.brick(x, y, color, hitPoints);
+            }
+            builder.end();
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error reading binary level", e);
+        }
+    }
+
+    /** Streams a JSON level into a builder.
+     *
+     * @param input InputStream positioned at the start of the level
+     * @param builder LevelBuilder class instance receiving the level
+     */
+    public static void readJson(InputStream input, LevelBuilder builder) {
+        new StreamingLevelReader(builder).parse(input);
+    }
+
+    /** Throws if a level file was written in a format version this loader does not know.
+     *
+     */
+    static void checkVersion(int version) {
+        if (version < 1 || version > VERSION) {
+            throw new GdxRuntimeException("Unsupported level format version: " + version);
+        }
+    }
+
+    /** JsonReader that handles the parser callbacks itself instead of building a JsonValue tree,
+     * passing each brick to the builder as soon as its closing bracket is read.
+     */
+    private static class StreamingLevelReader extends JsonReader {
+        private LevelBuilder builder;
+        private int depth;
+        private boolean inBricks;
+        private boolean begun;
+        private float width = BrickBreaker.WIDTH;
+        private float height = BrickBreaker.HEIGHT;
+        // Values of the brick array currently being read
+        private float[] values = new float[4];
+        private int valueCount;
+
+        StreamingLevelReader(LevelBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        protected void startObject(String name) {
+            depth += 1;
+        }
+
+        @Override
+        protected void startArray(String name) {
+            depth += 1;
+            if (depth == 2 && "bricks".equals(name)) {
+                inBricks = true;
+                begun = true;
+                builder.begin(width, height, -1);
+            }
+            valueCount = 0;
+        }
+
+        @Override
+        protected void pop() {
+            if (inBricks && depth == 3) {
+                int color = valueCount > 2 ? (int)values[2] : RANDOM_COLOR;
+                int hitPoints = valueCount > 3 ? (int)values[3] : 1;
+                builder.brick(values[0], values[1], color, hitPoints);
+            }
+            else if (inBricks && depth == 2) {
+                inBricks = false;
+            }
+            depth -= 1;
+            if (depth == 0) {
+                if (!begun) {
+                    builder.begin(width, height, 0);
+                }
+                builder.end();
+            }
+        }
+
+        @Override
+        protected void number(String name, double value, String stringValue) {
+            number(name, (float)value);
+        }
+
+        @Override
+        protected void number(String name, long value, String stringValue) {
+            number(name, (float)value);
+        }
+
+        @Override
+        protected void string(String name, String value) {
+        }
+
+        @Override
+        protected void bool(String name, boolean value) {
+        }
+
+        private void number(String name, float value) {
+            if (inBricks && depth == 3) {
+                if (valueCount < values.length) {
+                    values[valueCount++] = value;
+                }
+            }
+            else if (depth == 1) {
+                if ("version".equals(name)) {
+                    checkVersion((int)value);
+                }
+                else if ("width".equals(name)) {
+                    width = value;
+                }
+                else if ("height".equals(name)) {
+                    height = value;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.skayani.brickbreaker.levels;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/** LevelWriter class that writes the level it is built with in the binary level format read by
+ * LevelLoader.  Reading a JSON level into a LevelWriter compiles it to the binary format.
+ */
+public class LevelWriter implements LevelBuilder {
+    private OutputStream output;
+    private float width;
+    private float height;
+    // Bricks are buffered until end() because the binary header records the brick count
+    private FloatArray positions;
+    private IntArray colors;
+    private IntArray hitPoints;
+
+    /** LevelWriter constructor that takes in the stream the binary level is written to.  The
+     * stream is flushed but not closed once the level has been written.
+     *
+     * @param output OutputStream the binary level is written to
+     */
+    public LevelWriter(OutputStream output) {
+        this.output = output;
+        positions = new FloatArray();
+        colors = new IntArray();
+        hitPoints = new IntArray();
+    }
+
+    @Override
+    public void begin(float width, float height, int brickCount) {
+        this.width = width;
+        this.height = height;
+        positions.clear();
+        colors.clear();
+        hitPoints.clear();
+        if (brickCount > 0) {
+            positions.ensureCapacity(brickCount * 2);
+            colors.ensureCapacity(brickCount);
+            hitPoints.ensureCapacity(brickCount);
+        }
+    }
+
+    @Override
+    public void brick(float x, float y, int color, int hitPoints) {
+        positions.add(x);
+        positions.add(y);
+        colors.add(color);
+        this.hitPoints.add(hitPoints);
+    }
+
+    @Override
+    public void end() {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output,
+                64 * 1024));
+        try {
+            data.writeInt(LevelLoader.MAGIC);
+            data.writeShort(LevelLoader.VERSION);
+            data.writeFloat(width);
+            data.writeFloat(height);
+            data.writeInt(colors.size);
+            for (int i = 0; i < colors.size; i++) {
+                data.writeFloat(positions.get(i * 2));
+                data.writeFloat(positions.get(i * 2 + 1));
+                data.writeByte(Math.max(LevelLoader.RANDOM_COLOR, Math.min(Byte.MAX_VALUE,
+                        colors.get(i))));
+                data.writeByte(Math.max(1, Math.min(Byte.MAX_VALUE, hitPoints.get(i))));
+            }
+            data.flush();
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error writing binary level", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.skayani.brickbreaker.network;
+
+/** Connection interface for the transports the GameServer and GameClient exchange messages
+ * over.  Messages keep their boundaries, and neither sending nor receiving blocks: a message
+ * that cannot be sent at once may be dropped, since every snapshot is encoded against the
+ * last one the client acknowledged and the next snapshot makes up for a lost one.
+ *
+ * LocalConnection passes messages within the process, for tests and benchmarks;
+ * TcpConnection and UdpConnection carry them over sockets, for example over loopback.
+ */
+public interface Connection {
+    /** Sends a message, or drops it if the transport cannot take it without blocking.
+     *
+     * @param data Bytes holding the message
+     * @param length Integer representing the message length in bytes
+     * @return Boolean that is false if the message was dropped
+     */
+    boolean send(byte[] data, int length);
+
+    /** Takes the next received message, if there is one.
+     *
+     * @param buffer Bytes the message is copied into, at least Packet.MAX_SIZE long
+     * @return Integer representing the message length, or 0 if no message is pending
+     */
+    int receive(byte[] buffer);
+
+    /** Returns true once the connection was closed by either side.
+     *
+     * @return Boolean that is true if no more messages can be exchanged
+     */
+    boolean isClosed();
+
+    /** Closes the connection and frees its socket, if any.
+     *
+     */
+    void close();
+}
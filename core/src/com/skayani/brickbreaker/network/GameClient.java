@@ -0,0 +1,346 @@
+package com.skayani.brickbreaker.network;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.skayani.brickbreaker.levels.LevelGenerator;
+
+import java.util.Arrays;
+
+/** GameClient class that follows a game run by a GameServer: it applies the snapshots it
+ * receives to its copy of the ball, player brick and destroyed bricks, and acknowledges the
+ * newest one together with its player brick input, which the server uses if this client is
+ * its player.
+ *
+ * The client keeps the last GameServer.HISTORY snapshots, since the server may encode a
+ * snapshot against any of them.  Snapshots older than the newest one applied are ignored, so
+ * the client also works over transports that reorder or lose messages.  The level of the game
+ * arrives with the first snapshot; until then hasLevel is false.
+ *
+ * A snapshot sent in several parts is applied, and acknowledged, once all of its parts have
+ * arrived.  Destroyed bricks never come back, so the bricks of the parts that did arrive are
+ * kept even if the rest is lost; they may show as destroyed a snapshot early.
+ */
+public class GameClient {
+    // Most parts of one snapshot, far more than the largest level needs
+    private static final int MAX_PARTS = 1 << 16;
+
+    private Connection connection;
+    private Packet packet;
+    // Sequence number of the newest snapshot applied, or 0
+    private int sequence;
+    // Sequence numbers and fields of the last snapshots, by sequence % GameServer.HISTORY
+    private int[] historySequences;
+    private int[] history;
+    // Bit i of destroyed[i >> 6] is set once brick i was destroyed
+    private long[] destroyed;
+    private int destroyedCount;
+    // Snapshot whose parts are arriving, or 0, bit i of parts[i >> 6] set for each part
+    // received and the part count, or 0 until the last part arrived
+    private int partSequence;
+    private long[] parts;
+    private int partsReceived;
+    private int partCount;
+    // Level of the game, known once a full snapshot arrived
+    private boolean hasLevel;
+    private int level;
+    private long seed;
+    private LevelGenerator generator;
+    // Player brick input sent with every acknowledgement
+    private float input;
+    private long bytesReceived;
+
+    /** GameClient constructor that takes in the connection to the server.
+     *
+     * @param connection Connection class instance
+     */
+    public GameClient(Connection connection) {
+        this.connection = connection;
+        packet = new Packet();
+        historySequences = new int[GameServer.HISTORY];
+        history = new int[GameServer.HISTORY * Snapshot.FIELD_COUNT];
+        destroyed = new long[16];
+        parts = new long[1];
+    }
+
+    /** Applies every pending snapshot and acknowledges the newest one with the current input.
+     * Called once per frame; the first call also introduces the client to a UDP server.
+     *
+     * @return Boolean that is true if a newer snapshot was applied
+     */
+    public boolean poll() {
+        int previous = sequence;
+        int length;
+        while ((length = connection.receive(packet.getData())) > 0) {
+            bytesReceived += length;
+            packet.flip(length);
+            try {
+                if (packet.readByte() == Packet.SNAPSHOT) {
+                    readSnapshot();
+                }
+            }
+            catch (GdxRuntimeException e) {
+                // Malformed message, ignored
+            }
+        }
+        packet.clear();
+        packet.writeByte(Packet.ACK);
+        packet.writeVarInt(sequence);
+        packet.writeFloat(input);
+        connection.send(packet.getData(), packet.getPosition());
+        return sequence != previous;
+    }
+
+    /** Decodes a snapshot part and applies the snapshot once all of its parts arrived, if it
+     * is newer than the current one and its baseline is known.
+     *
+     */
+    private void readSnapshot() {
+        int next = packet.readVarInt();
+        int distance = packet.readVarInt();
+        if (next <= sequence || next < partSequence || distance < 0
+                || distance >= GameServer.HISTORY) {
+            return;
+        }
+        int baseline = distance == 0 ? 0 : next - distance;
+        if (baseline != 0 && historySequences[baseline % GameServer.HISTORY] != baseline) {
+            return;
+        }
+        if (baseline == 0) {
+            readLevel();
+        }
+        int slot = next % GameServer.HISTORY;
+        if (next != partSequence) {
+            partSequence = next;
+            Arrays.fill(parts, 0);
+            partsReceived = 0;
+            partCount = 0;
+            // The slot is overwritten, so it is no baseline until the snapshot is complete
+            historySequences[slot] = 0;
+        }
+
+        int current = slot * Snapshot.FIELD_COUNT;
+        int base = (baseline % GameServer.HISTORY) * Snapshot.FIELD_COUNT;
+        int mask = packet.readByte();
+        for (int f = 0; f < Snapshot.FIELD_COUNT; f++) {
+            int value = baseline == 0 ? 0 : history[base + f];
+            if ((mask & (1 << f)) != 0) {
+                value += packet.readSignedVarInt();
+            }
+            history[current + f] = value;
+        }
+
+        // Destroyed bricks only ever grow, so adding the bricks destroyed since the baseline to
+        // those of any newer snapshot gives the bricks destroyed at this one
+        int word = 0;
+        int delta;
+        while ((delta = packet.readVarInt()) != 0) {
+            word += delta - 1;
+            if (word < 0 || word >= Snapshot.MAX_BRICKS >> 6) {
+                throw new GdxRuntimeException("Malformed snapshot bitset");
+            }
+            long bits = packet.readVarLong();
+            if (word >= destroyed.length) {
+                destroyed = Arrays.copyOf(destroyed, Math.max(word + 1, destroyed.length * 2));
+            }
+            destroyedCount += Long.bitCount(bits & ~destroyed[word]);
+            destroyed[word] |= bits;
+        }
+
+        int part = packet.readVarInt();
+        int index = part >>> 1;
+        if (index >= MAX_PARTS) {
+            throw new GdxRuntimeException("Malformed snapshot part");
+        }
+        if (index >> 6 >= parts.length) {
+            parts = Arrays.copyOf(parts, Math.max((index >> 6) + 1, parts.length * 2));
+        }
+        if ((parts[index >> 6] & (1L << index)) == 0) {
+            parts[index >> 6] |= 1L << index;
+            partsReceived += 1;
+        }
+        if ((part & 1) != 0) {
+            partCount = index + 1;
+        }
+        if (partsReceived == partCount) {
+            historySequences[slot] = next;
+            sequence = next;
+            partSequence = 0;
+        }
+    }
+
+    /** Reads the level header of a full snapshot.  The level is only changed once the whole
+     * header was read and checked.
+     *
+     */
+    private void readLevel() {
+        int nextLevel = packet.readVarInt();
+        long nextSeed = packet.readLong();
+        LevelGenerator nextGenerator = null;
+        if (packet.readByte() != 0) {
+            LevelGenerator.Pattern[] patterns = LevelGenerator.Pattern.values();
+            int pattern = packet.readByte();
+            int brickCount = packet.readVarInt();
+            if (pattern >= patterns.length || brickCount < 1 || brickCount > Snapshot.MAX_BRICKS) {
+                throw new GdxRuntimeException("Malformed snapshot level");
+            }
+            nextGenerator = new LevelGenerator(nextSeed, patterns[pattern], brickCount);
+        }
+        level = nextLevel;
+        seed = nextSeed;
+        generator = nextGenerator;
+        hasLevel = true;
+    }
+
+    /** Returns the value of a field of the newest snapshot.
+     *
+     * @param field Integer representing the field index
+     * @return Integer representing the quantized value
+     */
+    private int getField(int field) {
+        return history[(sequence % GameServer.HISTORY) * Snapshot.FIELD_COUNT + field];
+    }
+
+    /** Sets the player brick input sent to the server, used if this client is its player.
+     *
+     * @param input Float representing the player brick input (positive moves left)
+     */
+    public void setInput(float input) {
+        this.input = input;
+    }
+
+    /** Returns the sequence number of the newest snapshot applied.
+     *
+     * @return Integer representing the sequence number, or 0 before the first snapshot
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /** Returns true once the level of the game is known.
+     *
+     * @return Boolean that is true after the first snapshot
+     */
+    public boolean hasLevel() {
+        return hasLevel;
+    }
+
+    /** Returns the game level, which is GameSimulation.GENERATED_LEVEL for generated levels.
+     *
+     * @return Integer representing the game level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /** Returns the seed of the random brick colors.
+     *
+     * @return Long representing the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Returns the generator of the level.
+     *
+     * @return LevelGenerator class instance, or null if the level is not generated
+     */
+    public LevelGenerator getGenerator() {
+        return generator;
+    }
+
+    /** Returns the ball's X-coordinate.
+     *
+     * @return Float representing the X-coordinate in pixels
+     */
+    public float getBallX() {
+        return getField(Snapshot.BALL_X) / Snapshot.SCALE;
+    }
+
+    /** Returns the ball's Y-coordinate.
+     *
+     * @return Float representing the Y-coordinate in pixels
+     */
+    public float getBallY() {
+        return getField(Snapshot.BALL_Y) / Snapshot.SCALE;
+    }
+
+    /** Returns the ball's horizontal velocity.
+     *
+     * @return Float representing the velocity in pixels per second
+     */
+    public float getBallVelocityX() {
+        return getField(Snapshot.BALL_VELOCITY_X) / Snapshot.SCALE;
+    }
+
+    /** Returns the ball's vertical velocity.
+     *
+     * @return Float representing the velocity in pixels per second
+     */
+    public float getBallVelocityY() {
+        return getField(Snapshot.BALL_VELOCITY_Y) / Snapshot.SCALE;
+    }
+
+    /** Returns the player brick's X-coordinate.
+     *
+     * @return Float representing the X-coordinate in pixels
+     */
+    public float getPlayerBrickX() {
+        return getField(Snapshot.PLAYER_BRICK_X) / Snapshot.SCALE;
+    }
+
+    /** Returns the player's score.
+     *
+     * @return Integer representing the player's score
+     */
+    public int getPlayerScore() {
+        return getField(Snapshot.SCORE);
+    }
+
+    /** Returns true once the game has ended.
+     *
+     * @return Boolean that is true if the game has ended
+     */
+    public boolean isOver() {
+        return (getField(Snapshot.FLAGS) & Snapshot.OVER) != 0;
+    }
+
+    /** Returns true if the game ended because every brick was destroyed.
+     *
+     * @return Boolean that is true if the player won
+     */
+    public boolean isWon() {
+        return (getField(Snapshot.FLAGS) & Snapshot.WON) != 0;
+    }
+
+    /** Returns whether a brick was destroyed as of the newest snapshot.
+     *
+     * @param id Integer representing the brick id
+     * @return Boolean that is true if the brick was destroyed
+     */
+    public boolean isBrickDestroyed(int id) {
+        int word = id >>> 6;
+        return word < destroyed.length && (destroyed[word] & (1L << (id & 63))) != 0;
+    }
+
+    /** Returns the number of bricks destroyed as of the newest snapshot.
+     *
+     * @return Integer representing the destroyed brick count
+     */
+    public int getDestroyedCount() {
+        return destroyedCount;
+    }
+
+    /** Returns the number of bytes received from the server.
+     *
+     * @return Long representing the bytes received
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /** Closes the connection to the server.
+     *
+     */
+    public void dispose() {
+        connection.close();
+    }
+}
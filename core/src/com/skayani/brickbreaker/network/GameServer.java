@@ -0,0 +1,433 @@
+package com.skayani.brickbreaker.network;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.simulation.GameSimulation;
+
+/** GameServer class that runs the authoritative GameSimulation and streams its state to any
+ * number of clients: spectators, and at most one player whose input moves the player brick in
+ * place of the host's.  Every tick advances the game by one fixed step and every
+ * SNAPSHOT_INTERVAL ticks a snapshot goes out to every client (see Snapshot for the format).
+ *
+ * A snapshot only carries what changed since the last snapshot the client acknowledged: the
+ * ball and player brick fields that differ, as small deltas, and the bricks destroyed since then
+ * as a sparse bitset.  Its size, and the work to build it, follow the changes rather than the
+ * brick count.  A client that has not acknowledged any of the last HISTORY snapshots, such as
+ * one that just joined, gets a full snapshot with the level and every destroyed brick.  A
+ * snapshot too large for one message is sent in several parts.
+ *
+ * The server keeps the bytes and snapshots sent per client and the time of every tick, so the
+ * bandwidth and tick cost can be watched as levels grow.  Ticks do not allocate once the
+ * destroyed-brick log has grown to its size.
+ */
+public class GameServer {
+    // Simulation steps between two snapshots, 60 snapshots per second
+    public static final int SNAPSHOT_INTERVAL = 2;
+    // Snapshots kept as baselines for clients that acknowledge late
+    static final int HISTORY = 64;
+    // Room kept at the end of a snapshot part for one more bitset word (at most 15 bytes) and
+    // the end of the part
+    private static final int PART_END = 32;
+
+    private GameSimulation simulation;
+    private Array<Client> clients;
+    // Client whose input moves the player brick, or null to use the host input
+    private Client player;
+    private int ticks;
+    // Sequence number of the last snapshot sent, starting at 1 (0 means none)
+    private int sequence;
+    // Sequence numbers and fields of the last HISTORY snapshots, by sequence % HISTORY
+    private int[] historySequences;
+    private int[] history;
+    // Every destroyed brick in order, with the sequence number of the first snapshot holding it
+    private IntArray destroyedIds;
+    private IntArray destroyedSequences;
+    // Bricks destroyed since a client's baseline, sorted while building its snapshot
+    private IntArray changedIds;
+    private Packet packet;
+    // Position after which a snapshot part takes no more bitset words
+    private int maxPartPosition;
+
+    private long lastTickNanos;
+    private long totalTickNanos;
+    private long maxTickNanos;
+
+    /** GameServer constructor that takes in the game to run, before its first step.
+     *
+     * @param simulation GameSimulation class instance
+     */
+    public GameServer(GameSimulation simulation) {
+        this(simulation, Packet.MAX_SIZE);
+    }
+
+    /** GameServer constructor that also takes the size of the largest snapshot message, so
+     * tests can have small snapshots split into parts.
+     *
+     * @param simulation GameSimulation class instance
+     * @param partSize Integer representing the most bytes of one message, at most
+     *                 Packet.MAX_SIZE
+     */
+    GameServer(GameSimulation simulation, int partSize) {
+        this.simulation = simulation;
+        maxPartPosition = partSize - PART_END;
+        clients = new Array<Client>();
+        historySequences = new int[HISTORY];
+        history = new int[HISTORY * Snapshot.FIELD_COUNT];
+        destroyedIds = new IntArray();
+        destroyedSequences = new IntArray();
+        changedIds = new IntArray();
+        packet = new Packet();
+    }
+
+    /** Adds a client that receives snapshots from the next one on.
+     *
+     * @param connection Connection class instance to the client
+     * @param player Boolean that is true if the client's input moves the player brick
+     * @return Client class instance holding the client's statistics
+     */
+    public Client addClient(Connection connection, boolean player) {
+        if (player && this.player != null) {
+            throw new GdxRuntimeException("The game already has a player");
+        }
+        Client client = new Client(connection, player);
+        clients.add(client);
+        if (player) {
+            this.player = client;
+        }
+        return client;
+    }
+
+    /** Removes a client and closes its connection.
+     *
+     * @param client Client class instance returned by addClient
+     */
+    public void removeClient(Client client) {
+        clients.removeValue(client, true);
+        if (player == client) {
+            player = null;
+        }
+        client.connection.close();
+    }
+
+    /** Reads the acknowledgements and input of the clients, advances the game by one step and
+     * sends a snapshot to every client if one is due.
+     *
+     * @param hostInput Float representing the player brick input used while no player client
+     *                  is connected (positive moves left)
+     */
+    public void tick(float hostInput) {
+        long start = System.nanoTime();
+        receive();
+        int steps = simulation.getStepCount();
+        simulation.step(player != null ? player.input : hostInput);
+        if (simulation.getStepCount() != steps) {
+            IntArray destroyed = simulation.getBrickManager().getDestroyedBricks();
+            for (int i = 0; i < destroyed.size; i++) {
+                destroyedIds.add(destroyed.get(i));
+                destroyedSequences.add(sequence + 1);
+            }
+        }
+        ticks += 1;
+        if (ticks % SNAPSHOT_INTERVAL == 0) {
+            sendSnapshots();
+        }
+        lastTickNanos = System.nanoTime() - start;
+        totalTickNanos += lastTickNanos;
+        maxTickNanos = Math.max(maxTickNanos, lastTickNanos);
+    }
+
+    /** Takes every pending message of every client, dropping clients whose connection closed.
+     *
+     */
+    private void receive() {
+        for (int i = clients.size - 1; i >= 0; i--) {
+            Client client = clients.get(i);
+            int length;
+            while ((length = client.connection.receive(packet.getData())) > 0) {
+                packet.flip(length);
+                try {
+                    if (packet.readByte() == Packet.ACK) {
+                        int acknowledged = packet.readVarInt();
+                        if (acknowledged > client.acknowledged && acknowledged <= sequence) {
+                            client.acknowledged = acknowledged;
+                        }
+                        client.input = MathUtils.clamp(packet.readFloat(), -1, 1);
+                    }
+                }
+                catch (GdxRuntimeException e) {
+                    // Malformed message, ignored
+                }
+            }
+            if (client.connection.isClosed()) {
+                removeClient(client);
+            }
+        }
+    }
+
+    /** Records the current state as the next snapshot and sends it to every client.
+     *
+     */
+    private void sendSnapshots() {
+        sequence += 1;
+        historySequences[sequence % HISTORY] = sequence;
+        Snapshot.capture(simulation, history, (sequence % HISTORY) * Snapshot.FIELD_COUNT);
+        for (int i = 0; i < clients.size; i++) {
+            send(clients.get(i));
+        }
+    }
+
+    /** Encodes the current snapshot against the client's last acknowledged one and sends it.
+     * A snapshot whose destroyed bricks do not fit in one message, such as a full snapshot of a
+     * large level late in the game, is split into parts that each carry the header and fields
+     * and the next words of the bitset.
+     *
+     * @param client Client class instance
+     */
+    private void send(Client client) {
+        int baseline = client.acknowledged;
+        if (baseline <= 0 || sequence - baseline >= HISTORY
+                || historySequences[baseline % HISTORY] != baseline) {
+            baseline = 0;
+        }
+        collectDestroyedSince(baseline);
+
+        boolean sent = true;
+        int part = 0;
+        int i = 0;
+        do {
+            writeHeader(baseline);
+            int previousWord = 0;
+            // Every part takes at least one word, however long its header
+            int first = i;
+            while (i < changedIds.size && (i == first || packet.getPosition() <= maxPartPosition)) {
+                int word = changedIds.get(i) >>> 6;
+                long bits = 0;
+                while (i < changedIds.size && changedIds.get(i) >>> 6 == word) {
+                    bits |= 1L << (changedIds.get(i) & 63);
+                    i++;
+                }
+                packet.writeVarInt(word - previousWord + 1);
+                packet.writeVarLong(bits);
+                previousWord = word;
+            }
+            packet.writeVarInt(0);
+            packet.writeVarInt((part << 1) | (i == changedIds.size ? 1 : 0));
+            if (client.connection.send(packet.getData(), packet.getPosition())) {
+                client.bytesSent += packet.getPosition();
+            }
+            else {
+                sent = false;
+            }
+            part += 1;
+        } while (i < changedIds.size);
+
+        if (sent) {
+            client.snapshotsSent += 1;
+        }
+        else {
+            client.snapshotsDropped += 1;
+        }
+    }
+
+    /** Starts a snapshot message with the sequence numbers, the level header of a full
+     * snapshot and the fields that differ from the baseline.
+     *
+     * @param baseline Integer representing the sequence number of the baseline, or 0
+     */
+    private void writeHeader(int baseline) {
+        packet.clear();
+        packet.writeByte(Packet.SNAPSHOT);
+        packet.writeVarInt(sequence);
+        packet.writeVarInt(baseline == 0 ? 0 : sequence - baseline);
+        if (baseline == 0) {
+            writeLevel();
+        }
+
+        int current = (sequence % HISTORY) * Snapshot.FIELD_COUNT;
+        int base = (baseline % HISTORY) * Snapshot.FIELD_COUNT;
+        int mask = 0;
+        for (int f = 0; f < Snapshot.FIELD_COUNT; f++) {
+            int from = baseline == 0 ? 0 : history[base + f];
+            if (history[current + f] != from) {
+                mask |= 1 << f;
+            }
+        }
+        packet.writeByte(mask);
+        for (int f = 0; f < Snapshot.FIELD_COUNT; f++) {
+            if ((mask & (1 << f)) != 0) {
+                int from = baseline == 0 ? 0 : history[base + f];
+                packet.writeSignedVarInt(history[current + f] - from);
+            }
+        }
+    }
+
+    /** Writes the level header of a full snapshot, from which a client can build the level.
+     *
+     */
+    private void writeLevel() {
+        LevelGenerator generator = simulation.getGenerator();
+        packet.writeVarInt(simulation.getLevel());
+        packet.writeLong(simulation.getSeed());
+        packet.writeByte(generator != null ? 1 : 0);
+        if (generator != null) {
+            packet.writeByte(generator.getPattern().ordinal());
+            packet.writeVarInt(generator.getBrickCount());
+        }
+    }
+
+    /** Collects the bricks destroyed after the baseline snapshot into changedIds, sorted.
+     *
+     * @param baseline Integer representing the sequence number of the baseline, or 0
+     */
+    private void collectDestroyedSince(int baseline) {
+        // The log is ordered by sequence number, so the bricks after the baseline are its tail
+        int low = 0;
+        int high = destroyedSequences.size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (destroyedSequences.get(middle) <= baseline) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        changedIds.clear();
+        changedIds.addAll(destroyedIds.items, low, destroyedIds.size - low);
+        changedIds.sort();
+    }
+
+    /** Returns the game the server runs.
+     *
+     * @return GameSimulation class instance
+     */
+    public GameSimulation getSimulation() {
+        return simulation;
+    }
+
+    /** Returns the connected clients.
+     *
+     * @return Array of Client class instances
+     */
+    public Array<Client> getClients() {
+        return clients;
+    }
+
+    /** Returns the sequence number of the last snapshot sent.
+     *
+     * @return Integer representing the sequence number, or 0 before the first snapshot
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /** Returns the number of ticks run so far.
+     *
+     * @return Integer representing the tick count
+     */
+    public int getTickCount() {
+        return ticks;
+    }
+
+    /** Returns the time the last tick took, including the simulation step.
+     *
+     * @return Long representing the tick time in nanoseconds
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /** Returns the mean time of all ticks so far.
+     *
+     * @return Long representing the mean tick time in nanoseconds
+     */
+    public long getAverageTickNanos() {
+        return ticks == 0 ? 0 : totalTickNanos / ticks;
+    }
+
+    /** Returns the time of the slowest tick so far.
+     *
+     * @return Long representing the longest tick time in nanoseconds
+     */
+    public long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+
+    /** Closes the connections of every client.  The simulation is left to its owner.
+     *
+     */
+    public void dispose() {
+        while (clients.size > 0) {
+            removeClient(clients.peek());
+        }
+    }
+
+    /** Client class that holds the connection, acknowledgement, input and statistics of one
+     * client of the server.
+     */
+    public static class Client {
+        private Connection connection;
+        private boolean player;
+        // Sequence number of the last snapshot the client acknowledged, or 0
+        private int acknowledged;
+        // Last player brick input the client sent
+        private float input;
+        private long bytesSent;
+        private int snapshotsSent;
+        // Snapshots the connection could not take without blocking
+        private int snapshotsDropped;
+
+        /** Client constructor that takes in the connection to the client.
+         *
+         * @param connection Connection class instance
+         * @param player Boolean that is true if the client's input moves the player brick
+         */
+        Client(Connection connection, boolean player) {
+            this.connection = connection;
+            this.player = player;
+        }
+
+        /** Returns true if the client's input moves the player brick.
+         *
+         * @return Boolean that is true for the player client
+         */
+        public boolean isPlayer() {
+            return player;
+        }
+
+        /** Returns the sequence number of the last snapshot the client acknowledged.
+         *
+         * @return Integer representing the sequence number, or 0 if none was acknowledged
+         */
+        public int getAcknowledged() {
+            return acknowledged;
+        }
+
+        /** Returns the number of snapshot bytes sent to the client.
+         *
+         * @return Long representing the bytes sent
+         */
+        public long getBytesSent() {
+            return bytesSent;
+        }
+
+        /** Returns the number of snapshots sent to the client.
+         *
+         * @return Integer representing the snapshot count
+         */
+        public int getSnapshotsSent() {
+            return snapshotsSent;
+        }
+
+        /** Returns the number of snapshots dropped because the connection was full.
+         *
+         * @return Integer representing the dropped snapshot count
+         */
+        public int getSnapshotsDropped() {
+            return snapshotsDropped;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.skayani.brickbreaker.network;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/** LocalConnection class that passes messages between two ends within the process, standing
+ * in for a socket in tests and benchmarks.  The ends may be used from different threads.
+ * Messages are never dropped.
+ */
+public class LocalConnection implements Connection {
+    // Messages sent to this end
+    private ConcurrentLinkedQueue<byte[]> inbox;
+    private LocalConnection peer;
+    private volatile boolean closed;
+
+    /** LocalConnection constructor for one end of a pair.
+     *
+     */
+    private LocalConnection() {
+        inbox = new ConcurrentLinkedQueue<byte[]>();
+    }
+
+    /** Creates two connected ends, one for the server and one for the client.
+     *
+     * @return LocalConnection array holding the two ends
+     */
+    public static LocalConnection[] pair() {
+        LocalConnection first = new LocalConnection();
+        LocalConnection second = new LocalConnection();
+        first.peer = second;
+        second.peer = first;
+        return new LocalConnection[] {first, second};
+    }
+
+    /** Copies the message into the other end's inbox.
+     *
+     * @param data Bytes holding the message
+     * @param length Integer representing the message length in bytes
+     * @return Boolean that is false if either end was closed
+     */
+    @Override
+    public boolean send(byte[] data, int length) {
+        if (isClosed()) {
+            return false;
+        }
+        byte[] message = new byte[length];
+        System.arraycopy(data, 0, message, 0, length);
+        peer.inbox.add(message);
+        return true;
+    }
+
+    /** Takes the oldest message of the inbox.
+     *
+     * @param buffer Bytes the message is copied into
+     * @return Integer representing the message length, or 0 if the inbox is empty
+     */
+    @Override
+    public int receive(byte[] buffer) {
+        byte[] message = inbox.poll();
+        if (message == null) {
+            return 0;
+        }
+        System.arraycopy(message, 0, buffer, 0, message.length);
+        return message.length;
+    }
+
+    /** Returns true once either end was closed.
+     *
+     * @return Boolean that is true if the connection is closed
+     */
+    @Override
+    public boolean isClosed() {
+        return closed || peer.closed;
+    }
+
+    /** Closes this end; the other end sees the connection closed too.
+     *
+     */
+    @Override
+    public void close() {
+        closed = true;
+        inbox.clear();
+    }
+}
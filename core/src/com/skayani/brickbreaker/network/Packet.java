@@ -0,0 +1,208 @@
+package com.skayani.brickbreaker.network;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/** Packet class that writes and reads the messages exchanged by the GameServer and its clients
+ * in a reusable byte array.  Small numbers are written as variable-length integers of 7 bits
+ * per byte, so a delta of a few pixels takes a single byte.
+ */
+class Packet {
+    // Largest message, which is also the largest a TCP frame or UDP datagram can carry
+    static final int MAX_SIZE = 65507;
+
+    // Message types
+    static final byte SNAPSHOT = 1;
+    static final byte ACK = 2;
+
+    private byte[] data;
+    private int position;
+    private int length;
+
+    /** Packet constructor that allocates a buffer of the largest message size.
+     *
+     */
+    Packet() {
+        data = new byte[MAX_SIZE];
+    }
+
+    /** Starts writing a new message from the beginning of the buffer.
+     *
+     */
+    void clear() {
+        position = 0;
+        length = 0;
+    }
+
+    /** Starts reading a message of the given length received into the buffer.
+     *
+     * @param length Integer representing the message length in bytes
+     */
+    void flip(int length) {
+        position = 0;
+        this.length = length;
+    }
+
+    /** Returns the buffer messages are written to and received into.
+     *
+     * @return Bytes of the buffer
+     */
+    byte[] getData() {
+        return data;
+    }
+
+    /** Returns the number of bytes written so far.
+     *
+     * @return Integer representing the message length
+     */
+    int getPosition() {
+        return position;
+    }
+
+    /** Returns true if bytes of the received message remain to be read.
+     *
+     * @return Boolean that is true before the end of the message
+     */
+    boolean hasRemaining() {
+        return position < length;
+    }
+
+    /** Writes the low 8 bits of an integer.
+     *
+     * @param value Integer representing the byte
+     */
+    void writeByte(int value) {
+        if (position == data.length) {
+            throw new GdxRuntimeException("Message too long");
+        }
+        data[position++] = (byte)value;
+    }
+
+    /** Writes a non-negative integer in as few bytes as it needs.
+     *
+     * @param value Integer representing the value
+     */
+    void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte(value);
+    }
+
+    /** Writes a signed integer in as few bytes as its magnitude needs (zig-zag encoded).
+     *
+     * @param value Integer representing the value
+     */
+    void writeSignedVarInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    /** Writes the bits of a long in as few bytes as its highest set bit needs.
+     *
+     * @param value Long representing the bits
+     */
+    void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int)(value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte((int)value);
+    }
+
+    /** Writes a long as 8 bytes, big-endian.
+     *
+     * @param value Long representing the value
+     */
+    void writeLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((int)(value >>> shift));
+        }
+    }
+
+    /** Writes a float as 4 bytes, big-endian.
+     *
+     * @param value Float representing the value
+     */
+    void writeFloat(float value) {
+        int bits = Float.floatToIntBits(value);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            writeByte(bits >>> shift);
+        }
+    }
+
+    /** Reads one byte.
+     *
+     * @return Integer between 0 and 255
+     */
+    int readByte() {
+        if (position >= length) {
+            throw new GdxRuntimeException("Message too short");
+        }
+        return data[position++] & 0xFF;
+    }
+
+    /** Reads an integer written by writeVarInt.
+     *
+     * @return Integer representing the value
+     */
+    int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new GdxRuntimeException("Malformed variable-length integer");
+    }
+
+    /** Reads an integer written by writeSignedVarInt.
+     *
+     * @return Integer representing the value
+     */
+    int readSignedVarInt() {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /** Reads a long written by writeVarLong.
+     *
+     * @return Long representing the bits
+     */
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readByte();
+            value |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new GdxRuntimeException("Malformed variable-length integer");
+    }
+
+    /** Reads a long written by writeLong.
+     *
+     * @return Long representing the value
+     */
+    long readLong() {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    /** Reads a float written by writeFloat.
+     *
+     * @return Float representing the value
+     */
+    float readFloat() {
+        int bits = 0;
+        for (int i = 0; i < 4; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Float.intBitsToFloat(bits);
+    }
+}
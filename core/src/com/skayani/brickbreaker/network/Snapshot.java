@@ -0,0 +1,66 @@
+package com.skayani.brickbreaker.network;
+
+import com.badlogic.gdx.math.Vector2;
+import com.skayani.brickbreaker.simulation.GameSimulation;
+
+/** Snapshot class that defines the fields of the game state the GameServer streams to its
+ * clients and how they are quantized.  Positions and velocities are sent as whole eighths of
+ * a pixel, so the server and the clients apply deltas to exactly the same integers and never
+ * drift apart.
+ *
+ * A snapshot message is: byte Packet.SNAPSHOT, variable-length sequence number, variable-length
+ * distance back to the baseline snapshot (0 for a full snapshot, which is followed by the level
+ * header), byte mask of the fields that differ from the baseline and a signed variable-length
+ * delta per field in the mask, then the bricks destroyed since the baseline as a sparse bitset:
+ * per non-empty 64-brick word the variable-length distance to the previous word index plus one
+ * and the variable-length word bits, ended by a 0, then the variable-length part number shifted
+ * left by one with the low bit set on the last part.  A snapshot whose bitset does not fit in
+ * one message is split into parts that repeat everything up to the bitset and carry the next
+ * words; the word distances of every part start from word 0.
+ *
+ * The level header is: variable-length level, long seed, byte generated flag and for
+ * generated levels byte pattern and variable-length brick count.
+ */
+class Snapshot {
+    // Field indexes
+    static final int BALL_X = 0;
+    static final int BALL_Y = 1;
+    static final int BALL_VELOCITY_X = 2;
+    static final int BALL_VELOCITY_Y = 3;
+    static final int PLAYER_BRICK_X = 4;
+    static final int SCORE = 5;
+    static final int FLAGS = 6;
+    static final int FIELD_COUNT = 7;
+
+    // Bits of the FLAGS field
+    static final int OVER = 1;
+    static final int WON = 2;
+
+    // Quantization steps per pixel
+    static final float SCALE = 8;
+    // Most bricks of a level sent to clients, which bounds the bitset a client keeps
+    static final int MAX_BRICKS = 1 << 24;
+
+    private Snapshot() {
+    }
+
+    /** Writes the quantized fields of the current state of a game.
+     *
+     * @param simulation GameSimulation class instance
+     * @param fields Integers the fields are written to
+     * @param offset Integer representing the index of the first field
+     */
+    static void capture(GameSimulation simulation, int[] fields, int offset) {
+        Vector2 position = simulation.getBall().getPosition();
+        Vector2 velocity = simulation.getBall().getVelocity();
+        fields[offset + BALL_X] = Math.round(position.x * SCALE);
+        fields[offset + BALL_Y] = Math.round(position.y * SCALE);
+        fields[offset + BALL_VELOCITY_X] = Math.round(velocity.x * SCALE);
+        fields[offset + BALL_VELOCITY_Y] = Math.round(velocity.y * SCALE);
+        fields[offset + PLAYER_BRICK_X] =
+                Math.round(simulation.getPlayerBrick().getPosition().x * SCALE);
+        fields[offset + SCORE] = simulation.getPlayerScore();
+        fields[offset + FLAGS] = (simulation.isOver() ? OVER : 0)
+                | (simulation.isWon() ? WON : 0);
+    }
+}
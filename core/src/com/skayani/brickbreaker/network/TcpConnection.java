@@ -0,0 +1,178 @@
+package com.skayani.brickbreaker.network;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/** TcpConnection class that exchanges messages over a non-blocking TCP socket, every message
+ * framed by its length as two bytes.  Sent frames queue up in a fixed buffer while the socket
+ * cannot take them; once it is full, new messages are dropped whole rather than blocking the
+ * server tick.  Nagle's algorithm is turned off so small snapshots go out at once.
+ */
+public class TcpConnection implements Connection {
+    // Frames waiting to be written, and received bytes waiting to be split into frames
+    private static final int BUFFER_SIZE = 4 * (Packet.MAX_SIZE + 2);
+
+    private SocketChannel channel;
+    private ByteBuffer outgoing;
+    private ByteBuffer incoming;
+    private boolean closed;
+
+    /** TcpConnection constructor that takes in a connected socket channel.
+     *
+     * @param channel SocketChannel class instance
+     * @throws IOException if the socket cannot be configured
+     */
+    private TcpConnection(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        outgoing = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        incoming = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    /** Connects to a server, blocking until the connection is made.
+     *
+     * @param host String representing the server address, for example "localhost"
+     * @param port Integer representing the server port
+     * @return TcpConnection class instance
+     */
+    public static TcpConnection connect(String host, int port) {
+        try {
+            return new TcpConnection(SocketChannel.open(new InetSocketAddress(host, port)));
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error connecting to " + host + ":" + port, e);
+        }
+    }
+
+    /** Opens a non-blocking server socket that clients can connect to.
+     *
+     * @param port Integer representing the port to listen on
+     * @return ServerSocketChannel class instance to pass to accept
+     */
+    public static ServerSocketChannel listen(int port) {
+        try {
+            ServerSocketChannel server = ServerSocketChannel.open();
+            server.socket().bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            return server;
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error listening on port " + port, e);
+        }
+    }
+
+    /** Accepts a client that connected to the server socket, without blocking.
+     *
+     * @param server ServerSocketChannel class instance opened by listen
+     * @return TcpConnection class instance, or null if no client is waiting
+     */
+    public static TcpConnection accept(ServerSocketChannel server) {
+        try {
+            SocketChannel channel = server.accept();
+            return channel == null ? null : new TcpConnection(channel);
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error accepting a connection", e);
+        }
+    }
+
+    /** Queues the message as a frame and writes as much of the queue as the socket takes.
+     *
+     * @param data Bytes holding the message
+     * @param length Integer representing the message length in bytes
+     * @return Boolean that is false if the message was dropped
+     */
+    @Override
+    public boolean send(byte[] data, int length) {
+        if (closed) {
+            return false;
+        }
+        flush();
+        if (closed || outgoing.remaining() < length + 2) {
+            return false;
+        }
+        outgoing.putShort((short)length);
+        outgoing.put(data, 0, length);
+        flush();
+        return true;
+    }
+
+    /** Reads what the socket has received and takes the first complete frame.
+     *
+     * @param buffer Bytes the message is copied into
+     * @return Integer representing the message length, or 0 if no frame is complete
+     */
+    @Override
+    public int receive(byte[] buffer) {
+        if (closed) {
+            return 0;
+        }
+        flush();
+        try {
+            if (channel.read(incoming) < 0) {
+                close();
+            }
+        }
+        catch (IOException e) {
+            close();
+        }
+        if (incoming.position() < 2) {
+            return 0;
+        }
+        int length = incoming.getShort(0) & 0xFFFF;
+        if (incoming.position() < length + 2) {
+            return 0;
+        }
+        incoming.flip();
+        incoming.position(2);
+        incoming.get(buffer, 0, length);
+        incoming.compact();
+        return length;
+    }
+
+    /** Writes queued frames until the socket takes no more.
+     *
+     */
+    private void flush() {
+        if (outgoing.position() == 0) {
+            return;
+        }
+        outgoing.flip();
+        try {
+            channel.write(outgoing);
+        }
+        catch (IOException e) {
+            closed = true;
+        }
+        outgoing.compact();
+    }
+
+    /** Returns true once the socket was closed by either side.
+     *
+     * @return Boolean that is true if the connection is closed
+     */
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /** Closes the socket.
+     *
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        }
+        catch (IOException e) {
+            // Already closed
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.skayani.brickbreaker.network;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/** UdpConnection class that exchanges every message as one datagram over a non-blocking UDP
+ * socket.  Datagrams may be lost or arrive out of order; the GameClient ignores snapshots
+ * older than the one it has, and the GameServer encodes against the last acknowledged one, so
+ * neither needs to be resent.
+ *
+ * The server side binds one port per client and learns the client's address from its first
+ * message, which the GameClient sends on its first poll.
+ */
+public class UdpConnection implements Connection {
+    private DatagramChannel channel;
+    // Address messages are sent to and accepted from, or null until the peer has sent one
+    private SocketAddress peer;
+    private ByteBuffer buffer;
+    private boolean closed;
+
+    /** UdpConnection constructor that takes in an open datagram channel.
+     *
+     * @param channel DatagramChannel class instance
+     * @param peer SocketAddress of the other end, or null to learn it from the first message
+     * @throws IOException if the socket cannot be configured
+     */
+    private UdpConnection(DatagramChannel channel, SocketAddress peer) throws IOException {
+        this.channel = channel;
+        this.peer = peer;
+        channel.configureBlocking(false);
+        buffer = ByteBuffer.allocateDirect(Packet.MAX_SIZE);
+    }
+
+    /** Opens the server side of a connection on the given port.
+     *
+     * @param port Integer representing the port the client sends to
+     * @return UdpConnection class instance
+     */
+    public static UdpConnection bind(int port) {
+        try {
+            DatagramChannel channel = DatagramChannel.open();
+            channel.socket().bind(new InetSocketAddress(port));
+            return new UdpConnection(channel, null);
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error binding port " + port, e);
+        }
+    }
+
+    /** Opens the client side of a connection to a server port.
+     *
+     * @param host String representing the server address, for example "localhost"
+     * @param port Integer representing the server port
+     * @return UdpConnection class instance
+     */
+    public static UdpConnection connect(String host, int port) {
+        try {
+            DatagramChannel channel = DatagramChannel.open();
+            channel.socket().bind(new InetSocketAddress(0));
+            return new UdpConnection(channel, new InetSocketAddress(host, port));
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error opening a connection to " + host + ":" + port,
+                    e);
+        }
+    }
+
+    /** Sends the message as one datagram.
+     *
+     * @param data Bytes holding the message
+     * @param length Integer representing the message length in bytes
+     * @return Boolean that is false if the peer is not known yet or the socket was full
+     */
+    @Override
+    public boolean send(byte[] data, int length) {
+        if (closed || peer == null) {
+            return false;
+        }
+        buffer.clear();
+        buffer.put(data, 0, length);
+        buffer.flip();
+        try {
+            return channel.send(buffer, peer) > 0;
+        }
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** Takes the next datagram from the peer, ignoring datagrams from other addresses.
+     *
+     * @param data Bytes the message is copied into
+     * @return Integer representing the message length, or 0 if no datagram is pending
+     */
+    @Override
+    public int receive(byte[] data) {
+        while (!closed) {
+            buffer.clear();
+            SocketAddress sender;
+            try {
+                sender = channel.receive(buffer);
+            }
+            catch (IOException e) {
+                return 0;
+            }
+            if (sender == null) {
+                return 0;
+            }
+            if (peer == null) {
+                peer = sender;
+            }
+            if (peer.equals(sender) && buffer.position() > 0) {
+                buffer.flip();
+                int length = buffer.remaining();
+                buffer.get(data, 0, length);
+                return length;
+            }
+        }
+        return 0;
+    }
+
+    /** Returns true once the connection was closed.  UDP has no connection state, so only
+     * closing this end counts.
+     *
+     * @return Boolean that is true if the connection is closed
+     */
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /** Closes the socket.
+     *
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        }
+        catch (IOException e) {
+            // Already closed
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.skayani.brickbreaker.profile;
+
+/** HighScoreTable class that keeps the best scores of one level, highest first, in parallel
+ * arrays of a fixed capacity.  A score is put in place by moving the lower ones down, so the
+ * table is always sorted and the top N are read without sorting or allocating.
+ */
+public class HighScoreTable {
+    private int[] scores;
+    // Time each score was set, in milliseconds since the epoch
+    private long[] times;
+    private int size;
+
+    /** HighScoreTable constructor that takes in the number of scores to keep.
+     *
+     * @param capacity Integer representing the number of scores to keep
+     */
+    HighScoreTable(int capacity) {
+        scores = new int[capacity];
+        times = new long[capacity];
+    }
+
+    /** Adds a score if it ranks among the kept scores.  A score equal to a kept one ranks
+     * below it, so the earlier score stays ahead.
+     *
+     * @param score Integer representing the final score of a game
+     * @param time Long representing the time the game ended, in milliseconds
+     * @return Integer representing the rank of the score (0 is the best), or -1 if it does not
+     *         rank
+     */
+    int add(int score, long time) {
+        int rank = size;
+        while (rank > 0 && scores[rank - 1] < score) {
+            rank -= 1;
+        }
+        if (rank == scores.length) {
+            return -1;
+        }
+        int moved = Math.min(size, scores.length - 1) - rank;
+        System.arraycopy(scores, rank, scores, rank + 1, moved);
+        System.arraycopy(times, rank, times, rank + 1, moved);
+        scores[rank] = score;
+        times[rank] = time;
+        size = Math.min(size + 1, scores.length);
+        return rank;
+    }
+
+    /** Returns true if the score would rank among the kept scores.
+     *
+     * @param score Integer representing the final score of a game
+     * @return Boolean that is true if add would keep the score
+     */
+    public boolean ranks(int score) {
+        return size < scores.length || scores[size - 1] < score;
+    }
+
+    /** Returns the number of scores kept so far.
+     *
+     * @return Integer representing the score count
+     */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the score of the given rank.
+     *
+     * @param rank Integer representing the rank (0 is the best)
+     * @return Integer representing the score
+     */
+    public int getScore(int rank) {
+        return scores[rank];
+    }
+
+    /** Returns the time the score of the given rank was set.
+     *
+     * @param rank Integer representing the rank (0 is the best)
+     * @return Long representing the time in milliseconds since the epoch
+     */
+    public long getTime(int rank) {
+        return times[rank];
+    }
+}
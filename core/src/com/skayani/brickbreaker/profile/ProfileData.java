@@ -0,0 +1,337 @@
+package com.skayani.brickbreaker.profile;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectFloatMap;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/** ProfileData class that holds the contents of a player profile: the settings, the highest
+ * unlocked level and one HighScoreTable per level.  It is built by replaying the records of a
+ * profile log, and written back as the fewest records that rebuild it.
+ *
+ * Log format (big-endian): int MAGIC, short VERSION, then records of a byte type followed by
+ * SETTING: UTF key, float value; UNLOCK: int level; SCORE: int level, int score, long time.
+ */
+class ProfileData {
+    static final int MAGIC = 0x42525046;
+    static final int VERSION = 1;
+    // Length of the log header in bytes
+    static final int HEADER_SIZE = 6;
+
+    // Record types
+    static final byte SETTING = 1;
+    static final byte UNLOCK = 2;
+    static final byte SCORE = 3;
+
+    private ObjectFloatMap<String> settings;
+    // Highest level that can be played, at least the first
+    private int unlockedLevel;
+    private IntMap<HighScoreTable> highScores;
+    private int tableCapacity;
+    // Records read from the log and the length in bytes of the complete ones
+    private int logRecords;
+    private long logLength;
+
+    /** ProfileData constructor for an empty profile.
+     *
+     * @param tableCapacity Integer representing the number of scores kept per level
+     */
+    ProfileData(int tableCapacity) {
+        this.tableCapacity = tableCapacity;
+        settings = new ObjectFloatMap<String>();
+        unlockedLevel = 1;
+        highScores = new IntMap<HighScoreTable>();
+    }
+
+    /** Returns the value of a setting.
+     *
+     * @param key String naming the setting
+     * @param defaultValue Float returned if the setting was never set
+     * @return Float representing the setting value
+     */
+    float getSetting(String key, float defaultValue) {
+        return settings.get(key, defaultValue);
+    }
+
+    /** Sets the value of a setting.
+     *
+     * @param key String naming the setting
+     * @param value Float representing the setting value
+     * @return Boolean that is true if the value changed
+     */
+    boolean setSetting(String key, float value) {
+        if (settings.containsKey(key) && settings.get(key, 0) == value) {
+            return false;
+        }
+        settings.put(key, value);
+        return true;
+    }
+
+    /** Returns the highest level that can be played.
+     *
+     * @return Integer representing the level
+     */
+    int getUnlockedLevel() {
+        return unlockedLevel;
+    }
+
+    /** Unlocks the levels up to the given one.
+     *
+     * @param level Integer representing the level
+     * @return Boolean that is true if the level was locked
+     */
+    boolean unlock(int level) {
+        if (level <= unlockedLevel) {
+            return false;
+        }
+        unlockedLevel = level;
+        return true;
+    }
+
+    /** Returns the high scores of a level, creating the table the first time.
+     *
+     * @param level Integer representing the level
+     * @return HighScoreTable class instance
+     */
+    HighScoreTable getHighScores(int level) {
+        HighScoreTable table = highScores.get(level);
+        if (table == null) {
+            table = new HighScoreTable(tableCapacity);
+            highScores.put(level, table);
+        }
+        return table;
+    }
+
+    /** Returns the number of records write writes, which is all a compacted log holds.
+     *
+     * @return Integer representing the record count
+     */
+    int getRecordCount() {
+        int records = settings.size + (unlockedLevel > 1 ? 1 : 0);
+        IntMap.Values<HighScoreTable> tables = highScores.values();
+        while (tables.hasNext()) {
+            records += tables.next().size();
+        }
+        return records;
+    }
+
+    /** Returns the number of records read from the log.
+     *
+     * @return Integer representing the record count
+     */
+    int getLogRecords() {
+        return logRecords;
+    }
+
+    /** Returns the length of the log up to the end of its last complete record.
+     *
+     * @return Long representing the length in bytes
+     */
+    long getLogLength() {
+        return logLength;
+    }
+
+    /** Writes the profile as a log of the fewest records that rebuild it.
+     *
+     * @param data DataOutputStream the log is written to
+     */
+    void write(DataOutputStream data) throws IOException {
+        writeHeader(data);
+        ObjectFloatMap.Entries<String> entries = settings.entries();
+        while (entries.hasNext()) {
+            ObjectFloatMap.Entry<String> entry = entries.next();
+            writeSetting(data, entry.key, entry.value);
+        }
+        if (unlockedLevel > 1) {
+            writeUnlock(data, unlockedLevel);
+        }
+        IntMap.Entries<HighScoreTable> tables = highScores.entries();
+        while (tables.hasNext()) {
+            IntMap.Entry<HighScoreTable> table = tables.next();
+            // Lowest first, so replaying keeps the ranks of equal scores
+            for (int rank = table.value.size() - 1; rank >= 0; rank--) {
+                writeScore(data, table.key, table.value.getScore(rank), table.value.getTime(rank));
+            }
+        }
+    }
+
+    /** Writes the log header.
+     *
+     * @param data DataOutputStream the log is written to
+     */
+    static void writeHeader(DataOutputStream data) throws IOException {
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+    }
+
+    /** Writes a SETTING record.
+     *
+     * @param data DataOutputStream the record is written to
+     * @param key String naming the setting
+     * @param value Float representing the setting value
+     */
+    static void writeSetting(DataOutputStream data, String key, float value) throws IOException {
+        data.writeByte(SETTING);
+        data.writeUTF(key);
+        data.writeFloat(value);
+    }
+
+    /** Writes an UNLOCK record.
+     *
+     * @param data DataOutputStream the record is written to
+     * @param level Integer representing the highest unlocked level
+     */
+    static void writeUnlock(DataOutputStream data, int level) throws IOException {
+        data.writeByte(UNLOCK);
+        data.writeInt(level);
+    }
+
+    /** Writes a SCORE record.
+     *
+     * @param data DataOutputStream the record is written to
+     * @param level Integer representing the level
+     * @param score Integer representing the final score
+     * @param time Long representing the time the game ended, in milliseconds
+     */
+    static void writeScore(DataOutputStream data, int level, int score, long time)
+            throws IOException {
+        data.writeByte(SCORE);
+        data.writeInt(level);
+        data.writeInt(score);
+        data.writeLong(time);
+    }
+
+    /** Reads a profile log.  A record cut short, for example by the app being killed while it
+     * was appended, ends the log; getLogLength tells where the complete records end.  A file
+     * that does not exist is an empty profile.
+     *
+     * @param file FileHandle of the log
+     * @param tableCapacity Integer representing the number of scores kept per level
+     * @return ProfileData class instance
+     */
+    static ProfileData read(FileHandle file, int tableCapacity) {
+        ProfileData profile = new ProfileData(tableCapacity);
+        if (!file.exists() || file.length() == 0) {
+            return profile;
+        }
+        InputStream input = file.read();
+        try {
+            DataInputStream data = new DataInputStream(new BufferedInputStream(input, 8192));
+            if (file.length() < HEADER_SIZE || data.readInt() != MAGIC) {
+                throw new GdxRuntimeException("Not a profile: " + file.path());
+            }
+            int version = data.readShort();
+            if (version != VERSION) {
+                throw new GdxRuntimeException("Unsupported profile version: " + version);
+            }
+            profile.logLength = HEADER_SIZE;
+            long length = file.length();
+            while (profile.logLength < length) {
+                int read = profile.readRecord(data);
+                if (read < 0) {
+                    break;
+                }
+                profile.logLength += read;
+                profile.logRecords += 1;
+            }
+            return profile;
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error reading profile: " + file.path(), e);
+        }
+        finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+
+    /** Applies complete records, for example a batch the ProfileStore appended to the log.
+     *
+     * @param records Bytes of the records, without the log header
+     */
+    void apply(byte[] records) {
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(records));
+        try {
+            for (int offset = 0; offset < records.length; ) {
+                int read = readRecord(data);
+                if (read < 0) {
+                    throw new GdxRuntimeException("Malformed profile record");
+                }
+                offset += read;
+            }
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error reading profile records", e);
+        }
+    }
+
+    /** Returns a copy of the profile, so another thread can keep one of its own.
+     *
+     * @return ProfileData class instance
+     */
+    ProfileData copy() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            write(new DataOutputStream(bytes));
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error copying profile", e);
+        }
+        byte[] log = bytes.toByteArray();
+        ProfileData copy = new ProfileData(tableCapacity);
+        copy.apply(Arrays.copyOfRange(log, HEADER_SIZE, log.length));
+        return copy;
+    }
+
+    /** Reads one record and applies it.
+     *
+     * @return Integer representing the record length in bytes, or -1 if the record is cut
+     *         short or of an unknown type
+     */
+    private int readRecord(DataInputStream data) throws IOException {
+        try {
+            int type = data.readByte();
+            if (type == SETTING) {
+                String key = data.readUTF();
+                settings.put(key, data.readFloat());
+                return 1 + 2 + utfLength(key) + 4;
+            }
+            else if (type == UNLOCK) {
+                unlock(data.readInt());
+                return 1 + 4;
+            }
+            else if (type == SCORE) {
+                int level = data.readInt();
+                int score = data.readInt();
+                getHighScores(level).add(score, data.readLong());
+                return 1 + 4 + 4 + 8;
+            }
+            return -1;
+        }
+        catch (EOFException e) {
+            return -1;
+        }
+    }
+
+    /** Returns the number of bytes writeUTF writes for a string, not counting the length.
+     *
+     */
+    private static int utfLength(String string) {
+        int length = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            length += c >= 0x0001 && c <= 0x007F ? 1 : c > 0x07FF ? 3 : 2;
+        }
+        return length;
+    }
+}
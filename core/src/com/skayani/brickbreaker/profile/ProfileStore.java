@@ -0,0 +1,384 @@
+package com.skayani.brickbreaker.profile;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/** ProfileStore class that keeps the player profile: the settings, the highest unlocked level
+ * and the best TOP_SCORES scores of every level.  The profile is held in memory, where reads
+ * and top-N queries never touch the disk, and persisted as an append-only log of changes.
+ *
+ * Every change is applied in memory at once and encoded as a record into a pending buffer;
+ * a background thread appends the pending records to the log, so changes made while a write is
+ * in progress are written together in the next one.  The render thread only ever copies bytes
+ * into memory.  Once the log holds COMPACT_RECORDS records and twice as many as the profile
+ * needs, the background thread rewrites it as the fewest records that rebuild the profile.  The
+ * background thread keeps a copy of the profile the log rebuilds for this, updated with every
+ * append, so neither the count nor the compaction reads the log back.
+ *
+ * A compaction writes the new log to a ".tmp" file, renames the log to ".old" and the new one
+ * in its place, and then deletes the old one.  Loading finishes or undoes a compaction the app
+ * was killed in the middle of, so either the old or the new log is always read in full.
+ *
+ * The log is read on the background thread as well; the profile can be used once isLoaded
+ * returns true.
+ */
+public class ProfileStore {
+    // Local file the profile log is written to
+    public static final String PROFILE = "profile/profile.log";
+    // Scores kept per level
+    public static final int TOP_SCORES = 10;
+    // Records the log holds before it is compacted
+    private static final int COMPACT_RECORDS = 256;
+
+    private FileHandle file;
+    // Reads the log, then appends to and compacts it
+    private AsyncExecutor executor;
+    private AsyncResult<ProfileData> loading;
+    // Profile read and changed on the render thread, or null until it is loaded
+    private ProfileData profile;
+
+    // Records not yet appended to the log, guarded by locking pendingBytes
+    private ByteArrayOutputStream pendingBytes;
+    private DataOutputStream pending;
+    private int pendingRecords;
+    // True while a write of the pending records is queued
+    private boolean writeQueued;
+    private AsyncTask<Void> writeTask;
+
+    // Records in the log, and the profile they rebuild, used on the background thread only
+    private int logRecords;
+    private ProfileData logged;
+
+    /** ProfileStore constructor that starts reading the profile log on a background thread.
+     *
+     * @param file FileHandle of the profile log, for example in local storage
+     */
+    public ProfileStore(FileHandle file) {
+        this.file = file;
+        pendingBytes = new ByteArrayOutputStream(256);
+        pending = new DataOutputStream(pendingBytes);
+        executor = new AsyncExecutor(1);
+        writeTask = new AsyncTask<Void>() {
+            @Override
+            public Void call() {
+                writePending();
+                return null;
+            }
+        };
+        loading = executor.submit(new AsyncTask<ProfileData>() {
+            @Override
+            public ProfileData call() {
+                return load();
+            }
+        });
+    }
+
+    /** Returns true once the profile log has been read.  Nothing else may be called before.
+     *
+     * @return Boolean that is true if the profile is loaded
+     */
+    public boolean isLoaded() {
+        if (profile == null && loading.isDone()) {
+            profile = loading.get();
+        }
+        return profile != null;
+    }
+
+    /** Returns the value of a number setting.
+     *
+     * @param key String naming the setting
+     * @param defaultValue Float returned if the setting was never set
+     * @return Float representing the setting value
+     */
+    public float getFloat(String key, float defaultValue) {
+        checkLoaded();
+        return profile.getSetting(key, defaultValue);
+    }
+
+    /** Sets the value of a number setting.  Nothing is written if the value did not change.
+     *
+     * @param key String naming the setting
+     * @param value Float representing the setting value
+     */
+    public void putFloat(String key, float value) {
+        checkLoaded();
+        if (!profile.setSetting(key, value)) {
+            return;
+        }
+        synchronized (pendingBytes) {
+            try {
+                ProfileData.writeSetting(pending, key, value);
+            }
+            catch (IOException e) {
+                throw new GdxRuntimeException(e);
+            }
+            queueWrite();
+        }
+    }
+
+    /** Returns the value of an on/off setting.
+     *
+     * @param key String naming the setting
+     * @param defaultValue Boolean returned if the setting was never set
+     * @return Boolean representing the setting value
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        return getFloat(key, defaultValue ? 1 : 0) != 0;
+    }
+
+    /** Sets the value of an on/off setting.  Nothing is written if the value did not change.
+     *
+     * @param key String naming the setting
+     * @param value Boolean representing the setting value
+     */
+    public void putBoolean(String key, boolean value) {
+        putFloat(key, value ? 1 : 0);
+    }
+
+    /** Returns the highest level that can be played.  The first level is always unlocked.
+     *
+     * @return Integer representing the level
+     */
+    public int getUnlockedLevel() {
+        checkLoaded();
+        return profile.getUnlockedLevel();
+    }
+
+    /** Unlocks the levels up to the given one, for example the next level once one is won.
+     *
+     * @param level Integer representing the level
+     */
+    public void unlockLevel(int level) {
+        checkLoaded();
+        if (!profile.unlock(level)) {
+            return;
+        }
+        synchronized (pendingBytes) {
+            try {
+                ProfileData.writeUnlock(pending, level);
+            }
+            catch (IOException e) {
+                throw new GdxRuntimeException(e);
+            }
+            queueWrite();
+        }
+    }
+
+    /** Records the final score of a game.  Only scores that rank among the TOP_SCORES best of
+     * the level are kept and written.
+     *
+     * @param level Integer representing the level, or GameSimulation.GENERATED_LEVEL
+     * @param score Integer representing the final score
+     * @return Integer representing the rank of the score (0 is the best), or -1 if it does not
+     *         rank
+     */
+    public int addScore(int level, int score) {
+        checkLoaded();
+        long time = TimeUtils.millis();
+        int rank = profile.getHighScores(level).add(score, time);
+        if (rank < 0) {
+            return rank;
+        }
+        synchronized (pendingBytes) {
+            try {
+                ProfileData.writeScore(pending, level, score, time);
+            }
+            catch (IOException e) {
+                throw new GdxRuntimeException(e);
+            }
+            queueWrite();
+        }
+        return rank;
+    }
+
+    /** Returns the best scores of a level, highest first.  The table is kept sorted as scores
+     * are added, so this does not sort or allocate once the level has a table.
+     *
+     * @param level Integer representing the level, or GameSimulation.GENERATED_LEVEL
+     * @return HighScoreTable class instance, empty if no game of the level was finished
+     */
+    public HighScoreTable getHighScores(int level) {
+        checkLoaded();
+        return profile.getHighScores(level);
+    }
+
+    /** Returns the best score of a level.
+     *
+     * @param level Integer representing the level, or GameSimulation.GENERATED_LEVEL
+     * @return Integer representing the score, or 0 if no game of the level was finished
+     */
+    public int getBestScore(int level) {
+        HighScoreTable table = getHighScores(level);
+        return table.size() > 0 ? table.getScore(0) : 0;
+    }
+
+    /** Waits for the pending records to be written and stops the background thread.  Called
+     * when the game is closed.
+     *
+     */
+    public void dispose() {
+        executor.dispose();
+    }
+
+    /** Throws if the profile is used before it is loaded.
+     *
+     */
+    private void checkLoaded() {
+        if (!isLoaded()) {
+            throw new GdxRuntimeException("Profile is not loaded yet");
+        }
+    }
+
+    /** Counts a record added to the pending buffer and queues a write unless one is queued
+     * already, which will write this record as well.  Called holding the pendingBytes lock.
+     *
+     */
+    private void queueWrite() {
+        pendingRecords += 1;
+        if (!writeQueued) {
+            writeQueued = true;
+            executor.submit(writeTask);
+        }
+    }
+
+    /** Reads the profile log on the background thread.  A log that cannot be read is started
+     * over, and one that ends in a cut-short record is compacted so appends follow the last
+     * complete record.
+     *
+     */
+    private ProfileData load() {
+        recover();
+        ProfileData data;
+        try {
+            data = ProfileData.read(file, TOP_SCORES);
+        }
+        catch (GdxRuntimeException e) {
+            Gdx.app.error("ProfileStore", "Could not read " + file.path(), e);
+            data = new ProfileData(TOP_SCORES);
+        }
+        logRecords = data.getLogRecords();
+        logged = data.copy();
+        try {
+            if (file.exists() && data.getLogLength() != file.length()) {
+                compact(data);
+            }
+        }
+        catch (GdxRuntimeException e) {
+            Gdx.app.error("ProfileStore", "Could not write " + file.path(), e);
+        }
+        return data;
+    }
+
+    /** Appends the pending records to the log on the background thread, and compacts the log
+     * once it is long enough.
+     *
+     */
+    private void writePending() {
+        byte[] records;
+        int count;
+        synchronized (pendingBytes) {
+            records = pendingBytes.toByteArray();
+            count = pendingRecords;
+            pendingBytes.reset();
+            pendingRecords = 0;
+            writeQueued = false;
+        }
+        try {
+            boolean empty = file.length() == 0;
+            OutputStream output = file.write(true);
+            try {
+                DataOutputStream data = new DataOutputStream(output);
+                if (empty) {
+                    ProfileData.writeHeader(data);
+                }
+                data.write(records);
+                data.flush();
+            }
+            catch (IOException e) {
+                throw new GdxRuntimeException("Error writing profile", e);
+            }
+            finally {
+                StreamUtils.closeQuietly(output);
+            }
+            logRecords += count;
+            logged.apply(records);
+            if (logRecords >= COMPACT_RECORDS && logRecords > 2 * logged.getRecordCount()) {
+                compact(logged);
+            }
+        }
+        catch (GdxRuntimeException e) {
+            // Local storage is not available on every backend
+            Gdx.app.error("ProfileStore", "Could not write " + file.path(), e);
+        }
+    }
+
+    /** Replaces the log with the fewest records that rebuild the profile, on the background
+     * thread.  The new log is written in full next to the old one first, and the old one is
+     * only deleted once the new one is in its place.
+     *
+     */
+    private void compact(ProfileData data) {
+        FileHandle partial = file.sibling(file.name() + ".tmp");
+        FileHandle old = file.sibling(file.name() + ".old");
+        OutputStream output = partial.write(false);
+        try {
+            DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(output, 8192));
+            data.write(stream);
+            stream.flush();
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error writing profile", e);
+        }
+        finally {
+            StreamUtils.closeQuietly(output);
+        }
+        old.delete();
+        if (file.exists() && !file.file().renameTo(old.file())) {
+            throw new GdxRuntimeException("Could not replace " + file.path());
+        }
+        if (!partial.file().renameTo(file.file())) {
+            partial.moveTo(file);
+        }
+        old.delete();
+        logRecords = data.getRecordCount();
+    }
+
+    /** Finishes or undoes a compaction the app was killed in the middle of, before the log is
+     * read.  A ".tmp" file is only complete once the log was renamed to ".old", so it is moved
+     * in place then and deleted otherwise.
+     *
+     */
+    private void recover() {
+        FileHandle partial = file.sibling(file.name() + ".tmp");
+        FileHandle old = file.sibling(file.name() + ".old");
+        try {
+            if (old.exists()) {
+                if (partial.exists()) {
+                    partial.moveTo(file);
+                }
+                else if (!file.exists()) {
+                    old.moveTo(file);
+                }
+                old.delete();
+            }
+            else {
+                partial.delete();
+            }
+        }
+        catch (GdxRuntimeException e) {
+            Gdx.app.error("ProfileStore", "Could not recover " + file.path(), e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.skayani.brickbreaker.simulation;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.skayani.brickbreaker.sprites.Ball;
+import com.skayani.brickbreaker.sprites.PlayerBrick;
+
+import java.util.Random;
+
+/** Autopilot class that steers the player brick of a GameSimulation under the ball, standing in
+ * for a player when levels are played headless, for example to balance them.
+ *
+ * The autopilot tracks the ball's center.  The skill (0 to 1) is the chance that it reacts to
+ * the ball in a step; between reactions it keeps moving to where it last saw the ball, so lower
+ * skills fall behind fast horizontal movement.  The noise is the standard deviation, in pixels,
+ * of an aiming error drawn every time the ball starts falling.  The autopilot is seeded, so the
+ * same seed plays the same game.
+ *
+ * Predicting where the ball lands plays worse than tracking it: the ball bounces off bricks on
+ * the way down, and the player brick is no faster than the ball, so a wrong prediction cannot
+ * be made up for.
+ */
+public class Autopilot {
+    private float skill;
+    private float noise;
+    private Random random;
+
+    // Player brick center the autopilot is moving to
+    private float target;
+    // Aiming error of the current fall of the ball
+    private float aimError;
+    private boolean falling;
+
+    /** Autopilot constructor that takes in the skill, the noise and the seed of its random
+     * reactions and aiming errors.
+     *
+     * @param skill Float between 0 and 1 representing the reaction rate and look-ahead
+     * @param noise Float representing the standard deviation of the aiming error in pixels
+     * @param seed Long representing the seed of the random reactions and aiming errors
+     */
+    public Autopilot(float skill, float noise, long seed) {
+        this.skill = MathUtils.clamp(skill, 0, 1);
+        this.noise = Math.max(0, noise);
+        random = new Random(seed);
+        target = -1;
+    }
+
+    /** Returns the player brick input for the next step of the simulation.
+     *
+     * @param simulation GameSimulation class instance being played
+     * @return Float representing the player brick input (positive moves left)
+     */
+    public float input(GameSimulation simulation) {
+        Ball ball = simulation.getBall();
+        PlayerBrick playerBrick = simulation.getPlayerBrick();
+        float playerBrickCenter = playerBrick.getPosition().x + PlayerBrick.WIDTH / 2;
+        boolean nowFalling = ball.getVelocity().y < 0;
+        if (nowFalling && !falling) {
+            aimError = (float)random.nextGaussian() * noise;
+        }
+        falling = nowFalling;
+        if (target < 0 || random.nextFloat() < skill) {
+            target = ball.getPosition().x + Ball.SIZE / 2 + aimError;
+        }
+        // The player brick moves a couple of pixels per step, so slow down just before the target
+        return MathUtils.clamp((playerBrickCenter - target) / 2, -1, 1);
+    }
+}
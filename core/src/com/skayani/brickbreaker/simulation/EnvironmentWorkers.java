@@ -0,0 +1,83 @@
+package com.skayani.brickbreaker.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** EnvironmentWorkers class that steps disjoint ranges of the games of a VectorEnvironment on a
+ * fork/join pool of its own and returns once all of them have finished.  The tasks are reused
+ * from step to step, so a step does not allocate.
+ *
+ * Fork/join is only available on Java 7 and Android 5.0 (API 21) or later, so this class is
+ * only referred to once ForkJoinSupport.isAvailable has confirmed it can be loaded; otherwise
+ * the games are stepped on the calling thread.
+ */
+class EnvironmentWorkers extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    // Ranges per thread, so a thread whose games reset in a step does not hold up the others
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private ForkJoinPool pool;
+    private Partition[] partitions;
+
+    /** EnvironmentWorkers constructor that splits the games into ranges for the given number
+     * of threads.
+     *
+     * @param environment VectorEnvironment class instance whose games are stepped
+     * @param threads Integer representing the number of threads
+     */
+    EnvironmentWorkers(VectorEnvironment environment, int threads) {
+        pool = new ForkJoinPool(threads);
+        int count = environment.getCount();
+        int partitionCount = Math.min(count, threads * PARTITIONS_PER_THREAD);
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(environment, (int)((long)count * i / partitionCount),
+                    (int)((long)count * (i + 1) / partitionCount));
+        }
+    }
+
+    /** Steps every range of games and waits for them to finish.
+     *
+     */
+    void run() {
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i].reinitialize();
+        }
+        reinitialize();
+        pool.invoke(this);
+    }
+
+    /** Stops the threads of the pool.
+     *
+     */
+    void dispose() {
+        pool.shutdown();
+    }
+
+    @Override
+    protected void compute() {
+        invokeAll(partitions);
+    }
+
+    /** Fork/join task stepping one range of games.
+     *
+     */
+    private static class Partition extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private VectorEnvironment environment;
+        private int from;
+        private int to;
+
+        Partition(VectorEnvironment environment, int from, int to) {
+            this.environment = environment;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            environment.stepRange(from, to);
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.skayani.brickbreaker.simulation;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.skayani.brickbreaker.BrickBreaker;
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.levels.LevelLoader;
+import com.skayani.brickbreaker.sprites.Ball;
+import com.skayani.brickbreaker.sprites.BallPool;
+import com.skayani.brickbreaker.sprites.BrickManager;
+import com.skayani.brickbreaker.sprites.BrickStore;
+import com.skayani.brickbreaker.sprites.PlayerBrick;
+
+/** GameSimulation class that holds the game logic of one play-through (ball, player brick and
+ * bricks) and advances it in fixed steps.  It does not touch any graphics or audio, so the
+ * PlayState renders it and benchmarks or tests can run it under the headless backend.
+ *
+ * A game only depends on its level, its seed and the input of every step, so the steps can be
+ * recorded into an InputRecording and replayed later with the same result.
+ */
+public class GameSimulation {
+    // Physics is stepped at a fixed rate independent of the display refresh rate
+    public static final float STEP_TIME = 1 / 120f;
+    // Upper bound on steps per frame so a single slow frame cannot trigger a long catch-up chain
+    public static final int MAX_STEPS_PER_FRAME = 8;
+    // Level number of generated levels, which are not numbered
+    public static final int GENERATED_LEVEL = 0;
+    // Most extra balls the multi-ball mode can have in play at once
+    public static final int MAX_BALLS = 8192;
+
+    private Ball ball;
+    // Extra balls of the multi-ball mode, in play together with the ball
+    private BallPool balls;
+    // True if destroyed bricks release an extra ball
+    private boolean multiBall;
+    // Number of balls spawned so far, used to alternate their directions
+    private int spawnedBalls;
+    private PlayerBrick playerBrick;
+    private BrickManager brickManager;
+    private int level;
+    // Seed of the random brick colors
+    private long seed;
+    // Generator of the level, or null for levels loaded from the levels directory
+    private LevelGenerator generator;
+    private float accumulator;
+    private boolean over;
+    private boolean won;
+    // Number of steps run so far
+    private int stepCount;
+
+    // Recording the input of every step is added to, or null
+    private InputRecording recording;
+    // Recording the input of every step is taken from, or null, and the position within it
+    private InputRecording replay;
+    private int replayRun;
+    private int replayRunStep;
+
+    /** GameSimulation constructor that loads one of the game levels from the levels directory
+     * with the ball and player brick at their starting positions.
+     *
+     * @param level Integer representing the game level
+     */
+    public GameSimulation(int level) {
+        this(level, BrickManager.DEFAULT_SEED);
+    }
+
+    /** GameSimulation constructor that loads one of the game levels from the levels directory,
+     * picking the colors of bricks without one from the given seed.
+     *
+     * @param level Integer representing the game level
+     * @param seed Long representing the seed of the random brick colors
+     */
+    public GameSimulation(int level, long seed) {
+        this.level = level;
+        this.seed = seed;
+        playerBrick = new PlayerBrick(BrickBreaker.WIDTH / 2, 0);
+        ball = new Ball(BrickBreaker.WIDTH / 2, 60);
+        brickManager = LevelLoader.load(level, ball, seed);
+        balls = new BallPool(MAX_BALLS);
+    }
+
+    /** GameSimulation constructor that generates a level with the ball and player brick at
+     * their starting positions in the middle of the generated play field.
+     *
+     * @param generator LevelGenerator class instance describing the level
+     */
+    public GameSimulation(LevelGenerator generator) {
+        this.generator = generator;
+        level = GENERATED_LEVEL;
+        seed = generator.getSeed();
+        int centerX = (int)(generator.getFieldWidth() / 2);
+        playerBrick = new PlayerBrick(centerX, 0, generator.getFieldWidth());
+        ball = new Ball(centerX, 60);
+        brickManager = generator.generate(ball);
+        balls = new BallPool(MAX_BALLS);
+    }
+
+    /** GameSimulation constructor that takes in an already built ball, player brick and
+     * BrickManager, for example a custom play field filled through BrickManager.addBrick.
+     *
+     * @param ball Ball class instance the BrickManager was built with
+     * @param playerBrick PlayerBrick class instance
+     * @param brickManager BrickManager class instance
+     * @param level Integer representing the game level
+     */
+    public GameSimulation(Ball ball, PlayerBrick playerBrick, BrickManager brickManager,
+                          int level) {
+        this.ball = ball;
+        this.playerBrick = playerBrick;
+        this.brickManager = brickManager;
+        this.level = level;
+        balls = new BallPool(MAX_BALLS);
+    }
+
+    /** Adds the frame time to the accumulator and runs as many fixed steps as it covers, up to
+     * MAX_STEPS_PER_FRAME.  Backlog beyond the cap is dropped instead of carried forward.
+     *
+     * @param delta Time difference between two frames
+     * @param playerInput Float representing the player brick input for this frame (positive
+     *                    moves left, negative moves right)
+     */
+    public void update(float delta, float playerInput) {
+        accumulator += delta;
+        int steps = 0;
+        while (!over && accumulator >= STEP_TIME && steps < MAX_STEPS_PER_FRAME) {
+            accumulator -= STEP_TIME;
+            steps++;
+            step(playerInput);
+        }
+        if (accumulator >= STEP_TIME) {
+            accumulator %= STEP_TIME;
+        }
+    }
+
+    /** Advances the game by one fixed step: moves the player brick and lets the BrickManager
+     * sweep the ball and the extra balls against the walls, the player brick and the bricks.
+     * In multi-ball mode every brick destroyed in the step releases a new ball.  The game is
+     * lost once the ball and every extra ball have left the play field.
+     *
+     * @param playerInput Float representing the player brick input for this step
+     */
+    public void step(float playerInput) {
+        if (over) {
+            return;
+        }
+        if (replay != null) {
+            if (!nextReplayStep()) {
+                over = true;
+                return;
+            }
+            playerInput = replay.getRunInput(replayRun);
+            multiBall = replay.isRunMultiBall(replayRun);
+        }
+        if (recording != null) {
+            recording.record(playerInput, multiBall);
+        }
+        stepCount += 1;
+        playerBrick.move(playerInput);
+        playerBrick.update(STEP_TIME);
+        brickManager.updateBricks(STEP_TIME, playerBrick.getBounds());
+        brickManager.updateBalls(balls, STEP_TIME, playerBrick.getBounds());
+        if (multiBall) {
+            spawnFromDestroyedBricks();
+        }
+        if (brickManager.getRemainingBricks() == 0) {
+            over = true;
+            won = true;
+        }
+        else if (ball.ballOut() && balls.getCount() == 0) {
+            over = true;
+        }
+    }
+
+    /** Takes a snapshot of the game that can be written to a file and resumed later.
+     *
+     * @return SaveGame class instance
+     */
+    public SaveGame save() {
+        return new SaveGame(this);
+    }
+
+    /** Sets the step and spawned ball counts of a game restored from a SaveGame.
+     *
+     * @param stepCount Integer representing the steps run before the game was saved
+     * @param spawnedBalls Integer representing the balls spawned before the game was saved
+     */
+    void restoreCounts(int stepCount, int spawnedBalls) {
+        this.stepCount = stepCount;
+        this.spawnedBalls = spawnedBalls;
+    }
+
+    /** Returns the number of extra balls spawned so far.
+     *
+     * @return Integer representing the spawned ball count
+     */
+    int getSpawnedBalls() {
+        return spawnedBalls;
+    }
+
+    /** Starts recording the input of every step.  Must be called before the first step.
+     *
+     * @return InputRecording class instance the steps are added to
+     */
+    public InputRecording startRecording() {
+        if (stepCount > 0) {
+            throw new GdxRuntimeException("Recording must start before the first step");
+        }
+        recording = new InputRecording(level, seed, generator, brickManager.getPhysics());
+        return recording;
+    }
+
+    /** Returns the recording the input of every step is added to.
+     *
+     * @return InputRecording class instance, or null if the game is not recorded
+     */
+    public InputRecording getRecording() {
+        return recording;
+    }
+
+    /** Replays a recording: every following step ignores its input argument and takes the
+     * recorded input and multi-ball setting instead.  The game ends when the recording runs
+     * out.  Must be called before the first step, on a simulation of the recorded level.
+     *
+     * @param replay InputRecording class instance to replay
+     */
+    public void startReplay(InputRecording replay) {
+        if (stepCount > 0) {
+            throw new GdxRuntimeException("Replay must start before the first step");
+        }
+        this.replay = replay;
+        replayRun = 0;
+        replayRunStep = 0;
+    }
+
+    /** Returns true if the simulation replays a recording.
+     *
+     * @return Boolean that is true while replaying
+     */
+    public boolean isReplay() {
+        return replay != null;
+    }
+
+    /** Moves to the next recorded step.
+     *
+     * @return Boolean that is false if the recording has run out
+     */
+    private boolean nextReplayStep() {
+        while (replayRun < replay.getRunCount()
+                && replayRunStep == replay.getRunLength(replayRun)) {
+            replayRun += 1;
+            replayRunStep = 0;
+        }
+        if (replayRun == replay.getRunCount()) {
+            return false;
+        }
+        replayRunStep += 1;
+        return true;
+    }
+
+    /** Spawns extra balls at the ball's position, spread evenly over a fan of upward
+     * directions, for example to stress the game with thousands of balls.
+     *
+     * @param count Integer representing the number of balls to spawn
+     * @return Integer representing the number of balls spawned before the pool was full
+     */
+    public int spawnBalls(int count) {
+        Vector2 position = ball.getPosition();
+        int spawned = 0;
+        for (int i = 0; i < count; i++) {
+            float degrees = 20 + 140 * (i + 0.5f) / count;
+            if (balls.spawnAtAngle(position.x, position.y, degrees) < 0) {
+                break;
+            }
+            spawned += 1;
+        }
+        spawnedBalls += spawned;
+        return spawned;
+    }
+
+    /** Spawns a ball in the middle of every brick destroyed during the last step, heading down
+     * to the left and to the right in turn.
+     *
+     */
+    private void spawnFromDestroyedBricks() {
+        IntArray destroyed = brickManager.getDestroyedBricks();
+        BrickStore bricks = brickManager.getBrickStore();
+        for (int i = 0; i < destroyed.size; i++) {
+            int id = destroyed.get(i);
+            float x = bricks.getX(id) + (bricks.getWidth(id) - Ball.SIZE) / 2;
+            float y = bricks.getY(id) + (bricks.getHeight(id) - Ball.SIZE) / 2;
+            float degrees = spawnedBalls % 2 == 0 ? 225 : 315;
+            if (balls.spawnAtAngle(x, y, degrees) >= 0) {
+                spawnedBalls += 1;
+            }
+        }
+    }
+
+    /** Sets whether destroyed bricks release extra balls.
+     *
+     * @param multiBall Boolean that is true to turn the multi-ball mode on
+     */
+    public void setMultiBall(boolean multiBall) {
+        this.multiBall = multiBall;
+    }
+
+    /** Returns whether destroyed bricks release extra balls.
+     *
+     * @return Boolean that is true if the multi-ball mode is on
+     */
+    public boolean isMultiBall() {
+        return multiBall;
+    }
+
+    /** Returns how far the current frame is between the last step and the next one, used to
+     * interpolate positions while rendering.
+     *
+     * @return Float between 0 and 1
+     */
+    public float getAlpha() {
+        return accumulator / STEP_TIME;
+    }
+
+    /** Returns true once the game has ended, either because every brick was destroyed or the
+     * ball went out of bounds.
+     *
+     * @return Boolean that is true if the game has ended
+     */
+    public boolean isOver() {
+        return over;
+    }
+
+    /** Returns true if the game ended because every brick was destroyed.
+     *
+     * @return Boolean that is true if the player won
+     */
+    public boolean isWon() {
+        return won;
+    }
+
+    /** Returns the player's score.
+     *
+     * @return Integer representing the player's score
+     */
+    public int getPlayerScore() {
+        return brickManager.getPlayerScore();
+    }
+
+    /** Returns the number of steps run so far.
+     *
+     * @return Integer representing the step count
+     */
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    /** Returns the seed of the random brick colors.
+     *
+     * @return Long representing the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Returns the game level.
+     *
+     * @return Integer representing the game level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /** Returns the generator of the level.
+     *
+     * @return LevelGenerator class instance, or null if the level was loaded from a file
+     */
+    public LevelGenerator getGenerator() {
+        return generator;
+    }
+
+    /** Returns the Ball class instance.
+     *
+     * @return Ball class instance
+     */
+    public Ball getBall() {
+        return ball;
+    }
+
+    /** Returns the extra balls of the multi-ball mode.
+     *
+     * @return BallPool class instance
+     */
+    public BallPool getBalls() {
+        return balls;
+    }
+
+    /** Returns the PlayerBrick class instance.
+     *
+     * @return PlayerBrick class instance
+     */
+    public PlayerBrick getPlayerBrick() {
+        return playerBrick;
+    }
+
+    /** Returns the BrickManager class instance.
+     *
+     * @return BrickManager class instance
+     */
+    public BrickManager getBrickManager() {
+        return brickManager;
+    }
+
+    /** Frees the physics backend of the BrickManager once the game is no longer needed.
+     *
+     */
+    public void dispose() {
+        brickManager.dispose();
+    }
+}
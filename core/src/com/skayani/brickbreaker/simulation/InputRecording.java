@@ -0,0 +1,314 @@
+package com.skayani.brickbreaker.simulation;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.sprites.PhysicsEngine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/** InputRecording class that holds everything needed to play a game again step for step: the
+ * level (or the generator of a generated level), the seed of the random brick colors, the
+ * physics backend and the player input and multi-ball setting of every simulation step.
+ *
+ * The simulation only depends on these, so replaying a recording into a new GameSimulation
+ * repeats the game exactly, either drawn by a PlayState or headless as fast as the CPU allows.
+ * Steps are stored as runs of equal input, so the binary file stays small: a few bytes per
+ * key press, or per step while an accelerometer is used.
+ *
+ * Binary format (big-endian): int MAGIC, short VERSION, int level, long seed, byte physics
+ * backend (from version 2; version 1 recordings use the AABB backend), byte generated flag,
+ * then for generated levels byte pattern and int brick count, then int run count and per run a
+ * variable-length step count, byte multi-ball flag and float input.
+ */
+public class InputRecording {
+    public static final String EXTENSION = ".replay";
+    public static final int MAGIC = 0x42525250;
+    public static final int VERSION = 2;
+
+    private int level;
+    private long seed;
+    // Generator of the level, or null for levels loaded from the levels directory
+    private LevelGenerator generator;
+    // Physics backend the game was played with
+    private PhysicsEngine.Type physics;
+    // Runs of steps with the same input: step count, input and multi-ball setting per run
+    private IntArray runLengths;
+    private FloatArray runInputs;
+    private BooleanArray runMultiBall;
+    private int stepCount;
+
+    /** InputRecording constructor that starts an empty recording of a game of the given level.
+     *
+     * @param level Integer representing the game level, or GameSimulation.GENERATED_LEVEL
+     * @param seed Long representing the seed of the random brick colors
+     * @param generator LevelGenerator class instance, or null if the level is not generated
+     * @param physics PhysicsEngine.Type of the backend the game is played with
+     */
+    public InputRecording(int level, long seed, LevelGenerator generator,
+                          PhysicsEngine.Type physics) {
+        this.level = level;
+        this.seed = seed;
+        this.generator = generator;
+        this.physics = physics;
+        runLengths = new IntArray();
+        runInputs = new FloatArray();
+        runMultiBall = new BooleanArray();
+    }
+
+    /** Adds a simulation step to the recording.
+     *
+     * @param input Float representing the player brick input of the step
+     * @param multiBall Boolean that is true if the multi-ball mode was on during the step
+     */
+    public void record(float input, boolean multiBall) {
+        int last = runLengths.size - 1;
+        if (last >= 0 && runInputs.get(last) == input && runMultiBall.get(last) == multiBall) {
+            runLengths.incr(last, 1);
+        }
+        else {
+            runLengths.add(1);
+            runInputs.add(input);
+            runMultiBall.add(multiBall);
+        }
+        stepCount += 1;
+    }
+
+    /** Creates a GameSimulation of the recorded level, using the recorded physics backend, that
+     * replays the recording.
+     *
+     * @return GameSimulation class instance set up to replay the recording
+     */
+    public GameSimulation newSimulation() {
+        GameSimulation simulation = generator != null ? new GameSimulation(generator)
+                : new GameSimulation(level, seed);
+        simulation.getBrickManager().setPhysics(physics);
+        simulation.startReplay(this);
+        return simulation;
+    }
+
+    /** Replays the recording headless, stepping the simulation without waiting for frames
+     * until the recording runs out.  The caller disposes of the returned simulation.
+     *
+     * @return GameSimulation class instance at the end of the replay
+     */
+    public GameSimulation replay() {
+        GameSimulation simulation = newSimulation();
+        while (!simulation.isOver()) {
+            simulation.step(0);
+        }
+        return simulation;
+    }
+
+    /** Returns the recorded game level.
+     *
+     * @return Integer representing the game level, or GameSimulation.GENERATED_LEVEL
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /** Returns the seed of the random brick colors.
+     *
+     * @return Long representing the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Returns the physics backend the game was played with.
+     *
+     * @return PhysicsEngine.Type of the backend
+     */
+    public PhysicsEngine.Type getPhysics() {
+        return physics;
+    }
+
+    /** Returns the generator of the recorded level.
+     *
+     * @return LevelGenerator class instance, or null if the level is not generated
+     */
+    public LevelGenerator getGenerator() {
+        return generator;
+    }
+
+    /** Returns the number of recorded simulation steps.
+     *
+     * @return Integer representing the step count
+     */
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    /** Returns the number of runs of steps with the same input.
+     *
+     * @return Integer representing the run count
+     */
+    public int getRunCount() {
+        return runLengths.size;
+    }
+
+    /** Returns the number of steps of a run.
+     *
+     * @param run Integer representing the run index
+     * @return Integer representing the step count of the run
+     */
+    public int getRunLength(int run) {
+        return runLengths.get(run);
+    }
+
+    /** Returns the player brick input of a run.
+     *
+     * @param run Integer representing the run index
+     * @return Float representing the player brick input
+     */
+    public float getRunInput(int run) {
+        return runInputs.get(run);
+    }
+
+    /** Returns whether the multi-ball mode was on during a run.
+     *
+     * @param run Integer representing the run index
+     * @return Boolean that is true if the multi-ball mode was on
+     */
+    public boolean isRunMultiBall(int run) {
+        return runMultiBall.get(run);
+    }
+
+    /** Writes the recording to a file.
+     *
+     * @param file FileHandle of the recording file, for example in local storage
+     */
+    public void write(FileHandle file) {
+        OutputStream output = file.write(false);
+        try {
+            write(output);
+        }
+        finally {
+            StreamUtils.closeQuietly(output);
+        }
+    }
+
+    /** Writes the recording to a stream.  The stream is flushed but not closed.
+     *
+     * @param output OutputStream the recording is written to
+     */
+    public void write(OutputStream output) {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+        try {
+            data.writeInt(MAGIC);
+            data.writeShort(VERSION);
+            data.writeInt(level);
+            data.writeLong(seed);
+            data.writeByte(physics.ordinal());
+            data.writeBoolean(generator != null);
+            if (generator != null) {
+                data.writeByte(generator.getPattern().ordinal());
+                data.writeInt(generator.getBrickCount());
+            }
+            data.writeInt(runLengths.size);
+            for (int i = 0; i < runLengths.size; i++) {
+                writeLength(data, runLengths.get(i));
+                data.writeBoolean(runMultiBall.get(i));
+                data.writeFloat(runInputs.get(i));
+            }
+            data.flush();
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error writing input recording", e);
+        }
+    }
+
+    /** Reads a recording from a file.
+     *
+     * @param file FileHandle of the recording file
+     * @return InputRecording class instance
+     */
+    public static InputRecording read(FileHandle file) {
+        InputStream input = file.read();
+        try {
+            return read(input);
+        }
+        finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+
+    /** Reads a recording from a stream.
+     *
+     * @param input InputStream positioned at the start of the recording
+     * @return InputRecording class instance
+     */
+    public static InputRecording read(InputStream input) {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+        try {
+            if (data.readInt() != MAGIC) {
+                throw new GdxRuntimeException("Not an input recording");
+            }
+            int version = data.readShort();
+            if (version < 1 || version > VERSION) {
+                throw new GdxRuntimeException("Unsupported input recording version: "
+                        + version);
+            }
+            int level = data.readInt();
+            long seed = data.readLong();
+            PhysicsEngine.Type physics = PhysicsEngine.Type.AABB;
+            if (version >= 2) {
+                physics = PhysicsEngine.Type.values()[data.readByte()];
+            }
+            LevelGenerator generator = null;
+            if (data.readBoolean()) {
+                LevelGenerator.Pattern pattern = LevelGenerator.Pattern.values()[data.readByte()];
+                generator = new LevelGenerator(seed, pattern, data.readInt());
+            }
+            InputRecording recording = new InputRecording(level, seed, generator, physics);
+            int runCount = data.readInt();
+            for (int i = 0; i < runCount; i++) {
+                int length = readLength(data);
+                recording.runLengths.add(length);
+                recording.runMultiBall.add(data.readBoolean());
+                recording.runInputs.add(data.readFloat());
+                recording.stepCount += length;
+            }
+            return recording;
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error reading input recording", e);
+        }
+    }
+
+    /** Writes a run length in 7-bit groups, so short runs take a single byte.
+     *
+     */
+    private static void writeLength(DataOutputStream data, int length) throws IOException {
+        while (length >= 0x80) {
+            data.writeByte((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        data.writeByte(length);
+    }
+
+    /** Reads a run length written by writeLength.
+     *
+     */
+    private static int readLength(DataInputStream data) throws IOException {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = data.readUnsignedByte();
+            length |= (b & 0x7F) << shift;
+            if (b < 0x80) {
+                return length;
+            }
+        }
+    }
+}
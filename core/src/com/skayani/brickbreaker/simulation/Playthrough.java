@@ -0,0 +1,135 @@
+package com.skayani.brickbreaker.simulation;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.skayani.brickbreaker.sprites.Ball;
+
+/** Playthrough class that plays a GameSimulation to the end with an Autopilot, without
+ * rendering, and keeps the numbers used to balance levels: whether the level was cleared and
+ * how fast, how often the ball bounced and the longest rally.
+ *
+ * A bounce is a change of direction of the ball along either axis.  A rally is a run of player
+ * brick bounces in which no brick is destroyed, so a long rally means the player kept the ball in
+ * play without making progress.  Games are cut off after a maximum number of steps, in case the
+ * ball ends up in a loop that never reaches a brick or the bottom of the play field.
+ */
+public class Playthrough {
+    // Ball bottoms at most this far above the top of the player brick bounced off it
+    private static final float PLAYER_BRICK_MARGIN = 2;
+
+    private boolean won;
+    private boolean timedOut;
+    private int steps;
+    private int bricksDestroyed;
+    private int bounces;
+    private int playerBrickBounces;
+    private int longestRally;
+
+    private Playthrough() {
+    }
+
+    /** Plays a game until it ends or maxSteps steps have been run.
+     *
+     * @param simulation GameSimulation class instance before its first step
+     * @param autopilot Autopilot class instance steering the player brick
+     * @param maxSteps Integer representing the most steps to run
+     * @return Playthrough class instance with the numbers of the game
+     */
+    public static Playthrough play(GameSimulation simulation, Autopilot autopilot, int maxSteps) {
+        Playthrough playthrough = new Playthrough();
+        Ball ball = simulation.getBall();
+        Vector2 velocity = ball.getVelocity();
+        Rectangle playerBrickBounds = simulation.getPlayerBrick().getBounds();
+        int rally = 0;
+        while (!simulation.isOver() && simulation.getStepCount() < maxSteps) {
+            float velocityX = velocity.x;
+            float velocityY = velocity.y;
+            simulation.step(autopilot.input(simulation));
+            if (Math.signum(velocity.x) != Math.signum(velocityX)) {
+                playthrough.bounces += 1;
+            }
+            if (Math.signum(velocity.y) != Math.signum(velocityY)) {
+                playthrough.bounces += 1;
+                if (velocity.y > 0 && ball.getBounds().y <= playerBrickBounds.y
+                        + playerBrickBounds.height + PLAYER_BRICK_MARGIN) {
+                    playthrough.playerBrickBounces += 1;
+                    rally += 1;
+                    playthrough.longestRally = Math.max(playthrough.longestRally, rally);
+                }
+            }
+            int destroyed = simulation.getBrickManager().getDestroyedBricks().size;
+            if (destroyed > 0) {
+                playthrough.bricksDestroyed += destroyed;
+                rally = 0;
+            }
+        }
+        playthrough.won = simulation.isWon();
+        playthrough.timedOut = !simulation.isOver();
+        playthrough.steps = simulation.getStepCount();
+        return playthrough;
+    }
+
+    /** Returns true if every brick was destroyed.
+     *
+     * @return Boolean that is true if the level was cleared
+     */
+    public boolean isWon() {
+        return won;
+    }
+
+    /** Returns true if the game was cut off at the maximum number of steps.
+     *
+     * @return Boolean that is true if the game did not end
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /** Returns the number of steps played.
+     *
+     * @return Integer representing the step count
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /** Returns the game time played.
+     *
+     * @return Float representing the game time in seconds
+     */
+    public float getTime() {
+        return steps * GameSimulation.STEP_TIME;
+    }
+
+    /** Returns the number of bricks destroyed.
+     *
+     * @return Integer representing the destroyed brick count
+     */
+    public int getBricksDestroyed() {
+        return bricksDestroyed;
+    }
+
+    /** Returns the number of times the ball changed direction.
+     *
+     * @return Integer representing the bounce count
+     */
+    public int getBounces() {
+        return bounces;
+    }
+
+    /** Returns the number of times the ball bounced off the player brick.
+     *
+     * @return Integer representing the player brick bounce count
+     */
+    public int getPlayerBrickBounces() {
+        return playerBrickBounces;
+    }
+
+    /** Returns the most player brick bounces in a row without a brick being destroyed.
+     *
+     * @return Integer representing the longest rally
+     */
+    public int getLongestRally() {
+        return longestRally;
+    }
+}
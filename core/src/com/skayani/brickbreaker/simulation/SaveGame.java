@@ -0,0 +1,362 @@
+package com.skayani.brickbreaker.simulation;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.sprites.BallPool;
+import com.skayani.brickbreaker.sprites.BrickManager;
+import com.skayani.brickbreaker.sprites.BrickStore;
+import com.skayani.brickbreaker.sprites.PhysicsEngine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/** SaveGame class that holds a snapshot of a game in progress, so it can be resumed after the
+ * app was closed: the level (or the generator of a generated level), the seed of the random
+ * brick colors, the physics backend, which bricks are alive and the hit points of those that
+ * need more than one more hit, the ball, extra balls and player brick and the score.
+ *
+ * Only what the game changed is kept; the level itself is rebuilt from its file or generator
+ * with the same seed, so the bricks keep their colors.  The alive bricks are stored as a bitset
+ * of one bit per brick, so even a level of a million bricks saves in about 125 KB.  Taking the
+ * snapshot copies the bitset, so the snapshot can be written on a background thread while the
+ * game goes on.
+ *
+ * Binary format (big-endian): int MAGIC, short VERSION, int level, long seed, byte physics
+ * backend, byte generated flag, then for generated levels byte pattern and int brick count,
+ * then int step count, int score, byte multi-ball flag, int spawned ball count, floats ball
+ * position and velocity, float player brick X-coordinate, int extra ball count and per extra
+ * ball floats position and velocity, int brick count, the alive bitset as longs (bit i of
+ * word i / 64 for brick i), int damaged brick count and per damaged brick int id and byte hit
+ * points.
+ */
+public class SaveGame {
+    public static final String EXTENSION = ".save";
+    public static final int MAGIC = 0x42525356;
+    public static final int VERSION = 1;
+
+    private int level;
+    private long seed;
+    // Generator of the level, or null for levels loaded from the levels directory
+    private LevelGenerator generator;
+    private PhysicsEngine.Type physics;
+    private int stepCount;
+    private int score;
+    private boolean multiBall;
+    // Balls released so far by the multi-ball mode, which picks their directions
+    private int spawnedBalls;
+    private float ballX;
+    private float ballY;
+    private float ballVelocityX;
+    private float ballVelocityY;
+    private float playerBrickX;
+    // Position and velocity of every extra ball, four floats per ball
+    private float[] extraBalls;
+    private int brickCount;
+    // Bit i of alive[i >> 6] is set while brick i has not been destroyed
+    private long[] alive;
+    // Alive bricks with more than one hit point left, and their hit points
+    private int[] damagedIds;
+    private byte[] damagedHitPoints;
+
+    /** SaveGame constructor for reading a save from a stream.
+     *
+     */
+    private SaveGame() {
+    }
+
+    /** SaveGame constructor that takes a snapshot of a game in progress.
+     *
+     * @param simulation GameSimulation class instance
+     */
+    SaveGame(GameSimulation simulation) {
+        BrickManager brickManager = simulation.getBrickManager();
+        BrickStore bricks = brickManager.getBrickStore();
+        level = simulation.getLevel();
+        seed = simulation.getSeed();
+        generator = simulation.getGenerator();
+        physics = brickManager.getPhysics();
+        stepCount = simulation.getStepCount();
+        score = simulation.getPlayerScore();
+        multiBall = simulation.isMultiBall();
+        spawnedBalls = simulation.getSpawnedBalls();
+        Vector2 position = simulation.getBall().getPosition();
+        Vector2 velocity = simulation.getBall().getVelocity();
+        ballX = position.x;
+        ballY = position.y;
+        ballVelocityX = velocity.x;
+        ballVelocityY = velocity.y;
+        playerBrickX = simulation.getPlayerBrick().getPosition().x;
+
+        BallPool balls = simulation.getBalls();
+        extraBalls = new float[balls.getCount() * 4];
+        for (int i = 0; i < balls.getCount(); i++) {
+            extraBalls[i * 4] = balls.getX(i);
+            extraBalls[i * 4 + 1] = balls.getY(i);
+            extraBalls[i * 4 + 2] = balls.getVelocityX(i);
+            extraBalls[i * 4 + 3] = balls.getVelocityY(i);
+        }
+
+        brickCount = bricks.size();
+        alive = new long[(brickCount + 63) >> 6];
+        bricks.copyAlive(alive);
+        // Destroyed bricks have no hit points left, so only alive ones can have more than one
+        int damaged = 0;
+        for (int id = 0; id < brickCount; id++) {
+            if (bricks.getHitPoints(id) > 1) {
+                damaged += 1;
+            }
+        }
+        damagedIds = new int[damaged];
+        damagedHitPoints = new byte[damaged];
+        damaged = 0;
+        for (int id = 0; damaged < damagedIds.length; id++) {
+            if (bricks.getHitPoints(id) > 1) {
+                damagedIds[damaged] = id;
+                damagedHitPoints[damaged] = (byte)bricks.getHitPoints(id);
+                damaged += 1;
+            }
+        }
+    }
+
+    /** Rebuilds the saved level with the saved seed and physics backend and puts the bricks,
+     * balls, player brick and score back as they were when the game was saved.
+     *
+     * @return GameSimulation class instance that continues the saved game
+     */
+    public GameSimulation newSimulation() {
+        GameSimulation simulation = generator != null ? new GameSimulation(generator)
+                : new GameSimulation(level, seed);
+        BrickManager brickManager = simulation.getBrickManager();
+        brickManager.setPhysics(physics);
+        BrickStore bricks = brickManager.getBrickStore();
+        if (bricks.size() != brickCount) {
+            simulation.dispose();
+            throw new GdxRuntimeException("Saved game does not match its level");
+        }
+
+        int damaged = 0;
+        for (int id = bricks.nextAlive(0); id >= 0; id = bricks.nextAlive(id + 1)) {
+            while (damaged < damagedIds.length && damagedIds[damaged] < id) {
+                damaged += 1;
+            }
+            if ((alive[id >> 6] & (1L << id)) == 0) {
+                brickManager.setHitPoints(id, 0);
+            }
+            else if (damaged < damagedIds.length && damagedIds[damaged] == id) {
+                brickManager.setHitPoints(id, damagedHitPoints[damaged]);
+            }
+            else {
+                brickManager.setHitPoints(id, 1);
+            }
+        }
+        brickManager.setPlayerScore(score);
+
+        Vector2 position = simulation.getBall().getPosition();
+        simulation.getBall().moveBy(ballX - position.x, ballY - position.y);
+        simulation.getBall().startStep();
+        simulation.getBall().getVelocity().set(ballVelocityX, ballVelocityY);
+        simulation.getPlayerBrick().setX(playerBrickX);
+        BallPool balls = simulation.getBalls();
+        for (int i = 0; i < extraBalls.length; i += 4) {
+            balls.spawn(extraBalls[i], extraBalls[i + 1], extraBalls[i + 2], extraBalls[i + 3]);
+        }
+        simulation.setMultiBall(multiBall);
+        simulation.restoreCounts(stepCount, spawnedBalls);
+        return simulation;
+    }
+
+    /** Returns the saved game level.
+     *
+     * @return Integer representing the game level, or GameSimulation.GENERATED_LEVEL
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /** Returns the generator of the saved level.
+     *
+     * @return LevelGenerator class instance, or null if the level is not generated
+     */
+    public LevelGenerator getGenerator() {
+        return generator;
+    }
+
+    /** Returns the score when the game was saved.
+     *
+     * @return Integer representing the player's score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /** Returns the number of simulation steps run before the game was saved.
+     *
+     * @return Integer representing the step count
+     */
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    /** Writes the save to a file.  The save is written in full next to the file first and then
+     * renamed over it, so a save interrupted by the app being killed never replaces a complete
+     * one.  It is only copied over the file where renaming fails.
+     *
+     * @param file FileHandle of the save file, for example in local storage
+     */
+    public void write(FileHandle file) {
+        FileHandle partial = getPartial(file);
+        OutputStream output = partial.write(false);
+        try {
+            write(output);
+        }
+        finally {
+            StreamUtils.closeQuietly(output);
+        }
+        if (!partial.file().renameTo(file.file())) {
+            partial.moveTo(file);
+        }
+    }
+
+    /** Deletes what is left of a save the app was killed in the middle of writing.  Called at
+     * startup, before the save file is looked for.
+     *
+     * @param file FileHandle of the save file
+     */
+    public static void deletePartial(FileHandle file) {
+        FileHandle partial = getPartial(file);
+        if (partial.exists()) {
+            partial.delete();
+        }
+    }
+
+    /** Returns the file a save is written to before it is renamed over the save file.
+     *
+     */
+    private static FileHandle getPartial(FileHandle file) {
+        return file.sibling(file.name() + ".tmp");
+    }
+
+    /** Writes the save to a stream.
+     *
+     * @param output OutputStream the save is written to
+     */
+    public void write(OutputStream output) {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output, 8192));
+        try {
+            data.writeInt(MAGIC);
+            data.writeShort(VERSION);
+            data.writeInt(level);
+            data.writeLong(seed);
+            data.writeByte(physics.ordinal());
+            data.writeBoolean(generator != null);
+            if (generator != null) {
+                data.writeByte(generator.getPattern().ordinal());
+                data.writeInt(generator.getBrickCount());
+            }
+            data.writeInt(stepCount);
+            data.writeInt(score);
+            data.writeBoolean(multiBall);
+            data.writeInt(spawnedBalls);
+            data.writeFloat(ballX);
+            data.writeFloat(ballY);
+            data.writeFloat(ballVelocityX);
+            data.writeFloat(ballVelocityY);
+            data.writeFloat(playerBrickX);
+            data.writeInt(extraBalls.length / 4);
+            for (int i = 0; i < extraBalls.length; i++) {
+                data.writeFloat(extraBalls[i]);
+            }
+            data.writeInt(brickCount);
+            for (int i = 0; i < alive.length; i++) {
+                data.writeLong(alive[i]);
+            }
+            data.writeInt(damagedIds.length);
+            for (int i = 0; i < damagedIds.length; i++) {
+                data.writeInt(damagedIds[i]);
+                data.writeByte(damagedHitPoints[i]);
+            }
+            data.flush();
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error writing saved game", e);
+        }
+    }
+
+    /** Reads a save from a file.
+     *
+     * @param file FileHandle of the save file
+     * @return SaveGame class instance
+     */
+    public static SaveGame read(FileHandle file) {
+        InputStream input = file.read();
+        try {
+            return read(input);
+        }
+        finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+
+    /** Reads a save from a stream.
+     *
+     * @param input InputStream positioned at the start of the save
+     * @return SaveGame class instance
+     */
+    public static SaveGame read(InputStream input) {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(input, 8192));
+        try {
+            if (data.readInt() != MAGIC) {
+                throw new GdxRuntimeException("Not a saved game");
+            }
+            int version = data.readShort();
+            if (version != VERSION) {
+                throw new GdxRuntimeException("Unsupported saved game version: " + version);
+            }
+            SaveGame save = new SaveGame();
+            save.level = data.readInt();
+            save.seed = data.readLong();
+            save.physics = PhysicsEngine.Type.values()[data.readByte()];
+            if (data.readBoolean()) {
+                LevelGenerator.Pattern pattern = LevelGenerator.Pattern.values()[data.readByte()];
+                save.generator = new LevelGenerator(save.seed, pattern, data.readInt());
+            }
+            save.stepCount = data.readInt();
+            save.score = data.readInt();
+            save.multiBall = data.readBoolean();
+            save.spawnedBalls = data.readInt();
+            save.ballX = data.readFloat();
+            save.ballY = data.readFloat();
+            save.ballVelocityX = data.readFloat();
+            save.ballVelocityY = data.readFloat();
+            save.playerBrickX = data.readFloat();
+            save.extraBalls = new float[data.readInt() * 4];
+            for (int i = 0; i < save.extraBalls.length; i++) {
+                save.extraBalls[i] = data.readFloat();
+            }
+            save.brickCount = data.readInt();
+            save.alive = new long[(save.brickCount + 63) >> 6];
+            for (int i = 0; i < save.alive.length; i++) {
+                save.alive[i] = data.readLong();
+            }
+            int damaged = data.readInt();
+            save.damagedIds = new int[damaged];
+            save.damagedHitPoints = new byte[damaged];
+            for (int i = 0; i < damaged; i++) {
+                save.damagedIds[i] = data.readInt();
+                save.damagedHitPoints[i] = data.readByte();
+            }
+            return save;
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error reading saved game", e);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.skayani.brickbreaker.simulation;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.sprites.BrickStore;
+import com.skayani.brickbreaker.sprites.ForkJoinSupport;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/** VectorEnvironment class that runs a number of independent games of the same level in lockstep
+ * for training player brick agents, without rendering: step advances every game by one fixed
+ * simulation step with its own action, and observe writes the state of every game into buffers
+ * owned by the caller.
+ *
+ * The state of game i is STATE_SIZE floats starting at i * STATE_SIZE (ball position and
+ * velocity and player brick position, in pixels and pixels per second) and its brick mask is
+ * getBrickCount bytes starting at i * getBrickCount, 1 for every brick that is still alive, in
+ * brick id order.  The reward of a step is the score it gained.  A game that ends (or reaches
+ * the maximum episode length) reports done and is reset at once, so the next observation is the
+ * first of its new episode.
+ *
+ * Steps do not allocate, apart from the new game built when an episode ends.  With more than one
+ * thread the games are split into ranges stepped on a fork/join pool; every game only depends
+ * on its own actions and seeds, so the results are the same on any number of threads.
+ */
+public class VectorEnvironment {
+    // Offsets within the state of one game
+    public static final int BALL_X = 0;
+    public static final int BALL_Y = 1;
+    public static final int BALL_VELOCITY_X = 2;
+    public static final int BALL_VELOCITY_Y = 3;
+    public static final int PLAYER_BRICK_X = 4;
+    public static final int STATE_SIZE = 5;
+    // Episodes are cut off after this much game time unless set otherwise
+    public static final int DEFAULT_MAX_EPISODE_STEPS = (int)(10 * 60 / GameSimulation.STEP_TIME);
+
+    private int level;
+    // Generator of the level, or null for levels loaded from the levels directory
+    private LevelGenerator generator;
+    private long seed;
+    private int maxEpisodeSteps;
+
+    private GameSimulation[] simulations;
+    // Episodes started per game, mixed into the seed of the next episode
+    private int[] episodes;
+    private int brickCount;
+
+    // Actions of the current step and the rewards and done flags it produces, one per game
+    private float[] actions;
+    private float[] rewards;
+    private boolean[] dones;
+
+    // Steps the games on several threads, or null to step them on the calling thread
+    private EnvironmentWorkers workers;
+
+    /** VectorEnvironment constructor that starts count games of one of the game levels.
+     *
+     * @param count Integer representing the number of games
+     * @param level Integer representing the game level
+     * @param seed Long representing the seed the brick colors of every episode are derived from
+     * @param threads Integer representing the number of threads to step the games on
+     */
+    public VectorEnvironment(int count, int level, long seed, int threads) {
+        this(count, level, null, seed, threads);
+    }
+
+    /** VectorEnvironment constructor that starts count games of a generated level.
+     *
+     * @param count Integer representing the number of games
+     * @param generator LevelGenerator class instance describing the level
+     * @param threads Integer representing the number of threads to step the games on
+     */
+    public VectorEnvironment(int count, LevelGenerator generator, int threads) {
+        this(count, GameSimulation.GENERATED_LEVEL, generator, generator.getSeed(), threads);
+    }
+
+    private VectorEnvironment(int count, int level, LevelGenerator generator, long seed,
+                              int threads) {
+        this.level = level;
+        this.generator = generator;
+        this.seed = seed;
+        maxEpisodeSteps = DEFAULT_MAX_EPISODE_STEPS;
+        simulations = new GameSimulation[count];
+        episodes = new int[count];
+        actions = new float[count];
+        rewards = new float[count];
+        dones = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            reset(i);
+        }
+        brickCount = simulations[0].getBrickManager().getBrickStore().size();
+        if (threads > 1 && count > 1 && ForkJoinSupport.isAvailable()) {
+            workers = new EnvironmentWorkers(this, threads);
+        }
+    }
+
+    /** Starts a new episode in every game.
+     *
+     */
+    public void reset() {
+        for (int i = 0; i < simulations.length; i++) {
+            reset(i);
+        }
+    }
+
+    /** Starts a new episode in one game.
+     *
+     * @param i Integer representing the game index
+     */
+    public void reset(int i) {
+        if (simulations[i] != null) {
+            simulations[i].dispose();
+        }
+        GameSimulation simulation;
+        if (generator != null) {
+            simulation = new GameSimulation(generator);
+        }
+        else {
+            simulation = new GameSimulation(level, seed + i * 1000003L + episodes[i]);
+        }
+        // The games are already spread over the threads
+        simulation.getBrickManager().setParallelBalls(false);
+        simulations[i] = simulation;
+        episodes[i] += 1;
+    }
+
+    /** Advances every game by one simulation step.
+     *
+     * @param actions Floats representing the player brick input of every game, between -1
+     *                (right) and 1 (left)
+     * @param rewards Floats the score gained by every game is written to
+     * @param dones Booleans that are set for every game whose episode ended and was reset
+     */
+    public void step(float[] actions, float[] rewards, boolean[] dones) {
+        System.arraycopy(actions, 0, this.actions, 0, simulations.length);
+        step();
+        System.arraycopy(this.rewards, 0, rewards, 0, simulations.length);
+        System.arraycopy(this.dones, 0, dones, 0, simulations.length);
+    }
+
+    /** Advances every game by one simulation step, reading and writing buffers at their
+     * absolute indexes, for example direct buffers shared with native code.
+     *
+     * @param actions FloatBuffer holding the player brick input of every game
+     * @param rewards FloatBuffer the score gained by every game is written to
+     * @param dones ByteBuffer in which 1 is written for every game whose episode ended and was
+     *              reset, 0 for the others
+     */
+    public void step(FloatBuffer actions, FloatBuffer rewards, ByteBuffer dones) {
+        for (int i = 0; i < simulations.length; i++) {
+            this.actions[i] = actions.get(i);
+        }
+        step();
+        for (int i = 0; i < simulations.length; i++) {
+            rewards.put(i, this.rewards[i]);
+            dones.put(i, (byte)(this.dones[i] ? 1 : 0));
+        }
+    }
+
+    /** Writes the state and the brick mask of every game.
+     *
+     * @param states Floats of at least getCount * STATE_SIZE elements
+     * @param brickMasks Bytes of at least getCount * getBrickCount elements, or null to skip
+     *                   the brick masks
+     */
+    public void observe(float[] states, byte[] brickMasks) {
+        for (int i = 0; i < simulations.length; i++) {
+            GameSimulation simulation = simulations[i];
+            int offset = i * STATE_SIZE;
+            Vector2 position = simulation.getBall().getPosition();
+            Vector2 velocity = simulation.getBall().getVelocity();
+            states[offset + BALL_X] = position.x;
+            states[offset + BALL_Y] = position.y;
+            states[offset + BALL_VELOCITY_X] = velocity.x;
+            states[offset + BALL_VELOCITY_Y] = velocity.y;
+            states[offset + PLAYER_BRICK_X] = simulation.getPlayerBrick().getPosition().x;
+            if (brickMasks != null) {
+                BrickStore bricks = simulation.getBrickManager().getBrickStore();
+                int maskOffset = i * brickCount;
+                for (int id = 0; id < brickCount; id++) {
+                    brickMasks[maskOffset + id] = (byte)(bricks.isAlive(id) ? 1 : 0);
+                }
+            }
+        }
+    }
+
+    /** Writes the state and the brick mask of every game at the absolute indexes of the
+     * buffers, for example direct buffers shared with native code.
+     *
+     * @param states FloatBuffer of at least getCount * STATE_SIZE elements
+     * @param brickMasks ByteBuffer of at least getCount * getBrickCount bytes, or null to skip
+     *                   the brick masks
+     */
+    public void observe(FloatBuffer states, ByteBuffer brickMasks) {
+        for (int i = 0; i < simulations.length; i++) {
+            GameSimulation simulation = simulations[i];
+            int offset = i * STATE_SIZE;
+            Vector2 position = simulation.getBall().getPosition();
+            Vector2 velocity = simulation.getBall().getVelocity();
+            states.put(offset + BALL_X, position.x);
+            states.put(offset + BALL_Y, position.y);
+            states.put(offset + BALL_VELOCITY_X, velocity.x);
+            states.put(offset + BALL_VELOCITY_Y, velocity.y);
+            states.put(offset + PLAYER_BRICK_X, simulation.getPlayerBrick().getPosition().x);
+            if (brickMasks != null) {
+                BrickStore bricks = simulation.getBrickManager().getBrickStore();
+                int maskOffset = i * brickCount;
+                for (int id = 0; id < brickCount; id++) {
+                    brickMasks.put(maskOffset + id, (byte)(bricks.isAlive(id) ? 1 : 0));
+                }
+            }
+        }
+    }
+
+    /** Sets the number of steps after which an episode is cut off and reported done.
+     *
+     * @param steps Integer representing the maximum episode length in steps
+     */
+    public void setMaxEpisodeSteps(int steps) {
+        maxEpisodeSteps = steps;
+    }
+
+    /** Returns the number of games.
+     *
+     * @return Integer representing the game count
+     */
+    public int getCount() {
+        return simulations.length;
+    }
+
+    /** Returns the number of bricks of the level, which is the size of a game's brick mask.
+     *
+     * @return Integer representing the brick count
+     */
+    public int getBrickCount() {
+        return brickCount;
+    }
+
+    /** Returns the simulation of the current episode of a game, for example to render it.
+     *
+     * @param i Integer representing the game index
+     * @return GameSimulation class instance
+     */
+    public GameSimulation getSimulation(int i) {
+        return simulations[i];
+    }
+
+    /** Stops the worker threads and frees the games.
+     *
+     */
+    public void dispose() {
+        if (workers != null) {
+            workers.dispose();
+        }
+        for (int i = 0; i < simulations.length; i++) {
+            simulations[i].dispose();
+        }
+    }
+
+    /** Steps every game with the actions copied into this.actions.
+     *
+     */
+    private void step() {
+        if (workers != null) {
+            workers.run();
+        }
+        else {
+            stepRange(0, simulations.length);
+        }
+    }
+
+    /** Steps a range of the games, resetting those whose episode ended.  Called by the
+     * EnvironmentWorkers for disjoint ranges at the same time.
+     *
+     * @param from Integer representing the first game index
+     * @param to Integer representing the index after the last game
+     */
+    void stepRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            GameSimulation simulation = simulations[i];
+            int score = simulation.getPlayerScore();
+            simulation.step(MathUtils.clamp(actions[i], -1, 1));
+            rewards[i] = simulation.getPlayerScore() - score;
+            dones[i] = simulation.isOver() || simulation.getStepCount() >= maxEpisodeSteps;
+            if (dones[i]) {
+                reset(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.skayani.brickbreaker.sprites;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+
+/** AabbPhysics class that moves the ball with swept axis-aligned bounding box tests against the
+ * walls, the player brick and the bricks in the BrickManager's grid.  The ball is swept along its
+ * path and the earliest contact is resolved first; the ball then continues with the rest of the
+ * step, so several contacts can be resolved in order within one step.  Bricks hit at the same
+ * time are all reported with a single reflection.
+ *
+ * The bricks are read from the grid the BrickManager keeps for every backend, so adding and
+ * removing brick bodies does nothing here.
+ */
+class AabbPhysics implements PhysicsEngine {
+    // Most contacts resolved for the ball within a single simulation step
+    private static final int MAX_CONTACTS_PER_STEP = 8;
+
+    private ContactFinder contacts;
+
+    /** AabbPhysics constructor that takes in the finder used to search the level's bricks.
+     *
+     * @param contacts ContactFinder class instance used only by this backend
+     */
+    AabbPhysics(ContactFinder contacts) {
+        this.contacts = contacts;
+    }
+
+    /** Does nothing: the bricks are found through the BrickManager's grid.
+     *
+     */
+    @Override
+    public void addBrick(int id, float x, float y, float width, float height) {
+    }
+
+    /** Does nothing: destroyed bricks are removed from the BrickManager's grid.
+     *
+     */
+    @Override
+    public void removeBrick(int id) {
+    }
+
+    /** Sweeps the ball through the step, reporting the bricks of every contact as it is
+     * resolved.
+     *
+     * @param ball Ball class instance to move
+     * @param delta Fixed time (in seconds) covered by one simulation step
+     * @param playerBrickBounds Rectangle representing the player brick bounds
+     * @param listener ContactListener class instance told about the bricks the ball touched
+     */
+    @Override
+    public void step(Ball ball, float delta, Rectangle playerBrickBounds,
+                     ContactListener listener) {
+        Rectangle ballBounds = ball.getBounds();
+        Vector2 velocity = ball.getVelocity();
+        float remaining = 1;
+        for (int i = 0; i < MAX_CONTACTS_PER_STEP && remaining > 0; i++) {
+            float dx = velocity.x * delta * remaining;
+            float dy = velocity.y * delta * remaining;
+            contacts.find(ballBounds, dx, dy, playerBrickBounds);
+            float contactTime = contacts.getTime();
+            if (contactTime >= 1) {
+                ball.moveBy(dx, dy);
+                break;
+            }
+            ball.moveBy(dx * contactTime, dy * contactTime);
+            ball.reflect(contacts.getNormalX(), contacts.getNormalY());
+            IntArray contactBricks = contacts.getBricks();
+            for (int j = 0; j < contactBricks.size; j++) {
+                listener.brickContact(contactBricks.get(j));
+            }
+            remaining *= 1 - contactTime;
+        }
+    }
+
+    /** Returns Type.AABB.
+     *
+     * @return Type of the backend
+     */
+    @Override
+    public Type getType() {
+        return Type.AABB;
+    }
+
+    /** Does nothing: the backend holds no native resources.
+     *
+     */
+    @Override
+    public void dispose() {
+    }
+}
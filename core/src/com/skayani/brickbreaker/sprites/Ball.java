@@ -1,22 +1,26 @@
 package com.skayani.brickbreaker.sprites;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
-import com.skayani.brickbreaker.BrickBreaker;
 
-import java.util.Random;
-
-/** Ball class that represents the moving ball on the screen.
- *
+/** Ball class that represents the moving ball on the screen.  The ball only holds simulation
+ * state; its image is drawn by the PlayState.
  */
 
 public class Ball {
+    // Width and height of the ball image in pixels
+    public static final float SIZE = 29;
+
+    // Ball speed along each axis in pixels per second
+    static final float SPEED = 240;
+    // Balls below this Y-coordinate are out of bounds
+    static final float OUT_OF_BOUNDS_Y = -5;
+
     private Vector2 position;
+    private Vector2 previousPosition;
+    private Vector2 renderPosition;
     private Vector2 velocity;
     private Rectangle bounds;
-    private Texture ball;
-    private Random randNum;
 
 
     /** Returns a Vector2 representing the ball position.
@@ -27,20 +31,22 @@ public class Ball {
         return position;
     }
 
-    /** Returns a Vector2 representing the vall velocity.
+    /** Returns a Vector2 representing the ball position blended between the previous and the
+     * current simulation step, used to draw the ball smoothly between fixed steps.
      *
-     * @return Vector2 representing the ball velocity.
+     * @param alpha Float between 0 and 1 representing how far the frame is into the next step
+     * @return Vector2 representing the interpolated ball position
      */
-    public Vector2 getVelocity() {
-        return velocity;
+    public Vector2 getRenderPosition(float alpha) {
+        return renderPosition.set(previousPosition).lerp(position, alpha);
     }
 
-    /** Returns the Texture class instance of the ball image.
+    /** Returns a Vector2 representing the vall velocity.
      *
-     * @return Texture clsas instance of the ball
+     * @return Vector2 representing the ball velocity.
      */
-    public Texture getTexture() {
-        return ball;
+    public Vector2 getVelocity() {
+        return velocity;
     }
 
     /** Returns a rectangle representing the boundaries of the ball.
@@ -58,50 +64,45 @@ public class Ball {
      * @param y Y-coordinate of the ball position
      */
     public Ball (int x, int y) {
-        ball = new Texture("redball.png");
-        randNum = new Random();
         position = new Vector2(x, y);
-        velocity = new Vector2(4, -4);
-        bounds = new Rectangle(x, y, ball.getWidth(), ball.getHeight());
-    }
-
-    /** Method that is called when the ball position changes.
-     *
-     * @param delta Time difference between two frames
-     */
-    public void update(float delta) {
-        position.add(velocity);
-        bounds.setPosition(position.x, position.y);
+        previousPosition = new Vector2(x, y);
+        renderPosition = new Vector2(x, y);
+        velocity = new Vector2(SPEED, -SPEED);
+        bounds = new Rectangle(x, y, SIZE, SIZE);
     }
 
-    /** Checks whether the ball has collided with either the left wall or the right wall.
+    /** Method that is called at the start of every simulation step to remember the position
+     * the ball is interpolated from while rendering.
      *
-     * @return Boolean that is true if the ball has collided with left or right wall.
      */
-    public boolean collidesVertical() {
-        // Check if X bound hits either left or right screen border
-        return (bounds.x < 0) || (bounds.x + ball.getWidth()) >= BrickBreaker.WIDTH;
+    public void startStep() {
+        previousPosition.set(position);
     }
 
-    /** Checks whether the ball has collided with either the top wall or if the ball has gone
-     * past the movable player brick.
+    /** Moves the ball by the given distance.
      *
-     * @return Boolean that is true if the ball has collided with the top wall or if the ball
-     * has gone past the movable player brick.
+     * @param x Float representing the distance to move along the X-axis
+     * @param y Float representing the distance to move along the Y-axis
      */
-    public boolean collidesHorizontal() {
-        // Check if Y bound hits either top border
-        return (bounds.y + ball.getHeight() >= BrickBreaker.HEIGHT);
+    public void moveBy(float x, float y) {
+        position.add(x, y);
+        bounds.setPosition(position.x, position.y);
     }
 
-    /** Checks whether the ball has collided with the movable player brick.
+    /** Reflects the ball off a surface so that it moves away from it.  Only the velocity
+     * components along a non-zero normal component are changed, so hitting the side of an
+     * object flips the X direction and hitting its top or bottom flips the Y direction.
      *
-     * @param playerBrick Rectangle representing the ball bounds.
-     * @return Boolean that is true if the ball has collided with player brick
+     * @param normalX Float representing the X component of the surface normal
+     * @param normalY Float representing the Y component of the surface normal
      */
-    public boolean collidesPlayerBrick(Rectangle playerBrick) {
-        // Check if ball collides with moving brick
-        return playerBrick.overlaps(bounds);
+    public void reflect(float normalX, float normalY) {
+        if (normalX != 0) {
+            velocity.x = Math.abs(velocity.x) * Math.signum(normalX);
+        }
+        if (normalY != 0) {
+            velocity.y = Math.abs(velocity.y) * Math.signum(normalY);
+        }
     }
 
     /** Checks whether the ball has gone out of bounds.
@@ -110,7 +111,7 @@ public class Ball {
      */
     public boolean ballOut() {
         // Check if ball is out of bounds
-        return position.y < -5;
+        return position.y < OUT_OF_BOUNDS_Y;
     }
 
     /** Flips the X direction of the ball movement.
@@ -134,11 +135,4 @@ public class Ball {
     public void addVelocity(Vector2 addedVelocity) {
         velocity.add(addedVelocity.x, addedVelocity.y);
     }
-
-    /** Method called when the PlayState is removed from the GameStateManger stack to
-     * dispose/deallocate the ball image resource.
-     */
-    public void dispose() {
-        ball.dispose();
-    }
 }
@@ -0,0 +1,216 @@
+package com.skayani.brickbreaker.sprites;
+
+import com.badlogic.gdx.math.MathUtils;
+
+import java.util.Arrays;
+
+/** BallPool class that holds the extra balls of the multi-ball mode in parallel primitive
+ * arrays, the same way BrickStore holds the bricks.  Active balls are packed at indices 0 to
+ * getCount() - 1; releasing a ball moves the last ball into its slot, so spawning and releasing
+ * never allocate once the pool has grown, and the order of the balls only depends on the order
+ * of the spawns and releases.
+ *
+ * The arrays are package-private so the BrickManager can step the balls without a method call
+ * per field.
+ */
+public class BallPool {
+    // Most brick hits recorded for one ball in one simulation step
+    static final int MAX_HITS_PER_BALL = 16;
+
+    float[] x;
+    float[] y;
+    float[] previousX;
+    float[] previousY;
+    float[] velocityX;
+    float[] velocityY;
+    // Bricks hit by ball i during the current step: hits[i * MAX_HITS_PER_BALL + k]
+    int[] hits;
+    int[] hitCount;
+    private int count;
+    private int maxBalls;
+
+    /** BallPool constructor that takes in the most balls the pool may hold.
+     *
+     * @param maxBalls Integer representing the pool size limit
+     */
+    public BallPool(int maxBalls) {
+        this.maxBalls = maxBalls;
+        int capacity = Math.max(1, Math.min(64, maxBalls));
+        x = new float[capacity];
+        y = new float[capacity];
+        previousX = new float[capacity];
+        previousY = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        hits = new int[capacity * MAX_HITS_PER_BALL];
+        hitCount = new int[capacity];
+    }
+
+    /** Adds a ball at the given position moving with the given velocity.
+     *
+     * @param ballX X-coordinate of the ball position
+     * @param ballY Y-coordinate of the ball position
+     * @param ballVelocityX Float representing the velocity along the X-axis
+     * @param ballVelocityY Float representing the velocity along the Y-axis
+     * @return Integer representing the index of the new ball, or -1 if the pool is full
+     */
+    public int spawn(float ballX, float ballY, float ballVelocityX, float ballVelocityY) {
+        if (count >= maxBalls) {
+            return -1;
+        }
+        ensureCapacity(count + 1);
+        int i = count++;
+        x[i] = ballX;
+        y[i] = ballY;
+        previousX[i] = ballX;
+        previousY[i] = ballY;
+        velocityX[i] = ballVelocityX;
+        velocityY[i] = ballVelocityY;
+        hitCount[i] = 0;
+        return i;
+    }
+
+    /** Adds a ball at the given position moving at the standard ball speed in the direction of
+     * the given angle.
+     *
+     * @param ballX X-coordinate of the ball position
+     * @param ballY Y-coordinate of the ball position
+     * @param degrees Float representing the direction in degrees (0 is right, 90 is up)
+     * @return Integer representing the index of the new ball, or -1 if the pool is full
+     */
+    public int spawnAtAngle(float ballX, float ballY, float degrees) {
+        // The single ball moves at SPEED along both axes, so keep the same overall speed
+        float speed = Ball.SPEED * (float)Math.sqrt(2);
+        return spawn(ballX, ballY, MathUtils.cosDeg(degrees) * speed,
+                MathUtils.sinDeg(degrees) * speed);
+    }
+
+    /** Removes a ball, moving the last ball into its index.
+     *
+     * @param i Integer representing the ball index
+     */
+    public void release(int i) {
+        int last = --count;
+        if (i == last) {
+            return;
+        }
+        x[i] = x[last];
+        y[i] = y[last];
+        previousX[i] = previousX[last];
+        previousY[i] = previousY[last];
+        velocityX[i] = velocityX[last];
+        velocityY[i] = velocityY[last];
+        hitCount[i] = hitCount[last];
+        System.arraycopy(hits, last * MAX_HITS_PER_BALL, hits, i * MAX_HITS_PER_BALL,
+                hitCount[last]);
+    }
+
+    /** Removes every ball.
+     *
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /** Remembers the positions the balls are interpolated from while rendering and clears the
+     * hits of the previous step.  Called at the start of every simulation step.
+     *
+     */
+    public void startStep() {
+        System.arraycopy(x, 0, previousX, 0, count);
+        System.arraycopy(y, 0, previousY, 0, count);
+        Arrays.fill(hitCount, 0, count, 0);
+    }
+
+    /** Returns the number of active balls.
+     *
+     * @return Integer representing the active ball count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /** Returns the most balls the pool may hold.
+     *
+     * @return Integer representing the pool size limit
+     */
+    public int getMaxBalls() {
+        return maxBalls;
+    }
+
+    /** Returns the ball X-coordinate.
+     *
+     * @param i Integer representing the ball index
+     * @return Float representing the ball X-coordinate
+     */
+    public float getX(int i) {
+        return x[i];
+    }
+
+    /** Returns the ball Y-coordinate.
+     *
+     * @param i Integer representing the ball index
+     * @return Float representing the ball Y-coordinate
+     */
+    public float getY(int i) {
+        return y[i];
+    }
+
+    /** Returns the ball X-coordinate blended between the previous and the current simulation
+     * step, used to draw the ball smoothly between fixed steps.
+     *
+     * @param i Integer representing the ball index
+     * @param alpha Float between 0 and 1 representing how far the frame is into the next step
+     * @return Float representing the interpolated X-coordinate
+     */
+    public float getRenderX(int i, float alpha) {
+        return previousX[i] + (x[i] - previousX[i]) * alpha;
+    }
+
+    /** Returns the ball Y-coordinate blended between the previous and the current simulation
+     * step.
+     *
+     * @param i Integer representing the ball index
+     * @param alpha Float between 0 and 1 representing how far the frame is into the next step
+     * @return Float representing the interpolated Y-coordinate
+     */
+    public float getRenderY(int i, float alpha) {
+        return previousY[i] + (y[i] - previousY[i]) * alpha;
+    }
+
+    /** Returns the ball velocity along the X-axis.
+     *
+     * @param i Integer representing the ball index
+     * @return Float representing the velocity along the X-axis
+     */
+    public float getVelocityX(int i) {
+        return velocityX[i];
+    }
+
+    /** Returns the ball velocity along the Y-axis.
+     *
+     * @param i Integer representing the ball index
+     * @return Float representing the velocity along the Y-axis
+     */
+    public float getVelocityY(int i) {
+        return velocityY[i];
+    }
+
+    /** Grows the arrays so that they can hold at least the given number of balls.
+     *
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= x.length) {
+            return;
+        }
+        int newCapacity = Math.min(maxBalls, Math.max(capacity, x.length * 2));
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        previousX = Arrays.copyOf(previousX, newCapacity);
+        previousY = Arrays.copyOf(previousY, newCapacity);
+        velocityX = Arrays.copyOf(velocityX, newCapacity);
+        velocityY = Arrays.copyOf(velocityY, newCapacity);
+        hits = Arrays.copyOf(hits, newCapacity * MAX_HITS_PER_BALL);
+        hitCount = Arrays.copyOf(hitCount, newCapacity);
+    }
+}
@@ -0,0 +1,107 @@
+package com.skayani.brickbreaker.sprites;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntArray;
+
+/** BallStepper class that moves a range of the balls in a BallPool through one simulation step,
+ * bouncing them off the walls, the player brick and the bricks.  Bricks are only read: every
+ * brick a ball hits is recorded in the pool, and the BrickManager applies the hits afterwards
+ * in ball order.  Each BallStepper has its own buffers, so steppers for different ranges can
+ * run on different threads at the same time.
+ */
+class BallStepper implements Runnable {
+    // Most contacts resolved for one ball within a single simulation step
+    private static final int MAX_CONTACTS_PER_STEP = 8;
+
+    private ContactFinder contacts;
+    private Rectangle bounds;
+
+    // Work of the next call to run
+    private BallPool balls;
+    private int from;
+    private int to;
+    private float delta;
+    private Rectangle playerBrickBounds;
+
+    /** BallStepper constructor that takes in the finder used to search the level's bricks.
+     *
+     * @param contacts ContactFinder class instance used only by this stepper
+     */
+    BallStepper(ContactFinder contacts) {
+        this.contacts = contacts;
+        bounds = new Rectangle(0, 0, Ball.SIZE, Ball.SIZE);
+    }
+
+    /** Sets the balls moved by the next call to run.
+     *
+     * @param balls BallPool class instance
+     * @param from Integer representing the first ball index
+     * @param to Integer representing the index after the last ball
+     * @param delta Fixed time (in seconds) covered by one simulation step
+     * @param playerBrickBounds Rectangle representing the player brick bounds
+     */
+    void set(BallPool balls, int from, int to, float delta, Rectangle playerBrickBounds) {
+        this.balls = balls;
+        this.from = from;
+        this.to = to;
+        this.delta = delta;
+        this.playerBrickBounds = playerBrickBounds;
+    }
+
+    /** Moves every ball of the range through the step.
+     *
+     */
+    @Override
+    public void run() {
+        for (int i = from; i < to; i++) {
+            step(i);
+        }
+    }
+
+    /** Moves one ball through the step, resolving its contacts in order like
+     * BrickManager.updateBricks does for the single ball.
+     *
+     */
+    private void step(int i) {
+        float[] velocityX = balls.velocityX;
+        float[] velocityY = balls.velocityY;
+        bounds.setPosition(balls.x[i], balls.y[i]);
+
+        if (velocityY[i] < 0 && bounds.overlaps(playerBrickBounds)) {
+            velocityY[i] = -velocityY[i];
+        }
+
+        float remaining = 1;
+        for (int c = 0; c < MAX_CONTACTS_PER_STEP && remaining > 0; c++) {
+            float dx = velocityX[i] * delta * remaining;
+            float dy = velocityY[i] * delta * remaining;
+            contacts.find(bounds, dx, dy, playerBrickBounds);
+            float time = contacts.getTime();
+            if (time >= 1) {
+                bounds.setPosition(bounds.x + dx, bounds.y + dy);
+                break;
+            }
+            bounds.setPosition(bounds.x + dx * time, bounds.y + dy * time);
+            if (contacts.getNormalX() != 0) {
+                velocityX[i] = Math.abs(velocityX[i]) * Math.signum(contacts.getNormalX());
+            }
+            if (contacts.getNormalY() != 0) {
+                velocityY[i] = Math.abs(velocityY[i]) * Math.signum(contacts.getNormalY());
+            }
+            recordHits(i, contacts.getBricks());
+            remaining *= 1 - time;
+        }
+        balls.x[i] = bounds.x;
+        balls.y[i] = bounds.y;
+    }
+
+    /** Records the bricks touched by ball i, dropping any beyond MAX_HITS_PER_BALL.
+     *
+     */
+    private void recordHits(int i, IntArray bricks) {
+        int offset = i * BallPool.MAX_HITS_PER_BALL;
+        for (int k = 0; k < bricks.size && balls.hitCount[i] < BallPool.MAX_HITS_PER_BALL; k++) {
+            balls.hits[offset + balls.hitCount[i]++] = bricks.get(k);
+        }
+    }
+}
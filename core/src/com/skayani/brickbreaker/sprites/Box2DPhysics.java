@@ -0,0 +1,245 @@
+package com.skayani.brickbreaker.sprites;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.physics.box2d.ChainShape;
+import com.badlogic.gdx.physics.box2d.CircleShape;
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.ContactImpulse;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.Manifold;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/** Box2DPhysics class that moves the ball through a Box2D world: every brick is a static body,
+ * the walls are a static chain open at the bottom, the player brick is a kinematic body placed
+ * at its bounds before every step and the ball is a bullet circle.  Box2D's broadphase finds the
+ * bricks near the ball, so the layout does not have to fit a uniform grid, for example for large
+ * or rotating brick layouts.
+ *
+ * The world is in meters (PIXELS_PER_METER pixels each) with no gravity, no friction and full
+ * restitution.  The ball is placed at its position and velocity before every step and moved to
+ * Box2D's result afterwards, keeping only the directions of the new velocity: the game's ball
+ * moves at a fixed speed along each axis, so bounces behave like the AABB backend apart from
+ * corner hits.  Bricks touched during the step are collected by the contact listener and
+ * reported once the world has stopped stepping, when their bodies can be destroyed.
+ */
+class Box2DPhysics implements PhysicsEngine, com.badlogic.gdx.physics.box2d.ContactListener {
+    // Pixels per Box2D meter; Box2D is tuned for moving objects between 0.1 and 10 meters
+    static final float PIXELS_PER_METER = 32;
+    private static final int VELOCITY_ITERATIONS = 6;
+    private static final int POSITION_ITERATIONS = 2;
+
+    private World world;
+    private Body ballBody;
+    // Created on the first step, once the player brick size is known
+    private Body playerBody;
+    // Brick bodies indexed by brick id, null for bricks that were never added or destroyed
+    private Array<Body> brickBodies;
+    // Bricks touched by the ball during the current step
+    private IntArray touchedBricks;
+
+    // Reused definitions for new brick bodies
+    private BodyDef brickDef;
+    private FixtureDef brickFixture;
+    private PolygonShape brickShape;
+
+    /** Box2DPhysics constructor that creates a world with walls around a play field of the
+     * given size, loading the Box2D natives the first time.
+     *
+     * @param fieldWidth Float representing the play field width
+     * @param fieldHeight Float representing the play field height
+     */
+    Box2DPhysics(float fieldWidth, float fieldHeight) {
+        Box2D.init();
+        world = new World(new Vector2(0, 0), false);
+        world.setContactListener(this);
+        brickBodies = new Array<Body>();
+        touchedBricks = new IntArray();
+
+        BodyDef wallDef = new BodyDef();
+        wallDef.type = BodyDef.BodyType.StaticBody;
+        ChainShape wallShape = new ChainShape();
+        float width = fieldWidth / PIXELS_PER_METER;
+        float height = fieldHeight / PIXELS_PER_METER;
+        wallShape.createChain(new float[] {0, 0, 0, height, width, height, width, 0});
+        world.createBody(wallDef).createFixture(bounceFixture(wallShape, 0));
+        wallShape.dispose();
+
+        BodyDef ballDef = new BodyDef();
+        ballDef.type = BodyDef.BodyType.DynamicBody;
+        ballDef.bullet = true;
+        ballDef.fixedRotation = true;
+        ballBody = world.createBody(ballDef);
+        CircleShape ballShape = new CircleShape();
+        ballShape.setRadius(Ball.SIZE / 2 / PIXELS_PER_METER);
+        ballBody.createFixture(bounceFixture(ballShape, 1));
+        ballShape.dispose();
+
+        brickDef = new BodyDef();
+        brickDef.type = BodyDef.BodyType.StaticBody;
+        brickShape = new PolygonShape();
+        brickFixture = bounceFixture(brickShape, 0);
+    }
+
+    /** Adds a static body for a brick.
+     *
+     * @param id Integer representing the id of the brick in the BrickStore
+     * @param x X-coordinate of the brick position
+     * @param y Y-coordinate of the brick position
+     * @param width Float representing the brick width
+     * @param height Float representing the brick height
+     */
+    @Override
+    public void addBrick(int id, float x, float y, float width, float height) {
+        brickDef.position.set((x + width / 2) / PIXELS_PER_METER,
+                (y + height / 2) / PIXELS_PER_METER);
+        brickShape.setAsBox(width / 2 / PIXELS_PER_METER, height / 2 / PIXELS_PER_METER);
+        Body body = world.createBody(brickDef);
+        body.createFixture(brickFixture);
+        body.setUserData(Integer.valueOf(id));
+        while (brickBodies.size <= id) {
+            brickBodies.add(null);
+        }
+        brickBodies.set(id, body);
+    }
+
+    /** Destroys the body of a brick.
+     *
+     * @param id Integer representing the id of the brick in the BrickStore
+     */
+    @Override
+    public void removeBrick(int id) {
+        if (id >= brickBodies.size || brickBodies.get(id) == null) {
+            return;
+        }
+        world.destroyBody(brickBodies.get(id));
+        brickBodies.set(id, null);
+    }
+
+    /** Steps the world with the ball at its position and velocity, then moves the ball to the
+     * result and reports the bricks it touched.
+     *
+     * @param ball Ball class instance to move
+     * @param delta Fixed time (in seconds) covered by one simulation step
+     * @param playerBrickBounds Rectangle representing the player brick bounds
+     * @param listener ContactListener class instance told about the bricks the ball touched
+     */
+    @Override
+    public void step(Ball ball, float delta, Rectangle playerBrickBounds,
+                     ContactListener listener) {
+        if (playerBody == null) {
+            createPlayerBody(playerBrickBounds);
+        }
+        playerBody.setTransform(
+                (playerBrickBounds.x + playerBrickBounds.width / 2) / PIXELS_PER_METER,
+                (playerBrickBounds.y + playerBrickBounds.height / 2) / PIXELS_PER_METER, 0);
+
+        Rectangle bounds = ball.getBounds();
+        Vector2 velocity = ball.getVelocity();
+        ballBody.setTransform((bounds.x + Ball.SIZE / 2) / PIXELS_PER_METER,
+                (bounds.y + Ball.SIZE / 2) / PIXELS_PER_METER, 0);
+        ballBody.setLinearVelocity(velocity.x / PIXELS_PER_METER,
+                velocity.y / PIXELS_PER_METER);
+
+        touchedBricks.clear();
+        world.step(delta, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+
+        Vector2 position = ballBody.getPosition();
+        ball.moveBy(position.x * PIXELS_PER_METER - Ball.SIZE / 2 - bounds.x,
+                position.y * PIXELS_PER_METER - Ball.SIZE / 2 - bounds.y);
+        Vector2 newVelocity = ballBody.getLinearVelocity();
+        ball.reflect(newVelocity.x, newVelocity.y);
+        for (int i = 0; i < touchedBricks.size; i++) {
+            listener.brickContact(touchedBricks.get(i));
+        }
+    }
+
+    /** Returns Type.BOX2D.
+     *
+     * @return Type of the backend
+     */
+    @Override
+    public Type getType() {
+        return Type.BOX2D;
+    }
+
+    /** Frees the world and every body in it.
+     *
+     */
+    @Override
+    public void dispose() {
+        brickShape.dispose();
+        world.dispose();
+        brickBodies.clear();
+    }
+
+    /** Collects the brick the ball starts touching.
+     *
+     * @param contact Contact class instance between two fixtures
+     */
+    @Override
+    public void beginContact(Contact contact) {
+        Object a = contact.getFixtureA().getBody().getUserData();
+        Object b = contact.getFixtureB().getBody().getUserData();
+        if (a instanceof Integer) {
+            touchedBricks.add((Integer)a);
+        }
+        else if (b instanceof Integer) {
+            touchedBricks.add((Integer)b);
+        }
+    }
+
+    /** Not used: only the start of a contact counts as a hit.
+     *
+     */
+    @Override
+    public void endContact(Contact contact) {
+    }
+
+    /** Not used: only the start of a contact counts as a hit.
+     *
+     */
+    @Override
+    public void preSolve(Contact contact, Manifold oldManifold) {
+    }
+
+    /** Not used: only the start of a contact counts as a hit.
+     *
+     */
+    @Override
+    public void postSolve(Contact contact, ContactImpulse impulse) {
+    }
+
+    /** Creates the kinematic body of the player brick.
+     *
+     */
+    private void createPlayerBody(Rectangle playerBrickBounds) {
+        BodyDef playerDef = new BodyDef();
+        playerDef.type = BodyDef.BodyType.KinematicBody;
+        playerBody = world.createBody(playerDef);
+        PolygonShape playerShape = new PolygonShape();
+        playerShape.setAsBox(playerBrickBounds.width / 2 / PIXELS_PER_METER,
+                playerBrickBounds.height / 2 / PIXELS_PER_METER);
+        playerBody.createFixture(bounceFixture(playerShape, 0));
+        playerShape.dispose();
+    }
+
+    /** Returns a frictionless, fully elastic fixture definition of a shape.
+     *
+     */
+    private static FixtureDef bounceFixture(Shape shape, float density) {
+        FixtureDef fixture = new FixtureDef();
+        fixture.shape = shape;
+        fixture.density = density;
+        fixture.friction = 0;
+        fixture.restitution = 1;
+        return fixture;
+    }
+}
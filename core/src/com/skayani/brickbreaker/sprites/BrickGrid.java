@@ -0,0 +1,166 @@
+package com.skayani.brickbreaker.sprites;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/** BrickGrid class that splits the screen into uniform cells the size of a brick so collision
+ * queries only look at the bricks close to the ball instead of every brick in the level.
+ *
+ * Each brick is stored in exactly one cell (the cell holding its bottom-left corner) through
+ * an intrusive doubly linked list kept in int arrays, so removing a brick is O(1) and does not
+ * allocate.  Because a brick is never larger than a cell, a query only has to widen its area by
+ * one cell to the left and below to find every brick that can overlap it.
+ */
+public class BrickGrid {
+    private static final int NONE = -1;
+
+    private float cellWidth;
+    private float cellHeight;
+    private int columns;
+    private int rows;
+
+    // First brick id stored in each cell
+    private int[] cellHeads;
+    // Per-brick links and owning cell, indexed by brick id
+    private int[] next;
+    private int[] previous;
+    private int[] cellOf;
+
+    /** BrickGrid constructor that takes in the area covered by the grid and the cell size.
+     *
+     * @param worldWidth Float representing the width of the area covered by the grid
+     * @param worldHeight Float representing the height of the area covered by the grid
+     * @param cellWidth Float representing the cell width (at least the widest brick)
+     * @param cellHeight Float representing the cell height (at least the tallest brick)
+     * @param capacity Integer representing the expected number of bricks
+     */
+    public BrickGrid(float worldWidth, float worldHeight, float cellWidth, float cellHeight,
+                     int capacity) {
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        columns = Math.max(1, MathUtils.ceil(worldWidth / cellWidth));
+        rows = Math.max(1, MathUtils.ceil(worldHeight / cellHeight));
+        cellHeads = new int[columns * rows];
+        Arrays.fill(cellHeads, NONE);
+        capacity = Math.max(1, capacity);
+        next = new int[capacity];
+        previous = new int[capacity];
+        cellOf = new int[capacity];
+        Arrays.fill(cellOf, NONE);
+    }
+
+    /** Inserts a brick into the cell holding its bottom-left corner.
+     *
+     * @param id Integer identifying the brick
+     * @param x X-coordinate of the brick position
+     * @param y Y-coordinate of the brick position
+     */
+    public void insert(int id, float x, float y) {
+        ensureCapacity(id + 1);
+        if (cellOf[id] != NONE) {
+            remove(id);
+        }
+        int cell = row(y) * columns + column(x);
+        int head = cellHeads[cell];
+        next[id] = head;
+        previous[id] = NONE;
+        if (head != NONE) {
+            previous[head] = id;
+        }
+        cellHeads[cell] = id;
+        cellOf[id] = cell;
+    }
+
+    /** Removes a brick from the grid in constant time.
+     *
+     * @param id Integer identifying the brick
+     */
+    public void remove(int id) {
+        if (id >= cellOf.length || cellOf[id] == NONE) {
+            return;
+        }
+        if (previous[id] != NONE) {
+            next[previous[id]] = next[id];
+        }
+        else {
+            cellHeads[cellOf[id]] = next[id];
+        }
+        if (next[id] != NONE) {
+            previous[next[id]] = previous[id];
+        }
+        cellOf[id] = NONE;
+    }
+
+    /** Collects the ids of every brick stored in the cells that can overlap the given area.
+     * The result may contain bricks that do not overlap the area; callers do the exact test.
+     *
+     * @param area Rectangle representing the area to look up
+     * @param out IntArray cleared and then filled with the candidate brick ids
+     */
+    public void query(Rectangle area, IntArray out) {
+        query(area.x, area.y, area.x + area.width, area.y + area.height, out);
+    }
+
+    /** Collects the ids of every brick stored in the cells that can overlap the given bounds.
+     *
+     * @param minX Float representing the left edge of the area
+     * @param minY Float representing the bottom edge of the area
+     * @param maxX Float representing the right edge of the area
+     * @param maxY Float representing the top edge of the area
+     * @param out IntArray cleared and then filled with the candidate brick ids
+     */
+    public void query(float minX, float minY, float maxX, float maxY, IntArray out) {
+        out.clear();
+        int firstColumn = column(minX - cellWidth);
+        int lastColumn = column(maxX);
+        int firstRow = row(minY - cellHeight);
+        int lastRow = row(maxY);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                for (int id = cellHeads[r * columns + c]; id != NONE; id = next[id]) {
+                    out.add(id);
+                }
+            }
+        }
+    }
+
+    /** Removes every brick from the grid.
+     *
+     */
+    public void clear() {
+        Arrays.fill(cellHeads, NONE);
+        Arrays.fill(cellOf, NONE);
+    }
+
+    /** Returns the column holding the given X-coordinate, clamped to the grid.
+     *
+     */
+    private int column(float x) {
+        return MathUtils.clamp((int)Math.floor(x / cellWidth), 0, columns - 1);
+    }
+
+    /** Returns the row holding the given Y-coordinate, clamped to the grid.
+     *
+     */
+    private int row(float y) {
+        return MathUtils.clamp((int)Math.floor(y / cellHeight), 0, rows - 1);
+    }
+
+    /** Grows the per-brick arrays so that they can hold at least the given number of bricks.
+     *
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= cellOf.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, cellOf.length * 2);
+        next = Arrays.copyOf(next, newCapacity);
+        previous = Arrays.copyOf(previous, newCapacity);
+        int oldCapacity = cellOf.length;
+        cellOf = Arrays.copyOf(cellOf, newCapacity);
+        Arrays.fill(cellOf, oldCapacity, newCapacity, NONE);
+    }
+}
@@ -2,25 +2,51 @@ package com.skayani.brickbreaker.sprites;
 
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
-import com.skayani.brickbreaker.BrickBreaker;
-import com.skayani.brickbreaker.states.GameStateManager;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
 
-import java.util.Hashtable;
 import java.util.Random;
 
 /** BrickManager class that handles each individual bricks status such as whether a brick has been
- * hit or not.
+ * hit or not.  The BrickManager does not load any images or sounds, so it can also run without a
+ * graphics context (for example under the headless backend in benchmarks).  The ball is moved
+ * by a pluggable PhysicsEngine: the AABB sweep against the brick grid by default, or Box2D.
  */
 
 public class BrickManager {
-    private int bricksCount;
-    private int remainingBricks;
+    // Fewest balls of the multi-ball mode worth handing to another thread
+    private static final int BALLS_PER_PARTITION = 256;
+    // Number of brick colors in getBrickColors, for code that picks colors without an instance
+    public static final int BRICK_COLOR_COUNT = 7;
+    // Seed of the random brick colors when no seed is given
+    public static final long DEFAULT_SEED = 0;
+
+    // Physics backend of new BrickManagers, picked at launch
+    private static PhysicsEngine.Type defaultPhysics = PhysicsEngine.Type.AABB;
+
     private Array<String> brickColors;
     private Ball ball;
     private int playerScore;
+    // Picks the colors of bricks added without one, seeded so a game can be replayed
     private Random colorGenerator;
-    private GameStateManager gsm;
-    public Hashtable<Rectangle, Brick> bricksTable;
+    private BrickListener listener;
+    // Size of the play field the ball bounces around in
+    private float fieldWidth;
+    private float fieldHeight;
+    // Brick positions, sizes, colors, hit points and alive flags, indexed by brick id
+    private BrickStore brickStore;
+    private BrickGrid brickGrid;
+    // Moves the single ball and reports the bricks it hits
+    private PhysicsEngine physics;
+    private PhysicsEngine.ContactListener contactListener;
+    // Bricks destroyed during the current simulation step
+    private IntArray destroyedBricks;
+
+    // One stepper per partition of the multi-ball pool, each with its own buffers
+    private BallStepper[] ballSteppers;
+    // Created on first use, only when parallelBalls says fork/join is available
+    private ParallelBallStep parallelBallStep;
+    private boolean parallelBalls;
 
     /** Returns the player score (kept track of by the BrickManager
      *
@@ -35,18 +61,74 @@ public class BrickManager {
      * @return Integer representing the remaining bricks on the screen
      */
     public int getRemainingBricks() {
-        return remainingBricks;
+        return brickStore.getAliveCount();
+    }
+
+    /** Returns the BrickStore holding the level's bricks.  Use BrickStore.nextAlive to loop
+     * over the bricks that have not been destroyed.
+     *
+     * @return BrickStore class instance of the level's bricks
+     */
+    public BrickStore getBrickStore() {
+        return brickStore;
+    }
+
+    /** Returns the width of the play field.
+     *
+     * @return Float representing the play field width
+     */
+    public float getFieldWidth() {
+        return fieldWidth;
+    }
+
+    /** Returns the height of the play field.
+     *
+     * @return Float representing the play field height
+     */
+    public float getFieldHeight() {
+        return fieldHeight;
+    }
+
+    /** Returns the names of the brick color images that bricks can be created with.
+     *
+     * @return Array of brick color image names within the bricks directory
+     */
+    public Array<String> getBrickColors() {
+        return brickColors;
+    }
+
+    /** Sets the listener that is notified when a brick is destroyed.
+     *
+     * @param listener BrickListener class instance, or null to remove the current listener
+     */
+    public void setListener(BrickListener listener) {
+        this.listener = listener;
+    }
+
+    /** BrickManager constructor that takes in a Ball class instance and the size of an empty play
+     * field.  Bricks are added with addBrick; random brick colors use DEFAULT_SEED.
+     *
+     * @param ballParam Ball class instance representing the ball
+     * @param fieldWidth Float representing the play field width
+     * @param fieldHeight Float representing the play field height
+     */
+    public BrickManager(Ball ballParam, float fieldWidth, float fieldHeight) {
+        this(ballParam, fieldWidth, fieldHeight, DEFAULT_SEED);
     }
 
-    /** BrickManager constructor that takes in a GameStateManager class instance, a Ball class
-     * instance, and a integer representing the game level.
+    /** BrickManager constructor that takes in a Ball class instance, the size of an empty play
+     * field and the seed of the random brick colors, so the same seed gives the same colors.
      *
-     * @param gsm GameStateManager class instance
      * @param ballParam Ball class instance representing the ball
-     * @param level Integer representing the game level
+     * @param fieldWidth Float representing the play field width
+     * @param fieldHeight Float representing the play field height
+     * @param colorSeed Long representing the seed of the random brick colors
      */
-    public BrickManager(GameStateManager gsm, Ball ballParam, int level) {
-        bricksTable = new Hashtable<Rectangle, Brick>();
+    public BrickManager(Ball ballParam, float fieldWidth, float fieldHeight, long colorSeed) {
+        brickStore = new BrickStore(32);
+        destroyedBricks = new IntArray();
+        ballSteppers = new BallStepper[0];
+        parallelBalls = ForkJoinSupport.isAvailable();
         brickColors = new Array<String>() {{
             add("BlueBrick.png");
             add("GreenBrick.png");
@@ -57,179 +139,311 @@ public class BrickManager {
             add("YellowBrick.png");
         }};
         ball = ballParam;
-        colorGenerator = new Random();
+        colorGenerator = new Random(colorSeed);
         playerScore = 0;
-        this.gsm = gsm;
+        this.fieldWidth = fieldWidth;
+        this.fieldHeight = fieldHeight;
+        // One brick fits in one grid cell
+        brickGrid = new BrickGrid(fieldWidth, fieldHeight, BrickStore.BRICK_WIDTH,
+                BrickStore.BRICK_HEIGHT, 32);
+        contactListener = new PhysicsEngine.ContactListener() {
+            @Override
+            public void brickContact(int id) {
+                hitBrick(id);
+            }
+        };
+        physics = createPhysics(defaultPhysics);
+    }
 
-        switch (level) {
-            case 1:
-                bricksCount = remainingBricks = 16;
-                initializeLevelOne();
-                break;
+    /** Sets the physics backend of the BrickManagers created from now on, for example from a
+     * launcher argument.  The AABB backend is the default.
+     *
+     * @param type PhysicsEngine.Type of the backend
+     */
+    public static void setDefaultPhysics(PhysicsEngine.Type type) {
+        defaultPhysics = type;
+    }
 
-            case 2:
-                bricksCount = remainingBricks = 18;
-                initializeLevelTwo();
-                break;
+    /** Returns the physics backend of the BrickManagers created from now on.
+     *
+     * @return PhysicsEngine.Type of the backend
+     */
+    public static PhysicsEngine.Type getDefaultPhysics() {
+        return defaultPhysics;
+    }
 
-            case 3:
-                bricksCount = remainingBricks = 28;
-                initializeLevelThree();
-                break;
+    /** Switches the physics backend that moves the ball, adding the alive bricks to the new
+     * backend.  Games only replay exactly with the backend they were recorded with, so switch
+     * before the first simulation step.
+     *
+     * @param type PhysicsEngine.Type of the backend
+     */
+    public void setPhysics(PhysicsEngine.Type type) {
+        if (type == physics.getType()) {
+            return;
+        }
+        physics.dispose();
+        physics = createPhysics(type);
+        for (int id = brickStore.nextAlive(0); id >= 0; id = brickStore.nextAlive(id + 1)) {
+            physics.addBrick(id, brickStore.getX(id), brickStore.getY(id),
+                    brickStore.getWidth(id), brickStore.getHeight(id));
         }
     }
 
-    /** Initializes game level one by initializing the bricks and inserting them into the
-     * bricksTable data structure.
+    /** Returns the physics backend that moves the ball.
+     *
+     * @return PhysicsEngine.Type of the backend
      */
-    private void initializeLevelOne() {
-        int initialX = 50;
-        int initialY = 600;
-        for (int i = 1; i <= bricksCount; i++) {
-            Brick tempBrick = new Brick(initialX, initialY,
-                    brickColors.get(colorGenerator.nextInt(brickColors.size)));
-            if (i != 1 && i != 4 && i != 13 && i != 16) {
-                bricksTable.put(tempBrick.getBounds(), tempBrick);
-            }
-            if (i == 2) {
-                int topBrickX = initialX + (((int)tempBrick.getTextureWidth() + 40) / 2);
-                int topBrickY = initialY + 100;
-                tempBrick = new Brick(topBrickX, topBrickY,
-                        brickColors.get(colorGenerator.nextInt(brickColors.size)));
-                bricksTable.put(tempBrick.getBounds(), tempBrick);
-                int lowBrickY = initialY - 400;
-                tempBrick = new Brick(topBrickX, lowBrickY,
-                        brickColors.get(colorGenerator.nextInt(brickColors.size)));
-                bricksTable.put(tempBrick.getBounds(), tempBrick);
-            }
-            if (i == 9) {
-                int lowBrickLeftY = initialY - 200;
-                tempBrick = new Brick(initialX, lowBrickLeftY,
-                        brickColors.get(colorGenerator.nextInt(brickColors.size)));
-                bricksTable.put(tempBrick.getBounds(), tempBrick);
-                int lowBrickRightX = initialX + 3 * ((int)tempBrick.getTextureWidth() + 40);
-                tempBrick = new Brick(lowBrickRightX, lowBrickLeftY,
-                        brickColors.get(colorGenerator.nextInt(brickColors.size)));
-                bricksTable.put(tempBrick.getBounds(), tempBrick);
-            }
-            initialX += tempBrick.getTextureWidth() + 40;
-            if (i % 4  == 0) {
-                initialY -= 100;
-                initialX = 50;
-            }
+    public PhysicsEngine.Type getPhysics() {
+        return physics.getType();
+    }
+
+    /** Frees the physics backend.  Must be called once the game is over when the Box2D backend
+     * is used, whose world lives in native memory.
+     *
+     */
+    public void dispose() {
+        physics.dispose();
+    }
+
+    /** Creates a physics backend for this BrickManager's play field.
+     *
+     */
+    private PhysicsEngine createPhysics(PhysicsEngine.Type type) {
+        if (type == PhysicsEngine.Type.BOX2D) {
+            return new Box2DPhysics(fieldWidth, fieldHeight);
         }
+        return new AabbPhysics(new ContactFinder(brickStore, brickGrid, fieldWidth,
+                fieldHeight));
     }
 
-    /** Initializes game level two by initializing the bricks and inserting them into the
-     * bricksTable data structure.
+    /** Makes room for the given number of bricks up front, for example when a level file
+     * records its brick count, so loading a large level does not regrow the arrays.
+     *
+     * @param capacity Integer representing the number of bricks the level will hold
      */
-    private void initializeLevelTwo() {
-        int initialX = 50;
-        int initialY = 700;
-        for (int i = 1; i <= 4; ++i) {
-            Brick tempBrick = new Brick(initialX, initialY,
-                    brickColors.get(colorGenerator.nextInt(brickColors.size)));
-            bricksTable.put(tempBrick.getBounds(), tempBrick);
-            initialX = (int)(BrickBreaker.WIDTH - (tempBrick.getTextureWidth() + 50));
-            if (i % 2 == 0) {
-                initialX = 50;
-                initialY = 400;
-            }
+    public void ensureCapacity(int capacity) {
+        brickStore.ensureCapacity(capacity);
+    }
+
+    /** Returns a random brick color index.
+     *
+     */
+    private int nextColor() {
+        return colorGenerator.nextInt(brickColors.size);
+    }
+
+    /** Adds a brick with the given color to the level.
+     *
+     * @param x X-coordinate of the brick position
+     * @param y Y-coordinate of the brick position
+     * @param brickColor Brick color image name within the bricks directory
+     * @throws GdxRuntimeException if the color is not one of getBrickColors
+     */
+    public void addBrick(float x, float y, String brickColor) {
+        int colorIndex = brickColors.indexOf(brickColor, false);
+        if (colorIndex < 0) {
+            throw new GdxRuntimeException("Unknown brick color: " + brickColor);
+        }
+        addBrick(x, y, colorIndex);
+    }
+
+    /** Adds a standard size, single hit brick with the given color index to the level.
+     *
+     * @param x X-coordinate of the brick position
+     * @param y Y-coordinate of the brick position
+     * @param colorIndex Integer representing the index of the color within getBrickColors
+     */
+    public void addBrick(float x, float y, int colorIndex) {
+        addBrick(x, y, BrickStore.BRICK_WIDTH, BrickStore.BRICK_HEIGHT, colorIndex, 1);
+    }
+
+    /** Adds a brick to the brick store and inserts it into the brick grid.  Bricks may not be
+     * larger than the standard brick size, which is the size of a grid cell.
+     *
+     * @param x X-coordinate of the brick position
+     * @param y Y-coordinate of the brick position
+     * @param width Float representing the brick width
+     * @param height Float representing the brick height
+     * @param colorIndex Integer representing the index of the color within getBrickColors, or a
+     *                   negative value for a random color
+     * @param hitPoints Integer representing the hits needed to destroy the brick
+     * @return Integer representing the id of the new brick
+     */
+    public int addBrick(float x, float y, float width, float height, int colorIndex,
+                        int hitPoints) {
+        if (colorIndex < 0 || colorIndex >= brickColors.size) {
+            colorIndex = nextColor();
+        }
+        width = Math.min(width, BrickStore.BRICK_WIDTH);
+        height = Math.min(height, BrickStore.BRICK_HEIGHT);
+        int id = brickStore.add(x, y, width, height, colorIndex, hitPoints);
+        brickGrid.insert(id, x, y);
+        physics.addBrick(id, x, y, width, height);
+        return id;
+    }
+
+    /** Called once per simulation step from the update method in the PlayState class to move
+     * the ball and update each brick status.  The physics backend moves the ball through the
+     * step, bouncing it off the walls, the player brick and the bricks, and every brick it hits
+     * loses a hit point.
+     *
+     * @param delta Fixed time (in seconds) covered by one simulation step
+     * @param playerBrickBounds Rectangle representing the player brick bounds
+     */
+    public void updateBricks(float delta, Rectangle playerBrickBounds) {
+        destroyedBricks.clear();
+        ball.startStep();
+
+        // The player brick can move into the ball, which a sweep of the ball alone cannot see
+        if (ball.getVelocity().y < 0 && ball.getBounds().overlaps(playerBrickBounds)) {
+            ball.reflect(0, 1);
+        }
+        physics.step(ball, delta, playerBrickBounds, contactListener);
+    }
+
+    /** Called once per simulation step after updateBricks to move the balls of the multi-ball
+     * mode.  The balls are split into partitions of at least BALLS_PER_PARTITION balls that are
+     * moved in parallel against the bricks as they were at the start of the step; afterwards
+     * the recorded hits are applied in ball index order, so when two balls hit the same brick
+     * in one step the ball with the lower index always scores it, on any number of threads.
+     * Both balls bounce off it.  Balls that fell below the play field are released.
+     *
+     * @param balls BallPool class instance holding the extra balls
+     * @param delta Fixed time (in seconds) covered by one simulation step
+     * @param playerBrickBounds Rectangle representing the player brick bounds
+     */
+    public void updateBalls(BallPool balls, float delta, Rectangle playerBrickBounds) {
+        int count = balls.getCount();
+        if (count == 0) {
+            return;
+        }
+        balls.startStep();
+        int partitions = 1;
+        if (parallelBalls && count >= 2 * BALLS_PER_PARTITION) {
+            partitions = Math.min(count / BALLS_PER_PARTITION,
+                    ParallelBallStep.getParallelism() * 4);
         }
-        initialX = 150;
-        initialY = 625;
-        for (int i = 1; i <= 6; ++i) {
-            Brick tempBrick = new Brick(initialX, initialY,
-                    brickColors.get(colorGenerator.nextInt(brickColors.size)));
-            bricksTable.put(tempBrick.getBounds(), tempBrick);
-            initialX += tempBrick.getTextureWidth() + 50;
-            if (i % 2 == 0) {
-                initialX = 150;
-                initialY -= 75;
+        if (ballSteppers.length < partitions) {
+            BallStepper[] steppers = new BallStepper[partitions];
+            System.arraycopy(ballSteppers, 0, steppers, 0, ballSteppers.length);
+            for (int i = ballSteppers.length; i < partitions; i++) {
+                steppers[i] = new BallStepper(new ContactFinder(brickStore, brickGrid,
+                        fieldWidth, fieldHeight));
             }
+            ballSteppers = steppers;
         }
-        initialX = 50;
-        initialY = 325;
-        for (int i = 1; i <= 8; ++i) {
-            Brick tempBrick = new Brick(initialX, initialY,
-                    brickColors.get(colorGenerator.nextInt(brickColors.size)));
-            bricksTable.put(tempBrick.getBounds(), tempBrick);
-            initialX += tempBrick.getTextureWidth() + 41;
-            if (i % 4 == 0) {
-                initialX = 50;
-                initialY -= 75;
+        for (int i = 0; i < partitions; i++) {
+            ballSteppers[i].set(balls, (int)((long)count * i / partitions),
+                    (int)((long)count * (i + 1) / partitions), delta, playerBrickBounds);
+        }
+        if (partitions == 1) {
+            ballSteppers[0].run();
+        }
+        else {
+            if (parallelBallStep == null) {
+                parallelBallStep = new ParallelBallStep();
             }
+            parallelBallStep.run(ballSteppers, partitions);
         }
-    }
 
-    /** Initializes game level three by initializing the bricks and inserting them into the
-     * bricksTable data structure.
-     */
-    private void initializeLevelThree() {
-        int initialX1 = 20;
-        int initialX2 = 20;
-        int initialY1 = 700;
-        // 32 is the brick texture height (adding 20 to it for extra space)
-        int initialY2 = initialY1 - 52;
-        for (int i = 1; i <= 12; ++i) {
-            Brick tempBrick = new Brick(initialX1, initialY1,
-                    brickColors.get(colorGenerator.nextInt(brickColors.size)));
-            bricksTable.put(tempBrick.getBounds(), tempBrick);
-            tempBrick = new Brick(initialX2, initialY2,
-                    brickColors.get(colorGenerator.nextInt(brickColors.size)));
-            bricksTable.put(tempBrick.getBounds(), tempBrick);
-            if (i == 3) {
-                int middleX = (initialX2 + 2 * ((int)tempBrick.getTextureWidth() + 10));
-                tempBrick = new Brick(middleX, initialY2,
-                        brickColors.get(colorGenerator.nextInt(brickColors.size)));
-                bricksTable.put(tempBrick.getBounds(), tempBrick);
-                tempBrick = new Brick(middleX + (int)tempBrick.getTextureWidth() + 10,
-                        initialY2, brickColors.get(colorGenerator.nextInt(brickColors.size)));
-                bricksTable.put(tempBrick.getBounds(), tempBrick);
-                tempBrick = new Brick(middleX,
-                        initialY2-52, brickColors.get(colorGenerator.nextInt(brickColors.size)));
-                bricksTable.put(tempBrick.getBounds(), tempBrick);
-                tempBrick = new Brick(middleX + (int)tempBrick.getTextureWidth() + 10,
-                        initialY2-52, brickColors.get(colorGenerator.nextInt(brickColors.size)));
-                bricksTable.put(tempBrick.getBounds(), tempBrick);
+        for (int i = 0; i < count; i++) {
+            int offset = i * BallPool.MAX_HITS_PER_BALL;
+            for (int k = 0; k < balls.hitCount[i]; k++) {
+                hitBrick(balls.hits[offset + k]);
             }
-            initialY2 -= tempBrick.getTextureHeight() + 20;
-            initialX1 += tempBrick.getTextureWidth() + 10;
-            if (i == 6) {
-                initialX2 = (initialX1 - (int)tempBrick.getTextureWidth()) - 10;
-                initialY2 = initialY1 - 52;
-                initialX1 = 20;
-                initialY1 = 335;
+        }
+        // Going down keeps the balls below i in place when the last ball moves into slot i
+        for (int i = count - 1; i >= 0; i--) {
+            if (balls.y[i] < Ball.OUT_OF_BOUNDS_Y) {
+                balls.release(i);
             }
         }
     }
 
-    /** Called from the update method in the PlayState class to update each brick status.
+    /** Sets whether the balls of the multi-ball mode may be moved on several threads.
+     * Parallel stepping is on by default where fork/join is available.
      *
-      */
-    public void updateBricks() {
-        for (Rectangle key : bricksTable.keySet()) {
-            Brick brick = bricksTable.get(key);
-            if (ball.getBounds().overlaps(brick.getBounds())) {
-                remainingBricks -= 1;
-                playerScore += 20;
-                ball.flipVelocityY();
-                if (gsm.soundOn) {
-                    gsm.scoreSound.play();
-                }
-                bricksTable.remove(key);
-                break;
-            }
+     * @param parallel Boolean that is true to allow parallel stepping
+     */
+    public void setParallelBalls(boolean parallel) {
+        parallelBalls = parallel && ForkJoinSupport.isAvailable();
+    }
+
+    /** Collects the ids of the alive bricks in the grid cells that can overlap the given
+     * bounds, for example to redraw part of the play field.  The result may contain bricks
+     * that do not overlap the bounds.
+     *
+     * @param minX Float representing the left edge of the area
+     * @param minY Float representing the bottom edge of the area
+     * @param maxX Float representing the right edge of the area
+     * @param maxY Float representing the top edge of the area
+     * @param out IntArray the brick ids are written to (cleared first)
+     */
+    public void findBricks(float minX, float minY, float maxX, float maxY, IntArray out) {
+        brickGrid.query(minX, minY, maxX, maxY, out);
+    }
+
+    /** Returns the ids of the bricks destroyed during the last simulation step, in the order
+     * they were destroyed.
+     *
+     * @return IntArray of brick ids, reused by the next step
+     */
+    public IntArray getDestroyedBricks() {
+        return destroyedBricks;
+    }
+
+    /** Sets the hit points of an alive brick, for example to restore a saved game.  A brick
+     * set to 0 is removed from the level without scoring or notifying the listener.
+     *
+     * @param id Integer representing the brick id
+     * @param hitPoints Integer representing the hits left to destroy the brick
+     */
+    public void setHitPoints(int id, int hitPoints) {
+        if (!brickStore.isAlive(id)) {
+            return;
+        }
+        brickStore.setHitPoints(id, hitPoints);
+        if (!brickStore.isAlive(id)) {
+            brickGrid.remove(id);
+            physics.removeBrick(id);
         }
     }
 
-    /** Called from the dispose method in the PlayState to dispose of each brick resource in the
-     * bricksTable data structure.
+    /** Sets the player score, for example to restore a saved game.
      *
+     * @param playerScore Integer representing the player's score
      */
-    public void dispose() {
-        for (Rectangle key : bricksTable.keySet()) {
-            bricksTable.get(key).dispose();
+    public void setPlayerScore(int playerScore) {
+        this.playerScore = playerScore;
+    }
+
+    /** Takes a hit point from a brick hit by the ball and, once the brick has none left,
+     * removes it from the level and adds to the player score.  Hits on bricks that are already
+     * destroyed are ignored.
+     *
+     */
+    private void hitBrick(int id) {
+        if (!brickStore.hit(id)) {
+            return;
+        }
+        playerScore += 20;
+        brickGrid.remove(id);
+        physics.removeBrick(id);
+        destroyedBricks.add(id);
+        if (listener != null) {
+            listener.brickDestroyed(id);
         }
     }
+
+    /** Listener interface for objects that react to bricks being destroyed, such as the
+     * PlayState playing the score sound.
+     */
+    public interface BrickListener {
+        /** Called after a brick has been hit by the ball and removed from the level.
+         *
+         * @param id Integer representing the id of the destroyed brick in the BrickStore
+         */
+        void brickDestroyed(int id);
+    }
 }
@@ -0,0 +1,234 @@
+package com.skayani.brickbreaker.sprites;
+
+import java.util.Arrays;
+
+/** BrickStore class that keeps every brick of a level in parallel primitive arrays (a
+ * structure of arrays) instead of one object per brick.  A brick is identified by its index
+ * (id); the position, size, color index and hit points of brick i are x[i], y[i], width[i],
+ * height[i], color[i] and hitPoints[i], and a bitset records which bricks are still alive.
+ * Iterating, counting and removing bricks only touches these arrays, so none of it allocates or
+ * hashes, and memory grows linearly at about 18 bytes per brick (four floats, two bytes and
+ * one alive bit).
+ */
+public class BrickStore {
+    // Width and height of the brick images in pixels
+    public static final float BRICK_WIDTH = 64;
+    public static final float BRICK_HEIGHT = 32;
+
+    private float[] x;
+    private float[] y;
+    private float[] width;
+    private float[] height;
+    private byte[] color;
+    private byte[] hitPoints;
+    // Bit i of alive[i >> 6] is set while brick i has not been destroyed
+    private long[] alive;
+    private int size;
+    private int aliveCount;
+
+    /** BrickStore constructor that takes in the number of bricks to reserve room for.
+     *
+     * @param capacity Integer representing the expected number of bricks
+     */
+    public BrickStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        x = new float[capacity];
+        y = new float[capacity];
+        width = new float[capacity];
+        height = new float[capacity];
+        color = new byte[capacity];
+        hitPoints = new byte[capacity];
+        alive = new long[(capacity + 63) >> 6];
+    }
+
+    /** Adds an alive brick and returns its id.
+     *
+     * @param brickX X-coordinate of the brick position
+     * @param brickY Y-coordinate of the brick position
+     * @param brickWidth Float representing the brick width
+     * @param brickHeight Float representing the brick height
+     * @param colorIndex Integer representing the brick color index
+     * @param brickHitPoints Integer representing the hits needed to destroy the brick (1-127)
+     * @return Integer representing the id of the new brick
+     */
+    public int add(float brickX, float brickY, float brickWidth, float brickHeight,
+                   int colorIndex, int brickHitPoints) {
+        ensureCapacity(size + 1);
+        int id = size++;
+        x[id] = brickX;
+        y[id] = brickY;
+        width[id] = brickWidth;
+        height[id] = brickHeight;
+        color[id] = (byte)colorIndex;
+        hitPoints[id] = (byte)Math.max(1, Math.min(Byte.MAX_VALUE, brickHitPoints));
+        alive[id >> 6] |= 1L << id;
+        aliveCount += 1;
+        return id;
+    }
+
+    /** Takes one hit point from an alive brick and destroys it once none are left.
+     *
+     * @param id Integer representing the brick id
+     * @return Boolean that is true if the hit destroyed the brick
+     */
+    public boolean hit(int id) {
+        if (!isAlive(id)) {
+            return false;
+        }
+        hitPoints[id] -= 1;
+        if (hitPoints[id] > 0) {
+            return false;
+        }
+        alive[id >> 6] &= ~(1L << id);
+        aliveCount -= 1;
+        return true;
+    }
+
+    /** Sets the hit points of an alive brick, destroying it if they are 0, for example to
+     * restore a saved game.  Destroyed bricks are left as they are.
+     *
+     * @param id Integer representing the brick id
+     * @param brickHitPoints Integer representing the hits left to destroy the brick (0-127)
+     */
+    public void setHitPoints(int id, int brickHitPoints) {
+        if (!isAlive(id)) {
+            return;
+        }
+        hitPoints[id] = (byte)Math.max(0, Math.min(Byte.MAX_VALUE, brickHitPoints));
+        if (hitPoints[id] == 0) {
+            alive[id >> 6] &= ~(1L << id);
+            aliveCount -= 1;
+        }
+    }
+
+    /** Returns whether the brick has not been destroyed.
+     *
+     * @param id Integer representing the brick id
+     * @return Boolean that is true if the brick is alive
+     */
+    public boolean isAlive(int id) {
+        return (alive[id >> 6] & (1L << id)) != 0;
+    }
+
+    /** Copies the alive bitset, bit i of words[i >> 6] for brick i, for example to save a game.
+     *
+     * @param words Longs of at least (size() + 63) / 64 elements the bitset is copied into
+     */
+    public void copyAlive(long[] words) {
+        System.arraycopy(alive, 0, words, 0, (size + 63) >> 6);
+    }
+
+    /** Returns the id of the first alive brick at or after the given id, or -1 if there is
+     * none.  Loop over the alive bricks with
+     * {@code for (int i = store.nextAlive(0); i >= 0; i = store.nextAlive(i + 1))}.
+     *
+     * @param from Integer representing the first id to look at
+     * @return Integer representing the id of the next alive brick, or -1
+     */
+    public int nextAlive(int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int word = from >> 6;
+        long bits = alive[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                int id = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return id < size ? id : -1;
+            }
+            word += 1;
+            if (word >= alive.length) {
+                return -1;
+            }
+            bits = alive[word];
+        }
+    }
+
+    /** Returns the number of bricks ever added (alive or destroyed).
+     *
+     * @return Integer representing the number of brick ids in use
+     */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the number of bricks that have not been destroyed.
+     *
+     * @return Integer representing the alive brick count
+     */
+    public int getAliveCount() {
+        return aliveCount;
+    }
+
+    /** Returns the brick X-coordinate.
+     *
+     * @param id Integer representing the brick id
+     * @return Float representing the brick X-coordinate
+     */
+    public float getX(int id) {
+        return x[id];
+    }
+
+    /** Returns the brick Y-coordinate.
+     *
+     * @param id Integer representing the brick id
+     * @return Float representing the brick Y-coordinate
+     */
+    public float getY(int id) {
+        return y[id];
+    }
+
+    /** Returns the brick width.
+     *
+     * @param id Integer representing the brick id
+     * @return Float representing the brick width
+     */
+    public float getWidth(int id) {
+        return width[id];
+    }
+
+    /** Returns the brick height.
+     *
+     * @param id Integer representing the brick id
+     * @return Float representing the brick height
+     */
+    public float getHeight(int id) {
+        return height[id];
+    }
+
+    /** Returns the brick color index (into the BrickManager brick colors).
+     *
+     * @param id Integer representing the brick id
+     * @return Integer representing the brick color index
+     */
+    public int getColor(int id) {
+        return color[id];
+    }
+
+    /** Returns the brick remaining hit points.
+     *
+     * @param id Integer representing the brick id
+     * @return Integer representing the hits left to destroy the brick
+     */
+    public int getHitPoints(int id) {
+        return hitPoints[id];
+    }
+
+    /** Grows the arrays so that they can hold at least the given number of bricks.
+     *
+     * @param capacity Integer representing the number of bricks to make room for
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= x.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, x.length * 2);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        width = Arrays.copyOf(width, newCapacity);
+        height = Arrays.copyOf(height, newCapacity);
+        color = Arrays.copyOf(color, newCapacity);
+        hitPoints = Arrays.copyOf(hitPoints, newCapacity);
+        alive = Arrays.copyOf(alive, (newCapacity + 63) >> 6);
+    }
+}
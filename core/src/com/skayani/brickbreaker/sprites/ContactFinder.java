@@ -0,0 +1,154 @@
+package com.skayani.brickbreaker.sprites;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+
+/** ContactFinder class that finds the earliest contacts of a ball moving through the play field
+ * with the walls, the player brick and the bricks of a BrickManager.  It only reads the bricks,
+ * so several ContactFinders (one per thread) can search the same level at the same time.
+ */
+class ContactFinder {
+    // Contacts closer together in time than this are treated as simultaneous
+    private static final float CONTACT_EPSILON = 1e-4f;
+
+    private BrickStore brickStore;
+    private BrickGrid brickGrid;
+    private float fieldWidth;
+    private float fieldHeight;
+
+    // Earliest contact found by the last call to find
+    private float time;
+    private float normalX;
+    private float normalY;
+    private IntArray bricks;
+
+    // Reused buffers for the grid query and the swept collision tests
+    private IntArray candidates;
+    private Vector2 sweepNormal;
+    private Rectangle sweepArea;
+
+    /** ContactFinder constructor that takes in the bricks and the size of the play field.
+     *
+     * @param brickStore BrickStore class instance of the level's bricks
+     * @param brickGrid BrickGrid class instance holding the alive bricks
+     * @param fieldWidth Float representing the play field width
+     * @param fieldHeight Float representing the play field height
+     */
+    ContactFinder(BrickStore brickStore, BrickGrid brickGrid, float fieldWidth,
+                  float fieldHeight) {
+        this.brickStore = brickStore;
+        this.brickGrid = brickGrid;
+        this.fieldWidth = fieldWidth;
+        this.fieldHeight = fieldHeight;
+        bricks = new IntArray();
+        candidates = new IntArray();
+        sweepNormal = new Vector2();
+        sweepArea = new Rectangle();
+    }
+
+    /** Finds the earliest contacts of the ball moving by (dx, dy) with the left, right and top
+     * walls, the player brick and the bricks in the grid cells along its path.
+     *
+     * @param ballBounds Rectangle representing the ball at the start of the movement
+     * @param dx Float representing the movement along the X-axis
+     * @param dy Float representing the movement along the Y-axis
+     * @param playerBrickBounds Rectangle representing the player brick bounds
+     */
+    void find(Rectangle ballBounds, float dx, float dy, Rectangle playerBrickBounds) {
+        time = 1;
+        normalX = 0;
+        normalY = 0;
+        bricks.clear();
+
+        if (dx < 0) {
+            add(Math.max(0, -ballBounds.x / dx), 1, 0, -1);
+        }
+        else if (dx > 0) {
+            float wallX = fieldWidth - ballBounds.width;
+            add(Math.max(0, (wallX - ballBounds.x) / dx), -1, 0, -1);
+        }
+        if (dy > 0) {
+            float wallY = fieldHeight - ballBounds.height;
+            add(Math.max(0, (wallY - ballBounds.y) / dy), 0, -1, -1);
+        }
+
+        float hitTime = SweptCollision.sweep(ballBounds, dx, dy, playerBrickBounds,
+                sweepNormal);
+        add(hitTime, sweepNormal.x, sweepNormal.y, -1);
+
+        sweepArea.set(Math.min(ballBounds.x, ballBounds.x + dx),
+                Math.min(ballBounds.y, ballBounds.y + dy),
+                ballBounds.width + Math.abs(dx), ballBounds.height + Math.abs(dy));
+        brickGrid.query(sweepArea, candidates);
+        for (int i = 0; i < candidates.size; i++) {
+            int id = candidates.get(i);
+            hitTime = SweptCollision.sweep(ballBounds, dx, dy, brickStore.getX(id),
+                    brickStore.getY(id), brickStore.getWidth(id), brickStore.getHeight(id),
+                    sweepNormal);
+            add(hitTime, sweepNormal.x, sweepNormal.y, id);
+        }
+    }
+
+    /** Returns the fraction of the movement at which the earliest contact happens, or 1 if the
+     * ball moves freely.
+     *
+     * @return Float between 0 and 1
+     */
+    float getTime() {
+        return time;
+    }
+
+    /** Returns the X component of the combined normal of the earliest contacts.
+     *
+     * @return Float representing the normal X component (-1, 0 or 1)
+     */
+    float getNormalX() {
+        return normalX;
+    }
+
+    /** Returns the Y component of the combined normal of the earliest contacts.
+     *
+     * @return Float representing the normal Y component (-1, 0 or 1)
+     */
+    float getNormalY() {
+        return normalY;
+    }
+
+    /** Returns the ids of the bricks touched at the earliest contact.
+     *
+     * @return IntArray of brick ids, reused by the next call to find
+     */
+    IntArray getBricks() {
+        return bricks;
+    }
+
+    /** Records a contact if it happens before (or together with) the earliest contact found so
+     * far.  Earlier contacts replace the recorded ones; simultaneous contacts are merged.
+     *
+     */
+    private void add(float contactTime, float contactNormalX, float contactNormalY,
+                     int brickId) {
+        if (contactTime > time + CONTACT_EPSILON || contactTime >= 1) {
+            return;
+        }
+        if (contactTime < time - CONTACT_EPSILON) {
+            time = contactTime;
+            normalX = 0;
+            normalY = 0;
+            bricks.clear();
+        }
+        else {
+            time = Math.min(time, contactTime);
+        }
+        if (contactNormalX != 0) {
+            normalX = contactNormalX;
+        }
+        if (contactNormalY != 0) {
+            normalY = contactNormalY;
+        }
+        if (brickId >= 0) {
+            bricks.add(brickId);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.skayani.brickbreaker.sprites;
+
+/** ForkJoinSupport class that finds out whether fork/join is available on this platform.
+ *
+ * Fork/join is only available on Java 7 and Android 5.0 (API 21) or later.  This class does not
+ * refer to any fork/join class itself, so it can be loaded anywhere; the classes that extend
+ * RecursiveAction are only referred to once isAvailable has returned true.
+ */
+public class ForkJoinSupport {
+    private static int available = -1;
+
+    private ForkJoinSupport() {
+    }
+
+    /** Returns whether fork/join is available on this platform.
+     *
+     * @return Boolean that is true if work can be run on a fork/join pool
+     */
+    public static boolean isAvailable() {
+        if (available < 0) {
+            try {
+                Class.forName("java.util.concurrent.ForkJoinPool");
+                available = 1;
+            }
+            catch (Throwable e) {
+                available = 0;
+            }
+        }
+        return available == 1;
+    }
+}
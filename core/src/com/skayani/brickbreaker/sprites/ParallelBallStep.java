@@ -0,0 +1,80 @@
+package com.skayani.brickbreaker.sprites;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** ParallelBallStep class that runs BallSteppers for disjoint ranges of balls on a shared
+ * fork/join pool and returns once all of them have finished.
+ *
+ * Fork/join is only available on Java 7 and Android 5.0 (API 21) or later, so this class is
+ * only referred to once ForkJoinSupport.isAvailable has confirmed it can be loaded; otherwise
+ * the balls are stepped on the calling thread.
+ */
+class ParallelBallStep extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private static ForkJoinPool pool;
+
+    private ArrayList<Partition> partitions;
+    private ArrayList<Partition> running;
+
+    ParallelBallStep() {
+        partitions = new ArrayList<Partition>();
+        running = new ArrayList<Partition>();
+    }
+
+    /** Returns the number of threads balls are stepped on.
+     *
+     * @return Integer representing the pool parallelism
+     */
+    static int getParallelism() {
+        return pool().getParallelism();
+    }
+
+    /** Runs the given steppers in parallel and waits for them to finish.
+     *
+     * @param steppers BallSteppers whose ranges have been set
+     * @param count Integer representing the number of steppers to run
+     */
+    void run(BallStepper[] steppers, int count) {
+        while (partitions.size() < count) {
+            partitions.add(new Partition());
+        }
+        running.clear();
+        for (int i = 0; i < count; i++) {
+            Partition partition = partitions.get(i);
+            partition.reinitialize();
+            partition.stepper = steppers[i];
+            running.add(partition);
+        }
+        reinitialize();
+        pool().invoke(this);
+    }
+
+    @Override
+    protected void compute() {
+        invokeAll(running);
+    }
+
+    private static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = new ForkJoinPool();
+        }
+        return pool;
+    }
+
+    /** Fork/join task running one BallStepper.
+     *
+     */
+    private static class Partition extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private BallStepper stepper;
+
+        @Override
+        protected void compute() {
+            stepper.run();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.skayani.brickbreaker.sprites;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/** PhysicsEngine interface for the collision backends that move the ball of a BrickManager
+ * through a simulation step.  The BrickManager adds a body for every brick of the level, removes
+ * it once the brick is destroyed and reports every brick the ball touched during a step back to
+ * the game through a ContactListener.
+ *
+ * The backend is picked with BrickManager.setDefaultPhysics before the game is built (for example
+ * from a launcher argument) or with BrickManager.setPhysics before the first step.  The balls of
+ * the multi-ball mode are always moved by the AABB sweep, which steps them on several threads.
+ */
+public interface PhysicsEngine {
+    /** Available backends.  AABB sweeps the ball's bounds against a uniform brick grid; BOX2D
+     * steps a Box2D world with a static body per brick and uses its broadphase.
+     */
+    enum Type {
+        AABB,
+        BOX2D
+    }
+
+    /** Adds the body of a brick.
+     *
+     * @param id Integer representing the id of the brick in the BrickStore
+     * @param x X-coordinate of the brick position
+     * @param y Y-coordinate of the brick position
+     * @param width Float representing the brick width
+     * @param height Float representing the brick height
+     */
+    void addBrick(int id, float x, float y, float width, float height);
+
+    /** Removes the body of a destroyed brick.  Never called while a step is running.
+     *
+     * @param id Integer representing the id of the brick in the BrickStore
+     */
+    void removeBrick(int id);
+
+    /** Moves the ball through one simulation step, bouncing it off the walls, the player brick
+     * and the bricks, and reports every brick it touched once the ball has moved.
+     *
+     * @param ball Ball class instance to move
+     * @param delta Fixed time (in seconds) covered by one simulation step
+     * @param playerBrickBounds Rectangle representing the player brick bounds
+     * @param listener ContactListener class instance told about the bricks the ball touched
+     */
+    void step(Ball ball, float delta, Rectangle playerBrickBounds, ContactListener listener);
+
+    /** Returns the backend type.
+     *
+     * @return Type of the backend
+     */
+    Type getType();
+
+    /** Frees the resources of the backend, such as native Box2D memory.
+     *
+     */
+    void dispose();
+
+    /** Listener interface for the BrickManager to receive the bricks touched by the ball.
+     *
+     */
+    interface ContactListener {
+        /** Called for every brick the ball touched during a step, in the order of contact.
+         *
+         * @param id Integer representing the id of the brick in the BrickStore
+         */
+        void brickContact(int id);
+    }
+}
@@ -1,19 +1,28 @@
 package com.skayani.brickbreaker.sprites;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.skayani.brickbreaker.BrickBreaker;
 
-/** PlayerBrick class that represents the movable player brick
- *
+/** PlayerBrick class that represents the movable player brick.  The player brick only holds
+ * simulation state; its image is drawn by the PlayState.
  */
 
 public class PlayerBrick {
+    // Width and height of the player brick image in pixels
+    public static final float WIDTH = 98;
+    public static final float HEIGHT = 19;
+
+    // Player brick speed in pixels per second for a full left/right input
+    private static final float SPEED = 240;
+
     private Vector2 position;
+    private Vector2 previousPosition;
+    private Vector2 renderPosition;
     private Vector2 velocity;
     private Rectangle bounds;
-    private Texture playerBrick;
+    // Width of the play field the player brick is kept inside of
+    private float fieldWidth;
 
     /** Returns a Vector2 representing the player brick velocity.
      *
@@ -30,27 +39,41 @@ public class PlayerBrick {
      * @param y Y-coordinate of the player brick position
      */
     public PlayerBrick(int x, int y) {
-        playerBrick = new Texture("playerbrick.png");
-        position = new Vector2(x - (playerBrick.getWidth() / 2), y);
-        bounds = new Rectangle(x, y, playerBrick.getWidth(), playerBrick.getHeight());
+        this(x, y, BrickBreaker.WIDTH);
+    }
+
+    /** PlayerBrick constructor that takes in an X-coordinate and Y-coordinate representing
+     * the player brick's initial position and the width of the play field it moves across.
+     *
+     * @param x X-coordinate of the player brick position
+     * @param y Y-coordinate of the player brick position
+     * @param fieldWidth Float representing the width of the play field
+     */
+    public PlayerBrick(int x, int y, float fieldWidth) {
+        position = new Vector2(x - (WIDTH / 2), y);
+        previousPosition = new Vector2(position);
+        renderPosition = new Vector2(position);
+        bounds = new Rectangle(x, y, WIDTH, HEIGHT);
         velocity = new Vector2(0, 0);
+        this.fieldWidth = fieldWidth;
     }
 
-    /** Method that is called from PlayerState to update the player brick position as the user
-     * inputs control.
+    /** Method that is called from GameSimulation once per simulation step to update the player
+     * brick position as the user inputs control.
      *
-     * @param delta Time difference between two frames
+     * @param delta Fixed time (in seconds) covered by one simulation step
      */
     public void update(float delta) {
-        velocity.scl(4);
-        position.add(velocity.x, 0);
-        bounds.setPosition(position.x, position.y);
-        if ((bounds.x + bounds.getWidth()) > BrickBreaker.WIDTH) {
-            position.x = BrickBreaker.WIDTH - bounds.getWidth();
+        previousPosition.set(position);
+        velocity.scl(SPEED);
+        position.add(velocity.x * delta, 0);
+        if ((position.x + bounds.getWidth()) > fieldWidth) {
+            position.x = fieldWidth - bounds.getWidth();
         }
-        else if (bounds.x <= 0) {
+        else if (position.x <= 0) {
             position.x = 0;
         }
+        bounds.setPosition(position.x, position.y);
         velocity.set(0, 0);
     }
 
@@ -63,11 +86,15 @@ public class PlayerBrick {
         velocity.add(-x, 0);
     }
 
-    /** Method called when the PlayState is removed from the GameStateManager stack to deallocate
-     * any resources/assets.
+    /** Places the player brick at the given X-coordinate, for example to restore a saved
+     * game, without interpolating from its previous position.
+     *
+     * @param x X-coordinate of the player brick position
      */
-    public void dispose() {
-        playerBrick.dispose();
+    public void setX(float x) {
+        position.x = x;
+        previousPosition.set(position);
+        bounds.setPosition(position.x, position.y);
     }
 
     /** Returns a Vector2 representing the player brick position.
@@ -78,12 +105,14 @@ public class PlayerBrick {
         return position;
     }
 
-    /** Returns a Texture class instance representing the player brick.
+    /** Returns a Vector2 representing the player brick position blended between the previous
+     * and the current simulation step.
      *
-     * @return Texture class instance representing the player brick
+     * @param alpha Float between 0 and 1 representing how far the frame is into the next step
+     * @return Vector2 representing the interpolated player brick position
      */
-    public Texture getTexture() {
-        return playerBrick;
+    public Vector2 getRenderPosition(float alpha) {
+        return renderPosition.set(previousPosition).lerp(position, alpha);
     }
 
     /** Returns a Rectangle representing the boundaries of the player brick
@@ -0,0 +1,100 @@
+package com.skayani.brickbreaker.sprites;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+
+/** SweptCollision class with the swept axis-aligned bounding box test used to find when a moving
+ * rectangle first touches a static one during a simulation step, so fast objects cannot pass
+ * through thin ones between two steps.
+ */
+public class SweptCollision {
+    // Returned when the moving rectangle does not touch the target during the movement
+    public static final float NO_HIT = Float.POSITIVE_INFINITY;
+
+    private SweptCollision() {
+    }
+
+    /** Returns the fraction of the movement (between 0 and 1) at which the moving rectangle
+     * first touches the target, and writes the surface normal of the touched side into normal.
+     * Rectangles that already overlap at the start of the movement are not reported.
+     *
+     * @param box Rectangle representing the moving object at the start of the movement
+     * @param dx Float representing the movement along the X-axis
+     * @param dy Float representing the movement along the Y-axis
+     * @param target Rectangle representing the static object
+     * @param normal Vector2 set to the normal of the side of the target that was hit
+     * @return Float representing the time of impact, or NO_HIT
+     */
+    public static float sweep(Rectangle box, float dx, float dy, Rectangle target,
+                              Vector2 normal) {
+        return sweep(box, dx, dy, target.x, target.y, target.width, target.height, normal);
+    }
+
+    /** Returns the fraction of the movement (between 0 and 1) at which the moving rectangle
+     * first touches the target given by its position and size, and writes the surface normal of
+     * the touched side into normal.
+     *
+     * @param box Rectangle representing the moving object at the start of the movement
+     * @param dx Float representing the movement along the X-axis
+     * @param dy Float representing the movement along the Y-axis
+     * @param targetX X-coordinate of the static object
+     * @param targetY Y-coordinate of the static object
+     * @param targetWidth Float representing the width of the static object
+     * @param targetHeight Float representing the height of the static object
+     * @param normal Vector2 set to the normal of the side of the target that was hit
+     * @return Float representing the time of impact, or NO_HIT
+     */
+    public static float sweep(Rectangle box, float dx, float dy, float targetX, float targetY,
+                              float targetWidth, float targetHeight, Vector2 normal) {
+        float entryX;
+        float exitX;
+        if (dx > 0) {
+            entryX = (targetX - (box.x + box.width)) / dx;
+            exitX = (targetX + targetWidth - box.x) / dx;
+        }
+        else if (dx < 0) {
+            entryX = (targetX + targetWidth - box.x) / dx;
+            exitX = (targetX - (box.x + box.width)) / dx;
+        }
+        else if (box.x + box.width <= targetX || box.x >= targetX + targetWidth) {
+            return NO_HIT;
+        }
+        else {
+            entryX = Float.NEGATIVE_INFINITY;
+            exitX = Float.POSITIVE_INFINITY;
+        }
+
+        float entryY;
+        float exitY;
+        if (dy > 0) {
+            entryY = (targetY - (box.y + box.height)) / dy;
+            exitY = (targetY + targetHeight - box.y) / dy;
+        }
+        else if (dy < 0) {
+            entryY = (targetY + targetHeight - box.y) / dy;
+            exitY = (targetY - (box.y + box.height)) / dy;
+        }
+        else if (box.y + box.height <= targetY || box.y >= targetY + targetHeight) {
+            return NO_HIT;
+        }
+        else {
+            entryY = Float.NEGATIVE_INFINITY;
+            exitY = Float.POSITIVE_INFINITY;
+        }
+
+        float entry = Math.max(entryX, entryY);
+        float exit = Math.min(exitX, exitY);
+        if (entry > exit || entry < 0 || entry >= 1 || exit <= 0) {
+            return NO_HIT;
+        }
+
+        // The side that is reached last decides which face was hit; exact corners count as Y
+        if (entryX > entryY) {
+            normal.set(dx > 0 ? -1 : 1, 0);
+        }
+        else {
+            normal.set(0, dy > 0 ? -1 : 1);
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,116 @@
+package com.skayani.brickbreaker.states;
+
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/** ActionDispatcher class that turns scene2d widget changes (button clicks, checkbox toggles,
+ * slider moves) into integer actions for a game state.
+ *
+ * A state binds each widget to an action once, when the widget is created.  The dispatcher
+ * adds itself as the only listener of the widget, so a widget never holds more than one
+ * listener however long the state is shown.  Changes are stored in a fixed size queue while
+ * the stage handles input, and the state takes them out with poll during its update, so no
+ * objects are created per event and state changes never happen in the middle of stage.act.
+ */
+public class ActionDispatcher extends ChangeListener {
+    // Returned by poll when the queue is empty
+    public static final int NONE = -1;
+    // Most actions queued between two updates; further actions are dropped
+    private static final int QUEUE_SIZE = 16;
+
+    // Bindings of every dispatcher that has not been unbound, for spotting listener leaks
+    private static int liveBindings;
+
+    private ObjectIntMap<Actor> bindings;
+    private int[] queue;
+    private int head;
+    private int size;
+
+    /** ActionDispatcher constructor that creates an empty dispatcher.
+     *
+     */
+    public ActionDispatcher() {
+        bindings = new ObjectIntMap<Actor>();
+        queue = new int[QUEUE_SIZE];
+    }
+
+    /** Binds a widget to an action, replacing any action it was bound to before.  The
+     * dispatcher is added as a listener of the widget only the first time it is bound.
+     *
+     * @param actor Widget whose changes fire the action
+     * @param action Integer representing the action (zero or more)
+     */
+    public void bind(Actor actor, int action) {
+        if (!bindings.containsKey(actor)) {
+            actor.addListener(this);
+            liveBindings += 1;
+        }
+        bindings.put(actor, action);
+    }
+
+    /** Removes the dispatcher from every bound widget and clears the queue.
+     *
+     */
+    public void unbindAll() {
+        ObjectIntMap.Keys<Actor> actors = bindings.keys();
+        while (actors.hasNext()) {
+            actors.next().removeListener(this);
+        }
+        liveBindings -= bindings.size;
+        bindings.clear();
+        clear();
+    }
+
+    /** Returns the next queued action and removes it from the queue.
+     *
+     * @return Integer representing the action, or NONE if the queue is empty
+     */
+    public int poll() {
+        if (size == 0) {
+            return NONE;
+        }
+        int action = queue[head];
+        head = (head + 1) % QUEUE_SIZE;
+        size -= 1;
+        return action;
+    }
+
+    /** Drops every queued action, for example stale clicks of a state that is shown again.
+     *
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /** Returns the number of widgets bound to this dispatcher.
+     *
+     * @return Integer representing the binding count
+     */
+    public int getBindingCount() {
+        return bindings.size;
+    }
+
+    /** Returns the number of bindings of every dispatcher that has not been unbound.  This
+     * stays constant while menus are shown and only changes when states are built or disposed.
+     *
+     * @return Integer representing the live binding count
+     */
+    public static int getLiveBindings() {
+        return liveBindings;
+    }
+
+    /** Queues the action bound to the widget that changed.
+     *
+     */
+    @Override
+    public void changed(ChangeEvent event, Actor actor) {
+        int action = bindings.get(actor, NONE);
+        if (action == NONE || size == QUEUE_SIZE) {
+            return;
+        }
+        queue[(head + size) % QUEUE_SIZE] = action;
+        size += 1;
+    }
+}
@@ -0,0 +1,194 @@
+package com.skayani.brickbreaker.states;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Pool;
+import com.skayani.brickbreaker.BrickBreaker;
+import com.skayani.brickbreaker.sprites.BrickManager;
+import com.skayani.brickbreaker.sprites.BrickStore;
+
+/** BrickLayer class that keeps the background and the bricks of the PlayState pre-rendered in a
+ * FrameBuffer, so a frame draws the whole static part of the play field as one quad instead of
+ * one quad per brick.
+ *
+ * When a brick is destroyed only the area it covered is invalidated; before the next frame the
+ * dirty areas are redrawn into the FrameBuffer with the scissor test, drawing the background
+ * and just the bricks found in those areas through the BrickManager's grid.  After MAX_DIRTY
+ * areas in one frame the whole layer is redrawn instead.  The FrameBuffer contents are lost
+ * with the GL context, so the PlayState redraws the whole layer when the game resumes.
+ */
+class BrickLayer {
+    // Dirty areas kept per frame before the whole layer is redrawn instead
+    private static final int MAX_DIRTY = 16;
+
+    private BrickManager brickManager;
+    private Texture background;
+    // Brick regions indexed by the brick color index
+    private TextureRegion[] brickRegions;
+    private OrthographicCamera cam;
+
+    private FrameBuffer frameBuffer;
+    private TextureRegion frameRegion;
+    // Frame buffer pixels per world unit
+    private float scaleX;
+    private float scaleY;
+
+    // Areas to redraw before the next frame, in world coordinates
+    private Array<Rectangle> dirtyAreas;
+    private Pool<Rectangle> areaPool;
+    private boolean fullyDirty;
+    private IntArray bricksInArea;
+
+    // Number of layer redraws, for the frame statistics
+    private int redrawCount;
+
+    /** BrickLayer constructor that creates a FrameBuffer the size of the screen.
+     *
+     * @param brickManager BrickManager class instance holding the bricks
+     * @param background Texture class instance of the play field background
+     * @param brickRegions Array of TextureRegions indexed by the brick color index
+     * @param cam OrthographicCamera class instance showing the play field
+     */
+    BrickLayer(BrickManager brickManager, Texture background, TextureRegion[] brickRegions,
+               OrthographicCamera cam) {
+        this.brickManager = brickManager;
+        this.background = background;
+        this.brickRegions = brickRegions;
+        this.cam = cam;
+        int width = Math.max(1, Gdx.graphics.getWidth());
+        int height = Math.max(1, Gdx.graphics.getHeight());
+        frameBuffer = new FrameBuffer(Pixmap.Format.RGB888, width, height, false);
+        frameRegion = new TextureRegion(frameBuffer.getColorBufferTexture());
+        // Frame buffer textures are stored bottom up
+        frameRegion.flip(false, true);
+        scaleX = width / cam.viewportWidth;
+        scaleY = height / cam.viewportHeight;
+        dirtyAreas = new Array<Rectangle>(false, MAX_DIRTY);
+        areaPool = new Pool<Rectangle>(MAX_DIRTY, MAX_DIRTY) {
+            @Override
+            protected Rectangle newObject() {
+                return new Rectangle();
+            }
+        };
+        bricksInArea = new IntArray();
+        fullyDirty = true;
+    }
+
+    /** Marks an area of the play field, for example the bounds of a destroyed brick, to be
+     * redrawn before the next frame.
+     *
+     * @param x X-coordinate of the area
+     * @param y Y-coordinate of the area
+     * @param width Float representing the area width
+     * @param height Float representing the area height
+     */
+    void invalidate(float x, float y, float width, float height) {
+        if (fullyDirty) {
+            return;
+        }
+        if (dirtyAreas.size == MAX_DIRTY) {
+            invalidateAll();
+            return;
+        }
+        dirtyAreas.add(areaPool.obtain().set(x, y, width, height));
+    }
+
+    /** Marks the whole layer to be redrawn before the next frame.
+     *
+     */
+    void invalidateAll() {
+        fullyDirty = true;
+        areaPool.freeAll(dirtyAreas);
+        dirtyAreas.clear();
+    }
+
+    /** Redraws the dirty areas into the FrameBuffer.  Must be called outside of
+     * batch.begin/batch.end, before the layer is drawn.
+     *
+     * @param sb SpriteBatch class instance used to draw into the FrameBuffer
+     */
+    void update(SpriteBatch sb) {
+        if (!fullyDirty && dirtyAreas.size == 0) {
+            return;
+        }
+        redrawCount += 1;
+        frameBuffer.begin();
+        sb.setProjectionMatrix(cam.combined);
+        sb.begin();
+        if (fullyDirty) {
+            drawArea(sb, cam.position.x - cam.viewportWidth / 2,
+                    cam.position.y - cam.viewportHeight / 2, cam.viewportWidth,
+                    cam.viewportHeight);
+        }
+        else {
+            Gdx.gl.glEnable(GL20.GL_SCISSOR_TEST);
+            for (int i = 0; i < dirtyAreas.size; i++) {
+                Rectangle area = dirtyAreas.get(i);
+                float left = area.x - (cam.position.x - cam.viewportWidth / 2);
+                float bottom = area.y - (cam.position.y - cam.viewportHeight / 2);
+                int pixelX = (int)Math.floor(left * scaleX);
+                int pixelY = (int)Math.floor(bottom * scaleY);
+                Gdx.gl.glScissor(pixelX, pixelY,
+                        (int)Math.ceil((left + area.width) * scaleX) - pixelX,
+                        (int)Math.ceil((bottom + area.height) * scaleY) - pixelY);
+                drawArea(sb, area.x, area.y, area.width, area.height);
+                // The scissor box applies when the batch flushes
+                sb.flush();
+            }
+            Gdx.gl.glDisable(GL20.GL_SCISSOR_TEST);
+        }
+        sb.end();
+        frameBuffer.end();
+        fullyDirty = false;
+        areaPool.freeAll(dirtyAreas);
+        dirtyAreas.clear();
+    }
+
+    /** Draws the pre-rendered background and bricks over the camera's view.  Must be called
+     * between batch.begin and batch.end with the camera's projection.
+     *
+     * @param sb SpriteBatch class instance to render the layer
+     */
+    void draw(SpriteBatch sb) {
+        sb.draw(frameRegion, cam.position.x - cam.viewportWidth / 2,
+                cam.position.y - cam.viewportHeight / 2, cam.viewportWidth, cam.viewportHeight);
+    }
+
+    /** Returns how many times the FrameBuffer was redrawn.
+     *
+     * @return Integer representing the redraw count
+     */
+    int getRedrawCount() {
+        return redrawCount;
+    }
+
+    /** Frees the FrameBuffer.
+     *
+     */
+    void dispose() {
+        frameBuffer.dispose();
+    }
+
+    /** Draws the background and the alive bricks that can overlap an area.
+     *
+     */
+    private void drawArea(SpriteBatch sb, float x, float y, float width, float height) {
+        sb.draw(background, 0, 0, BrickBreaker.WIDTH, BrickBreaker.HEIGHT);
+        brickManager.findBricks(x, y, x + width, y + height, bricksInArea);
+        BrickStore bricks = brickManager.getBrickStore();
+        for (int i = 0; i < bricksInArea.size; i++) {
+            int id = bricksInArea.get(i);
+            sb.draw(brickRegions[bricks.getColor(id)], bricks.getX(id), bricks.getY(id),
+                    bricks.getWidth(id), bricks.getHeight(id));
+        }
+    }
+}
@@ -4,18 +4,20 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
-import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.skayani.brickbreaker.BrickBreaker;
+import com.skayani.brickbreaker.assets.AssetRegistry;
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.levels.LevelLoader;
 
-/** GameOverState that is instantiated when the ball is out of bounds (lose) or if the user
- * breaks all bricks in the game (win).
+/** GameOverState that is shown when the ball is out of bounds (lose) or if the user breaks all
+ * bricks in the game (win).  The state is built once and cached by the GameStateManager; each
+ * game's result is set before it is shown.
  */
 
 public class GameOverState extends State {
@@ -33,82 +35,151 @@ public class GameOverState extends State {
     private boolean won;
 
     private int level;
+    // Generator of the level that was played, or null for levels from the levels directory
+    private LevelGenerator generator;
 
     private Texture background;
 
-    /** Overridden GameOverState constructor that takes in a GameStateManager class instance,
-     * a boolean representing if the user won or lost, a final score integer, and a level integer.
+    // Actions of the buttons
+    private static final int PLAY_AGAIN = 0;
+    private static final int MAIN_MENU = 1;
+
+    /** Returns the cached GameOverState showing the result of a game, building and caching
+     * the state the first time.
      *
      * @param gsm GameStateManager class instance
      * @param won Boolean representing whether the user won or lost
      * @param finalScore Integer representing the user's final score after the game state change.
      * @param level Integer representing the level the user ended on.
+     * @return GameOverState class instance
+     */
+    static GameOverState get(GameStateManager gsm, boolean won, int finalScore, int level) {
+        return get(gsm, won, finalScore, level, null);
+    }
+
+    /** Returns the cached GameOverState showing the result of a game, also taking in the
+     * generator of the level that was played so "Try Again" replays the same generated level.
+     *
+     * @param gsm GameStateManager class instance
+     * @param won Boolean representing whether the user won or lost
+     * @param finalScore Integer representing the user's final score after the game state change.
+     * @param level Integer representing the level the user ended on.
+     * @param generator LevelGenerator class instance, or null if the level was not generated
+     * @return GameOverState class instance
+     */
+    static GameOverState get(GameStateManager gsm, boolean won, int finalScore, int level,
+                             LevelGenerator generator) {
+        GameOverState state = gsm.getCached(GameOverState.class);
+        if (state == null) {
+            state = new GameOverState(gsm);
+            gsm.cache(state);
+        }
+        state.setResult(won, finalScore, level, generator);
+        return state;
+    }
+
+    /** GameOverState constructor that takes in a GameStateManager class instance and builds the
+     * stage.  The result is set with setResult before the state is shown.
+     *
+     * @param gsm GameStateManager class instance
      */
-    GameOverState(GameStateManager gsm, boolean won, int finalScore, int level) {
+    private GameOverState(GameStateManager gsm) {
         super(gsm);
-        background = new Texture("backgrounds/main_menu_background.jpg");
+        background = gsm.assets.getTexture(AssetRegistry.MENU_BACKGROUND);
         stage = new Stage(new ScreenViewport());
-        skin = new Skin(Gdx.files.internal("skin/glassy-ui.json"));
+        skin = gsm.assets.getSkin(AssetRegistry.SKIN);
         table = new Table();
         table.setFillParent(true);
         stage.addActor(table);
-        Gdx.input.setInputProcessor(stage);
-
-        this.won = won;
-        this.level = level;
-
-        gameLabel = new Label("You lose! Your final score is " + finalScore, skin);
 
+        gameLabel = new Label("", skin);
         playAgain = new TextButton("Try Again", skin);
+        mainMenu = new TextButton("Main Menu", skin);
         table.add(gameLabel);
         table.row().padTop(20).padBottom(20);
         table.add(playAgain);
         table.row().padTop(20).padBottom(20);
+        table.add(mainMenu);
 
-        mainMenu = new TextButton("Main Menu", skin);
+        actions.bind(playAgain, PLAY_AGAIN);
+        actions.bind(mainMenu, MAIN_MENU);
+    }
+
+    /** Sets the result of the game shown by the GameOverState, along with the best score of
+     * the level in the player profile.
+     *
+     * @param won Boolean representing whether the user won or lost
+     * @param finalScore Integer representing the user's final score after the game state change.
+     * @param level Integer representing the level the user ended on.
+     * @param generator LevelGenerator class instance, or null if the level was not generated
+     */
+    void setResult(boolean won, int finalScore, int level, LevelGenerator generator) {
+        this.won = won;
+        this.level = level;
+        this.generator = generator;
+        String best = "\nHigh score: " + gsm.profile.getBestScore(level);
         if (won) {
-            gameLabel.setText("You win! Your total score is " + finalScore + "!");
+            gameLabel.setText("You win! Your total score is " + finalScore + "!" + best);
             playAgain.setText("Continue");
-            table.row().padTop(20).padBottom(20);
         }
-        table.add(mainMenu);
+        else {
+            gameLabel.setText("You lose! Your final score is " + finalScore + best);
+            playAgain.setText("Try Again");
+        }
+    }
+
+    /** Method called when the GameOverState becomes the current game state to send user input
+     * to its stage.
+     */
+    @Override
+    public void show() {
+        Gdx.input.setInputProcessor(stage);
+    }
+
+    /** The GameOverState only changes on user input or while its widgets animate, so it is
+     * not rendered continuously.
+     *
+     * @return Boolean that is false
+     */
+    @Override
+    public boolean isContinuousRendering() {
+        return false;
+    }
+
+    /** Method called when the GameOverState stops being the current game state so its hidden
+     * stage no longer receives user input.
+     */
+    @Override
+    public void hide() {
+        if (Gdx.input.getInputProcessor() == stage) {
+            Gdx.input.setInputProcessor(null);
+        }
     }
 
     /** Method called to handle user clicks on the two buttons: "Try Again"/"Continue" and
-     * "Main Menu"
+     * "Main Menu", taking the queued button actions.
      */
     @Override
     public void handleInput() {
-        if (!won) {
-            playAgain.addListener(new ChangeListener() {
-                @Override
-                public void changed(ChangeEvent event, Actor actor) {
-                    gsm.set(new PlayState(gsm, level));
-                }
-            });
+        int action = actions.poll();
+        if (action == MAIN_MENU) {
+            gsm.set(MenuState.get(gsm));
+        }
+        else if (action != PLAY_AGAIN) {
+            return;
+        }
+        else if (!won && generator != null) {
+            gsm.set(LoadingState.level(gsm, generator));
+        }
+        else if (!won) {
+            gsm.set(LoadingState.level(gsm, level));
         }
-        else if (level < 3) {
-            playAgain.addListener(new ChangeListener() {
-                @Override
-                public void changed(ChangeEvent event, Actor actor) {
-                    gsm.set(new PlayState(gsm, level + 1));
-                }
-            });
+        else if (generator == null && level < LevelLoader.getLevelCount()) {
+            gsm.set(LoadingState.level(gsm, level + 1));
         }
-        else if (level == 3) {
-            playAgain.addListener(new ChangeListener() {
-                @Override
-                public void changed(ChangeEvent event, Actor actor) {
-                    gsm.set(new LevelSelectState(gsm));
-                }
-            });
+        else {
+            gsm.set(LevelSelectState.get(gsm));
         }
-        mainMenu.addListener(new ChangeListener() {
-            @Override
-            public void changed(ChangeEvent event, Actor actor) {
-                gsm.set(new MenuState(gsm));
-            }
-        });
     }
 
     /** Method that is constantly called to then call handleInput.
@@ -134,13 +205,13 @@ public class GameOverState extends State {
         stage.draw();
     }
 
-    /** Method called when there is a game state change from LevelSelectState to some other state
-     * to dispose of any resources/assets.
+    /** Method called when the cached GameOverState is evicted or the game is closed, to
+     * dispose of any resources/assets.
      */
     @Override
     public void dispose() {
         stage.dispose();
-        skin.dispose();
-        background.dispose();
+        gsm.assets.release(AssetRegistry.SKIN);
+        gsm.assets.release(AssetRegistry.MENU_BACKGROUND);
     }
 }
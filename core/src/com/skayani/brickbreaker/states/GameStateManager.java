@@ -3,7 +3,13 @@ package com.skayani.brickbreaker.states;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.skayani.brickbreaker.BrickBreaker;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.skayani.brickbreaker.assets.AssetRegistry;
+import com.skayani.brickbreaker.audio.SoundEffects;
+import com.skayani.brickbreaker.profile.ProfileStore;
+import com.skayani.brickbreaker.stats.FrameStats;
 
 import java.util.Stack;
 
@@ -12,19 +18,40 @@ import java.util.Stack;
  */
 
 public class GameStateManager {
-    // Booleans for user settings
+    // Booleans for user settings, and the music and sound volumes between 0 and 1
     public boolean musicOn = true;
-    public float musicVolume = 100;
+    public float musicVolume = 1;
     public boolean soundOn = true;
-    public float soundVolume = 100;
+    public float soundVolume = 1;
+    // True if destroyed bricks release extra balls (multi-ball mode)
+    public boolean multiBallOn = false;
 
-    // General game music and score sound effect declarations.
+    // Keys of the user settings in the player profile
+    private static final String MUSIC_ON = "musicOn";
+    private static final String MUSIC_VOLUME = "musicVolume";
+    private static final String SOUND_ON = "soundOn";
+    private static final String SOUND_VOLUME = "soundVolume";
+    private static final String MULTI_BALL_ON = "multiBallOn";
+
+    // General game music and the sound effects, such as the brick hit sound
     public Music playMusic;
-    public Music scoreSound;
+    public SoundEffects soundEffects;
+
+    // Shared textures, skins and fonts used by the game states
+    public AssetRegistry assets;
+    // Frame times and counts of the last frames, reported to by the game states
+    public FrameStats stats;
+    // Settings, unlocked levels and high scores, kept between launches
+    public ProfileStore profile;
+    // Writes files such as replays and saved games, so the render thread never waits on storage
+    public AsyncExecutor fileWriter;
 
     // Data structure to hold the different game states
     private Stack<State> states;
     private int size;
+    // Menu states kept after they leave the stack so they can be shown again without being
+    // rebuilt, at most one per class
+    private ObjectMap<Class<? extends State>, State> cachedStates;
 
     /** Returns the size of the stack (how many total game states are within the stack)
      *
@@ -34,15 +61,75 @@ public class GameStateManager {
         return size;
     }
 
+    /** GameStateManager constructor that creates the asset registry and an empty stack, and
+     * starts reading the player profile.  The music and sound effects are opened later by
+     * startAudio, once the LoadingState has preloaded them and the profile is loaded.
+     */
     public GameStateManager() {
-        playMusic = Gdx.audio.newMusic(Gdx.files.internal("sounds/play_state_music.ogg"));
-        scoreSound = Gdx.audio.newMusic(Gdx.files.internal("sounds/score_sound.mp3"));
-        playMusic.setLooping(true);
-        playMusic.play();
+        assets = new AssetRegistry();
+        stats = new FrameStats();
+        profile = new ProfileStore(Gdx.files.local(ProfileStore.PROFILE));
+        fileWriter = new AsyncExecutor(1);
         states = new Stack<State>();
+        cachedStates = new ObjectMap<Class<? extends State>, State>();
         size = 0;
     }
 
+    /** Opens the music and the sound effects and starts the music.  Called once the startup
+     * assets are loaded.
+     *
+     */
+    public void startAudio() {
+        if (playMusic != null) {
+            return;
+        }
+        playMusic = assets.getMusic(AssetRegistry.PLAY_MUSIC);
+        soundEffects = new SoundEffects(assets);
+        playMusic.setLooping(true);
+        applyAudioSettings();
+    }
+
+    /** Sets the user settings from the player profile, keeping the defaults of those never
+     * changed.  Called once the profile is loaded; the volumes are clamped to 0-1 here, so
+     * they do not have to be checked whenever they are applied.
+     *
+     */
+    public void loadSettings() {
+        musicOn = profile.getBoolean(MUSIC_ON, musicOn);
+        musicVolume = MathUtils.clamp(profile.getFloat(MUSIC_VOLUME, musicVolume), 0, 1);
+        soundOn = profile.getBoolean(SOUND_ON, soundOn);
+        soundVolume = MathUtils.clamp(profile.getFloat(SOUND_VOLUME, soundVolume), 0, 1);
+        multiBallOn = profile.getBoolean(MULTI_BALL_ON, multiBallOn);
+    }
+
+    /** Stores the user settings in the player profile.  Only the settings that changed are
+     * written, on the profile's background thread.
+     *
+     */
+    public void saveSettings() {
+        profile.putBoolean(MUSIC_ON, musicOn);
+        profile.putFloat(MUSIC_VOLUME, musicVolume);
+        profile.putBoolean(SOUND_ON, soundOn);
+        profile.putFloat(SOUND_VOLUME, soundVolume);
+        profile.putBoolean(MULTI_BALL_ON, multiBallOn);
+    }
+
+    /** Applies the music and sound settings to the music and the sound effects.  Called
+     * once whenever a setting changes rather than every frame.
+     *
+     */
+    public void applyAudioSettings() {
+        playMusic.setVolume(musicVolume);
+        if (!musicOn) {
+            playMusic.pause();
+        }
+        else if (!playMusic.isPlaying()) {
+            playMusic.play();
+        }
+        soundEffects.setVolume(soundVolume);
+        soundEffects.setMuted(!soundOn);
+    }
+
     /** Increases the size member variable by one.
      *
      */
@@ -57,19 +144,27 @@ public class GameStateManager {
         size -= 1;
     }
 
-    /** Pushes a new state onto the stack, making it the current game state.
+    /** Pushes a new state onto the stack, making it the current game state.  The state below
+     * is hidden until the new state is popped.
      *
      * @param state Game state class instance
      */
     public void push(State state) {
+        if (!states.isEmpty()) {
+            states.peek().hide();
+        }
         states.push(state);
+        enter(state);
     }
 
-    /** Removes the current game state from the stack.
+    /** Removes the current game state from the stack and shows the state below it.
      *
      */
     public void pop() {
-        states.pop().dispose();
+        leave(states.pop());
+        if (!states.isEmpty()) {
+            enter(states.peek());
+        }
     }
 
     /** Removes all game states from the stack and pushes a new state, making i the current game
@@ -79,10 +174,120 @@ public class GameStateManager {
      */
     public void set (State state) {
         for (int i = 0; i != size; i++) {
-            states.pop().dispose();
+            leave(states.pop());
         }
         size = 1;
         states.push(state);
+        enter(state);
+    }
+
+    /** Returns the cached state of the given class, or null if there is none.  Menu states use
+     * this to reuse their Stage, skin and textures instead of rebuilding them.
+     *
+     * @param type Class of the game state
+     * @return Cached game state class instance, or null
+     */
+    public <T extends State> T getCached(Class<T> type) {
+        return type.cast(cachedStates.get(type));
+    }
+
+    /** Keeps a state after it leaves the stack so it can be shown again.  A state cached
+     * earlier for the same class is disposed unless it is on the stack.
+     *
+     * @param state Game state class instance
+     */
+    public void cache(State state) {
+        State previous = cachedStates.put(state.getClass(), state);
+        if (previous != null && previous != state && !states.contains(previous)) {
+            disposeState(previous);
+        }
+    }
+
+    /** Disposes the cached states that are not on the stack, freeing their stages and
+     * releasing their assets.  Called when memory should be freed, for example when the game
+     * is sent to the background.
+     *
+     */
+    public void evictCache() {
+        ObjectMap.Values<State> cached = cachedStates.values();
+        while (cached.hasNext()) {
+            State state = cached.next();
+            if (!states.contains(state)) {
+                cached.remove();
+                disposeState(state);
+            }
+        }
+    }
+
+    /** Returns the number of cached states.
+     *
+     * @return Integer representing the cached state count
+     */
+    public int getCachedCount() {
+        return cachedStates.size;
+    }
+
+    /** Shows a state that became the current game state, then drops any actions queued
+     * before it was hidden or by show setting up its widgets.  Continuous rendering is
+     * switched on or off for the state, and one frame is requested so it is drawn at once.
+     *
+     */
+    private void enter(State state) {
+        state.show();
+        state.actions.clear();
+        Gdx.graphics.setContinuousRendering(state.isContinuousRendering());
+        Gdx.graphics.requestRendering();
+    }
+
+    /** Hides a state that left the stack and disposes it unless it is cached.
+     *
+     */
+    private void leave(State state) {
+        state.hide();
+        if (cachedStates.get(state.getClass()) != state) {
+            disposeState(state);
+        }
+    }
+
+    /** Disposes a state and removes its action bindings.
+     *
+     */
+    private void disposeState(State state) {
+        state.actions.unbindAll();
+        state.dispose();
+    }
+
+    /** Returns the current game state.
+     *
+     * @return Game state class instance on top of the stack
+     */
+    public State getCurrentState() {
+        return states.peek();
+    }
+
+    /** Returns the topmost state of the given class on the stack, for example the PlayState
+     * below the PreferencesState while the game is paused.
+     *
+     * @param type Class of the game state
+     * @return Game state class instance, or null if none is on the stack
+     */
+    public <T extends State> T find(Class<T> type) {
+        for (int i = states.size() - 1; i >= 0; i--) {
+            if (type.isInstance(states.get(i))) {
+                return type.cast(states.get(i));
+            }
+        }
+        return null;
+    }
+
+    /** Calls the resume method for the current game state.  Called when the game returns from
+     * the background.
+     *
+     */
+    public void resume() {
+        if (!states.isEmpty()) {
+            states.peek().resume();
+        }
     }
 
     /** Calls the update method for the current game state.
@@ -100,4 +305,24 @@ public class GameStateManager {
     public void render(SpriteBatch sb) {
         states.peek().render(sb);
     }
+
+    /** Disposes every game state on the stack, the cached states, the music and the shared
+     * assets, and waits for the files being written and the player profile to be written.
+     * Called when the game is closed.
+     */
+    public void dispose() {
+        fileWriter.dispose();
+        while (!states.isEmpty()) {
+            leave(states.pop());
+        }
+        size = 0;
+        evictCache();
+        if (playMusic != null) {
+            playMusic.stop();
+            assets.release(AssetRegistry.PLAY_MUSIC);
+            soundEffects.dispose();
+        }
+        assets.dispose();
+        profile.dispose();
+    }
 }
@@ -0,0 +1,84 @@
+package com.skayani.brickbreaker.states;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.utils.StringBuilder;
+
+/** Hud class that draws the score and level text of the PlayState.
+ *
+ * Each text is formatted into a reused StringBuilder and laid out into a GlyphLayout and a
+ * BitmapFontCache only when its value changes; the rest of the time drawing the HUD copies the
+ * cached glyph vertices into the batch.  Integers are appended without creating a String, so
+ * a frame in which the score does not change allocates nothing.
+ */
+class Hud {
+    private BitmapFont font;
+
+    private StringBuilder scoreText;
+    private GlyphLayout scoreLayout;
+    private BitmapFontCache scoreCache;
+    private float scoreX;
+    private int score;
+
+    private GlyphLayout levelLayout;
+    private BitmapFontCache levelCache;
+    private float levelX;
+
+    private float y;
+
+    /** Hud constructor that takes in the font and the positions of the texts.
+     *
+     * @param font BitmapFont class instance the texts are drawn with
+     * @param scoreX X-coordinate of the score text
+     * @param levelX X-coordinate of the level text
+     * @param y Y-coordinate of the top of both texts
+     */
+    Hud(BitmapFont font, float scoreX, float levelX, float y) {
+        this.font = font;
+        this.scoreX = scoreX;
+        this.levelX = levelX;
+        this.y = y;
+        scoreText = new StringBuilder(32);
+        scoreLayout = new GlyphLayout();
+        scoreCache = font.newFontCache();
+        levelLayout = new GlyphLayout();
+        levelCache = font.newFontCache();
+        score = -1;
+        setScore(0);
+    }
+
+    /** Sets the score shown by the HUD, laying out the score text again only if it changed.
+     *
+     * @param score Integer representing the player's score
+     */
+    void setScore(int score) {
+        if (score == this.score) {
+            return;
+        }
+        this.score = score;
+        scoreText.setLength(0);
+        scoreText.append("Score: ").append(score);
+        scoreLayout.setText(font, scoreText);
+        scoreCache.setText(scoreLayout, scoreX, y);
+    }
+
+    /** Sets the level text shown by the HUD.  Called once when the game starts.
+     *
+     * @param level String representing the level, for example "Level 2"
+     */
+    void setLevel(String level) {
+        levelLayout.setText(font, level);
+        levelCache.setText(levelLayout, levelX, y);
+    }
+
+    /** Draws the HUD.  Must be called between batch.begin and batch.end.
+     *
+     * @param batch Batch class instance to draw the texts with
+     */
+    void draw(Batch batch) {
+        scoreCache.draw(batch);
+        levelCache.draw(batch);
+    }
+}
@@ -4,18 +4,20 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
-import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.skayani.brickbreaker.BrickBreaker;
+import com.skayani.brickbreaker.assets.AssetRegistry;
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.levels.LevelLoader;
 
 /** LevelSelectState that is instantiated when the user clicks "New Game" from the MenuState.
- *
+ * A level is unlocked by winning the one before it.
  */
 
 public class LevelSelectState extends State {
@@ -24,23 +26,38 @@ public class LevelSelectState extends State {
 
     private Label screenTitle;
 
-    // Text-buttons for the three game levels
-    private TextButton levelOne;
-    private TextButton levelTwo;
-    private TextButton levelThree;
+    // Text-buttons for the game levels, one per level file in the levels directory
+    private TextButton[] levelButtons;
+    // Text-button for a procedurally generated level
+    private TextButton randomLevel;
+    // Action of the "Random" button; the level buttons' actions are their level numbers
+    private static final int RANDOM_LEVEL = 0;
 
     private Texture background;
 
+    /** Returns the cached LevelSelectState, building and caching it the first time.
+     *
+     * @param gsm GameStateManager class instance
+     * @return LevelSelectState class instance
+     */
+    static LevelSelectState get(GameStateManager gsm) {
+        LevelSelectState state = gsm.getCached(LevelSelectState.class);
+        if (state == null) {
+            state = new LevelSelectState(gsm);
+            gsm.cache(state);
+        }
+        return state;
+    }
+
     /** LevelSelectState class constructor that takes in a GameStateManager class instance.
      *
      * @param gsm GameStateManager class instance
      */
     LevelSelectState(GameStateManager gsm) {
         super(gsm);
-        background = new Texture("backgrounds/main_menu_background.jpg");
+        background = gsm.assets.getTexture(AssetRegistry.MENU_BACKGROUND);
         stage = new Stage(new ScreenViewport());
-        skin = new Skin(Gdx.files.internal("skin/glassy-ui.json"));
-        Gdx.input.setInputProcessor(stage);
+        skin = gsm.assets.getSkin(AssetRegistry.SKIN);
 
         Table table = new Table();
         table.setFillParent(true);
@@ -49,44 +66,82 @@ public class LevelSelectState extends State {
 
         screenTitle = new Label("Select Level", skin);
 
-        // Initializing different TextButtons
-        levelOne = new TextButton("1", skin);
-        levelTwo = new TextButton("2", skin);
-        levelThree = new TextButton("3", skin);
-
         // Table formatting
         table.add(screenTitle).center();
         table.row().pad(20).padBottom(20);
-        table.add(levelOne);
-        table.row().padTop(20).padBottom(20);
-        table.add(levelTwo);
+
+        // Initializing one TextButton per level
+        levelButtons = new TextButton[LevelLoader.getLevelCount()];
+        for (int i = 0; i < levelButtons.length; i++) {
+            levelButtons[i] = new TextButton(String.valueOf(i + 1), skin);
+            if (i > 0) {
+                table.row().padTop(20).padBottom(20);
+            }
+            table.add(levelButtons[i]);
+            actions.bind(levelButtons[i], i + 1);
+        }
+        randomLevel = new TextButton("Random", skin);
         table.row().padTop(20).padBottom(20);
-        table.add(levelThree);
+        table.add(randomLevel);
+        actions.bind(randomLevel, RANDOM_LEVEL);
     }
 
-    /** Method called to handle user clicks on the different level buttons.
-     *
+    /** Method called when the LevelSelectState becomes the current game state to send user input
+     * to its stage.  The level buttons are updated from the player profile: levels after the
+     * highest unlocked one are disabled, and the others show their best score.
      */
     @Override
-    public void handleInput() {
-        levelOne.addListener(new ChangeListener() {
-            @Override
-            public void changed(ChangeEvent event, Actor actor) {
-                gsm.set(new PlayState(gsm, 1));
+    public void show() {
+        int unlockedLevel = gsm.profile.getUnlockedLevel();
+        for (int i = 0; i < levelButtons.length; i++) {
+            int level = i + 1;
+            int best = gsm.profile.getBestScore(level);
+            if (level > unlockedLevel) {
+                levelButtons[i].setText(level + " (Locked)");
             }
-        });
-        levelTwo.addListener(new ChangeListener() {
-            @Override
-            public void changed(ChangeEvent event, Actor actor) {
-                gsm.set(new PlayState(gsm, 2));
+            else if (best > 0) {
+                levelButtons[i].setText(level + " (Best " + best + ")");
             }
-        });
-        levelThree.addListener(new ChangeListener() {
-            @Override
-            public void changed(ChangeEvent event, Actor actor) {
-                gsm.set(new PlayState(gsm, 3));
+            else {
+                levelButtons[i].setText(String.valueOf(level));
             }
-        });
+            levelButtons[i].setDisabled(level > unlockedLevel);
+        }
+        Gdx.input.setInputProcessor(stage);
+    }
+
+    /** The LevelSelectState only changes on user input or while its widgets animate, so it is
+     * not rendered continuously.
+     *
+     * @return Boolean that is false
+     */
+    @Override
+    public boolean isContinuousRendering() {
+        return false;
+    }
+
+    /** Method called when the LevelSelectState stops being the current game state so its hidden
+     * stage no longer receives user input.
+     */
+    @Override
+    public void hide() {
+        if (Gdx.input.getInputProcessor() == stage) {
+            Gdx.input.setInputProcessor(null);
+        }
+    }
+
+    /** Method called to handle user clicks on the different level buttons, taking the queued
+     * button actions.  Locked levels cannot be played.
+     */
+    @Override
+    public void handleInput() {
+        int action = actions.poll();
+        if (action == RANDOM_LEVEL) {
+            gsm.set(LoadingState.level(gsm, LevelGenerator.random(TimeUtils.millis())));
+        }
+        else if (action != ActionDispatcher.NONE && action <= gsm.profile.getUnlockedLevel()) {
+            gsm.set(LoadingState.level(gsm, action));
+        }
     }
 
     /** Method constantly called that calls handleInput in its body to handle user clicks.
@@ -108,13 +163,13 @@ public class LevelSelectState extends State {
         stage.draw();
     }
 
-    /** Method called when there is a game state change from LevelSelectState to PlayState to
+    /** Method called when the cached LevelSelectState is evicted or the game is closed, to
      * deallocate asset resources.
      */
     @Override
     public void dispose() {
         stage.dispose();
-        background.dispose();
-        skin.dispose();
+        gsm.assets.release(AssetRegistry.MENU_BACKGROUND);
+        gsm.assets.release(AssetRegistry.SKIN);
     }
 }
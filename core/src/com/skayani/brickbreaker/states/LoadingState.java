@@ -0,0 +1,265 @@
+package com.skayani.brickbreaker.states;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.skayani.brickbreaker.BrickBreaker;
+import com.skayani.brickbreaker.assets.AssetRegistry;
+import com.skayani.brickbreaker.audio.SoundEffects;
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.simulation.GameSimulation;
+import com.skayani.brickbreaker.simulation.InputRecording;
+import com.skayani.brickbreaker.simulation.SaveGame;
+
+/** LoadingState class that is shown while the assets of the next state load, drawing a progress
+ * bar.  The assets are queued in the AssetRegistry and loaded a few milliseconds per frame, with
+ * images and sounds decoded on the AssetManager's background thread; the level of a PlayState
+ * is read and built on a background thread of its own.  Once everything is ready the
+ * LoadingState hands off to the MenuState (at startup) or the PlayState, which then get every
+ * asset without waiting.
+ *
+ * At startup the music and sound effects are preloaded as well and opened before the hand-off,
+ * with the settings of the player profile, which is read on a background thread meanwhile.
+ * A game resumed from a save starts paused, with the PreferencesState shown over it.
+ */
+public class LoadingState extends State {
+    // Milliseconds per frame spent loading assets, so the progress bar keeps moving
+    private static final int LOAD_BUDGET = 12;
+    private static final float BAR_WIDTH = 300;
+    private static final float BAR_HEIGHT = 16;
+
+    // Assets preloaded by this state, released once the next state holds them
+    private Array<String> preloaded;
+    // Builds the GameSimulation of the next PlayState, or null when loading the MenuState
+    private AsyncExecutor executor;
+    private AsyncResult<GameSimulation> simulation;
+    // True to show the PreferencesState over the PlayState, for games resumed from a save
+    private boolean paused;
+    // Time the loading started, in milliseconds
+    private long startTime;
+    private boolean finished;
+
+    private ShapeRenderer shapes;
+    private BitmapFont bitmapFont;
+
+    /** Returns a LoadingState that loads the startup assets and then shows the MenuState.
+     *
+     * @param gsm GameStateManager class instance
+     * @return LoadingState class instance
+     */
+    public static LoadingState startup(GameStateManager gsm) {
+        return new LoadingState(gsm, null, false);
+    }
+
+    /** Returns a LoadingState that loads one of the game levels and then plays it.
+     *
+     * @param gsm GameStateManager class instance
+     * @param level Integer representing the game level
+     * @return LoadingState class instance
+     */
+    public static LoadingState level(GameStateManager gsm, final int level) {
+        // Random brick colors are seeded here so the game can be recorded and replayed
+        final long seed = TimeUtils.millis();
+        return new LoadingState(gsm, new AsyncTask<GameSimulation>() {
+            @Override
+            public GameSimulation call() {
+                return new GameSimulation(level, seed);
+            }
+        }, false);
+    }
+
+    /** Returns a LoadingState that generates a level and then plays it.
+     *
+     * @param gsm GameStateManager class instance
+     * @param generator LevelGenerator class instance describing the level
+     * @return LoadingState class instance
+     */
+    public static LoadingState level(GameStateManager gsm, final LevelGenerator generator) {
+        return new LoadingState(gsm, new AsyncTask<GameSimulation>() {
+            @Override
+            public GameSimulation call() {
+                return new GameSimulation(generator);
+            }
+        }, false);
+    }
+
+    /** Returns a LoadingState that reads an input recording and then shows its replay.
+     *
+     * @param gsm GameStateManager class instance
+     * @param file FileHandle of the recording
+     * @return LoadingState class instance
+     */
+    public static LoadingState replay(GameStateManager gsm, final FileHandle file) {
+        return new LoadingState(gsm, new AsyncTask<GameSimulation>() {
+            @Override
+            public GameSimulation call() {
+                return InputRecording.read(file).newSimulation();
+            }
+        }, false);
+    }
+
+    /** Returns a LoadingState that rebuilds a game saved when the app was paused and then
+     * shows it paused.  The save is deleted once read, so a save that cannot be resumed is only
+     * tried once; the MenuState is shown instead.
+     *
+     * @param gsm GameStateManager class instance
+     * @param file FileHandle of the save
+     * @return LoadingState class instance
+     */
+    public static LoadingState resume(GameStateManager gsm, final FileHandle file) {
+        return new LoadingState(gsm, new AsyncTask<GameSimulation>() {
+            @Override
+            public GameSimulation call() {
+                try {
+                    return SaveGame.read(file).newSimulation();
+                }
+                catch (RuntimeException e) {
+                    // A damaged save or one of a level that changed since
+                    Gdx.app.error("LoadingState", "Could not resume " + file.path(), e);
+                    return null;
+                }
+                finally {
+                    file.delete();
+                }
+            }
+        }, true);
+    }
+
+    /** LoadingState constructor that queues the assets of the next state and starts building
+     * its simulation.
+     *
+     * @param gsm GameStateManager class instance
+     * @param task AsyncTask building the GameSimulation of the next PlayState, or null to
+     *             show the MenuState next
+     * @param paused Boolean that is true to show the PreferencesState over the PlayState
+     */
+    private LoadingState(GameStateManager gsm, AsyncTask<GameSimulation> task,
+                         boolean paused) {
+        super(gsm);
+        this.paused = paused;
+        startTime = TimeUtils.millis();
+        preloaded = new Array<String>();
+        if (gsm.playMusic == null) {
+            preload(AssetRegistry.PLAY_MUSIC, Music.class);
+            String[] sounds = SoundEffects.getPaths();
+            for (int i = 0; i < sounds.length; i++) {
+                preload(sounds[i], Sound.class);
+            }
+        }
+        if (task == null || paused) {
+            preload(AssetRegistry.MENU_BACKGROUND, Texture.class);
+            preload(AssetRegistry.SKIN, Skin.class);
+        }
+        if (task != null) {
+            preload(AssetRegistry.PLAY_BACKGROUND, Texture.class);
+            preload(AssetRegistry.SPRITES_ATLAS, TextureAtlas.class);
+            executor = new AsyncExecutor(1);
+            simulation = executor.submit(task);
+        }
+        shapes = new ShapeRenderer();
+        bitmapFont = gsm.assets.getFont();
+    }
+
+    /** Queues an asset and remembers to release the preload reference.
+     *
+     */
+    private <T> void preload(String path, Class<T> type) {
+        gsm.assets.preload(path, type);
+        preloaded.add(path);
+    }
+
+    /** Method that handles user input.  Input is ignored while loading.
+     *
+     */
+    @Override
+    public void handleInput() {
+    }
+
+    /** Method called every frame to load assets for LOAD_BUDGET milliseconds and to hand off
+     * to the next state once the assets, the simulation and the player profile are ready.  The
+     * settings are read from the profile before the audio is started.
+     *
+     * @param delta Time difference between two frames
+     */
+    @Override
+    public void update(float delta) {
+        boolean assetsLoaded = gsm.assets.update(LOAD_BUDGET);
+        if (finished || !assetsLoaded || (simulation != null && !simulation.isDone())
+                || !gsm.profile.isLoaded()) {
+            return;
+        }
+        finished = true;
+        if (gsm.playMusic == null) {
+            gsm.loadSettings();
+        }
+        gsm.startAudio();
+        Gdx.app.log("LoadingState", "Loaded in " + (TimeUtils.millis() - startTime) + " ms");
+        if (simulation == null || simulation.get() == null) {
+            gsm.set(MenuState.get(gsm));
+        }
+        else {
+            gsm.set(new PlayState(gsm, simulation.get()));
+            if (paused) {
+                gsm.incSize();
+                gsm.push(PreferencesState.get(gsm));
+            }
+        }
+    }
+
+    /** Method that draws the loading progress bar.
+     *
+     * @param sb SpriteBatch class instance to render objects
+     */
+    @Override
+    public void render(SpriteBatch sb) {
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        float progress = gsm.assets.getProgress();
+        if (simulation != null) {
+            progress = (progress + (simulation.isDone() ? 1 : 0)) / 2;
+        }
+        float x = (BrickBreaker.WIDTH - BAR_WIDTH) / 2;
+        float y = (BrickBreaker.HEIGHT - BAR_HEIGHT) / 2;
+        shapes.setProjectionMatrix(cam.combined);
+        shapes.begin(ShapeRenderer.ShapeType.Line);
+        shapes.setColor(Color.WHITE);
+        shapes.rect(x, y, BAR_WIDTH, BAR_HEIGHT);
+        shapes.end();
+        shapes.begin(ShapeRenderer.ShapeType.Filled);
+        shapes.rect(x + 2, y + 2, (BAR_WIDTH - 4) * progress, BAR_HEIGHT - 4);
+        shapes.end();
+
+        sb.setProjectionMatrix(cam.combined);
+        sb.begin();
+        bitmapFont.draw(sb, "Loading", x, y + BAR_HEIGHT + 25);
+        sb.end();
+    }
+
+    /** Method called once the next state is shown, releasing the preload references (the next
+     * state holds its own) and stopping the background thread.
+     */
+    @Override
+    public void dispose() {
+        for (int i = 0; i < preloaded.size; i++) {
+            gsm.assets.release(preloaded.get(i));
+        }
+        if (executor != null) {
+            executor.dispose();
+        }
+        shapes.dispose();
+        gsm.assets.releaseFont();
+    }
+}
@@ -5,14 +5,13 @@ import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
-import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.skayani.brickbreaker.BrickBreaker;
+import com.skayani.brickbreaker.assets.AssetRegistry;
 
 /** MenuState class that is instatiated when the game is first launched.
  *
@@ -28,8 +27,27 @@ public class MenuState extends State {
     private TextButton exit;
     private Texture background;
 
+    // Actions of the buttons
+    private static final int NEW_GAME = 0;
+    private static final int PREFERENCES = 1;
+    private static final int EXIT = 2;
+
     private BitmapFont bitmapFont;
 
+    /** Returns the cached MenuState, building and caching it the first time.
+     *
+     * @param gsm GameStateManager class instance
+     * @return MenuState class instance
+     */
+    public static MenuState get(GameStateManager gsm) {
+        MenuState state = gsm.getCached(MenuState.class);
+        if (state == null) {
+            state = new MenuState(gsm);
+            gsm.cache(state);
+        }
+        return state;
+    }
+
     /** MenuState constructor that takes in GameStateManager class instance
      *
      * @param gsm GameStateManager class instance
@@ -37,11 +55,10 @@ public class MenuState extends State {
     public MenuState(GameStateManager gsm) {
         super(gsm);
         cam.setToOrtho(false, BrickBreaker.WIDTH, BrickBreaker.HEIGHT);
-        bitmapFont = new BitmapFont();
-        background = new Texture("backgrounds/main_menu_background.jpg");
+        bitmapFont = gsm.assets.getFont();
+        background = gsm.assets.getTexture(AssetRegistry.MENU_BACKGROUND);
         stage = new Stage(new ScreenViewport());
-        skin = new Skin(Gdx.files.internal("skin/glassy-ui.json"));
-        Gdx.input.setInputProcessor(stage);
+        skin = gsm.assets.getSkin(AssetRegistry.SKIN);
 
         Table table = new Table();
         table.setFillParent(true);
@@ -56,33 +73,61 @@ public class MenuState extends State {
         table.add(preferences).fillX().uniformX();
         table.row();
         table.add(exit).fillX().uniformX();
+
+        actions.bind(newGame, NEW_GAME);
+        actions.bind(preferences, PREFERENCES);
+        actions.bind(exit, EXIT);
     }
 
-    /** Method called to handle user clicks/presses on the various buttons.
+    /** Method called when the MenuState becomes the current game state to send user input
+     * to its stage.
+     */
+    @Override
+    public void show() {
+        Gdx.input.setInputProcessor(stage);
+    }
+
+    /** The MenuState only changes on user input or while its widgets animate, so it is
+     * not rendered continuously.
      *
+     * @return Boolean that is false
      */
     @Override
-    public void handleInput() {
-        newGame.addListener(new ChangeListener() {
-            @Override
-            public void changed(ChangeEvent event, Actor actor) {
-                gsm.set(new LevelSelectState(gsm));
-            }
-        });
+    public boolean isContinuousRendering() {
+        return false;
+    }
 
-        preferences.addListener(new ChangeListener() {
-            @Override
-            public void changed(ChangeEvent event, Actor actor) {
-                gsm.set(new PreferencesState(gsm));
-            }
-        });
+    /** Method called when the MenuState stops being the current game state so its hidden
+     * stage no longer receives user input.
+     */
+    @Override
+    public void hide() {
+        if (Gdx.input.getInputProcessor() == stage) {
+            Gdx.input.setInputProcessor(null);
+        }
+    }
 
-        exit.addListener(new ChangeListener() {
-            @Override
-            public void changed(ChangeEvent event, Actor actor) {
-                Gdx.app.exit();
+    /** Method called to handle user clicks/presses on the various buttons, taking the queued
+     * button actions.
+     */
+    @Override
+    public void handleInput() {
+        for (int action = actions.poll(); action != ActionDispatcher.NONE;
+             action = actions.poll()) {
+            switch (action) {
+                case NEW_GAME:
+                    gsm.set(LevelSelectState.get(gsm));
+                    return;
+
+                case PREFERENCES:
+                    gsm.set(PreferencesState.get(gsm));
+                    return;
+
+                case EXIT:
+                    Gdx.app.exit();
+                    return;
             }
-        });
+        }
     }
 
     /** Method constantly called that then calls handleInput to record button changes.
@@ -112,13 +157,14 @@ public class MenuState extends State {
         sb.end();
     }
 
-    /** Method called when there is a state change from MenuState to another state, to
+    /** Method called when the cached MenuState is evicted or the game is closed, to
      * dispose/deallocate any resources.
      */
     @Override
     public void dispose() {
         stage.dispose();
-        skin.dispose();
-        background.dispose();
+        gsm.assets.release(AssetRegistry.SKIN);
+        gsm.assets.release(AssetRegistry.MENU_BACKGROUND);
+        gsm.assets.releaseFont();
     }
 }
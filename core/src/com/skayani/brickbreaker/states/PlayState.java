@@ -2,138 +2,245 @@ package com.skayani.brickbreaker.states;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.async.AsyncTask;
 import com.skayani.brickbreaker.BrickBreaker;
-import com.skayani.brickbreaker.sprites.Ball;
-import com.skayani.brickbreaker.sprites.Brick;
+import com.skayani.brickbreaker.assets.AssetRegistry;
+import com.skayani.brickbreaker.audio.SoundEffects;
+import com.skayani.brickbreaker.simulation.GameSimulation;
+import com.skayani.brickbreaker.simulation.InputRecording;
+import com.skayani.brickbreaker.simulation.SaveGame;
+import com.skayani.brickbreaker.sprites.BallPool;
 import com.skayani.brickbreaker.sprites.BrickManager;
-import com.skayani.brickbreaker.sprites.PlayerBrick;
+import com.skayani.brickbreaker.sprites.BrickStore;
 
-import java.util.Hashtable;
-
-/** PlayState class that is instantiated when user presses a level from LevelSelectState
- *
+/** PlayState class that is instantiated when user presses a level from LevelSelectState.  The
+ * game logic runs in a GameSimulation; the PlayState feeds it user input and draws it.  The
+ * input of every game is recorded and written to LAST_REPLAY when the game ends, and a
+ * PlayState can also show the replay of a recording instead of reading user input.  A game in
+ * progress is saved to RESUME_SAVE when the app is paused and resumed on the next launch.
  */
 public class PlayState extends State {
+    // Local file the recording of the last finished game is written to
+    public static final String LAST_REPLAY = "replays/last" + InputRecording.EXTENSION;
+    // Local file the game in progress is saved to when the app is paused
+    public static final String RESUME_SAVE = "saves/resume" + SaveGame.EXTENSION;
+
     private BitmapFont bitmapFont;
     private int playerScore;
-    private String scoreString;
-    private String levelString;
-    private Texture pauseButton;
+    // Score and level text, laid out again only when they change
+    private Hud hud;
     private Texture background;
+    // Every play field sprite is a region of one atlas, so they draw without texture switches
+    private TextureAtlas sprites;
+    private TextureRegion pauseButton;
+    private TextureRegion ballRegion;
+    private TextureRegion playerBrickRegion;
+    // Brick regions indexed by the brick color index
+    private TextureRegion[] brickRegions;
+    // Background and bricks pre-rendered into a frame buffer
+    private BrickLayer brickLayer;
     private Rectangle pauseButtonBounds;
-    private PlayerBrick playerBrick;
-    private Ball ball;
-    private BrickManager brickManager;
+    private GameSimulation simulation;
     private boolean acelleratorAvail;
+    private float playerInput;
     private int level;
 
-    /** Over-ridden PlayState constructor to take in a GameStateManager instance as well as an
-     * int representing the level the user chose from the LevelSelect State.
+    /** PlayState constructor that takes in a GameStateManager instance and the simulation of
+     * the game to play, built by a LoadingState.  New games that are not replays are recorded;
+     * resumed games are not, since their recording would miss the steps before the save.
      *
      * @param gsm GameStateManager class instance
-     * @param level Integer representing the level the user select from the LevelSelectState
+     * @param simulation GameSimulation class instance
      */
-    PlayState(GameStateManager gsm, int level) {
+    PlayState(final GameStateManager gsm, GameSimulation simulation) {
         super(gsm);
-        playerBrick = new PlayerBrick((int)(cam.position.x), 0);
-        ball = new Ball((int)cam.position.x, 60);
-        brickManager = new BrickManager(gsm, ball, level);
-        bitmapFont = new BitmapFont();
-        scoreString = "Score: 0";
-        levelString = "Level " + level;
-        playerScore = brickManager.getPlayerScore();
-        pauseButton = new Texture("pause_button.png");
-        background = new Texture("backgrounds/play_state_background.jpg");
+        this.simulation = simulation;
+        level = simulation.getLevel();
+        if (!simulation.isReplay() && simulation.getStepCount() == 0) {
+            simulation.startRecording();
+        }
+        simulation.getBrickManager().setListener(new BrickManager.BrickListener() {
+            @Override
+            public void brickDestroyed(int id) {
+                gsm.soundEffects.play(SoundEffects.BRICK_HIT);
+                BrickStore bricks = PlayState.this.simulation.getBrickManager().getBrickStore();
+                brickLayer.invalidate(bricks.getX(id), bricks.getY(id), bricks.getWidth(id),
+                        bricks.getHeight(id));
+            }
+        });
+        bitmapFont = gsm.assets.getFont();
+        String levelString = simulation.getGenerator() != null ? "Random" : "Level " + level;
+        if (simulation.isReplay()) {
+            levelString += " (Replay)";
+        }
+        hud = new Hud(bitmapFont, 15, cam.viewportWidth/2-15, cam.viewportHeight-15);
+        hud.setLevel(levelString);
+        playerScore = simulation.getPlayerScore();
+        background = gsm.assets.getTexture(AssetRegistry.PLAY_BACKGROUND);
+        sprites = gsm.assets.getAtlas(AssetRegistry.SPRITES_ATLAS);
+        pauseButton = sprites.findRegion(AssetRegistry.PAUSE_BUTTON_REGION);
+        ballRegion = sprites.findRegion(AssetRegistry.BALL_REGION);
+        playerBrickRegion = sprites.findRegion(AssetRegistry.PLAYER_BRICK_REGION);
+        Array<String> brickColors = simulation.getBrickManager().getBrickColors();
+        brickRegions = new TextureRegion[brickColors.size];
+        for (int i = 0; i < brickColors.size; i++) {
+            brickRegions[i] = sprites.findRegion(AssetRegistry.brickRegion(brickColors.get(i)));
+        }
+        brickLayer = new BrickLayer(simulation.getBrickManager(), background, brickRegions, cam);
         pauseButtonBounds = new Rectangle (cam.viewportWidth-60,
                 BrickBreaker.HEIGHT-cam.viewportHeight,
-                pauseButton.getWidth(), pauseButton.getHeight());
+                pauseButton.getRegionWidth(), pauseButton.getRegionHeight());
 
         // Boolean to check if user is playing on a device with a supported accelerometer
         acelleratorAvail = Gdx.input.isPeripheralAvailable(Input.Peripheral.Accelerometer);
-        this.level = level;
     }
 
-    /** Method to record user movement input.  Accelerometer readings are recorded if
-     * acceleratorAvail == true.  Otherwise, keyboard recordings (left key and right key) are
-     * recorded.
+    /** Takes a snapshot of the game in progress to save when the app is paused.
+     *
+     * @return SaveGame class instance, or null for replays and finished games
+     */
+    public SaveGame save() {
+        if (simulation.isReplay() || simulation.isOver()) {
+            return null;
+        }
+        return simulation.save();
+    }
+
+    /** Method called when the PlayState becomes the current game state, including when the game
+     * continues from the PreferencesState.  The pre-rendered bricks are redrawn in case the GL
+     * context was lost in the meantime.
+     */
+    @Override
+    public void show() {
+        brickLayer.invalidateAll();
+    }
+
+    /** Method called when the game returns from the background to redraw the pre-rendered
+     * bricks, whose frame buffer lost its contents with the GL context.
+     */
+    @Override
+    public void resume() {
+        brickLayer.invalidateAll();
+    }
+
+    /** Method called once per frame to record user movement input.  Accelerometer readings are
+     * recorded if acceleratorAvail == true.  Otherwise, keyboard recordings (left key and right
+     * key) are recorded.  Replays ignore user input.
      */
     @Override
     public void handleInput() {
+        playerInput = 0;
+        if (simulation.isReplay()) {
+            return;
+        }
         if (acelleratorAvail) {
-            float accelX = Gdx.input.getAccelerometerX();
-            playerBrick.move(accelX);
+            playerInput = Gdx.input.getAccelerometerX();
         }
         else {
             if (Gdx.input.isKeyPressed(Input.Keys.LEFT)) {
-                playerBrick.move(1);
+                playerInput = 1;
             }
             else if (Gdx.input.isKeyPressed(Input.Keys.RIGHT)) {
-                playerBrick.move(-1);
+                playerInput = -1;
             }
         }
     }
 
-    /** Method called to constantly check user input as well as game state changes such as if
-     * the user has crushed all the bricks or if the user has crushed a particular brick on the
-     * screen.
+    /** Method called every frame to check for the pause button and to advance the game
+     * simulation, which runs in fixed steps so the game plays at the same speed at any frame
+     * rate.  Once the simulation has ended, the final score is recorded in the player profile,
+     * the next level is unlocked if the game was won, and the GameOverState is shown.
      *
      * @param delta Time difference between two frames
      */
     @Override
     public void update(float delta) {
-        handleInput();
-        if (checkGameOver()) {
-            gsm.set(new GameOverState(gsm, true, playerScore, level));
-        }
         if (Gdx.input.justTouched() && pauseButtonBounds.contains(Gdx.input.getX(),
                 Gdx.input.getY())) {
             gsm.incSize();
-            gsm.push(new PreferencesState(gsm));
-        }
-        playerBrick.update(delta);
-        ball.update(delta);
-        playerScore = brickManager.getPlayerScore();
-        scoreString = "Score: " + playerScore;
-        if (ball.collidesVertical()) {
-            ball.flipVelocityX();
-        }
-        else if (ball.collidesHorizontal() || ball.collidesPlayerBrick(playerBrick.getBounds())) {
-            ball.flipVelocityY();
+            gsm.push(PreferencesState.get(gsm));
+            return;
         }
-        else if (ball.ballOut()) {
-            gsm.set(new GameOverState(gsm, false, playerScore, level));
+        handleInput();
+        simulation.setMultiBall(gsm.multiBallOn);
+        simulation.update(delta, playerInput);
+        playerScore = simulation.getPlayerScore();
+        gsm.stats.setGameCounts(simulation.getBrickManager().getRemainingBricks(),
+                simulation.getBalls().getCount() + 1);
+        if (simulation.isOver()) {
+            if (simulation.getRecording() != null) {
+                writeReplay(simulation.getRecording());
+            }
+            if (!simulation.isReplay()) {
+                gsm.profile.addScore(level, playerScore);
+                if (simulation.isWon() && simulation.getGenerator() == null) {
+                    gsm.profile.unlockLevel(level + 1);
+                }
+            }
+            gsm.set(GameOverState.get(gsm, simulation.isWon(), playerScore, level,
+                    simulation.getGenerator()));
+            return;
         }
-        brickManager.updateBricks();
+        hud.setScore(playerScore);
+    }
+
+    /** Writes the recording of the finished game to LAST_REPLAY on the GameStateManager's file
+     * writer thread.  No steps are added to the recording once the game is over, so the writer
+     * can read it while the next state is shown.
+     *
+     * @param recording InputRecording class instance of the finished game
+     */
+    private void writeReplay(final InputRecording recording) {
+        gsm.fileWriter.submit(new AsyncTask<Void>() {
+            @Override
+            public Void call() {
+                try {
+                    recording.write(Gdx.files.local(LAST_REPLAY));
+                }
+                catch (GdxRuntimeException e) {
+                    // Local storage is not available on every backend
+                    Gdx.app.error("PlayState", "Could not write " + LAST_REPLAY, e);
+                }
+                return null;
+            }
+        });
     }
 
     /** Method called to render background, pause button, player score, and brick objects onto
-     * the screen.
+     * the screen.  Moving objects are drawn between their last two simulation steps according
+     * to the time left in the simulation's accumulator.  The background and bricks are drawn
+     * as one pre-rendered quad from the BrickLayer, which only redraws the areas of destroyed
+     * bricks; the moving sprites come from one atlas and are drawn on top, and the score text
+     * is drawn last since the font has its own texture.
      *
      * @param sb SpriteBatch class instance to render objects
      */
     @Override
     public void render(SpriteBatch sb) {
+        float alpha = simulation.getAlpha();
+        Vector2 playerBrickPosition = simulation.getPlayerBrick().getRenderPosition(alpha);
+        Vector2 ballPosition = simulation.getBall().getRenderPosition(alpha);
+        brickLayer.update(sb);
         sb.setProjectionMatrix(cam.combined);
         sb.begin();
-        sb.draw(background, 0, 0, BrickBreaker.WIDTH, BrickBreaker.HEIGHT);
+        brickLayer.draw(sb);
         sb.draw(pauseButton, cam.viewportWidth-60, cam.viewportHeight-60);
-        bitmapFont.draw(sb, scoreString, 15, cam.viewportHeight-15);
-        bitmapFont.draw(sb, levelString, cam.viewportWidth/2-15, cam.viewportHeight-15);
-        sb.draw(playerBrick.getTexture(), playerBrick.getPosition().x,
-                playerBrick.getPosition().y);
-
-        for (Rectangle key : brickManager.bricksTable.keySet()) {
-            Brick brick = brickManager.bricksTable.get(key);
-            sb.draw(brick.getTexture(), brick.getPosition().x, brick.getPosition().y);
-
+        sb.draw(playerBrickRegion, playerBrickPosition.x, playerBrickPosition.y);
+        sb.draw(ballRegion, ballPosition.x, ballPosition.y);
+        BallPool balls = simulation.getBalls();
+        for (int i = 0; i < balls.getCount(); i++) {
+            sb.draw(ballRegion, balls.getRenderX(i, alpha), balls.getRenderY(i, alpha));
         }
-
-        sb.draw(ball.getTexture(), ball.getPosition().x, ball.getPosition().y);
+        hud.draw(sb);
         sb.end();
     }
 
@@ -142,17 +249,10 @@ public class PlayState extends State {
      */
     @Override
     public void dispose() {
-        pauseButton.dispose();
-        background.dispose();
-        playerBrick.dispose();
-        ball.dispose();
-        brickManager.dispose();
-    }
-
-    /** Method called from update method to check if game over conditions have been fulfilled
-     * (i.e. no more bricks left)
-     */
-    private boolean checkGameOver() {
-        return brickManager.getRemainingBricks() == 0;
+        simulation.dispose();
+        brickLayer.dispose();
+        gsm.assets.release(AssetRegistry.PLAY_BACKGROUND);
+        gsm.assets.release(AssetRegistry.SPRITES_ATLAS);
+        gsm.assets.releaseFont();
     }
 }
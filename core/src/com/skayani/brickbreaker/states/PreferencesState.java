@@ -4,7 +4,6 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.CheckBox;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
@@ -12,9 +11,9 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Slider;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
-import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.skayani.brickbreaker.BrickBreaker;
+import com.skayani.brickbreaker.assets.AssetRegistry;
 
 /** PreferencesState (extending upon abstract State class) for allowing user to adjust
  * game settings.
@@ -35,13 +34,39 @@ public class PreferencesState extends State {
     private CheckBox soundEnabledCheckbox;
     private Label soundVolumeLabel;
     private Slider soundVolumeSlider;
+    private Label multiBallLabel;
+    private CheckBox multiBallCheckbox;
     private TextButton mainMenu;
     private TextButton playGame;
+    private Table buttonsTable;
     private Texture background;
 
     // True if user went from PlayState to PreferencesState
     private boolean continuingGame;
 
+    // Actions of the widgets
+    private static final int MUSIC_ENABLED = 0;
+    private static final int MUSIC_VOLUME = 1;
+    private static final int SOUND_ENABLED = 2;
+    private static final int SOUND_VOLUME = 3;
+    private static final int MULTI_BALL = 4;
+    private static final int MAIN_MENU = 5;
+    private static final int CONTINUE_GAME = 6;
+
+    /** Returns the cached PreferencesState, building and caching it the first time.
+     *
+     * @param gsm GameStateManager class instance
+     * @return PreferencesState class instance
+     */
+    static PreferencesState get(GameStateManager gsm) {
+        PreferencesState state = gsm.getCached(PreferencesState.class);
+        if (state == null) {
+            state = new PreferencesState(gsm);
+            gsm.cache(state);
+        }
+        return state;
+    }
+
     /** PreferencesState constructor, taking a GameStateManager instance as an argument
      *
      * @param gsm GameStateManager class instance
@@ -50,49 +75,34 @@ public class PreferencesState extends State {
         super(gsm);
 
         // Setting background image
-        background = new Texture("backgrounds/main_menu_background.jpg");
-
-        continuingGame = false;
+        background = gsm.assets.getTexture(AssetRegistry.MENU_BACKGROUND);
 
         // Setting stage and initializing skin to third-party skin
         stage = new Stage(new ScreenViewport());
-        skin = new Skin(Gdx.files.internal("skin/glassy-ui.json"));
-        Gdx.input.setInputProcessor(stage);
+        skin = gsm.assets.getSkin(AssetRegistry.SKIN);
 
         // Initializing tables
         Table optionsTable = new Table();
-        Table buttonsTable = new Table();
+        buttonsTable = new Table();
         optionsTable.setFillParent(true);
 
         musicEnabledLabel = new Label("Music Enabled", skin);
         musicEnableCheckbox = new CheckBox(null, skin);
-        if (gsm.musicOn) {
-            musicEnableCheckbox.toggle();
-        }
 
         musicVolumeLabel = new Label("Music Volume", skin);
         musicVolumeSlider = new Slider(0, 1, 0.1f, false, skin);
-        musicVolumeSlider.setValue(gsm.musicVolume);
 
         soundEnabledLabel = new Label("Sound Enabled", skin);
         soundEnabledCheckbox = new CheckBox(null, skin);
-        if (gsm.soundOn) {
-            soundEnabledCheckbox.toggle();
-        }
 
         soundVolumeLabel = new Label("Sound Volume", skin);
         soundVolumeSlider = new Slider(0, 1, 0.1f, false, skin);
-        soundVolumeSlider.setValue(gsm.soundVolume);
 
-        mainMenu = new TextButton("Main Menu", skin);
+        multiBallLabel = new Label("Multi-ball", skin);
+        multiBallCheckbox = new CheckBox(null, skin);
 
-        if (gsm.getSize() > 1) {
-            continuingGame = true;
-            playGame = new TextButton("Continue", skin);
-        }
-        else {
-            playGame = null;
-        }
+        mainMenu = new TextButton("Main Menu", skin);
+        playGame = new TextButton("Continue", skin);
 
         // Formatting optionsTable
         optionsTable.defaults().expand().fill();
@@ -108,45 +118,117 @@ public class PreferencesState extends State {
         optionsTable.add(soundVolumeLabel).padLeft(60);
         optionsTable.add(soundVolumeSlider).uniformX().uniformY();
         optionsTable.row();
+        optionsTable.add(multiBallLabel).padLeft(60);
+        optionsTable.add(multiBallCheckbox).uniformX().uniformY();
+        optionsTable.row();
+
+        // Combining optionsTable and buttonsTable into optionsTable
+        optionsTable.add(buttonsTable).colspan(3);
+        stage.addActor(optionsTable);
+
+        actions.bind(musicEnableCheckbox, MUSIC_ENABLED);
+        actions.bind(musicVolumeSlider, MUSIC_VOLUME);
+        actions.bind(soundEnabledCheckbox, SOUND_ENABLED);
+        actions.bind(soundVolumeSlider, SOUND_VOLUME);
+        actions.bind(multiBallCheckbox, MULTI_BALL);
+        actions.bind(mainMenu, MAIN_MENU);
+        actions.bind(playGame, CONTINUE_GAME);
+    }
+
+    /** Method called when the PreferencesState becomes the current game state.  The widgets
+     * are set from the current settings and the "Continue" button is only shown when the
+     * PreferencesState was opened from a game.
+     */
+    @Override
+    public void show() {
+        musicEnableCheckbox.setChecked(gsm.musicOn);
+        musicVolumeSlider.setValue(gsm.musicVolume);
+        soundEnabledCheckbox.setChecked(gsm.soundOn);
+        soundVolumeSlider.setValue(gsm.soundVolume);
+        multiBallCheckbox.setChecked(gsm.multiBallOn);
 
+        continuingGame = gsm.getSize() > 1;
+        buttonsTable.clearChildren();
         if (continuingGame) {
             buttonsTable.add(playGame).padBottom(40);
             buttonsTable.row();
         }
         buttonsTable.add(mainMenu);
+        Gdx.input.setInputProcessor(stage);
+    }
 
-        // Combining optionsTable and buttonsTable into optionsTable
-        optionsTable.add(buttonsTable).colspan(3);
-        stage.addActor(optionsTable);
+    /** The PreferencesState only changes on user input or while its widgets animate, so it is
+     * not rendered continuously.
+     *
+     * @return Boolean that is false
+     */
+    @Override
+    public boolean isContinuousRendering() {
+        return false;
+    }
+
+    /** Method called when the PreferencesState stops being the current game state so its
+     * hidden stage no longer receives user input.
+     */
+    @Override
+    public void hide() {
+        if (Gdx.input.getInputProcessor() == stage) {
+            Gdx.input.setInputProcessor(null);
+        }
     }
 
     /** Method that handles user inputs for setting musicVolume or soundVolume on/off, as well as
-     * adjusting the music and sound volume.
+     * adjusting the music and sound volume and turning the multi-ball mode on/off.  Settings
+     * are only read from a widget when its queued action says it has changed, audio settings
+     * are applied to the music and sound effects once per change, and changed settings are
+     * stored in the player profile.
      */
     @Override
     public void handleInput() {
-        gsm.musicOn = musicEnableCheckbox.isChecked();
-        gsm.musicVolume = musicVolumeSlider.getValue();
-        gsm.soundOn = soundEnabledCheckbox.isChecked();
-        gsm.soundVolume = soundVolumeSlider.getValue();
-
-        mainMenu.addListener(new ChangeListener() {
-            @Override
-            public void changed(ChangeEvent event, Actor actor) {
-                gsm.set(new MenuState(gsm));
-            }
-        });
+        for (int action = actions.poll(); action != ActionDispatcher.NONE;
+             action = actions.poll()) {
+            switch (action) {
+                case MUSIC_ENABLED:
+                    gsm.musicOn = musicEnableCheckbox.isChecked();
+                    gsm.applyAudioSettings();
+                    gsm.saveSettings();
+                    break;
 
-        if (continuingGame) {
-            playGame.addListener(new ChangeListener() {
-                @Override
-                public void changed(ChangeEvent event, Actor actor) {
-                    if (gsm.getSize() > 1) {
+                case MUSIC_VOLUME:
+                    gsm.musicVolume = musicVolumeSlider.getValue();
+                    gsm.applyAudioSettings();
+                    gsm.saveSettings();
+                    break;
+
+                case SOUND_ENABLED:
+                    gsm.soundOn = soundEnabledCheckbox.isChecked();
+                    gsm.applyAudioSettings();
+                    gsm.saveSettings();
+                    break;
+
+                case SOUND_VOLUME:
+                    gsm.soundVolume = soundVolumeSlider.getValue();
+                    gsm.applyAudioSettings();
+                    gsm.saveSettings();
+                    break;
+
+                case MULTI_BALL:
+                    gsm.multiBallOn = multiBallCheckbox.isChecked();
+                    gsm.saveSettings();
+                    break;
+
+                case MAIN_MENU:
+                    gsm.set(MenuState.get(gsm));
+                    return;
+
+                case CONTINUE_GAME:
+                    if (continuingGame && gsm.getSize() > 1) {
                         gsm.decSize();
                         gsm.pop();
+                        return;
                     }
-                }
-            });
+                    break;
+            }
         }
     }
 
@@ -158,20 +240,6 @@ public class PreferencesState extends State {
     @Override
     public void update(float delta) {
         handleInput();
-        if (!gsm.musicOn) {
-            gsm.playMusic.pause();
-        }
-        else if (!gsm.playMusic.isPlaying()) {
-            gsm.playMusic.play();
-        }
-        if (!gsm.soundOn) {
-            gsm.scoreSound.setVolume(0);
-        }
-        else if (gsm.scoreSound.getVolume() == 0) {
-            gsm.scoreSound.setVolume(gsm.soundVolume);
-        }
-        gsm.playMusic.setVolume(gsm.musicVolume);
-        gsm.scoreSound.setVolume(gsm.soundVolume);
     }
 
     /** Method that renders background onto the screen as well as draw the optionsTable, consisting
@@ -189,13 +257,13 @@ public class PreferencesState extends State {
         stage.draw();
     }
 
-    /** Method called when switched from PreferencesState to another game state to free memory
-     * allocation.
+    /** Method called when the cached PreferencesState is evicted or the game is closed, to free
+     * memory allocation.
      */
     @Override
     public void dispose() {
-        background.dispose();
+        gsm.assets.release(AssetRegistry.MENU_BACKGROUND);
         stage.dispose();
-        skin.dispose();
+        gsm.assets.release(AssetRegistry.SKIN);
     }
 }
@@ -11,6 +11,8 @@ import com.skayani.brickbreaker.BrickBreaker;
 public abstract class State {
     protected GameStateManager gsm;
     public OrthographicCamera cam;
+    // Actions of the widgets bound by the state, taken out of its queue in handleInput
+    protected ActionDispatcher actions;
 
     /** Default constructor for State class
      *
@@ -21,6 +23,37 @@ public abstract class State {
         this.gsm = gsm;
         cam = new OrthographicCamera();
         cam.setToOrtho(false, BrickBreaker.WIDTH, BrickBreaker.HEIGHT);
+        actions = new ActionDispatcher();
+    }
+
+    /** Method called when the state becomes the current game state, either when it is pushed
+     * or set, or when the state above it is popped.  Cached states are shown again every time
+     * they are re-entered, so they restore their input processor here.
+     */
+    public void show() {
+    }
+
+    /** Method called when the state stops being the current game state, before it is disposed
+     * or, for cached states, kept for later.
+     */
+    public void hide() {
+    }
+
+    /** Returns whether the state must be rendered every frame.  States that only change on
+     * user input (the menus) return false, so frames are only rendered after input or while
+     * a scene2d action is running, which saves battery while a menu sits idle.
+     *
+     * @return Boolean that is true if the state is rendered continuously
+     */
+    public boolean isContinuousRendering() {
+        return true;
+    }
+
+    /** Method called when the game returns from the background while the state is the
+     * current game state.  GL resources such as frame buffers have lost their contents and
+     * are redrawn here.
+     */
+    public void resume() {
     }
 
     /** Method to handle user input
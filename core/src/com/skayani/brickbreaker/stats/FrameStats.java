@@ -0,0 +1,385 @@
+package com.skayani.brickbreaker.stats;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/** FrameStats class that records the cost of the last WINDOW frames: frame time, update and
+ * render time of the current game state, SpriteBatch render calls, GL draw calls and texture
+ * binds, Java heap, garbage collections and the brick and ball counts of the game.
+ *
+ * BrickBreaker.render records one frame per call; the numbers can be read through the getters
+ * (for example by the StatsOverlay) or written to a CSV file to attach to a bug report.
+ * Recording a frame does not allocate.  The garbage collection count is only read every
+ * GC_INTERVAL frames, since reading it allocates on Android; the frames in between keep the
+ * last count.  GL draw calls and texture binds are only counted while GL profiling is on, since
+ * profiling wraps every GL call; otherwise they are -1.
+ *
+ * While continuous rendering is off (in the menus) the frames that were not rendered are
+ * counted as skipped, measured against a 60 frames per second display.  The time since the
+ * last frame is then the time the menu sat idle, so the frame time recorded for those frames
+ * is the update and render time instead.
+ */
+public class FrameStats {
+    // Number of frames kept (ten seconds at 60 frames per second)
+    public static final int WINDOW = 600;
+    // Frame time of the display the skipped frames are counted against
+    private static final float DISPLAY_FRAME_TIME = 1 / 60f;
+    // Frames between reads of the garbage collection count (one second at 60 frames per second)
+    private static final int GC_INTERVAL = 60;
+
+    // Per-frame values, indexed by frame number modulo WINDOW
+    private float[] frameTimes;
+    private float[] updateTimes;
+    private float[] renderTimes;
+    private int[] renderCalls;
+    private int[] drawCalls;
+    private int[] textureBinds;
+    private long[] javaHeap;
+    private long[] gcCounts;
+    private int[] brickCounts;
+    private int[] ballCounts;
+    private int[] skippedFrames;
+    private Class<?>[] states;
+    // Total number of frames recorded
+    private long frames;
+    // Total number of frames skipped while continuous rendering was off
+    private long totalSkippedFrames;
+    // Milliseconds from launch to the first interactive frame, or -1 until it is rendered
+    private long startupTime;
+
+    // Counts reported by the game state during the current frame
+    private int brickCount;
+    private int ballCount;
+    private boolean profiling;
+    // Garbage collection count last read
+    private long gcCount;
+
+    // Reused buffer for sorting frame times
+    private float[] sorted;
+
+    /** FrameStats constructor that creates an empty frame window.
+     *
+     */
+    public FrameStats() {
+        frameTimes = new float[WINDOW];
+        updateTimes = new float[WINDOW];
+        renderTimes = new float[WINDOW];
+        renderCalls = new int[WINDOW];
+        drawCalls = new int[WINDOW];
+        textureBinds = new int[WINDOW];
+        javaHeap = new long[WINDOW];
+        gcCounts = new long[WINDOW];
+        brickCounts = new int[WINDOW];
+        ballCounts = new int[WINDOW];
+        skippedFrames = new int[WINDOW];
+        states = new Class<?>[WINDOW];
+        sorted = new float[WINDOW];
+        startupTime = -1;
+    }
+
+    /** Called at the start of every frame to clear the counts of the previous frame.
+     *
+     */
+    public void beginFrame() {
+        brickCount = 0;
+        ballCount = 0;
+        if (profiling) {
+            GLProfiler.reset();
+        }
+    }
+
+    /** Called by the game state during the frame to report how many bricks and balls are in
+     * play.
+     *
+     * @param bricks Integer representing the remaining brick count
+     * @param balls Integer representing the ball count
+     */
+    public void setGameCounts(int bricks, int balls) {
+        brickCount = bricks;
+        ballCount = balls;
+    }
+
+    /** Called at the end of every frame to record it.
+     *
+     * @param state Class of the game state that was updated
+     * @param delta Float representing the time since the last frame in seconds
+     * @param updateNanos Long representing the time spent in update in nanoseconds
+     * @param renderNanos Long representing the time spent in render in nanoseconds
+     * @param batchRenderCalls Integer representing the SpriteBatch render calls of the frame
+     */
+    public void endFrame(Class<?> state, float delta, long updateNanos, long renderNanos,
+                         int batchRenderCalls) {
+        int i = (int)(frames % WINDOW);
+        boolean continuous = Gdx.graphics == null || Gdx.graphics.isContinuousRendering();
+        frameTimes[i] = continuous ? delta * 1000 : (updateNanos + renderNanos) / 1000000f;
+        updateTimes[i] = updateNanos / 1000000f;
+        renderTimes[i] = renderNanos / 1000000f;
+        renderCalls[i] = batchRenderCalls;
+        drawCalls[i] = profiling ? GLProfiler.drawCalls : -1;
+        textureBinds[i] = profiling ? GLProfiler.textureBindings : -1;
+        javaHeap[i] = Gdx.app != null ? Gdx.app.getJavaHeap() : -1;
+        if (frames % GC_INTERVAL == 0) {
+            gcCount = GcCounter.getCount();
+        }
+        gcCounts[i] = gcCount;
+        brickCounts[i] = brickCount;
+        ballCounts[i] = ballCount;
+        skippedFrames[i] = 0;
+        if (!continuous) {
+            skippedFrames[i] = Math.max(0, Math.round(delta / DISPLAY_FRAME_TIME) - 1);
+            totalSkippedFrames += skippedFrames[i];
+        }
+        states[i] = state;
+        frames += 1;
+    }
+
+    /** Turns GL profiling on or off.  While it is on, GL draw calls and texture binds are
+     * counted at the cost of wrapping every GL call.
+     *
+     * @param profiling Boolean that is true to count GL calls
+     */
+    public void setProfiling(boolean profiling) {
+        if (profiling == this.profiling) {
+            return;
+        }
+        this.profiling = profiling;
+        if (profiling) {
+            GLProfiler.enable();
+            GLProfiler.reset();
+        }
+        else {
+            GLProfiler.disable();
+        }
+    }
+
+    /** Returns whether GL draw calls and texture binds are counted.
+     *
+     * @return Boolean that is true if GL profiling is on
+     */
+    public boolean isProfiling() {
+        return profiling;
+    }
+
+    /** Returns the number of frames in the window.
+     *
+     * @return Integer representing the recorded frame count (at most WINDOW)
+     */
+    public int getFrameCount() {
+        return (int)Math.min(frames, WINDOW);
+    }
+
+    /** Returns the given percentile of the frame times in the window.
+     *
+     * @param percentile Float between 0 and 100, for example 50 or 99
+     * @return Float representing the frame time in milliseconds
+     */
+    public float getFrameTimePercentile(float percentile) {
+        int count = getFrameCount();
+        if (count == 0) {
+            return 0;
+        }
+        System.arraycopy(frameTimes, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int index = (int)Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    /** Returns the longest frame time in the window.
+     *
+     * @return Float representing the frame time in milliseconds
+     */
+    public float getMaxFrameTime() {
+        float max = 0;
+        for (int i = 0; i < getFrameCount(); i++) {
+            max = Math.max(max, frameTimes[i]);
+        }
+        return max;
+    }
+
+    /** Returns the average update time of the frames in the window that updated the given
+     * game state.
+     *
+     * @param state Class of the game state
+     * @return Float representing the update time in milliseconds
+     */
+    public float getAverageUpdateTime(Class<?> state) {
+        return average(updateTimes, state);
+    }
+
+    /** Returns the average render time of the frames in the window that updated the given
+     * game state.
+     *
+     * @param state Class of the game state
+     * @return Float representing the render time in milliseconds
+     */
+    public float getAverageRenderTime(Class<?> state) {
+        return average(renderTimes, state);
+    }
+
+    /** Returns the game state updated in the last frame.
+     *
+     * @return Class of the game state, or null if no frame was recorded
+     */
+    public Class<?> getLastState() {
+        return frames > 0 ? states[last()] : null;
+    }
+
+    /** Returns the SpriteBatch render calls of the last frame.
+     *
+     * @return Integer representing the render calls
+     */
+    public int getLastRenderCalls() {
+        return renderCalls[last()];
+    }
+
+    /** Returns the GL draw calls of the last frame.
+     *
+     * @return Integer representing the draw calls, or -1 if GL profiling is off
+     */
+    public int getLastDrawCalls() {
+        return drawCalls[last()];
+    }
+
+    /** Returns the texture binds of the last frame.
+     *
+     * @return Integer representing the texture binds, or -1 if GL profiling is off
+     */
+    public int getLastTextureBinds() {
+        return textureBinds[last()];
+    }
+
+    /** Returns the Java heap in use at the end of the last frame.
+     *
+     * @return Long representing the heap in bytes
+     */
+    public long getLastJavaHeap() {
+        return javaHeap[last()];
+    }
+
+    /** Returns the number of garbage collections run by the end of the last frame, read at
+     * most GC_INTERVAL frames before.
+     *
+     * @return Long representing the collection count, or -1 if it cannot be read
+     */
+    public long getLastGcCount() {
+        return gcCounts[last()];
+    }
+
+    /** Returns the number of garbage collections run during the frames in the window.
+     *
+     * @return Long representing the collection count, or -1 if it cannot be read
+     */
+    public long getWindowGcCount() {
+        if (frames == 0 || gcCounts[last()] < 0) {
+            return -1;
+        }
+        int first = frames > WINDOW ? (int)(frames % WINDOW) : 0;
+        return gcCounts[last()] - gcCounts[first];
+    }
+
+    /** Returns the remaining brick count reported in the last frame.
+     *
+     * @return Integer representing the brick count
+     */
+    public int getLastBrickCount() {
+        return brickCounts[last()];
+    }
+
+    /** Returns the ball count reported in the last frame.
+     *
+     * @return Integer representing the ball count
+     */
+    public int getLastBallCount() {
+        return ballCounts[last()];
+    }
+
+    /** Returns the number of frames skipped since the game started because continuous
+     * rendering was off and nothing requested a frame.
+     *
+     * @return Long representing the skipped frame count
+     */
+    public long getSkippedFrames() {
+        return totalSkippedFrames;
+    }
+
+    /** Sets the time from launch to the first frame in which the game took input.
+     *
+     * @param millis Long representing the startup time in milliseconds
+     */
+    public void setStartupTime(long millis) {
+        startupTime = millis;
+    }
+
+    /** Returns the time from launch to the first frame in which the game took input.
+     *
+     * @return Long representing the startup time in milliseconds, or -1 while still loading
+     */
+    public long getStartupTime() {
+        return startupTime;
+    }
+
+    /** Writes the frames in the window, oldest first, as CSV with a header row.
+     *
+     * @param writer Writer the CSV is written to
+     * @throws IOException if the writer fails
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write("frame,state,frame_ms,update_ms,render_ms,render_calls,draw_calls,"
+                + "texture_binds,java_heap,gc_count,bricks,balls,skipped\n");
+        int count = getFrameCount();
+        for (long frame = frames - count; frame < frames; frame++) {
+            int i = (int)(frame % WINDOW);
+            writer.write(frame + "," + (states[i] != null ? states[i].getSimpleName() : "")
+                    + "," + frameTimes[i] + "," + updateTimes[i] + "," + renderTimes[i]
+                    + "," + renderCalls[i] + "," + drawCalls[i] + "," + textureBinds[i]
+                    + "," + javaHeap[i] + "," + gcCounts[i] + "," + brickCounts[i]
+                    + "," + ballCounts[i] + "," + skippedFrames[i] + "\n");
+        }
+    }
+
+    /** Writes the frames in the window to a CSV file.
+     *
+     * @param file FileHandle of the CSV file, for example in local storage
+     */
+    public void writeCsv(FileHandle file) {
+        Writer writer = file.writer(false, "UTF-8");
+        try {
+            writeCsv(writer);
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error writing frame stats: " + file, e);
+        }
+        finally {
+            StreamUtils.closeQuietly(writer);
+        }
+    }
+
+    /** Returns the window index of the last frame.
+     *
+     */
+    private int last() {
+        return (int)((frames + WINDOW - 1) % WINDOW);
+    }
+
+    /** Returns the average of the values of the frames in the window that updated the state.
+     *
+     */
+    private float average(float[] values, Class<?> state) {
+        float total = 0;
+        int count = 0;
+        for (int i = 0; i < getFrameCount(); i++) {
+            if (states[i] == state) {
+                total += values[i];
+                count += 1;
+            }
+        }
+        return count > 0 ? total / count : 0;
+    }
+}
@@ -0,0 +1,87 @@
+package com.skayani.brickbreaker.stats;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/** GcCounter class that reads how many garbage collections the runtime has run so far.
+ *
+ * Desktop JVMs report it through java.lang.management, which Android does not have; there the
+ * count is read from android.os.Debug.getRuntimeStat (Android 6.0 and later) by reflection.
+ * Where neither is available the count is -1.
+ */
+class GcCounter {
+    private static final int UNKNOWN = 0;
+    private static final int MANAGEMENT = 1;
+    private static final int ANDROID = 2;
+    private static final int UNAVAILABLE = 3;
+
+    private static int source = UNKNOWN;
+    private static Method runtimeStat;
+
+    private GcCounter() {
+    }
+
+    /** Returns the number of garbage collections run so far.
+     *
+     * @return Long representing the collection count, or -1 if it cannot be read
+     */
+    static long getCount() {
+        if (source == UNKNOWN) {
+            source = findSource();
+        }
+        try {
+            if (source == MANAGEMENT) {
+                return Management.getCount();
+            }
+            if (source == ANDROID) {
+                String count = (String)runtimeStat.invoke(null, "art.gc.gc-count");
+                return count != null ? Long.parseLong(count) : -1;
+            }
+        }
+        catch (Exception e) {
+            source = UNAVAILABLE;
+        }
+        return -1;
+    }
+
+    /** Finds out which way of reading the collection count this runtime supports.
+     *
+     */
+    private static int findSource() {
+        try {
+            Class.forName("java.lang.management.ManagementFactory");
+            return MANAGEMENT;
+        }
+        catch (Throwable e) {
+            // Not a desktop JVM
+        }
+        try {
+            runtimeStat = Class.forName("android.os.Debug").getMethod("getRuntimeStat",
+                    String.class);
+            return ANDROID;
+        }
+        catch (Throwable e) {
+            return UNAVAILABLE;
+        }
+    }
+
+    /** Reads the collection count through java.lang.management.  Kept in its own class so
+     * the management classes are only loaded where they exist.
+     */
+    private static class Management {
+        private static List<GarbageCollectorMXBean> collectors;
+
+        static long getCount() {
+            if (collectors == null) {
+                collectors = ManagementFactory.getGarbageCollectorMXBeans();
+            }
+            long count = 0;
+            for (int i = 0; i < collectors.size(); i++) {
+                count += Math.max(0, collectors.get(i).getCollectionCount());
+            }
+            return count;
+        }
+    }
+}
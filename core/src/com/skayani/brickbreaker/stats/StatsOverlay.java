@@ -0,0 +1,149 @@
+package com.skayani.brickbreaker.stats;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.skayani.brickbreaker.assets.AssetRegistry;
+import com.skayani.brickbreaker.states.ActionDispatcher;
+
+/** StatsOverlay class that draws the numbers recorded by a FrameStats in the top left corner of
+ * the screen, on top of the current game state.
+ *
+ * The text is rebuilt a few times per second into a reused StringBuilder, appending only
+ * integers, so the overlay does not allocate while it is shown and does not add garbage
+ * collections to the numbers it reports.  While it is shown GL profiling is turned on so that
+ * GL draw calls and texture binds are counted, and BrickBreaker keeps rendering every frame so
+ * the numbers stay live in the menus.
+ */
+public class StatsOverlay {
+    // Seconds between two text updates
+    private static final float REFRESH_TIME = 0.25f;
+    private static final float MARGIN = 10;
+
+    private FrameStats stats;
+    private AssetRegistry assets;
+    private BitmapFont font;
+    private StringBuilder text;
+    private Matrix4 projection;
+    private float refreshTimer;
+    private boolean visible;
+
+    /** StatsOverlay constructor that takes in the frame statistics to show and the assets the
+     * font is taken from.
+     *
+     * @param stats FrameStats class instance
+     * @param assets AssetRegistry class instance providing the shared font
+     */
+    public StatsOverlay(FrameStats stats, AssetRegistry assets) {
+        this.stats = stats;
+        this.assets = assets;
+        text = new StringBuilder(512);
+        projection = new Matrix4();
+    }
+
+    /** Shows or hides the overlay.  The shared font is only held while the overlay is shown.
+     *
+     * @param visible Boolean that is true to show the overlay
+     */
+    public void setVisible(boolean visible) {
+        if (visible == this.visible) {
+            return;
+        }
+        this.visible = visible;
+        stats.setProfiling(visible);
+        if (visible) {
+            font = assets.getFont();
+            refreshTimer = REFRESH_TIME;
+        }
+        else {
+            assets.releaseFont();
+            font = null;
+        }
+    }
+
+    /** Returns whether the overlay is shown.
+     *
+     * @return Boolean that is true if the overlay is shown
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /** Draws the overlay if it is shown, rebuilding its text every REFRESH_TIME seconds.
+     *
+     * @param sb SpriteBatch class instance to render the text
+     * @param delta Float representing the time since the last frame in seconds
+     */
+    public void render(SpriteBatch sb, float delta) {
+        if (!visible) {
+            return;
+        }
+        refreshTimer += delta;
+        if (refreshTimer >= REFRESH_TIME) {
+            refreshTimer = 0;
+            buildText();
+        }
+        int width = Gdx.graphics.getWidth();
+        int height = Gdx.graphics.getHeight();
+        projection.setToOrtho2D(0, 0, width, height);
+        sb.setProjectionMatrix(projection);
+        sb.begin();
+        font.draw(sb, text, MARGIN, height - MARGIN);
+        sb.end();
+    }
+
+    /** Disposes of the overlay, releasing the font if it is shown.
+     *
+     */
+    public void dispose() {
+        setVisible(false);
+    }
+
+    /** Rebuilds the overlay text from the frame statistics.
+     *
+     */
+    private void buildText() {
+        text.setLength(0);
+        Class<?> state = stats.getLastState();
+        text.append("frame p50 ");
+        appendMillis(stats.getFrameTimePercentile(50));
+        text.append(" p99 ");
+        appendMillis(stats.getFrameTimePercentile(99));
+        text.append(" max ");
+        appendMillis(stats.getMaxFrameTime());
+        text.append(" ms\n");
+        text.append(state != null ? state.getSimpleName() : "-");
+        text.append(" update ");
+        appendMillis(stats.getAverageUpdateTime(state));
+        text.append(" render ");
+        appendMillis(stats.getAverageRenderTime(state));
+        text.append(" ms\n");
+        text.append("batch calls ").append(stats.getLastRenderCalls());
+        text.append("  draw calls ").append(stats.getLastDrawCalls());
+        text.append("  binds ").append(stats.getLastTextureBinds());
+        text.append("\nheap ").append((int)(stats.getLastJavaHeap() >> 10));
+        text.append(" KB  gc ").append((int)stats.getLastGcCount());
+        text.append(" (").append((int)stats.getWindowGcCount()).append(" in window)\n");
+        text.append("bricks ").append(stats.getLastBrickCount());
+        text.append("  balls ").append(stats.getLastBallCount());
+        text.append("  listeners ").append(ActionDispatcher.getLiveBindings());
+        text.append("\nskipped frames ").append((int)stats.getSkippedFrames());
+        text.append("  startup ").append((int)stats.getStartupTime()).append(" ms");
+    }
+
+    /** Appends a time in milliseconds with two decimals.  StringBuilder.append(float) creates
+     * a String, so the value is appended as two integers instead.
+     *
+     */
+    private void appendMillis(float millis) {
+        int hundredths = Math.round(millis * 100);
+        text.append(hundredths / 100).append('.');
+        int fraction = hundredths % 100;
+        if (fraction < 10) {
+            text.append('0');
+        }
+        text.append(fraction);
+    }
+}
@@ -0,0 +1,25 @@
+package com.skayani.brickbreaker;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+
+/** Headless class that starts a headless libGDX application for the tests, so Gdx.files,
+ * Gdx.app and the native libraries (including Box2D) are available without a window.  The
+ * tests run with the assets directory as the working directory.
+ */
+public class Headless {
+    private Headless() {
+    }
+
+    /** Starts the headless application unless it is running already.
+     *
+     */
+    public static synchronized void start() {
+        if (Gdx.app == null) {
+            new HeadlessApplication(new ApplicationAdapter() {
+            }, new HeadlessApplicationConfiguration());
+        }
+    }
+}
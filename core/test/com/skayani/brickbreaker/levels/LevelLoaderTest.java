@@ -0,0 +1,146 @@
+package com.skayani.brickbreaker.levels;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.skayani.brickbreaker.Headless;
+import com.skayani.brickbreaker.sprites.Ball;
+import com.skayani.brickbreaker.sprites.BrickStore;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Tests that the shipped binary levels hold exactly what their JSON sources describe.
+ *
+ */
+public class LevelLoaderTest {
+    private static final long SEED = 42;
+
+    /** Starts libGDX headless, for Gdx.files.
+     *
+     */
+    @BeforeClass
+    public static void start() {
+        Headless.start();
+    }
+
+    /** The level files are found and the compiled ones are preferred.
+     *
+     */
+    @Test
+    public void findsTheShippedLevels() {
+        assertTrue(LevelLoader.getLevelCount() > 0);
+        for (int level = 1; level <= LevelLoader.getLevelCount(); level++) {
+            assertEquals(LevelLoader.BINARY_EXTENSION,
+                    "." + LevelLoader.levelFile(level).extension());
+        }
+    }
+
+    /** Every shipped binary level holds the same bricks as its JSON source.
+     *
+     */
+    @Test
+    public void binaryLevelsMatchTheirJson() {
+        for (int level = 1; level <= LevelLoader.getLevelCount(); level++) {
+            RecordingBuilder json = new RecordingBuilder();
+            RecordingBuilder binary = new RecordingBuilder();
+            LevelLoader.read(file(level, LevelLoader.JSON_EXTENSION), json);
+            LevelLoader.read(file(level, LevelLoader.BINARY_EXTENSION), binary);
+            json.assertSameLevel(binary);
+        }
+    }
+
+    /** A level compiled by LevelWriter reads back as the JSON it was compiled from.
+     *
+     */
+    @Test
+    public void compiledJsonReadsBack() {
+        for (int level = 1; level <= LevelLoader.getLevelCount(); level++) {
+            RecordingBuilder json = new RecordingBuilder();
+            LevelLoader.read(file(level, LevelLoader.JSON_EXTENSION), json);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            LevelLoader.read(file(level, LevelLoader.JSON_EXTENSION), new LevelWriter(bytes));
+            RecordingBuilder compiled = new RecordingBuilder();
+            LevelLoader.readBinary(new ByteArrayInputStream(bytes.toByteArray()), compiled);
+            json.assertSameLevel(compiled);
+        }
+    }
+
+    /** Loading either file of a level gives the same BrickStore, random colors included.
+     *
+     */
+    @Test
+    public void binaryAndJsonLoadTheSameBricks() {
+        for (int level = 1; level <= LevelLoader.getLevelCount(); level++) {
+            BrickStore json = LevelLoader.load(file(level, LevelLoader.JSON_EXTENSION),
+                    new Ball(0, 0), SEED).getBrickStore();
+            BrickStore binary = LevelLoader.load(file(level, LevelLoader.BINARY_EXTENSION),
+                    new Ball(0, 0), SEED).getBrickStore();
+            assertEquals(json.size(), binary.size());
+            for (int id = 0; id < json.size(); id++) {
+                assertEquals(json.getX(id), binary.getX(id), 0);
+                assertEquals(json.getY(id), binary.getY(id), 0);
+                assertEquals(json.getColor(id), binary.getColor(id));
+                assertEquals(json.getHitPoints(id), binary.getHitPoints(id));
+            }
+        }
+    }
+
+    /** Returns the file of a level in the given format.
+     *
+     */
+    private static FileHandle file(int level, String extension) {
+        return Gdx.files.internal(LevelLoader.LEVELS_DIRECTORY + "level" + level + extension);
+    }
+
+    /** LevelBuilder that keeps everything it is given.
+     *
+     */
+    private static class RecordingBuilder implements LevelBuilder {
+        private float width;
+        private float height;
+        private FloatArray positions = new FloatArray();
+        private IntArray colors = new IntArray();
+        private IntArray hitPoints = new IntArray();
+        private boolean ended;
+
+        @Override
+        public void begin(float width, float height, int brickCount) {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public void brick(float x, float y, int color, int hitPoints) {
+            positions.add(x);
+            positions.add(y);
+            colors.add(color);
+            this.hitPoints.add(hitPoints);
+        }
+
+        @Override
+        public void end() {
+            ended = true;
+        }
+
+        /** Checks that another builder was given the same level.
+         *
+         */
+        void assertSameLevel(RecordingBuilder other) {
+            assertTrue(ended && other.ended);
+            assertEquals(width, other.width, 0);
+            assertEquals(height, other.height, 0);
+            assertArrayEquals(positions.toArray(), other.positions.toArray(), 0);
+            assertArrayEquals(colors.toArray(), other.colors.toArray());
+            assertArrayEquals(hitPoints.toArray(), other.hitPoints.toArray());
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.skayani.brickbreaker.network;
+
+import com.badlogic.gdx.utils.Array;
+import com.skayani.brickbreaker.Headless;
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.simulation.Autopilot;
+import com.skayani.brickbreaker.simulation.GameSimulation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests a GameServer and its GameClients over LocalConnections: delta snapshots, snapshots
+ * split into parts that are lost, reordered or repeated, acknowledgements and malformed
+ * messages.
+ */
+public class GameServerTest {
+    private static final int BRICKS = 4096;
+    // Small enough that every bitset word of a snapshot goes in a part of its own
+    private static final int PART_SIZE = 64;
+
+    private GameSimulation simulation;
+    private GameServer server;
+    private Autopilot autopilot;
+
+    /** Starts libGDX headless.
+     *
+     */
+    @BeforeClass
+    public static void start() {
+        Headless.start();
+    }
+
+    /** Starts a multi-ball game on a generated level served in small parts.
+     *
+     */
+    @Before
+    public void setUp() {
+        simulation = new GameSimulation(new LevelGenerator(1, LevelGenerator.Pattern.GRID,
+                BRICKS));
+        simulation.setMultiBall(true);
+        server = new GameServer(simulation, PART_SIZE);
+        autopilot = new Autopilot(1, 0, 1);
+    }
+
+    /** Stops the game.
+     *
+     */
+    @After
+    public void tearDown() {
+        server.dispose();
+        simulation.dispose();
+    }
+
+    /** A client polling every tick follows every snapshot, acknowledges it and gets deltas
+     * much smaller than the full snapshot after the first.
+     *
+     */
+    @Test
+    public void deltaSnapshotsFollowTheGame() {
+        LocalConnection[] connection = LocalConnection.pair();
+        GameServer.Client client = server.addClient(connection[0], false);
+        GameClient gameClient = new GameClient(connection[1]);
+        tick(2);
+        gameClient.poll();
+        long fullBytes = client.getBytesSent();
+        for (int t = 0; t < 2000; t++) {
+            gameClient.poll();
+            server.tick(autopilot.input(simulation));
+            if (t % GameServer.SNAPSHOT_INTERVAL == 1) {
+                gameClient.poll();
+                assertInSync(gameClient);
+            }
+        }
+        tick(1);
+        assertEquals(server.getSequence(), client.getAcknowledged());
+        assertTrue(destroyedCount() > 0);
+        assertEquals(0, client.getSnapshotsDropped());
+        float deltaBytes = (client.getBytesSent() - fullBytes)
+                / (float)(client.getSnapshotsSent() - 1);
+        assertTrue(deltaBytes < fullBytes);
+    }
+
+    /** A snapshot in several parts is only applied once its last part arrived.
+     *
+     */
+    @Test
+    public void partsAreAppliedOnceComplete() {
+        playUntilSplit();
+        HeldConnection held = join();
+        GameClient gameClient = new GameClient(held.client);
+        held.clear();
+        tick(GameServer.SNAPSHOT_INTERVAL);
+        int parts = held.size();
+        assertTrue(parts > 2);
+
+        for (int i = 0; i < parts - 1; i++) {
+            held.deliver(i);
+        }
+        gameClient.poll();
+        assertEquals(0, gameClient.getSequence());
+        held.deliver(parts - 1);
+        gameClient.poll();
+        assertInSync(gameClient);
+    }
+
+    /** Parts arriving in reverse order, and repeated, still make up the snapshot.
+     *
+     */
+    @Test
+    public void reorderedAndRepeatedPartsAreApplied() {
+        playUntilSplit();
+        HeldConnection held = join();
+        GameClient gameClient = new GameClient(held.client);
+        held.clear();
+        tick(GameServer.SNAPSHOT_INTERVAL);
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.deliver(i);
+            held.deliver(i);
+        }
+        gameClient.poll();
+        assertInSync(gameClient);
+    }
+
+    /** A snapshot that lost a part is not acknowledged, so the next one is sent against the
+     * same baseline and makes up for it.
+     *
+     */
+    @Test
+    public void lostPartIsMadeUpByTheNextSnapshot() {
+        playUntilSplit();
+        HeldConnection held = join();
+        GameClient gameClient = new GameClient(held.client);
+        held.clear();
+        tick(GameServer.SNAPSHOT_INTERVAL);
+        for (int i = 1; i < held.size(); i++) {
+            held.deliver(i);
+        }
+        gameClient.poll();
+        assertEquals(0, gameClient.getSequence());
+
+        held.clear();
+        tick(GameServer.SNAPSHOT_INTERVAL);
+        assertTrue(held.size() > 2);
+        for (int i = 0; i < held.size(); i++) {
+            held.deliver(i);
+        }
+        gameClient.poll();
+        assertInSync(gameClient);
+    }
+
+    /** A snapshot older than the one applied is ignored.
+     *
+     */
+    @Test
+    public void olderSnapshotIsIgnored() {
+        HeldConnection held = join();
+        GameClient gameClient = new GameClient(held.client);
+        tick(GameServer.SNAPSHOT_INTERVAL);
+        int first = held.size();
+        tick(GameServer.SNAPSHOT_INTERVAL);
+        for (int i = first; i < held.size(); i++) {
+            held.deliver(i);
+        }
+        for (int i = 0; i < first; i++) {
+            held.deliver(i);
+        }
+        gameClient.poll();
+        assertInSync(gameClient);
+    }
+
+    /** Malformed snapshots, such as an unknown level pattern or a bitset word beyond any
+     * level, are ignored instead of failing the client.
+     *
+     */
+    @Test
+    public void malformedSnapshotsAreIgnored() {
+        LocalConnection[] connection = LocalConnection.pair();
+        GameClient gameClient = new GameClient(connection[1]);
+        Packet packet = new Packet();
+
+        writeFullHeader(packet, 200, 100);
+        packet.writeByte(0);
+        packet.writeVarInt(0);
+        packet.writeVarInt(1);
+        connection[0].send(packet.getData(), packet.getPosition());
+        gameClient.poll();
+        assertFalse(gameClient.hasLevel());
+
+        writeFullHeader(packet, 0, 100);
+        packet.writeByte(0);
+        packet.writeVarInt(Integer.MAX_VALUE);
+        packet.writeVarLong(1);
+        packet.writeVarInt(0);
+        packet.writeVarInt(1);
+        connection[0].send(packet.getData(), packet.getPosition());
+
+        writeFullHeader(packet, 0, 100);
+        connection[0].send(packet.getData(), packet.getPosition() - 1);
+
+        gameClient.poll();
+        assertEquals(0, gameClient.getSequence());
+        assertEquals(0, gameClient.getDestroyedCount());
+    }
+
+    /** Starts a full snapshot message of a generated level.
+     *
+     */
+    private static void writeFullHeader(Packet packet, int pattern, int brickCount) {
+        packet.clear();
+        packet.writeByte(Packet.SNAPSHOT);
+        packet.writeVarInt(1);
+        packet.writeVarInt(0);
+        packet.writeVarInt(GameSimulation.GENERATED_LEVEL);
+        packet.writeLong(1);
+        packet.writeByte(1);
+        packet.writeByte(pattern);
+        packet.writeVarInt(brickCount);
+    }
+
+    /** Plays until the destroyed bricks span enough bitset words to split a full snapshot.
+     *
+     */
+    private void playUntilSplit() {
+        int ticks = 0;
+        while (wordsDestroyed() < 4 && !simulation.isOver()) {
+            server.tick(autopilot.input(simulation));
+            ticks += 1;
+            assertTrue(ticks < 100000);
+        }
+        assertFalse(simulation.isOver());
+    }
+
+    /** Adds a spectator whose snapshots are held until the test delivers them.
+     *
+     */
+    private HeldConnection join() {
+        LocalConnection[] connection = LocalConnection.pair();
+        HeldConnection held = new HeldConnection(connection[0], connection[1]);
+        server.addClient(held, false);
+        return held;
+    }
+
+    /** Runs the server for the given number of ticks.
+     *
+     */
+    private void tick(int ticks) {
+        for (int t = 0; t < ticks; t++) {
+            server.tick(autopilot.input(simulation));
+        }
+    }
+
+    /** Checks that the client applied the newest snapshot.
+     *
+     */
+    private void assertInSync(GameClient gameClient) {
+        assertEquals(server.getSequence(), gameClient.getSequence());
+        assertTrue(gameClient.hasLevel());
+        assertEquals(destroyedCount(), gameClient.getDestroyedCount());
+        for (int id = 0; id < BRICKS; id++) {
+            assertEquals(!simulation.getBrickManager().getBrickStore().isAlive(id),
+                    gameClient.isBrickDestroyed(id));
+        }
+        assertEquals(simulation.getPlayerScore(), gameClient.getPlayerScore());
+        assertEquals(simulation.getBall().getPosition().x, gameClient.getBallX(),
+                1 / Snapshot.SCALE);
+    }
+
+    /** Returns the number of bricks destroyed so far.
+     *
+     */
+    private int destroyedCount() {
+        return BRICKS - simulation.getBrickManager().getRemainingBricks();
+    }
+
+    /** Returns the number of 64-brick bitset words holding a destroyed brick.
+     *
+     */
+    private int wordsDestroyed() {
+        int words = 0;
+        for (int word = 0; word < BRICKS >> 6; word++) {
+            for (int id = word << 6; id < (word + 1) << 6; id++) {
+                if (!simulation.getBrickManager().getBrickStore().isAlive(id)) {
+                    words += 1;
+                    break;
+                }
+            }
+        }
+        return words;
+    }
+
+    /** Connection for the server end that holds every message sent, so the test decides which
+     * reach the client and in which order.
+     */
+    private static class HeldConnection implements Connection {
+        private LocalConnection server;
+        // End the GameClient reads from
+        private LocalConnection client;
+        private Array<byte[]> messages = new Array<byte[]>();
+
+        /** HeldConnection constructor that takes in both ends of a local connection.
+         *
+         */
+        HeldConnection(LocalConnection server, LocalConnection client) {
+            this.server = server;
+            this.client = client;
+        }
+
+        @Override
+        public boolean send(byte[] data, int length) {
+            byte[] message = new byte[length];
+            System.arraycopy(data, 0, message, 0, length);
+            messages.add(message);
+            return true;
+        }
+
+        @Override
+        public int receive(byte[] buffer) {
+            return server.receive(buffer);
+        }
+
+        @Override
+        public boolean isClosed() {
+            return server.isClosed();
+        }
+
+        @Override
+        public void close() {
+            server.close();
+        }
+
+        /** Returns the number of messages held.
+         *
+         */
+        int size() {
+            return messages.size;
+        }
+
+        /** Forgets the messages held so far.
+         *
+         */
+        void clear() {
+            messages.clear();
+        }
+
+        /** Passes a held message on to the client.
+         *
+         */
+        void deliver(int index) {
+            server.send(messages.get(index), messages.get(index).length);
+        }
+    }
+}
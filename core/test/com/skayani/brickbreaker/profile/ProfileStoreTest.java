@@ -0,0 +1,221 @@
+package com.skayani.brickbreaker.profile;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.skayani.brickbreaker.Headless;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests that the profile log keeps every change across loads, and that a load recovers the
+ * profile from a log cut short or a compaction the app was killed in the middle of.
+ */
+public class ProfileStoreTest {
+    // Longest a profile may take to load
+    private static final long LOAD_MILLIS = 5000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private FileHandle file;
+    private FileHandle partial;
+    private FileHandle old;
+    // Logs of two different profiles, the one before and the one after a compaction
+    private byte[] before;
+    private byte[] after;
+
+    /** Starts libGDX headless, for the error log.
+     *
+     */
+    @BeforeClass
+    public static void start() {
+        Headless.start();
+    }
+
+    /** Writes the logs of the profiles before and after a compaction, and picks the profile log
+     * in an empty directory.
+     *
+     */
+    @Before
+    public void setUp() throws IOException {
+        FileHandle directory = new FileHandle(folder.newFolder());
+        FileHandle log = directory.child("before.log");
+        ProfileStore store = load(log);
+        store.unlockLevel(2);
+        store.addScore(1, 100);
+        store.dispose();
+        before = log.readBytes();
+
+        log = directory.child("after.log");
+        store = load(log);
+        store.unlockLevel(5);
+        store.addScore(1, 200);
+        store.dispose();
+        after = log.readBytes();
+
+        file = new FileHandle(folder.newFolder()).child("profile.log");
+        partial = file.sibling(file.name() + ".tmp");
+        old = file.sibling(file.name() + ".old");
+    }
+
+    /** Settings, unlocked levels and scores read back from the log.
+     *
+     */
+    @Test
+    public void changesPersist() {
+        ProfileStore store = load(file);
+        assertEquals(1, store.getUnlockedLevel());
+        store.putFloat("volume", 0.25f);
+        store.putBoolean("sound", false);
+        store.unlockLevel(4);
+        for (int score = 1; score <= ProfileStore.TOP_SCORES + 5; score++) {
+            store.addScore(3, score * 10);
+        }
+        store.dispose();
+
+        store = load(file);
+        assertEquals(0.25f, store.getFloat("volume", 1), 0);
+        assertFalse(store.getBoolean("sound", true));
+        assertEquals(4, store.getUnlockedLevel());
+        HighScoreTable scores = store.getHighScores(3);
+        assertEquals(ProfileStore.TOP_SCORES, scores.size());
+        assertEquals(150, scores.getScore(0));
+        assertEquals(60, scores.getScore(ProfileStore.TOP_SCORES - 1));
+        assertEquals(0, store.getBestScore(1));
+        store.dispose();
+    }
+
+    /** A record cut short by the app being killed is dropped, the records before it are kept,
+     * and changes made afterwards are appended after the last complete record.
+     *
+     */
+    @Test
+    public void cutShortRecordIsDropped() {
+        ProfileStore store = load(file);
+        store.unlockLevel(3);
+        store.dispose();
+        long complete = file.length();
+        store = load(file);
+        store.addScore(2, 500);
+        store.dispose();
+        byte[] log = file.readBytes();
+        file.writeBytes(log, 0, log.length - 3, false);
+        assertTrue(file.length() > complete);
+
+        store = load(file);
+        assertEquals(3, store.getUnlockedLevel());
+        assertEquals(0, store.getBestScore(2));
+        store.addScore(2, 700);
+        store.dispose();
+
+        store = load(file);
+        assertEquals(3, store.getUnlockedLevel());
+        assertEquals(700, store.getBestScore(2));
+        store.dispose();
+    }
+
+    /** A log of many changes to the same setting is compacted, and still reads back the last
+     * value.
+     *
+     */
+    @Test
+    public void longLogIsCompacted() {
+        ProfileStore store = load(file);
+        for (int i = 0; i < 1000; i++) {
+            store.putFloat("volume", i);
+            store.putFloat("volume", -1);
+        }
+        store.putFloat("volume", 0.5f);
+        store.dispose();
+        assertTrue(file.length() < 1000);
+        assertFalse(partial.exists());
+        assertFalse(old.exists());
+
+        store = load(file);
+        assertEquals(0.5f, store.getFloat("volume", 1), 0);
+        store.dispose();
+    }
+
+    /** Killed while writing the new log: the partial new log is deleted and the old log read.
+     *
+     */
+    @Test
+    public void killedWritingTheNewLog() {
+        file.writeBytes(before, false);
+        partial.writeBytes(after, 0, after.length / 2, false);
+        assertProfile(2, 100);
+    }
+
+    /** Killed after the old log was renamed aside: the complete new log is moved in place.
+     *
+     */
+    @Test
+    public void killedAfterRenamingTheOldLog() {
+        old.writeBytes(before, false);
+        partial.writeBytes(after, false);
+        assertProfile(5, 200);
+    }
+
+    /** Killed while copying the new log in place: the copy is replaced by the new log.
+     *
+     */
+    @Test
+    public void killedCopyingTheNewLog() {
+        old.writeBytes(before, false);
+        partial.writeBytes(after, false);
+        file.writeBytes(after, 0, after.length / 2, false);
+        assertProfile(5, 200);
+    }
+
+    /** Killed before the old log was deleted: the new log is read and the old one deleted.
+     *
+     */
+    @Test
+    public void killedBeforeDeletingTheOldLog() {
+        old.writeBytes(before, false);
+        file.writeBytes(after, false);
+        assertProfile(5, 200);
+    }
+
+    /** Only the old log is left: it is moved back in place.
+     *
+     */
+    @Test
+    public void onlyTheOldLogIsLeft() {
+        old.writeBytes(before, false);
+        assertProfile(2, 100);
+    }
+
+    /** Loads the profile and checks it is the expected one, with no file of the compaction
+     * left behind.
+     *
+     */
+    private void assertProfile(int unlockedLevel, int bestScore) {
+        ProfileStore store = load(file);
+        assertEquals(unlockedLevel, store.getUnlockedLevel());
+        assertEquals(bestScore, store.getBestScore(1));
+        store.dispose();
+        assertFalse(partial.exists());
+        assertFalse(old.exists());
+    }
+
+    /** Starts a ProfileStore and waits for it to load.
+     *
+     */
+    private static ProfileStore load(FileHandle file) {
+        ProfileStore store = new ProfileStore(file);
+        long start = System.currentTimeMillis();
+        while (!store.isLoaded()) {
+            assertTrue(System.currentTimeMillis() - start < LOAD_MILLIS);
+            Thread.yield();
+        }
+        return store;
+    }
+}
@@ -0,0 +1,164 @@
+package com.skayani.brickbreaker.simulation;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.skayani.brickbreaker.Headless;
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.sprites.Ball;
+import com.skayani.brickbreaker.sprites.BrickManager;
+import com.skayani.brickbreaker.sprites.BrickStore;
+import com.skayani.brickbreaker.sprites.PhysicsEngine;
+import com.skayani.brickbreaker.sprites.PlayerBrick;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Tests that a recorded game, written and read back, replays to exactly the same end.
+ *
+ */
+public class InputRecordingTest {
+    // Steps a game is played for at most
+    private static final int MAX_STEPS = 20000;
+    // Step from which the multi-ball mode is on, so the recording holds both settings
+    private static final int MULTI_BALL_STEP = 600;
+    // Steps the player keeps aiming the same point of the player brick at the ball
+    private static final int AIM_STEPS = 400;
+
+    /** Starts libGDX headless, for the level files.
+     *
+     */
+    @BeforeClass
+    public static void start() {
+        Headless.start();
+    }
+
+    /** A game of a level file replays to the same score, bricks and ball.
+     *
+     */
+    @Test
+    public void levelGameReplaysExactly() {
+        assertReplaysExactly(new GameSimulation(1, 7));
+    }
+
+    /** A game of a generated level replays to the same score, bricks and ball.
+     *
+     */
+    @Test
+    public void generatedGameReplaysExactly() {
+        assertReplaysExactly(new GameSimulation(new LevelGenerator(3,
+                LevelGenerator.Pattern.NOISE, 2000)));
+    }
+
+    /** A game played on the Box2D backend replays on Box2D to the same score, bricks and ball.
+     *
+     */
+    @Test
+    public void box2dGameReplaysExactly() {
+        BrickManager.setDefaultPhysics(PhysicsEngine.Type.BOX2D);
+        try {
+            assertReplaysExactly(new GameSimulation(2, 9));
+        }
+        finally {
+            BrickManager.setDefaultPhysics(PhysicsEngine.Type.AABB);
+        }
+    }
+
+    /** A recording reads back with the same level, seed, physics backend and runs.
+     *
+     */
+    @Test
+    public void recordingReadsBack() {
+        GameSimulation simulation = new GameSimulation(new LevelGenerator(5,
+                LevelGenerator.Pattern.MAZE, 500));
+        InputRecording recording = simulation.startRecording();
+        play(simulation, 3000);
+        InputRecording read = copy(recording);
+        assertEquals(recording.getLevel(), read.getLevel());
+        assertEquals(recording.getSeed(), read.getSeed());
+        assertEquals(recording.getPhysics(), read.getPhysics());
+        assertEquals(LevelGenerator.Pattern.MAZE, read.getGenerator().getPattern());
+        assertEquals(500, read.getGenerator().getBrickCount());
+        assertEquals(recording.getStepCount(), read.getStepCount());
+        assertEquals(recording.getRunCount(), read.getRunCount());
+        assertTrue(recording.getRunCount() > 1);
+        for (int run = 0; run < recording.getRunCount(); run++) {
+            assertEquals(recording.getRunLength(run), read.getRunLength(run));
+            assertEquals(recording.getRunInput(run), read.getRunInput(run), 0);
+            assertEquals(recording.isRunMultiBall(run), read.isRunMultiBall(run));
+        }
+        simulation.dispose();
+    }
+
+    /** Records a game, replays the recording read back from its binary form and checks that
+     * the replay ends exactly where the game did.
+     *
+     */
+    static void assertReplaysExactly(GameSimulation simulation) {
+        InputRecording recording = simulation.startRecording();
+        play(simulation, MAX_STEPS);
+        assertTrue(simulation.getPlayerScore() > 0);
+
+        GameSimulation replay = copy(recording).replay();
+        assertEquals(simulation.getBrickManager().getPhysics(),
+                replay.getBrickManager().getPhysics());
+        assertEquals(simulation.getStepCount(), replay.getStepCount());
+        assertEquals(simulation.getPlayerScore(), replay.getPlayerScore());
+        assertArrayEquals(alive(simulation), alive(replay));
+        assertEquals(simulation.getBall().getPosition(), replay.getBall().getPosition());
+        assertEquals(simulation.getBalls().getCount(), replay.getBalls().getCount());
+        simulation.dispose();
+        replay.dispose();
+    }
+
+    /** Plays a game until it is over or has run the given steps, turning the multi-ball mode
+     * on part of the way.
+     *
+     */
+    static void play(GameSimulation simulation, int steps) {
+        for (int step = 0; step < steps && !simulation.isOver(); step++) {
+            simulation.setMultiBall(step >= MULTI_BALL_STEP);
+            simulation.step(input(simulation, step));
+        }
+    }
+
+    /** Returns the input of a player following the ball, who moves the point of the player
+     * brick aimed at the ball every AIM_STEPS steps so the ball bounces off at different spots.
+     *
+     */
+    private static float input(GameSimulation simulation, int step) {
+        float aim = ((step / AIM_STEPS) % 5 - 2) * PlayerBrick.WIDTH / 6;
+        float playerBrickCenter = simulation.getPlayerBrick().getPosition().x
+                + PlayerBrick.WIDTH / 2;
+        float ballCenter = simulation.getBall().getPosition().x + Ball.SIZE / 2;
+        return MathUtils.clamp((playerBrickCenter + aim - ballCenter) / 2, -1, 1);
+    }
+
+    /** Returns the alive bitset of a game.
+     *
+     */
+    static long[] alive(GameSimulation simulation) {
+        BrickStore bricks = simulation.getBrickManager().getBrickStore();
+        long[] words = new long[(bricks.size() + 63) >> 6];
+        for (int id = 0; id < bricks.size(); id++) {
+            if (bricks.isAlive(id)) {
+                words[id >> 6] |= 1L << id;
+            }
+        }
+        return words;
+    }
+
+    /** Writes a recording to its binary form and reads it back.
+     *
+     */
+    private static InputRecording copy(InputRecording recording) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        recording.write(bytes);
+        return InputRecording.read(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
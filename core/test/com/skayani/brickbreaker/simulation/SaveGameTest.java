@@ -0,0 +1,167 @@
+package com.skayani.brickbreaker.simulation;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.skayani.brickbreaker.Headless;
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.sprites.BallPool;
+import com.skayani.brickbreaker.sprites.BrickStore;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests that a game saved part of the way through resumes exactly where it was, and that
+ * writing a save never leaves a partial file behind.
+ */
+public class SaveGameTest {
+    // Steps played before the game is saved, and after it is resumed
+    private static final int SAVED_STEPS = 1500;
+    private static final int RESUMED_STEPS = 1500;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private FileHandle file;
+
+    /** Starts libGDX headless, for the level files.
+     *
+     */
+    @BeforeClass
+    public static void start() {
+        Headless.start();
+    }
+
+    /** Picks the save file in an empty directory.
+     *
+     */
+    @Before
+    public void setUp() {
+        file = new FileHandle(folder.getRoot()).child("resume" + SaveGame.EXTENSION);
+    }
+
+    /** A game of a level file resumes with the same bricks, balls and score and then plays on
+     * exactly like the game that was saved.
+     *
+     */
+    @Test
+    public void levelGameResumesExactly() {
+        assertResumesExactly(new GameSimulation(2, 11));
+    }
+
+    /** A game of a generated level resumes exactly as well.
+     *
+     */
+    @Test
+    public void generatedGameResumesExactly() {
+        assertResumesExactly(new GameSimulation(new LevelGenerator(9,
+                LevelGenerator.Pattern.NOISE, 2000)));
+    }
+
+    /** Writing a save replaces the previous one without leaving the partial file.
+     *
+     */
+    @Test
+    public void writeReplacesTheSave() {
+        GameSimulation simulation = new GameSimulation(1, 3);
+        simulation.save().write(file);
+        play(simulation, SAVED_STEPS);
+        simulation.save().write(file);
+        assertEquals(simulation.getStepCount(), SaveGame.read(file).getStepCount());
+        assertEquals(1, file.parent().list().length);
+        simulation.dispose();
+    }
+
+    /** The partial file of a save interrupted by the app being killed is deleted at startup,
+     * and the complete save is kept.
+     *
+     */
+    @Test
+    public void partialSaveIsDeleted() {
+        GameSimulation simulation = new GameSimulation(1, 3);
+        simulation.save().write(file);
+        FileHandle partial = file.sibling(file.name() + ".tmp");
+        partial.writeBytes(new byte[] {1, 2, 3}, false);
+        SaveGame.deletePartial(file);
+        assertFalse(partial.exists());
+        assertEquals(1, SaveGame.read(file).getLevel());
+        simulation.dispose();
+    }
+
+    /** A file that is not a save is refused.
+     *
+     */
+    @Test(expected = GdxRuntimeException.class)
+    public void otherFileIsRefused() {
+        SaveGame.read(new ByteArrayInputStream(new byte[] {0, 1, 2, 3, 4, 5, 6, 7}));
+    }
+
+    /** Saves a game part of the way through, resumes it from the file and checks that the
+     * resumed game matches the saved one now and after both play on with the same input.
+     *
+     */
+    private void assertResumesExactly(GameSimulation simulation) {
+        simulation.setMultiBall(true);
+        play(simulation, SAVED_STEPS);
+        assertFalse(simulation.isOver());
+        assertTrue(simulation.getPlayerScore() > 0);
+        simulation.save().write(file);
+
+        GameSimulation resumed = SaveGame.read(file).newSimulation();
+        assertSameGame(simulation, resumed);
+        play(simulation, RESUMED_STEPS);
+        play(resumed, RESUMED_STEPS);
+        assertSameGame(simulation, resumed);
+        simulation.dispose();
+        resumed.dispose();
+    }
+
+    /** Checks that two games are in the same state.
+     *
+     */
+    private static void assertSameGame(GameSimulation expected, GameSimulation actual) {
+        assertEquals(expected.getStepCount(), actual.getStepCount());
+        assertEquals(expected.getPlayerScore(), actual.getPlayerScore());
+        assertEquals(expected.isOver(), actual.isOver());
+        assertEquals(expected.isMultiBall(), actual.isMultiBall());
+        assertArrayEquals(InputRecordingTest.alive(expected), InputRecordingTest.alive(actual));
+        BrickStore expectedBricks = expected.getBrickManager().getBrickStore();
+        BrickStore actualBricks = actual.getBrickManager().getBrickStore();
+        for (int id = 0; id < expectedBricks.size(); id++) {
+            assertEquals(expectedBricks.getHitPoints(id), actualBricks.getHitPoints(id));
+            assertEquals(expectedBricks.getColor(id), actualBricks.getColor(id));
+        }
+        assertEquals(expected.getBall().getPosition(), actual.getBall().getPosition());
+        assertEquals(expected.getBall().getVelocity(), actual.getBall().getVelocity());
+        assertEquals(expected.getPlayerBrick().getPosition().x,
+                actual.getPlayerBrick().getPosition().x, 0);
+        BallPool expectedBalls = expected.getBalls();
+        BallPool actualBalls = actual.getBalls();
+        assertEquals(expectedBalls.getCount(), actualBalls.getCount());
+        for (int i = 0; i < expectedBalls.getCount(); i++) {
+            assertEquals(expectedBalls.getX(i), actualBalls.getX(i), 0);
+            assertEquals(expectedBalls.getY(i), actualBalls.getY(i), 0);
+            assertEquals(expectedBalls.getVelocityX(i), actualBalls.getVelocityX(i), 0);
+            assertEquals(expectedBalls.getVelocityY(i), actualBalls.getVelocityY(i), 0);
+        }
+    }
+
+    /** Plays a game with a fresh autopilot for the given steps, or until it is over, so two
+     * games in the same state given the same steps get the same input.
+     *
+     */
+    private static void play(GameSimulation simulation, int steps) {
+        Autopilot autopilot = new Autopilot(1, 0, 1);
+        for (int step = 0; step < steps && !simulation.isOver(); step++) {
+            simulation.step(autopilot.input(simulation));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.skayani.brickbreaker.sprites;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntArray;
+import com.skayani.brickbreaker.BrickBreaker;
+import com.skayani.brickbreaker.Headless;
+import com.skayani.brickbreaker.simulation.GameSimulation;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests the Box2D physics backend headless, with the Box2D natives of the desktop platform:
+ * a single bounce off a brick, and whole games played on it.
+ */
+public class Box2DPhysicsTest {
+    // Steps a game is played for
+    private static final int STEPS = 6000;
+    // How far Box2D may let the ball sink into a wall, in pixels
+    private static final float WALL_TOLERANCE = 1;
+
+    /** Starts libGDX headless, for the level files.
+     *
+     */
+    @BeforeClass
+    public static void start() {
+        Headless.start();
+    }
+
+    /** A ball moving up into a brick reports the contact once and bounces down.
+     *
+     */
+    @Test
+    public void ballBouncesOffABrick() {
+        Box2DPhysics physics = new Box2DPhysics(BrickBreaker.WIDTH, BrickBreaker.HEIGHT);
+        physics.addBrick(0, 200, 400, 80, 30);
+        Ball ball = new Ball(150, 300);
+        ball.reflect(0, 1);
+        Rectangle playerBrickBounds = new Rectangle(0, 0, 100, 20);
+        final IntArray contacts = new IntArray();
+        PhysicsEngine.ContactListener listener = new PhysicsEngine.ContactListener() {
+            @Override
+            public void brickContact(int id) {
+                contacts.add(id);
+            }
+        };
+
+        for (int step = 0; step < 120 && contacts.size == 0; step++) {
+            physics.step(ball, GameSimulation.STEP_TIME, playerBrickBounds, listener);
+        }
+        assertEquals(1, contacts.size);
+        assertEquals(0, contacts.get(0));
+        physics.removeBrick(0);
+        for (int step = 0; step < 10; step++) {
+            physics.step(ball, GameSimulation.STEP_TIME, playerBrickBounds, listener);
+        }
+        assertEquals(1, contacts.size);
+        assertTrue(ball.getVelocity().y < 0);
+        assertTrue(ball.getPosition().y + Ball.SIZE < 400 + WALL_TOLERANCE);
+        physics.dispose();
+    }
+
+    /** A game played on Box2D destroys bricks and keeps the ball inside the walls.
+     *
+     */
+    @Test
+    public void gameDestroysBricks() {
+        GameSimulation simulation = new GameSimulation(1, 3);
+        simulation.getBrickManager().setPhysics(PhysicsEngine.Type.BOX2D);
+        assertEquals(PhysicsEngine.Type.BOX2D, simulation.getBrickManager().getPhysics());
+        play(simulation, STEPS);
+        assertTrue(simulation.getPlayerScore() > 0);
+        simulation.dispose();
+    }
+
+    /** Switching a game to Box2D part of the way keeps the bricks destroyed so far, and the
+     * game goes on destroying bricks.
+     *
+     */
+    @Test
+    public void switchingBackendKeepsTheBricks() {
+        GameSimulation simulation = new GameSimulation(2, 5);
+        BrickManager bricks = simulation.getBrickManager();
+        play(simulation, STEPS / 2);
+        assertFalse(simulation.isOver());
+        int remaining = bricks.getRemainingBricks();
+        int score = simulation.getPlayerScore();
+        bricks.setPhysics(PhysicsEngine.Type.BOX2D);
+        assertEquals(remaining, bricks.getRemainingBricks());
+        play(simulation, STEPS);
+        assertTrue(simulation.getPlayerScore() > score);
+        simulation.dispose();
+    }
+
+    /** Plays a game moving the player brick under the ball, checking after every step that the
+     * ball is between the walls and below the ceiling.
+     *
+     */
+    private static void play(GameSimulation simulation, int steps) {
+        for (int step = 0; step < steps && !simulation.isOver(); step++) {
+            float playerBrickCenter = simulation.getPlayerBrick().getPosition().x
+                    + PlayerBrick.WIDTH / 2;
+            float ballCenter = simulation.getBall().getPosition().x + Ball.SIZE / 2;
+            simulation.step(MathUtils.clamp((playerBrickCenter - ballCenter) / 2, -1, 1));
+            float x = simulation.getBall().getPosition().x;
+            float y = simulation.getBall().getPosition().y;
+            assertTrue(x > -WALL_TOLERANCE);
+            assertTrue(x + Ball.SIZE < BrickBreaker.WIDTH + WALL_TOLERANCE);
+            assertTrue(y + Ball.SIZE < BrickBreaker.HEIGHT + WALL_TOLERANCE);
+        }
+    }
+}
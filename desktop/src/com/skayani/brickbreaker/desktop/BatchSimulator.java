@@ -0,0 +1,146 @@
+package com.skayani.brickbreaker.desktop;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.lwjgl.LwjglFiles;
+import com.skayani.brickbreaker.levels.LevelLoader;
+import com.skayani.brickbreaker.simulation.Autopilot;
+import com.skayani.brickbreaker.simulation.GameSimulation;
+import com.skayani.brickbreaker.simulation.Playthrough;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** Tool (run by the batch Gradle task) that plays every level many times headless with the
+ * Autopilot and prints per-level numbers for balancing: completion rate, time to clear, bounces
+ * per destroyed brick and the longest rally.  Games are spread over every core with a fork/join
+ * pool.  Every game has its own brick color and autopilot seed derived from the base seed, so a
+ * batch with the same arguments gives the same numbers.
+ */
+public class BatchSimulator {
+    // Games are cut off after this much game time
+    private static final int MAX_STEPS = (int)(10 * 60 / GameSimulation.STEP_TIME);
+    // Fewest games run by one fork/join task
+    private static final int GAMES_PER_TASK = 8;
+
+    /** Plays the levels and prints the numbers.
+     *
+     * @param arg Games per level and optional skill (defaults to 0.9), noise in pixels
+     *            (defaults to 10) and base seed (defaults to 1)
+     */
+    public static void main (String[] arg) {
+        if (arg.length == 0) {
+            System.err.println("Usage: BatchSimulator <games per level> [skill] [noise] [seed]");
+            System.exit(2);
+        }
+        Gdx.files = new LwjglFiles();
+        int games = Integer.parseInt(arg[0]);
+        float skill = arg.length > 1 ? Float.parseFloat(arg[1]) : 0.9f;
+        float noise = arg.length > 2 ? Float.parseFloat(arg[2]) : 10;
+        long seed = arg.length > 3 ? Long.parseLong(arg[3]) : 1;
+        int levels = LevelLoader.getLevelCount();
+
+        ForkJoinPool pool = new ForkJoinPool();
+        Playthrough[] results = new Playthrough[levels * games];
+        long start = System.nanoTime();
+        pool.invoke(new Games(results, 0, results.length, games, skill, noise, seed));
+        long nanos = System.nanoTime() - start;
+        pool.shutdown();
+
+        System.out.println(String.format(Locale.ROOT,
+                "%d games on %d threads in %.1f s (%.0f games/min), skill %.2f, noise %.1f",
+                results.length, pool.getParallelism(), nanos / 1e9,
+                results.length * 60e9 / Math.max(1, nanos), skill, noise));
+        System.out.println("level  cleared  clear time p50/p90 (s)  bounces/brick  "
+                + "longest rally max/mean  timed out");
+        for (int level = 1; level <= levels; level++) {
+            printLevel(level, results, (level - 1) * games, games);
+        }
+    }
+
+    /** Prints the numbers of one level's games.
+     *
+     */
+    private static void printLevel(int level, Playthrough[] results, int from, int games) {
+        int won = 0;
+        int timedOut = 0;
+        long bounces = 0;
+        long bricks = 0;
+        int longestRally = 0;
+        long rallies = 0;
+        float[] clearTimes = new float[games];
+        for (int i = from; i < from + games; i++) {
+            Playthrough result = results[i];
+            if (result.isWon()) {
+                clearTimes[won++] = result.getTime();
+            }
+            if (result.isTimedOut()) {
+                timedOut += 1;
+            }
+            bounces += result.getBounces();
+            bricks += result.getBricksDestroyed();
+            longestRally = Math.max(longestRally, result.getLongestRally());
+            rallies += result.getLongestRally();
+        }
+        Arrays.sort(clearTimes, 0, won);
+        System.out.println(String.format(Locale.ROOT,
+                "%5d  %6.1f%%  %10.1f / %-10.1f  %13.2f  %11d / %-9.1f  %9d",
+                level, 100f * won / games, percentile(clearTimes, won, 50),
+                percentile(clearTimes, won, 90), (float)bounces / Math.max(1, bricks),
+                longestRally, (float)rallies / games, timedOut));
+    }
+
+    /** Returns a percentile of the first count sorted values, or 0 if there are none.
+     *
+     */
+    private static float percentile(float[] sorted, int count, int percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        return sorted[Math.min(count - 1, count * percentile / 100)];
+    }
+
+    /** Fork/join task playing a range of games, split in halves until a range is small enough
+     * to play on one thread.  Game i plays level i / gamesPerLevel + 1.
+     */
+    private static class Games extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private Playthrough[] results;
+        private int from;
+        private int to;
+        private int gamesPerLevel;
+        private float skill;
+        private float noise;
+        private long seed;
+
+        Games(Playthrough[] results, int from, int to, int gamesPerLevel, float skill,
+              float noise, long seed) {
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.gamesPerLevel = gamesPerLevel;
+            this.skill = skill;
+            this.noise = noise;
+            this.seed = seed;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GAMES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Games(results, from, middle, gamesPerLevel, skill, noise, seed),
+                        new Games(results, middle, to, gamesPerLevel, skill, noise, seed));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                long gameSeed = seed * 1000003L + i;
+                GameSimulation simulation = new GameSimulation(i / gamesPerLevel + 1, gameSeed);
+                results[i] = Playthrough.play(simulation,
+                        new Autopilot(skill, noise, gameSeed), MAX_STEPS);
+                simulation.dispose();
+            }
+        }
+    }
+}
@@ -3,6 +3,10 @@ package com.skayani.brickbreaker.desktop;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import com.skayani.brickbreaker.BrickBreaker;
+import com.skayani.brickbreaker.sprites.BrickManager;
+import com.skayani.brickbreaker.sprites.PhysicsEngine;
+
+import java.io.File;
 
 public class DesktopLauncher {
 	public static void main (String[] arg) {
@@ -10,6 +14,22 @@ public class DesktopLauncher {
 		config.width = BrickBreaker.WIDTH;
         config.height = BrickBreaker.HEIGHT;
 		config.resizable = false;
-		new LwjglApplication(new BrickBreaker(), config);
+		// "--replay <file>" watches an input recording instead of starting at the menu and
+		// "--physics aabb|box2d" picks the physics backend of new games
+		String replayPath = null;
+		for (int i = 0; i + 1 < arg.length; i += 2) {
+			if ("--replay".equals(arg[i])) {
+				replayPath = new File(arg[i + 1]).getAbsolutePath();
+			}
+			else if ("--physics".equals(arg[i])) {
+				BrickManager.setDefaultPhysics(PhysicsEngine.Type.valueOf(arg[i + 1].toUpperCase()));
+			}
+		}
+		if (replayPath != null) {
+			new LwjglApplication(new BrickBreaker(replayPath), config);
+		}
+		else {
+			new LwjglApplication(new BrickBreaker(), config);
+		}
 	}
 }
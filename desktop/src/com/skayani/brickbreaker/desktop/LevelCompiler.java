@@ -0,0 +1,49 @@
+package com.skayani.brickbreaker.desktop;
+
+import com.skayani.brickbreaker.levels.LevelLoader;
+import com.skayani.brickbreaker.levels.LevelWriter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/** Build-time tool (run by the compileLevels Gradle task) that compiles every JSON level in the
+ * levels directory into the binary format next to it (levels/level1.json to levels/level1.bin),
+ * so the game reads a small fixed-size record per brick instead of parsing text.
+ */
+public class LevelCompiler {
+    /** Compiles the JSON levels into binary levels.
+     *
+     * @param arg Optional assets directory (defaults to the working directory)
+     * @throws IOException if a level file cannot be read or written
+     */
+    public static void main (String[] arg) throws IOException {
+        File assetsDir = new File(arg.length > 0 ? arg[0] : ".");
+        File[] levels = new File(assetsDir, LevelLoader.LEVELS_DIRECTORY).listFiles();
+        if (levels == null) {
+            return;
+        }
+        for (File level : levels) {
+            String name = level.getName();
+            if (!name.endsWith(LevelLoader.JSON_EXTENSION)) {
+                continue;
+            }
+            String baseName = name.substring(0, name.length()
+                    - LevelLoader.JSON_EXTENSION.length());
+            File binary = new File(level.getParentFile(), baseName
+                    + LevelLoader.BINARY_EXTENSION);
+            InputStream input = new FileInputStream(level);
+            OutputStream output = new FileOutputStream(binary);
+            try {
+                LevelLoader.readJson(input, new LevelWriter(output));
+            }
+            finally {
+                input.close();
+                output.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.skayani.brickbreaker.desktop;
+
+import com.skayani.brickbreaker.levels.LevelGenerator;
+import com.skayani.brickbreaker.network.Connection;
+import com.skayani.brickbreaker.network.GameClient;
+import com.skayani.brickbreaker.network.GameServer;
+import com.skayani.brickbreaker.network.LocalConnection;
+import com.skayani.brickbreaker.network.TcpConnection;
+import com.skayani.brickbreaker.network.UdpConnection;
+import com.skayani.brickbreaker.simulation.Autopilot;
+import com.skayani.brickbreaker.simulation.GameSimulation;
+
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.util.Locale;
+
+/** Tool (run by the network Gradle task) that runs a GameServer and its clients in one process
+ * over TCP or UDP on loopback, or over local connections, on generated levels of growing brick
+ * counts.  The first client is the player, steered by the Autopilot; the others spectate.  The
+ * game runs as fast as the CPU allows and the tool prints the snapshot bandwidth per client and
+ * the server tick time per level, which should stay flat as the brick count grows.
+ *
+ * Last, a spectator joins a LATE_JOIN_BRICKS level late in the game, once LATE_JOIN_DESTROYED
+ * bricks are gone, so its full snapshot is far larger than one message and is sent in parts.
+ * The tool prints the size of that snapshot and whether the spectator caught up.  The game is
+ * played with multi-ball and no clients up to then, which still takes a few minutes.
+ */
+public class NetworkLoopback {
+    private static final int[] BRICK_COUNTS = {256, 4096, 65536};
+    // First loopback port; every client of a level gets the next one
+    private static final int PORT = 27960;
+    // Level a spectator joins late, and the bricks destroyed by then
+    private static final int LATE_JOIN_BRICKS = 1048576;
+    private static final int LATE_JOIN_DESTROYED = 600000;
+    // Ticks the late spectator gets to catch up
+    private static final int LATE_JOIN_TICKS = 10;
+
+    /** Runs the games and prints the numbers.
+     *
+     * @param arg Transport (tcp, udp or local) and optional client count (defaults to 4) and
+     *            game seconds per level (defaults to 60)
+     * @throws IOException if a TCP server socket cannot be closed
+     */
+    public static void main (String[] arg) throws IOException {
+        if (arg.length == 0) {
+            System.err.println("Usage: NetworkLoopback <tcp|udp|local> [clients] [seconds]");
+            System.exit(2);
+        }
+        String transport = arg[0];
+        int clientCount = arg.length > 1 ? Integer.parseInt(arg[1]) : 4;
+        float seconds = arg.length > 2 ? Float.parseFloat(arg[2]) : 60;
+        int ticks = (int)(seconds / GameSimulation.STEP_TIME);
+
+        System.out.println(String.format(Locale.ROOT, "%s, %d clients, %.0f s per level",
+                transport, clientCount, seconds));
+        System.out.println("  bricks  destroyed  bytes/snapshot  bytes/s per client  "
+                + "tick mean/max (us)  dropped  in sync");
+        int port = PORT;
+        for (int i = 0; i < BRICK_COUNTS.length; i++) {
+            GameSimulation simulation = new GameSimulation(new LevelGenerator(1,
+                    LevelGenerator.Pattern.GRID, BRICK_COUNTS[i]));
+            GameServer server = new GameServer(simulation);
+            GameClient[] clients = new GameClient[clientCount];
+            for (int c = 0; c < clientCount; c++) {
+                Connection[] connection = connect(transport, port++);
+                server.addClient(connection[0], c == 0);
+                clients[c] = new GameClient(connection[1]);
+            }
+            play(simulation, server, clients, ticks);
+            server.dispose();
+            simulation.dispose();
+        }
+        lateJoin(transport, port);
+    }
+
+    /** Plays a large level until most of it is destroyed, then adds a spectator and prints the
+     * size of its full snapshot and whether it caught up.
+     *
+     */
+    private static void lateJoin(String transport, int port) throws IOException {
+        GameSimulation simulation = new GameSimulation(new LevelGenerator(1,
+                LevelGenerator.Pattern.GRID, LATE_JOIN_BRICKS));
+        simulation.setMultiBall(true);
+        GameServer server = new GameServer(simulation);
+        Autopilot autopilot = new Autopilot(1, 0, 1);
+        while (!simulation.isOver() && destroyedCount(simulation) < LATE_JOIN_DESTROYED) {
+            server.tick(autopilot.input(simulation));
+        }
+
+        Connection[] connection = connect(transport, port);
+        GameServer.Client spectator = server.addClient(connection[0], false);
+        GameClient client = new GameClient(connection[1]);
+        long fullBytes = 0;
+        for (int t = 0; t < LATE_JOIN_TICKS; t++) {
+            client.poll();
+            server.tick(autopilot.input(simulation));
+            if (fullBytes == 0) {
+                fullBytes = spectator.getBytesSent();
+            }
+        }
+        client.poll();
+        boolean inSync = client.getSequence() == server.getSequence()
+                && client.getDestroyedCount() == destroyedCount(simulation);
+        System.out.println(String.format(Locale.ROOT,
+                "late join: %d bricks, %d destroyed, full snapshot %d bytes, in sync %s",
+                simulation.getBrickManager().getBrickStore().size(), destroyedCount(simulation),
+                fullBytes, inSync ? "yes" : "no"));
+        server.dispose();
+        simulation.dispose();
+    }
+
+    /** Returns the number of bricks destroyed so far.
+     *
+     */
+    private static int destroyedCount(GameSimulation simulation) {
+        return simulation.getBrickManager().getBrickStore().size()
+                - simulation.getBrickManager().getRemainingBricks();
+    }
+
+    /** Opens the server and client ends of a connection.
+     *
+     */
+    private static Connection[] connect(String transport, int port) throws IOException {
+        if (transport.equals("tcp")) {
+            ServerSocketChannel listener = TcpConnection.listen(port);
+            Connection client = TcpConnection.connect("localhost", port);
+            Connection server = null;
+            while (server == null) {
+                server = TcpConnection.accept(listener);
+            }
+            listener.close();
+            return new Connection[] {server, client};
+        }
+        else if (transport.equals("udp")) {
+            return new Connection[] {UdpConnection.bind(port),
+                    UdpConnection.connect("localhost", port)};
+        }
+        return LocalConnection.pair();
+    }
+
+    /** Plays one game, polling every client around every tick, and prints its numbers.
+     *
+     */
+    private static void play(GameSimulation simulation, GameServer server, GameClient[] clients,
+                             int ticks) {
+        Autopilot autopilot = new Autopilot(1, 0, 1);
+        for (int t = 0; t < ticks && !simulation.isOver(); t++) {
+            clients[0].setInput(autopilot.input(simulation));
+            for (int c = 0; c < clients.length; c++) {
+                clients[c].poll();
+            }
+            server.tick(0);
+        }
+        for (int c = 0; c < clients.length; c++) {
+            clients[c].poll();
+        }
+
+        long bytes = 0;
+        long snapshots = 0;
+        int dropped = 0;
+        for (int c = 0; c < server.getClients().size; c++) {
+            GameServer.Client client = server.getClients().get(c);
+            bytes += client.getBytesSent();
+            snapshots += client.getSnapshotsSent();
+            dropped += client.getSnapshotsDropped();
+        }
+        int destroyed = destroyedCount(simulation);
+        boolean inSync = true;
+        for (int c = 0; c < clients.length; c++) {
+            inSync &= clients[c].getSequence() == server.getSequence()
+                    && clients[c].getDestroyedCount() == destroyed
+                    && clients[c].getPlayerScore() == simulation.getPlayerScore();
+        }
+        float gameSeconds = simulation.getStepCount() * GameSimulation.STEP_TIME;
+        System.out.println(String.format(Locale.ROOT,
+                "%8d  %9d  %14.1f  %18.0f  %8.1f / %-7.1f  %7d  %7s",
+                simulation.getBrickManager().getBrickStore().size(), destroyed,
+                (float)bytes / Math.max(1, snapshots),
+                bytes / Math.max(1, clients.length) / Math.max(gameSeconds, 1e-3f),
+                server.getAverageTickNanos() / 1e3f, server.getMaxTickNanos() / 1e3f, dropped,
+                inSync ? "yes" : "no"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.skayani.brickbreaker.desktop;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.lwjgl.LwjglFiles;
+import com.skayani.brickbreaker.simulation.GameSimulation;
+import com.skayani.brickbreaker.simulation.InputRecording;
+
+/** Tool (run by the replay Gradle task) that replays an input recording headless as fast as the
+ * CPU allows and prints the result and the simulation speed of every run.  Every run must end
+ * with the same score and step count, so it also checks that the game replays deterministically,
+ * and the recording can be used as a performance regression workload.
+ */
+public class ReplayRunner {
+    /** Replays a recording.
+     *
+     * @param arg Recording file and optional number of runs (defaults to 1)
+     */
+    public static void main (String[] arg) {
+        if (arg.length == 0) {
+            System.err.println("Usage: ReplayRunner <recording> [runs]");
+            System.exit(2);
+        }
+        Gdx.files = new LwjglFiles();
+        InputRecording recording = InputRecording.read(Gdx.files.absolute(arg[0]));
+        int runs = arg.length > 1 ? Integer.parseInt(arg[1]) : 1;
+        System.out.println("Physics backend: " + recording.getPhysics());
+        int firstScore = -1;
+        int firstSteps = -1;
+        for (int run = 0; run < runs; run++) {
+            long start = System.nanoTime();
+            GameSimulation simulation = recording.replay();
+            long nanos = System.nanoTime() - start;
+            simulation.dispose();
+            int steps = simulation.getStepCount();
+            System.out.println("Run " + (run + 1) + ": " + (simulation.isWon() ? "won" : "lost")
+                    + ", score " + simulation.getPlayerScore() + ", " + steps + " steps in "
+                    + nanos / 1000000 + " ms (" + (long)(steps * 1e9 / Math.max(1, nanos))
+                    + " steps/s)");
+            if (run == 0) {
+                firstScore = simulation.getPlayerScore();
+                firstSteps = steps;
+            }
+            else if (simulation.getPlayerScore() != firstScore || steps != firstSteps) {
+                System.err.println("Replay is not deterministic");
+                System.exit(1);
+            }
+        }
+    }
+}
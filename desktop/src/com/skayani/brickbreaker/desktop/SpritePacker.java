@@ -0,0 +1,71 @@
+package com.skayani.brickbreaker.desktop;
+
+import com.badlogic.gdx.tools.texturepacker.TexturePacker;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+/** Build-time tool (run by the packTextures Gradle task) that packs the play field images into
+ * a single texture atlas, so the PlayState can draw every brick, the ball, the player brick and
+ * the pause button from one texture in one batch flush.  Region names are the image paths
+ * without the extension (for example "redball" or "bricks/BlueBrick").
+ */
+public class SpritePacker {
+    // Images packed into the atlas, relative to the assets directory
+    static final String[] SPRITES = {
+            "redball.png",
+            "playerbrick.png",
+            "pause_button.png"
+    };
+    static final String BRICKS_DIRECTORY = "bricks";
+    static final String ATLAS_NAME = "sprites";
+
+    /** Packs the sprites into sprites.atlas and sprites.png.
+     *
+     * @param arg Optional assets directory (defaults to the working directory)
+     * @throws IOException if one of the images cannot be read
+     */
+    public static void main (String[] arg) throws IOException {
+        File assetsDir = new File(arg.length > 0 ? arg[0] : ".");
+
+        TexturePacker.Settings settings = new TexturePacker.Settings();
+        settings.maxWidth = 1024;
+        settings.maxHeight = 1024;
+        settings.paddingX = 2;
+        settings.paddingY = 2;
+        settings.duplicatePadding = true;
+        settings.combineSubdirectories = true;
+        settings.silent = true;
+
+        // The packer appends to an existing atlas, so remove the output of the previous run
+        new File(assetsDir, ATLAS_NAME + ".atlas").delete();
+        new File(assetsDir, ATLAS_NAME + ".png").delete();
+
+        TexturePacker packer = new TexturePacker(settings);
+        for (String sprite : SPRITES) {
+            addImage(packer, assetsDir, sprite);
+        }
+        File[] bricks = new File(assetsDir, BRICKS_DIRECTORY).listFiles();
+        if (bricks != null) {
+            Arrays.sort(bricks);
+            for (File brick : bricks) {
+                if (brick.getName().endsWith(".png")) {
+                    addImage(packer, assetsDir, BRICKS_DIRECTORY + "/" + brick.getName());
+                }
+            }
+        }
+        packer.pack(assetsDir, ATLAS_NAME);
+    }
+
+    /** Adds the image at the given path to the packer, named after the path without extension.
+     *
+     */
+    private static void addImage(TexturePacker packer, File assetsDir, String path)
+            throws IOException {
+        String name = path.substring(0, path.lastIndexOf('.'));
+        packer.addImage(ImageIO.read(new File(assetsDir, path)), name);
+    }
+}